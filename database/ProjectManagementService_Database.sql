@@ -11,9 +11,21 @@ CREATE TABLE IF NOT EXISTS commedit.Project (
   gitHubProjectId INT,
   gitHubProjectHtmlUrl VARCHAR(255),
   name VARCHAR(255) NOT NULL,
+  status VARCHAR(16) NOT NULL DEFAULT 'ready',
+  revision INT NOT NULL DEFAULT 0,
   CONSTRAINT projectPK PRIMARY KEY (id)
 );
 
+--
+-- Table structure for table WidgetConfig.
+-- Contains every distinct widget config of roles once, keyed by its SHA-256 hash.
+--
+CREATE TABLE IF NOT EXISTS commedit.WidgetConfig (
+  hash CHAR(64) NOT NULL,
+  config TEXT NOT NULL,
+  CONSTRAINT widgetConfigPK PRIMARY KEY (hash)
+);
+
 --
 -- Table structure for table Role.
 --
@@ -21,10 +33,11 @@ CREATE TABLE IF NOT EXISTS commedit.Role (
   id INT NOT NULL AUTO_INCREMENT,
   projectId INT NOT NULL,
   name VARCHAR(255) NOT NULL,
-  widgetConfig TEXT NOT NULL,
+  widgetConfigHash CHAR(64) NOT NULL,
   is_default BOOLEAN NOT NULL,
   CONSTRAINT rolePK PRIMARY KEY (id),
-  CONSTRAINT roleProjectFK FOREIGN KEY (projectId) REFERENCES commedit.Project(id) ON DELETE CASCADE
+  CONSTRAINT roleProjectFK FOREIGN KEY (projectId) REFERENCES commedit.Project(id) ON DELETE CASCADE,
+  CONSTRAINT roleWidgetConfigFK FOREIGN KEY (widgetConfigHash) REFERENCES commedit.WidgetConfig(hash)
 );
 
 --
@@ -47,6 +60,7 @@ CREATE TABLE IF NOT EXISTS commedit.ProjectToUser (
   projectId INT NOT NULL,
   userId INT NOT NULL,
   CONSTRAINT projectToUserPK PRIMARY KEY (id),
+  INDEX projectToUserProjectUserIdx (projectId, userId),
   CONSTRAINT projectToUserProjectFK FOREIGN KEY (projectId) REFERENCES commedit.Project(id) ON DELETE CASCADE,
   CONSTRAINT projectToUserUserFK FOREIGN KEY (userId) REFERENCES commedit.User(id) ON DELETE CASCADE
 );
@@ -60,6 +74,7 @@ CREATE TABLE IF NOT EXISTS commedit.UserToRole (
   roleId INT NOT NULL,
   projectToUserId INT NOT NULL,
   CONSTRAINT userToRolePK PRIMARY KEY (id),
+  INDEX userToRoleProjectToUserIdx (projectToUserId),
   CONSTRAINT userToRoleUserFK FOREIGN KEY (userId) REFERENCES commedit.User(id) ON DELETE CASCADE,
   CONSTRAINT userToRoleRoleFK FOREIGN KEY (roleId) REFERENCES commedit.Role(id) ON DELETE CASCADE,
   CONSTRAINT userToRoleProjectToUserFK FOREIGN KEY (projectToUserId) REFERENCES commedit.ProjectToUser(id) ON DELETE CASCADE
@@ -75,7 +90,9 @@ CREATE TABLE IF NOT EXISTS commedit.Component (
   versionedModelId INT NOT NULL,
   reqBazProjectId INT,
   reqBazCategoryId INT,
+  status VARCHAR(16) NOT NULL DEFAULT 'ready',
   CONSTRAINT componentPK PRIMARY KEY (id),
+  INDEX componentVersionedModelIdx (versionedModelId),
   CONSTRAINT componentVersionedModelFK FOREIGN KEY (versionedModelId) REFERENCES commedit.VersionedModel(id) ON DELETE CASCADE
 );
 
@@ -87,6 +104,7 @@ CREATE TABLE IF NOT EXISTS commedit.ProjectToComponent (
   projectId INT NOT NULL,
   componentId INT NOT NULL,
   CONSTRAINT projectToComponentPK PRIMARY KEY (id),
+  INDEX projectToComponentComponentProjectIdx (componentId, projectId),
   CONSTRAINT projectToComponentProjectFK FOREIGN KEY (projectId) REFERENCES commedit.Project(id) ON DELETE CASCADE,
   CONSTRAINT projectToComponentComponentFK FOREIGN KEY (componentId) REFERENCES commedit.Component(id) ON DELETE CASCADE
 );
@@ -125,4 +143,85 @@ CREATE TABLE IF NOT EXISTS commedit.ExternalDependency (
   type VARCHAR(255) NOT NULL,
   CONSTRAINT externalDependencyPK PRIMARY KEY (id),
   CONSTRAINT externalDependencyProjectFK FOREIGN KEY (projectId) REFERENCES commedit.Project(id) ON DELETE CASCADE
-);
\ No newline at end of file
+);
+
+--
+-- Table structure for table ProjectChange.
+-- Append-only change log of the projects, one entry per revision of a project.
+--
+CREATE TABLE IF NOT EXISTS commedit.ProjectChange (
+  id INT NOT NULL AUTO_INCREMENT,
+  projectId INT NOT NULL,
+  revision INT NOT NULL,
+  type VARCHAR(64) NOT NULL,
+  entityId INT NOT NULL,
+  data TEXT,
+  createdAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  CONSTRAINT projectChangePK PRIMARY KEY (id),
+  CONSTRAINT projectChangeProjectRevisionUK UNIQUE (projectId, revision),
+  CONSTRAINT projectChangeProjectFK FOREIGN KEY (projectId) REFERENCES commedit.Project(id) ON DELETE CASCADE
+);
+
+--
+-- Table structure for table Outbox.
+-- Contains the requests to GitHub and the Requirements Bazaar, which are performed
+-- after the transaction storing them got committed. Entries that need the access token
+-- of a user are owned by the node keeping the token, until the token expires.
+--
+CREATE TABLE IF NOT EXISTS commedit.Outbox (
+  id INT NOT NULL AUTO_INCREMENT,
+  task VARCHAR(64) NOT NULL,
+  aggregateId INT NOT NULL,
+  payload TEXT NOT NULL,
+  attempts INT NOT NULL DEFAULT 0,
+  nextAttemptAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  failed BOOLEAN NOT NULL DEFAULT FALSE,
+  lastError TEXT,
+  jobId INT,
+  ownerNode VARCHAR(64),
+  ownerExpiresAt TIMESTAMP NULL,
+  CONSTRAINT outboxPK PRIMARY KEY (id),
+  INDEX outboxDueIdx (failed, nextAttemptAt),
+  INDEX outboxJobIdx (jobId)
+);
+
+--
+-- Table structure for table GitHubProjectPool.
+-- Contains GitHub projects which are created in advance and get used by new projects.
+--
+CREATE TABLE IF NOT EXISTS commedit.GitHubProjectPool (
+  id INT NOT NULL AUTO_INCREMENT,
+  gitHubProjectId INT NOT NULL,
+  gitHubProjectHtmlUrl VARCHAR(255) NOT NULL,
+  ready BOOLEAN NOT NULL DEFAULT FALSE,
+  CONSTRAINT gitHubProjectPoolPK PRIMARY KEY (id)
+);
+
+--
+-- Table structure for table VersionedModelPool.
+-- Contains empty versioned models which are created in advance and get used by new components.
+--
+CREATE TABLE IF NOT EXISTS commedit.VersionedModelPool (
+  versionedModelId INT NOT NULL,
+  claimed BOOLEAN NOT NULL DEFAULT FALSE,
+  CONSTRAINT versionedModelPoolPK PRIMARY KEY (versionedModelId),
+  INDEX versionedModelPoolClaimedIdx (claimed),
+  CONSTRAINT versionedModelPoolVersionedModelFK FOREIGN KEY (versionedModelId) REFERENCES commedit.VersionedModel(id) ON DELETE CASCADE
+);
+
+--
+-- Table structure for table Job.
+-- Contains long running operations (e.g. deleting a project) that get performed in the background.
+--
+CREATE TABLE IF NOT EXISTS commedit.Job (
+  id INT NOT NULL AUTO_INCREMENT,
+  type VARCHAR(64) NOT NULL,
+  targetId INT NOT NULL,
+  userId INT NOT NULL,
+  status VARCHAR(16) NOT NULL,
+  error TEXT,
+  createdAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  updatedAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  CONSTRAINT jobPK PRIMARY KEY (id),
+  CONSTRAINT jobUserFK FOREIGN KEY (userId) REFERENCES commedit.User(id) ON DELETE CASCADE
+);
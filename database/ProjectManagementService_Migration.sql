@@ -0,0 +1,45 @@
+--
+-- Database:  commedit 
+-- Migrates an existing CAE database structure of the project management to the current one.
+-- Run ProjectManagementService_Database.sql first, which creates the tables that got added,
+-- then run this script once. Tables that got created by the current database script already
+-- have the current structure and must not be migrated.
+-- --------------------------------------------------------
+
+--
+-- Indexes for the lookups of members, components using a versioned model and projects containing a component.
+--
+CREATE INDEX projectToUserProjectUserIdx ON commedit.ProjectToUser (projectId, userId);
+CREATE INDEX componentVersionedModelIdx ON commedit.Component (versionedModelId);
+CREATE INDEX projectToComponentComponentProjectIdx ON commedit.ProjectToComponent (componentId, projectId);
+
+--
+-- Status of projects and components, whose creation or deletion is completed by the outbox dispatcher.
+-- Existing projects and components are ready.
+--
+ALTER TABLE commedit.Project ADD COLUMN status VARCHAR(16) NOT NULL DEFAULT 'ready' AFTER name;
+ALTER TABLE commedit.Component ADD COLUMN status VARCHAR(16) NOT NULL DEFAULT 'ready';
+
+--
+-- Widget configs of roles, which are stored only once in the WidgetConfig table and referenced by their hash.
+-- SHA2 hashes the configs in the character set of the column, which (as utf8) matches the UTF-8 based
+-- hashes computed by the service. The WidgetConfig table is created by the database script.
+--
+INSERT IGNORE INTO commedit.WidgetConfig (hash, config)
+  SELECT SHA2(widgetConfig, 256), widgetConfig FROM commedit.Role;
+ALTER TABLE commedit.Role ADD COLUMN widgetConfigHash CHAR(64) AFTER name;
+UPDATE commedit.Role SET widgetConfigHash = SHA2(widgetConfig, 256);
+ALTER TABLE commedit.Role
+  MODIFY widgetConfigHash CHAR(64) NOT NULL,
+  DROP COLUMN widgetConfig,
+  ADD CONSTRAINT roleWidgetConfigFK FOREIGN KEY (widgetConfigHash) REFERENCES commedit.WidgetConfig(hash);
+
+--
+-- Index for loading the roles of the members of a project.
+--
+CREATE INDEX userToRoleProjectToUserIdx ON commedit.UserToRole (projectToUserId);
+
+--
+-- Revision of projects, used for their ETags and change log. Existing projects start at revision 0.
+--
+ALTER TABLE commedit.Project ADD COLUMN revision INT NOT NULL DEFAULT 0 AFTER status;
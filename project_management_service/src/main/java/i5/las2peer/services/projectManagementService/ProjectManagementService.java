@@ -3,15 +3,22 @@ package i5.las2peer.services.projectManagementService;
 import i5.las2peer.restMapper.RESTService;
 import i5.las2peer.restMapper.annotations.ServicePath;
 import i5.las2peer.services.projectManagementService.auth.AuthManager;
+import i5.las2peer.services.projectManagementService.cache.MembershipCache;
+import i5.las2peer.services.projectManagementService.cache.UserCache;
+import i5.las2peer.services.projectManagementService.cache.VersionTagCache;
+import i5.las2peer.services.projectManagementService.cache.WidgetConfigCache;
+import i5.las2peer.services.projectManagementService.component.VersionedModelPool;
+import i5.las2peer.services.projectManagementService.concurrency.BoundedExecutor;
+import i5.las2peer.services.projectManagementService.concurrency.CircuitBreaker;
 import i5.las2peer.services.projectManagementService.database.DatabaseManager;
 import i5.las2peer.services.projectManagementService.github.GitHubHelper;
-import i5.las2peer.services.projectManagementService.project.Project;
+import i5.las2peer.services.projectManagementService.github.GitHubProjectPool;
+import i5.las2peer.services.projectManagementService.outbox.OutboxDispatcher;
+import i5.las2peer.services.projectManagementService.github.GitHubTagCache;
 import i5.las2peer.services.projectManagementService.project.User;
 import i5.las2peer.services.projectManagementService.reqbaz.ReqBazHelper;
 
 import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 
 import i5.las2peer.api.ManualDeployment;
@@ -27,6 +34,11 @@ import i5.las2peer.logging.L2pLogger;
 @ManualDeployment
 public class ProjectManagementService extends RESTService {
 	
+	/**
+	 * Name of the CAE Model Persistence Service, which is the only service allowed to invalidate cached version tags.
+	 */
+	private static final String MODEL_PERSISTENCE_SERVICE_NAME = "i5.las2peer.services.modelPersistenceService.ModelPersistenceService";
+	
 	/*
 	 * Database configuration
 	 */
@@ -49,6 +61,72 @@ public class ProjectManagementService extends RESTService {
     private String gitHubOAuthClientId;
     private String gitHubOAuthClientSecret;
 	
+	/*
+	 * GitHub HTTP client configuration. The base URLs can be changed to use a
+	 * GitHub Enterprise instance, empty values use github.com. Timeouts are given in milliseconds.
+	 */
+	private String gitHubApiBaseUrl;
+	private String gitHubOAuthBaseUrl;
+	private int gitHubConnectTimeout = 5000;
+	private int gitHubRequestTimeout = 10000;
+	
+	/*
+	 * GitHub rate limit configuration. The reserve is the number of requests that are kept
+	 * for user-facing writes (e.g. creating projects), tag lookups only use the budget above it.
+	 * At most a tenth of the rate limit of a budget (e.g. the anonymous one) is reserved.
+	 * The maximum waiting time for a reset of the rate limit is given in milliseconds.
+	 */
+	private int gitHubRateLimitReserve = 100;
+	private int gitHubRateLimitMaxWait = 10000;
+	
+	/*
+	 * Configuration of the executor performing the outbox entries (requests to GitHub and
+	 * the Requirements Bazaar, e.g. when creating or deleting a project).
+	 */
+	private int remoteCallThreads = 8;
+	private int remoteCallQueueSize = 64;
+	private BoundedExecutor remoteCallExecutor;
+	
+	/*
+	 * Configuration of the circuit breakers and bulkheads around the calls to GitHub, the Requirements
+	 * Bazaar and the Model Persistence Service. After the given number of consecutive failures, calls to a
+	 * dependency fail fast for the given time (in milliseconds). A threshold of 0 disables the circuit breakers.
+	 * The maximum number of concurrent GitHub requests also sizes the executor of the asynchronous GitHub requests.
+	 * The Requirements Bazaar timeouts are given in milliseconds.
+	 */
+	private int circuitBreakerFailureThreshold = 5;
+	private int circuitBreakerOpenTime = 30000;
+	private int gitHubMaxConcurrentRequests = 16;
+	private int reqBazMaxConcurrentRequests = 8;
+	private int reqBazConnectTimeout = 5000;
+	private int reqBazRequestTimeout = 10000;
+	private BoundedExecutor gitHubExecutor;
+	private CircuitBreaker modelPersistenceCircuitBreaker;
+	
+	/*
+	 * Outbox configuration. GitHub projects and Requirements Bazaar categories get created
+	 * in the background after the project or component got stored. The poll interval is
+	 * given in milliseconds.
+	 */
+	private int outboxPollInterval = 1000;
+	private int outboxMaxAttempts = 10;
+	
+	/*
+	 * GitHub project pool configuration. GitHub projects are created in advance, so that new
+	 * projects only need to rename one. A size of 0 disables the pool. The refill interval is
+	 * given in seconds.
+	 */
+	private int gitHubProjectPoolSize = 0;
+	private int gitHubProjectPoolRefillInterval = 60;
+	
+	/*
+	 * Versioned model pool configuration. Empty versioned models are created in advance, so that
+	 * new components only need to claim one. A size of 0 disables the pool. The refill interval is
+	 * given in seconds.
+	 */
+	private int versionedModelPoolSize = 0;
+	private int versionedModelPoolRefillInterval = 60;
+	
 	/*
 	 * Requirements Bazaar configuration.
 	 */
@@ -57,6 +135,57 @@ public class ProjectManagementService extends RESTService {
 	// debug variable to turn on/off the creation of requirements bazaar categories
 	private boolean debugDisableCategoryCreation;
 	
+	/*
+	 * Maximum number of items that list endpoints (projects, components, users)
+	 * return per page.
+	 */
+	private int maxPageSize = 100;
+	
+	/*
+	 * Membership cache configuration (used for the commit permission checks).
+	 * A size of 0 disables the cache.
+	 */
+	private int membershipCacheSize = 1000;
+	private int membershipCacheTtl = 60;
+	
+	/*
+	 * User cache configuration (used for identifying the user sending a request).
+	 * A size of 0 disables the cache.
+	 */
+	private int userCacheSize = 1000;
+	private int userCacheTtl = 300;
+	
+	/*
+	 * Configuration of the parallel version lookups used when listing the components of a project.
+	 * The executor only runs the calls to the Model Persistence Service, the GitHub lookups use the
+	 * GitHub executor. The timeout is given in milliseconds.
+	 */
+	private int versionLookupThreads = 8;
+	private int versionLookupQueueSize = 64;
+	private int versionLookupTimeout = 5000;
+	private BoundedExecutor versionLookupExecutor;
+	
+	/*
+	 * Version tag cache configuration (version tags of versioned models).
+	 * A size of 0 disables the cache.
+	 */
+	private int versionTagCacheSize = 1000;
+	private int versionTagCacheTtl = 300;
+	
+	/*
+	 * GitHub tag cache configuration (version tags of the repositories of external dependencies).
+	 * After the time to live, cached tags get revalidated by using conditional requests.
+	 */
+	private int gitHubTagCacheSize = 1000;
+	private int gitHubTagCacheTtl = 300;
+	
+	/*
+	 * Widget config cache configuration. The cache contains the widget configs of roles by their hash.
+	 * Since these never change, the time to live only limits how long unused configs are kept.
+	 */
+	private int widgetConfigCacheSize = 100;
+	private int widgetConfigCacheTtl = 86400;
+	
 	public ProjectManagementService() {
 		// read and set properties values
 		setFieldValues();
@@ -64,17 +193,59 @@ public class ProjectManagementService extends RESTService {
 		// and credentials
 		dbm = new DatabaseManager(jdbcDriverClassName, jdbcLogin, jdbcPass, jdbcUrl, jdbcSchema);
 		
+		remoteCallExecutor = new BoundedExecutor("remote-calls", this.remoteCallThreads, this.remoteCallQueueSize);
+		// separate executor, so that a slow GitHub cannot use up the threads of the remote calls
+		gitHubExecutor = new BoundedExecutor("github", this.gitHubMaxConcurrentRequests, this.remoteCallQueueSize);
+		
 		// setup GitHubHelper
 		GitHubHelper gitHubHelper = GitHubHelper.getInstance();
 		gitHubHelper.setGitHubPersonalAccessToken(this.gitHubPersonalAccessToken);
 		gitHubHelper.setGitHubOrganization(this.gitHubOrganization);
 		gitHubHelper.setOAuthClientId(this.gitHubOAuthClientId);
 		gitHubHelper.setOAuthClientSecret(this.gitHubOAuthClientSecret);
+		gitHubHelper.setBaseUrls(this.gitHubApiBaseUrl, this.gitHubOAuthBaseUrl);
+		gitHubHelper.setTimeouts(this.gitHubConnectTimeout, this.gitHubRequestTimeout);
+		gitHubHelper.setExecutor(gitHubExecutor);
+		gitHubHelper.configureRateLimit(this.gitHubRateLimitReserve, this.gitHubRateLimitMaxWait);
+		gitHubHelper.configureResilience(this.circuitBreakerFailureThreshold, this.circuitBreakerOpenTime,
+				this.gitHubMaxConcurrentRequests);
 		
 		// setup ReqBazHelper
 		ReqBazHelper reqBazHelper = ReqBazHelper.getInstance();
 		reqBazHelper.setReqBazBackendUrl(this.reqBazBackendUrl);
 		reqBazHelper.setReqBazProjectId(this.reqBazProjectId);
+		reqBazHelper.setTimeouts(this.reqBazConnectTimeout, this.reqBazRequestTimeout);
+		reqBazHelper.configureResilience(this.circuitBreakerFailureThreshold, this.circuitBreakerOpenTime,
+				this.reqBazMaxConcurrentRequests);
+		
+		// setup MembershipCache
+		MembershipCache.getInstance().configure(this.membershipCacheSize, this.membershipCacheTtl);
+		
+		// setup UserCache
+		UserCache.getInstance().configure(this.userCacheSize, this.userCacheTtl);
+		
+		// executor used for looking up versions of components in parallel
+		versionLookupExecutor = new BoundedExecutor("version-lookup", this.versionLookupThreads, this.versionLookupQueueSize);
+		modelPersistenceCircuitBreaker = new CircuitBreaker("Model Persistence Service");
+		modelPersistenceCircuitBreaker.configure(this.circuitBreakerFailureThreshold, this.circuitBreakerOpenTime);
+		
+		// setup VersionTagCache
+		VersionTagCache.getInstance().configure(this.versionTagCacheSize, this.versionTagCacheTtl);
+		
+		// setup GitHubTagCache
+		GitHubTagCache.getInstance().configure(this.gitHubTagCacheSize, this.gitHubTagCacheTtl);
+		
+		// setup WidgetConfigCache
+		WidgetConfigCache.getInstance().configure(this.widgetConfigCacheSize, this.widgetConfigCacheTtl);
+		
+		// start performing the outbox entries (GitHub and Requirements Bazaar requests)
+		OutboxDispatcher.getInstance().start(dbm, remoteCallExecutor, this.outboxPollInterval, this.outboxMaxAttempts);
+		
+		// setup GitHubProjectPool
+		GitHubProjectPool.getInstance().start(dbm, this.gitHubProjectPoolSize, this.gitHubProjectPoolRefillInterval);
+		
+		// setup VersionedModelPool
+		VersionedModelPool.getInstance().start(dbm, this.versionedModelPoolSize, this.versionedModelPoolRefillInterval);
 	}
 	
 	@Override
@@ -86,10 +257,57 @@ public class ProjectManagementService extends RESTService {
 		return dbm;
 	}
 	
+	public BoundedExecutor getVersionLookupExecutor() {
+		return versionLookupExecutor;
+	}
+	
+	public int getVersionLookupTimeout() {
+		return this.versionLookupTimeout;
+	}
+	
+	public BoundedExecutor getRemoteCallExecutor() {
+		return remoteCallExecutor;
+	}
+	
+	public BoundedExecutor getGitHubExecutor() {
+		return gitHubExecutor;
+	}
+	
+	public CircuitBreaker getModelPersistenceCircuitBreaker() {
+		return modelPersistenceCircuitBreaker;
+	}
+	
 	public boolean isCategoryCreationDisabled() {
 		return this.debugDisableCategoryCreation;
 	}
 	
+	/**
+	 * Returns the page size that should be used for a list request.
+	 * @param requestedLimit Page size requested by the client (0 or less if none was requested).
+	 * @return The requested page size, but at most the configured maximum page size.
+	 */
+	public int getPageSize(int requestedLimit) {
+		if(requestedLimit <= 0 || requestedLimit > this.maxPageSize) {
+			return this.maxPageSize;
+		}
+		return requestedLimit;
+	}
+	
+	/**
+	 * Returns the page size that should be used for a list request, which was not paginated before.
+	 * Requests giving neither a cursor nor a limit are answered with all items, so that existing
+	 * clients, which do not follow the X-Next-Cursor header, still get complete lists.
+	 * @param cursor Cursor requested by the client, or null if none was requested.
+	 * @param requestedLimit Page size requested by the client, or null if none was requested.
+	 * @return The page size, see {@link #getPageSize(int)}, or Integer.MAX_VALUE for unpaginated requests.
+	 */
+	public int getPageSize(Integer cursor, Integer requestedLimit) {
+		if(cursor == null && requestedLimit == null) {
+			return Integer.MAX_VALUE;
+		}
+		return getPageSize(requestedLimit == null ? 0 : requestedLimit);
+	}
+	
 	/**
 	 * Method used by CAE Model Persistence Service.
 	 * When calling this method, the agent needs to be a real user.
@@ -100,40 +318,14 @@ public class ProjectManagementService extends RESTService {
 		Connection connection = null;
         try {
         	AuthManager authManager = new AuthManager((L2pLogger) this.getLogger(), this.getDbm());
-			User user = authManager.getUser();
-			
 			connection = dbm.getConnection();
+			User user = authManager.getUser(connection);
 			
-			// get project where the versioned model belongs to
+			// check if user is a member of the project where the versioned model belongs to
 			// the versioned model should at least be connected with a component
 			// but maybe if the project got deleted and the component still exists then no
-			// project can be found, thus we need to check if we get a query result
-			PreparedStatement statement = connection
-					.prepareStatement("SELECT Project.* FROM Component, ProjectToComponent, Project " +
-			                          "WHERE Component.versionedModelId = ? AND " +
-							          "ProjectToComponent.componentId = Component.id AND ProjectToComponent.projectId = Project.id;");
-			statement.setInt(1, versionedModelId);
-			
-			ResultSet queryResult = statement.executeQuery();
-			if(!queryResult.next()) {
-				// could not find a project which is connected to the versioned model
-				return false;
-			}
-			
-			int projectId = queryResult.getInt("id");
-			statement.close();
-			
-			// get Project object
-			Project project = new Project(projectId, connection);
-			
-			// check if user is a member of the project
-			if(project.hasUser(user.getId(), connection)) {
-				// user is a member of the project where the versioned model belongs to
-				return true;
-			} else {
-				// user is no member of the project where the versioned model belongs to
-				return false;
-			}
+			// project can be found, then the user is no member either
+			return MembershipCache.getInstance().hasUserByVersionedModel(versionedModelId, user.getId(), connection);
         } catch (Exception e) {
         	return false;
         } finally {
@@ -145,6 +337,24 @@ public class ProjectManagementService extends RESTService {
         }
 	}
 	
+	/**
+	 * Method used by CAE Model Persistence Service.
+	 * Needs to be called after the version tags of a versioned model have changed, i.e. after
+	 * a commit got tagged, so that the cached version tags of the versioned model are not used anymore.
+	 * The Model Persistence Service needs to call this method with its own agent (i.e. by using
+	 * Context.invokeInternally), calls by any other agent are rejected. Otherwise anyone could keep
+	 * the cache empty.
+	 * @param versionedModelId Id of the versioned model whose version tags have changed.
+	 * @return Whether the cached version tags got invalidated. False, if the calling agent is not the
+	 * agent of the Model Persistence Service.
+	 */
+	public boolean invalidateVersionTags(int versionedModelId) {
+		AuthManager authManager = new AuthManager((L2pLogger) this.getLogger(), this.getDbm());
+		if(!authManager.isServiceAgent(MODEL_PERSISTENCE_SERVICE_NAME)) return false;
+		VersionTagCache.getInstance().invalidate(versionedModelId);
+		return true;
+	}
+	
 	/**
 	 * Method used by CAE Model Persistence Service
 	 * @return Whether the user calling the method is anonymous or not.
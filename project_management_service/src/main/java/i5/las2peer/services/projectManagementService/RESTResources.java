@@ -5,15 +5,23 @@ import java.net.HttpURLConnection;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
@@ -22,21 +30,36 @@ import i5.las2peer.api.ServiceException;
 import i5.las2peer.api.logging.MonitoringEvent;
 import i5.las2peer.logging.L2pLogger;
 import i5.las2peer.services.projectManagementService.auth.AuthManager;
+import i5.las2peer.services.projectManagementService.cache.MembershipCache;
+import i5.las2peer.services.projectManagementService.cache.UserCache;
+import i5.las2peer.services.projectManagementService.cache.VersionTagCache;
+import i5.las2peer.services.projectManagementService.cache.WidgetConfigCache;
 import i5.las2peer.services.projectManagementService.component.Component;
 import i5.las2peer.services.projectManagementService.component.Dependency;
 import i5.las2peer.services.projectManagementService.component.ExternalDependency;
+import i5.las2peer.services.projectManagementService.component.VersionedModelPool;
+import i5.las2peer.services.projectManagementService.concurrency.CircuitBreaker;
 import i5.las2peer.services.projectManagementService.database.DatabaseManager;
+import i5.las2peer.services.projectManagementService.database.Page;
 import i5.las2peer.services.projectManagementService.exception.GitHubException;
 import i5.las2peer.services.projectManagementService.exception.InvitationNotFoundException;
+import i5.las2peer.services.projectManagementService.exception.JobNotFoundException;
 import i5.las2peer.services.projectManagementService.exception.ProjectNotFoundException;
-import i5.las2peer.services.projectManagementService.exception.ReqBazException;
 import i5.las2peer.services.projectManagementService.exception.RoleNotFoundException;
 import i5.las2peer.services.projectManagementService.exception.UserNotFoundException;
 import i5.las2peer.services.projectManagementService.github.GitHubHelper;
+import i5.las2peer.services.projectManagementService.github.GitHubProject;
+import i5.las2peer.services.projectManagementService.github.GitHubProjectPool;
+import i5.las2peer.services.projectManagementService.github.GitHubTagCache;
+import i5.las2peer.services.projectManagementService.job.Job;
+import i5.las2peer.services.projectManagementService.outbox.OutboxDispatcher;
 import i5.las2peer.services.projectManagementService.project.Project;
+import i5.las2peer.services.projectManagementService.project.ProjectChange;
 import i5.las2peer.services.projectManagementService.project.ProjectInvitation;
 import i5.las2peer.services.projectManagementService.project.Role;
 import i5.las2peer.services.projectManagementService.project.User;
+import i5.las2peer.services.projectManagementService.project.WidgetPermissions;
+import i5.las2peer.services.projectManagementService.reqbaz.ReqBazHelper;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
@@ -75,6 +98,16 @@ import org.json.simple.parser.ParseException;
 public class RESTResources {
 	
 	private static final String MODEL_PERSISTENCE_SERVICE = "i5.las2peer.services.modelPersistenceService.ModelPersistenceService@0.1";
+	/**
+	 * Name of the response header containing the cursor for the next page of a list.
+	 */
+	private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+	private static final String ETAG_HEADER = "ETag";
+	private static final String EXPOSE_HEADERS_HEADER = "Access-Control-Expose-Headers";
+	/**
+	 * Response headers that may be read by browsers, which send cross-origin requests (e.g. the CAE frontend).
+	 */
+	private static final String EXPOSED_HEADERS = NEXT_CURSOR_HEADER + ", " + ETAG_HEADER;
 	private final ProjectManagementService service = (ProjectManagementService) Context.getCurrent().getService();
 	private L2pLogger logger;
 	private DatabaseManager dbm;
@@ -113,12 +146,12 @@ public class RESTResources {
 		} else {
 			Connection connection = null;
             try {
-				User user = authManager.getUser();
+            	connection = dbm.getConnection();
+				User user = authManager.getUser(connection);
 				
 				Project project = new Project(user, inputProject);
 				
 				// check if a project with the given name already exists
-			    connection = dbm.getConnection();
 			    try {
 				    Project searchResult = new Project(project.getName(), connection);
 				    // no ProjectNotFoundException thrown, so project already exists
@@ -131,13 +164,9 @@ public class RESTResources {
 			    		String accessToken = (String) json.get("access_token");
 			    		
 			    		// persist method also stores users of the project (only the creator for now) etc.
+				    	// the GitHub project gets created afterwards, and the creator gets access to it then
 				    	project.persist(connection, accessToken);
 				    	
-				    	// if user has stored a GitHub username, then grant access to the GitHub project
-				    	if(user.getGitHubUsername() != null) {
-				    	    GitHubHelper.getInstance().grantUserAccessToProject(user.getGitHubUsername(), project.getGitHubProject());
-				    	}
-				    	
 						return Response.status(HttpURLConnection.HTTP_CREATED).entity(project.toJSONObject().toJSONString()).build();
 			    	} else {
 			    		logger.printStackTrace(e);
@@ -151,14 +180,6 @@ public class RESTResources {
 			} catch (ParseException e) {
 				logger.printStackTrace(e);
 				return Response.status(HttpURLConnection.HTTP_BAD_REQUEST).build();
-			} catch (GitHubException e) {
-				logger.printStackTrace(e);
-				return Response.serverError()
-						.entity("Internal server error: An error occurred while creating the connected GitHub project.").build();
-			} catch (ReqBazException e) {
-				logger.printStackTrace(e);
-				return Response.serverError()
-						.entity("Internal server error: An error occurred while creating the Requirements Bazaar category for the application component.").build();
 			} finally {
 				try {
 					if(connection != null) connection.close();
@@ -176,40 +197,60 @@ public class RESTResources {
 	 * 1. If the user sending the request is anonymous, then all projects are returned.
 	 * 2. If the user sending the request is not anonymous, then the projects by the
 	 * user / the projects where the user is a member of are returned.
+	 * The projects are returned page by page, ordered by their id. If there exists a next page,
+	 * then its cursor is contained in the X-Next-Cursor header of the response. If neither a cursor
+	 * nor a limit is given, then all projects are returned (as before the pagination got added).
+	 * The response contains an ETag, which changes as soon as the page or one of its projects changes.
+	 * If it is sent in the If-None-Match header, then 304 is returned without loading the projects, as
+	 * long as nothing changed.
+	 * @param cursor Cursor returned with the previous page (0 or none for the first page).
+	 * @param limit Maximum number of projects to return (at most the configured maximum page size).
+	 * @param ifNoneMatch ETag of the page that the client already has, or null.
 	 * @return Response containing the status code (and a message or project list).
 	 */
 	@GET
 	@Path("/projects")
 	@Consumes(MediaType.APPLICATION_JSON)
-	@ApiOperation(value = "When sending anonymous: Returns all projects. Otherwise searches for projects that the user is part of.")
+	@ApiOperation(value = "When sending anonymous: Returns all projects. Otherwise searches for projects that the user is part of. "
+			+ "The result is paginated if a cursor or limit is given, the cursor of the next page is returned in the X-Next-Cursor header.")
 	@ApiResponses(value = {
 			@ApiResponse(code = HttpURLConnection.HTTP_OK, message = "OK, list of users projects is returned."),
+			@ApiResponse(code = HttpURLConnection.HTTP_NOT_MODIFIED, message = "The page did not change since the given ETag."),
 			@ApiResponse(code = HttpURLConnection.HTTP_INTERNAL_ERROR, message = "Internal server error.")
 	})
-	public Response getProjectsByUser() {
+	public Response getProjectsByUser(@QueryParam("cursor") Integer cursor,
+			@QueryParam("limit") Integer limit, @HeaderParam("If-None-Match") String ifNoneMatch) {
 		Context.get().monitorEvent(MonitoringEvent.SERVICE_MESSAGE, "getProjectsByUser: searching for projects");
 		
 		Connection connection = null;
 		try {
 			connection = dbm.getConnection();
 			
-			ArrayList<Project> projects;
+			Page<Project> projects;
+			String etag;
+			int pageSize = service.getPageSize(cursor, limit);
+			int afterId = cursor == null ? 0 : cursor;
 			
 			if(authManager.isAnonymous()) {
 				// load all projects from database
 				// when searching for projects with empty name, then every project should be found
 				// because it gets searched for name LIKE "%%"
-				projects = Project.searchProjects("", connection);
+				etag = Project.searchProjectsETag("", afterId, pageSize, connection);
+				if(matchesETag(ifNoneMatch, etag)) return notModified(etag);
+				projects = Project.searchProjects("", afterId, pageSize, connection);
 			} else {
 				// first get current user from database
             	// the id of the user will be needed later
-            	User user = authManager.getUser();
+            	User user = authManager.getUser(connection);
             	
             	// get all projects where the user is part of
-            	projects = Project.getProjectsByUser(user.getId(), connection);
+            	etag = Project.getProjectsByUserETag(user.getId(), afterId, pageSize, connection);
+            	if(matchesETag(ifNoneMatch, etag)) return notModified(etag);
+            	projects = Project.getProjectsByUser(user.getId(), afterId, pageSize, connection);
 			}
 			// return JSONArray as string
-        	return Response.ok(Project.projectListToJSONArray(projects).toJSONString()).build();
+			// the ETag got determined before loading the projects, so it can only be older than them
+        	return pageResponse(Project.projectListToJSONArray(projects.getItems()), projects, etag);
 		} catch (SQLException e) {
         	logger.printStackTrace(e);
         	return Response.serverError().entity("Internal server error.").build();
@@ -228,8 +269,11 @@ public class RESTResources {
 	 * Therefore, the user sending the request needs to be a member 
 	 * of the project and an access token is needed for accessing the 
 	 * Requirements Bazaar API.
+	 * In the asynchronous mode, the project gets deleted in the background. Then, the response only contains
+	 * the job performing the deletion, whose status can be requested by using its id.
 	 * @param projectId Id of the project which should be removed.
-	 * @return Response with status code (and possibly error message).
+	 * @param async Whether the project should be deleted in the background.
+	 * @return Response with status code (and possibly error message or the job deleting the project).
 	 */
 	@DELETE
 	@Path("/projects/{projectId}")
@@ -237,13 +281,15 @@ public class RESTResources {
 	@ApiOperation(value = "Deletes the project from the database.")
 	@ApiResponses(value = {
 			@ApiResponse(code = HttpURLConnection.HTTP_NO_CONTENT, message = "Successfully deleted project."),
+			@ApiResponse(code = HttpURLConnection.HTTP_ACCEPTED, message = "Project gets deleted in the background, returns the job."),
 			@ApiResponse(code = HttpURLConnection.HTTP_UNAUTHORIZED, message = "User is not authorized."),
 			@ApiResponse(code = HttpURLConnection.HTTP_FORBIDDEN, message = "User needs to be member of the project to delete it."),
 			@ApiResponse(code = HttpURLConnection.HTTP_NOT_FOUND, message = "Could not find project with the given id."),
 			@ApiResponse(code = HttpURLConnection.HTTP_BAD_REQUEST, message = "Access token is missing."),
 			@ApiResponse(code = HttpURLConnection.HTTP_INTERNAL_ERROR, message = "Internal server error.")
 	})
-	public Response deleteProject(@PathParam("projectId") int projectId, String body) {
+	public Response deleteProject(@PathParam("projectId") int projectId,
+			@QueryParam("async") @DefaultValue("false") boolean async, String body) {
 		Context.get().monitorEvent(MonitoringEvent.SERVICE_MESSAGE, "deleteProject: deleting project with id " + projectId);
 		
 		if(authManager.isAnonymous()) {
@@ -254,7 +300,7 @@ public class RESTResources {
 			try {
 			    connection = dbm.getConnection();
 						    
-				User user = authManager.getUser();
+				User user = authManager.getUser(connection);
 						    
 			    // get project by id (load it from database)
 				Project project = new Project(projectId, connection);
@@ -266,6 +312,13 @@ public class RESTResources {
 			    		return Response.status(HttpURLConnection.HTTP_BAD_REQUEST).entity("Access token missing.").build();
 			    	}
 			    	String accessToken = (String) json.get("access_token");
+			    	if(async) {
+			    		// delete the project in the background
+			    		Job job = project.scheduleDelete(user.getId(), accessToken, connection);
+			    		return Response.status(HttpURLConnection.HTTP_ACCEPTED)
+			    				.header("Location", "jobs/" + job.getId())
+			    				.entity(job.toJSONObject().toJSONString()).build();
+			    	}
 					// delete the project
 					project.delete(connection, accessToken);
 					return Response.status(HttpURLConnection.HTTP_NO_CONTENT).build();
@@ -280,12 +333,6 @@ public class RESTResources {
 			} catch (SQLException e) {
 	        	logger.printStackTrace(e);
 	        	return Response.serverError().entity("Internal server error.").build();
-	        } catch (GitHubException e) {
-	        	logger.printStackTrace(e);
-	        	return Response.serverError().entity("Internal server error: Problem with GitHub.").build();
-			} catch (ReqBazException e) {
-				logger.printStackTrace(e);
-	        	return Response.serverError().entity("Internal server error: Problem with Requirements Bazaar.").build();
 			} finally {
 				try {
 					if(connection != null) connection.close();
@@ -298,10 +345,63 @@ public class RESTResources {
 		
 	}
 	
+	/**
+	 * Returns the status of the job with the given id (e.g. of an asynchronous project deletion).
+	 * Only the user who started the job is allowed to request its status.
+	 * @param jobId Id of the job.
+	 * @return Response with status code (and the job or an error description).
+	 */
+	@GET
+	@Path("/jobs/{jobId}")
+	@Produces(MediaType.APPLICATION_JSON)
+	@ApiOperation(value = "Returns the status of the job with the given id.")
+	@ApiResponses(value = {
+			@ApiResponse(code = HttpURLConnection.HTTP_OK, message = "OK, returns the job."),
+			@ApiResponse(code = HttpURLConnection.HTTP_UNAUTHORIZED, message = "User not authorized."),
+			@ApiResponse(code = HttpURLConnection.HTTP_FORBIDDEN, message = "Job was started by another user."),
+			@ApiResponse(code = HttpURLConnection.HTTP_NOT_FOUND, message = "Job with the given id could not be found."),
+			@ApiResponse(code = HttpURLConnection.HTTP_INTERNAL_ERROR, message = "Internal server error.")
+	})
+	public Response getJob(@PathParam("jobId") int jobId) {
+		Context.get().monitorEvent(MonitoringEvent.SERVICE_MESSAGE, "getJob: job with id " + jobId);
+		
+		if(authManager.isAnonymous()) {
+			return Response.status(HttpURLConnection.HTTP_UNAUTHORIZED).build();
+		} else {
+			Connection connection = null;
+			try {
+				connection = dbm.getConnection();
+				
+				User user = authManager.getUser(connection);
+				Job job = new Job(jobId, connection);
+				if(job.getUserId() != user.getId()) {
+					return Response.status(HttpURLConnection.HTTP_FORBIDDEN)
+							.entity("Job was started by another user.").build();
+				}
+				return Response.ok(job.toJSONObject().toJSONString()).build();
+			} catch (JobNotFoundException e) {
+				return Response.status(HttpURLConnection.HTTP_NOT_FOUND)
+						.entity("Job with the given id could not be found.").build();
+			} catch (SQLException e) {
+				logger.printStackTrace(e);
+				return Response.serverError().entity("Internal server error.").build();
+			} finally {
+				try {
+					if(connection != null) connection.close();
+				} catch (SQLException e) {
+					logger.printStackTrace(e);
+				}
+			}
+		}
+	}
+	
 	/**
 	 * Searches for a project with the given id in the database.
 	 * Therefore, no authorization is needed.
+	 * The response contains the ETag of the project. If it is sent in the If-None-Match header, then 304 is
+	 * returned without loading the project, as long as the project did not change.
 	 * @param projectId Project id to search for.
+	 * @param ifNoneMatch ETag of the project that the client already has, or null.
 	 * @return Response containing the status code (and a message or project).
 	 */
 	@GET
@@ -310,21 +410,29 @@ public class RESTResources {
 	@ApiOperation(value = "Searches for a project with the given id in the database.")
 	@ApiResponses(value = {
 			@ApiResponse(code = HttpURLConnection.HTTP_OK, message="Found project with the given id."),
+			@ApiResponse(code = HttpURLConnection.HTTP_NOT_MODIFIED, message="The project did not change since the given ETag."),
 			@ApiResponse(code = HttpURLConnection.HTTP_NOT_FOUND, message="Could not find project with given id."),
 			@ApiResponse(code = HttpURLConnection.HTTP_INTERNAL_ERROR, message = "Internal server error.")
 	})
-	public Response getProjectById(@PathParam("projectId") int projectId) {
+	public Response getProjectById(@PathParam("projectId") int projectId, @HeaderParam("If-None-Match") String ifNoneMatch) {
 		Context.get().monitorEvent(MonitoringEvent.SERVICE_MESSAGE, "getProject: searching project with id " + projectId);
 		
 		Connection connection = null;
 		try {
 			connection = dbm.getConnection();
 			
+			// answer conditional requests without loading the project
+			if(ifNoneMatch != null) {
+				String etag = Project.getETag(projectId, connection);
+				if(matchesETag(ifNoneMatch, etag)) return notModified(etag);
+			}
+			
 			// search for project
 			Project project = new Project(projectId, connection);
 			
 			// return JSONArray as string
-        	return Response.ok(project.toJSONObject().toJSONString()).build();
+        	return Response.ok(project.toJSONObject().toJSONString()).header(ETAG_HEADER, project.getETag())
+        			.header(EXPOSE_HEADERS_HEADER, EXPOSED_HEADERS).build();
 		} catch (ProjectNotFoundException e) {
 			return Response.status(HttpURLConnection.HTTP_NOT_FOUND).build();
 		} catch (SQLException e) {
@@ -332,9 +440,76 @@ public class RESTResources {
 			return Response.serverError().entity("Internal server error.").build();
 		} finally {
 			try {
-			    connection.close();
+			    if(connection != null) connection.close();
+			} catch (SQLException e) {
+				logger.printStackTrace(e);
+			}
+		}
+	}
+	
+	/**
+	 * Returns the changes of the project with the given id after the given revision, ordered by their revision.
+	 * The revision of a project is contained in its JSON representation. Thus, clients only need to load the
+	 * changes after it instead of the whole project again.
+	 * The changes are returned page by page. If there exist more changes, then the revision to continue with
+	 * is contained in the X-Next-Cursor header of the response.
+	 * Therefore, the user sending the request needs to be a member of the project.
+	 * @param projectId Id of the project.
+	 * @param since Revision of the project that the client already has.
+	 * @param limit Maximum number of changes to return (at most the configured maximum page size).
+	 * @return Response containing the status code (and a message or the list of changes).
+	 */
+	@GET
+	@Path("/projects/{projectId}/changes")
+	@Produces(MediaType.APPLICATION_JSON)
+	@ApiOperation(value = "Returns the changes of the project after the given revision. "
+			+ "The result is paginated, the revision to continue with is returned in the X-Next-Cursor header.")
+	@ApiResponses(value = {
+			@ApiResponse(code = HttpURLConnection.HTTP_OK, message = "OK, returning the changes."),
+			@ApiResponse(code = HttpURLConnection.HTTP_UNAUTHORIZED, message = "User not authorized."),
+			@ApiResponse(code = HttpURLConnection.HTTP_FORBIDDEN, message = "User is not a member of the project."),
+			@ApiResponse(code = HttpURLConnection.HTTP_NOT_FOUND, message = "Project with the given id could not be found."),
+			@ApiResponse(code = HttpURLConnection.HTTP_INTERNAL_ERROR, message = "Internal server error.")
+	})
+	@SuppressWarnings("unchecked")
+	public Response getProjectChanges(@PathParam("projectId") int projectId, @QueryParam("since") @DefaultValue("0") int since,
+			@QueryParam("limit") @DefaultValue("0") int limit) {
+		Context.get().monitorEvent(MonitoringEvent.SERVICE_MESSAGE, "getProjectChanges: project with id " + projectId + " since revision " + since);
+		
+		if(authManager.isAnonymous()) {
+			return Response.status(HttpURLConnection.HTTP_UNAUTHORIZED).build();
+		} else {
+			Connection connection = null;
+			try {
+				connection = dbm.getConnection();
+				
+				User user = authManager.getUser(connection);
+				
+				// check the membership without loading the project
+				if(Role.getByUser(projectId, user.getId(), connection) == null) {
+					if(!Project.exists(projectId, connection)) {
+						return Response.status(HttpURLConnection.HTTP_NOT_FOUND)
+								.entity("Project with the given id could not be found.").build();
+					}
+					return Response.status(HttpURLConnection.HTTP_FORBIDDEN)
+							.entity("User is not a member of the project.").build();
+				}
+				
+				Page<ProjectChange> changes = ProjectChange.getChanges(projectId, since, service.getPageSize(limit), connection);
+				JSONArray jsonChanges = new JSONArray();
+				for(ProjectChange change : changes.getItems()) {
+					jsonChanges.add(change.toJSONObject());
+				}
+				return pageResponse(jsonChanges, changes);
 			} catch (SQLException e) {
 				logger.printStackTrace(e);
+				return Response.serverError().entity("Internal server error.").build();
+			} finally {
+				try {
+					if(connection != null) connection.close();
+				} catch (SQLException e) {
+					logger.printStackTrace(e);
+				}
 			}
 		}
 	}
@@ -369,7 +544,7 @@ public class RESTResources {
 			    connection = dbm.getConnection();
 			    
 			    // get user sending the request
-			    User user = authManager.getUser();
+			    User user = authManager.getUser(connection);
 			    
 			    // get project by id (load it from database)
 			    Project project = new Project(projectId, connection);
@@ -385,8 +560,11 @@ public class RESTResources {
 		    	    	ProjectInvitation.delete(projectId, user.getId(), connection);
 		    	    	
 		    	    	// grant user access to GitHub project if user has stored a GitHub username
-		    	    	if(user.getGitHubUsername() != null) {
-		    	    		GitHubHelper.getInstance().grantUserAccessToProject(user.getGitHubUsername(), project.getGitHubProject());
+		    	    	// (if the GitHub project is not created yet, then all members get access when it is created)
+		    	    	// the GitHub project is loaded again, since it may have been stored after the project got loaded
+		    	    	GitHubProject gitHubProject = Project.getGitHubProject(projectId, connection);
+		    	    	if(user.getGitHubUsername() != null && gitHubProject != null) {
+		    	    		GitHubHelper.getInstance().grantUserAccessToProject(user.getGitHubUsername(), gitHubProject);
 		    	    	}
 		    	    	
 		    	        return Response.ok().build();
@@ -451,7 +629,7 @@ public class RESTResources {
 			try {
 			    connection = dbm.getConnection();
 			    
-			    User user = authManager.getUser();
+			    User user = authManager.getUser(connection);
 			    
 			    // get project by id (load it from database)
 			    Project project = new Project(projectId, connection);
@@ -491,6 +669,126 @@ public class RESTResources {
 		}
 	}
 	
+	/**
+	 * Returns the role (including its widget config) of the user sending the request in the project with the given id.
+	 * Only the role of the user gets loaded, not the whole project. Thus, this should be used instead of requesting
+	 * the whole project, if only the role of the current user is needed (e.g. when starting the editor).
+	 * @param projectId Id of the project.
+	 * @return Response with status code (and the role or an error description).
+	 */
+	@GET
+	@Path("/projects/{projectId}/users/me/role")
+	@Produces(MediaType.APPLICATION_JSON)
+	@ApiOperation(value = "Returns the role (incl. widget config) of the user sending the request in the project.")
+	@ApiResponses(value = {
+			@ApiResponse(code = HttpURLConnection.HTTP_OK, message = "OK, returns the role."),
+			@ApiResponse(code = HttpURLConnection.HTTP_UNAUTHORIZED, message = "User not authorized."),
+			@ApiResponse(code = HttpURLConnection.HTTP_FORBIDDEN, message = "User is not member of the project."),
+			@ApiResponse(code = HttpURLConnection.HTTP_NOT_FOUND, message = "Project with the given id could not be found."),
+			@ApiResponse(code = HttpURLConnection.HTTP_INTERNAL_ERROR, message = "Internal server error.")
+	})
+	public Response getOwnRole(@PathParam("projectId") int projectId) {
+		Context.get().monitorEvent(MonitoringEvent.SERVICE_MESSAGE, "getOwnRole: project with id " + projectId);
+		
+		if(authManager.isAnonymous()) {
+			return Response.status(HttpURLConnection.HTTP_UNAUTHORIZED).build();
+		} else {
+			Connection connection = null;
+			try {
+				connection = dbm.getConnection();
+				
+				User user = authManager.getUser(connection);
+				
+				// only load the role of the user, not the whole project
+				Role role = Role.getByUser(projectId, user.getId(), connection);
+				if(role == null) {
+					if(!Project.exists(projectId, connection)) {
+						return Response.status(HttpURLConnection.HTTP_NOT_FOUND)
+								.entity("Project with the given id could not be found.").build();
+					}
+					return Response.status(HttpURLConnection.HTTP_FORBIDDEN)
+							.entity("User is not a member of the project.").build();
+				}
+				
+				return Response.ok(role.toJSONObject().toJSONString()).build();
+			} catch (SQLException e) {
+				logger.printStackTrace(e);
+				return Response.serverError().entity("Internal server error.").build();
+			} finally {
+				try {
+					if(connection != null) connection.close();
+				} catch (SQLException e) {
+					logger.printStackTrace(e);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Returns the permissions of the user sending the request in the project with the given id, i.e. the
+	 * widgets that are enabled by the role of the user. The permissions are returned as a bitset, where the
+	 * position of every widget is given by the "widgets" list of the response. Thus, clients can check them
+	 * by a bit test instead of parsing the widget config.
+	 * @param projectId Id of the project.
+	 * @return Response with status code (and the permissions or an error description).
+	 */
+	@GET
+	@Path("/projects/{projectId}/users/me/permissions")
+	@Produces(MediaType.APPLICATION_JSON)
+	@ApiOperation(value = "Returns the permissions (enabled widgets) of the user sending the request in the project.")
+	@ApiResponses(value = {
+			@ApiResponse(code = HttpURLConnection.HTTP_OK, message = "OK, returns the permissions."),
+			@ApiResponse(code = HttpURLConnection.HTTP_UNAUTHORIZED, message = "User not authorized."),
+			@ApiResponse(code = HttpURLConnection.HTTP_FORBIDDEN, message = "User is not member of the project."),
+			@ApiResponse(code = HttpURLConnection.HTTP_NOT_FOUND, message = "Project with the given id could not be found."),
+			@ApiResponse(code = HttpURLConnection.HTTP_INTERNAL_ERROR, message = "Internal server error.")
+	})
+	@SuppressWarnings("unchecked")
+	public Response getOwnPermissions(@PathParam("projectId") int projectId) {
+		Context.get().monitorEvent(MonitoringEvent.SERVICE_MESSAGE, "getOwnPermissions: project with id " + projectId);
+		
+		if(authManager.isAnonymous()) {
+			return Response.status(HttpURLConnection.HTTP_UNAUTHORIZED).build();
+		} else {
+			Connection connection = null;
+			try {
+				connection = dbm.getConnection();
+				
+				User user = authManager.getUser(connection);
+				
+				// only load the role of the user, not the whole project
+				Role role = Role.getByUser(projectId, user.getId(), connection);
+				if(role == null) {
+					if(!Project.exists(projectId, connection)) {
+						return Response.status(HttpURLConnection.HTTP_NOT_FOUND)
+								.entity("Project with the given id could not be found.").build();
+					}
+					return Response.status(HttpURLConnection.HTTP_FORBIDDEN)
+							.entity("User is not a member of the project.").build();
+				}
+				
+				JSONObject jsonPermissions = new JSONObject();
+				jsonPermissions.put("projectId", projectId);
+				jsonPermissions.put("roleId", role.getId());
+				jsonPermissions.put("permissions", role.getPermissions());
+				jsonPermissions.put("enabledWidgets", WidgetPermissions.toJSONArray(role.getPermissions()));
+				JSONArray jsonWidgets = new JSONArray();
+				jsonWidgets.addAll(WidgetPermissions.WIDGETS);
+				jsonPermissions.put("widgets", jsonWidgets);
+				return Response.ok(jsonPermissions.toJSONString()).build();
+			} catch (SQLException e) {
+				logger.printStackTrace(e);
+				return Response.serverError().entity("Internal server error.").build();
+			} finally {
+				try {
+					if(connection != null) connection.close();
+				} catch (SQLException e) {
+					logger.printStackTrace(e);
+				}
+			}
+		}
+	}
+	
 	/**
 	 * Edits the role of a user in a project.
 	 * @param projectId Id of the project where the role of the user should be edited.
@@ -519,7 +817,7 @@ public class RESTResources {
 			try {
 			    connection = dbm.getConnection();
 			    
-			    User user = authManager.getUser();
+			    User user = authManager.getUser(connection);
 			    
 			    // get project by id (load it from database)
 			    Project project = new Project(projectId, connection);
@@ -590,7 +888,7 @@ public class RESTResources {
 			try {
 			    connection = dbm.getConnection();
 			    
-			    User user = authManager.getUser();
+			    User user = authManager.getUser(connection);
 			    
 			    // get project by id (load it from database)
 			    Project project = new Project(projectId, connection);
@@ -673,7 +971,7 @@ public class RESTResources {
 			try {
 			    connection = dbm.getConnection();
 			    
-			    User user = authManager.getUser();
+			    User user = authManager.getUser(connection);
 			    
 			    // get project by id (load it from database)
 			    Project project = new Project(projectId, connection);
@@ -745,7 +1043,7 @@ public class RESTResources {
 			    connection = dbm.getConnection();
 			    
 			    // get user
-			    User user = authManager.getUser();
+			    User user = authManager.getUser(connection);
 			    
 			    // get project by id (load it from database)
 			    Project project = new Project(projectId, connection);
@@ -811,7 +1109,7 @@ public class RESTResources {
 			try {
 			    connection = dbm.getConnection();
 									    
-				User user = authManager.getUser();
+				User user = authManager.getUser(connection);
 									    
 				// get project by id (load it from database)
 			    Project project = new Project(projectId, connection);
@@ -848,10 +1146,6 @@ public class RESTResources {
             } catch (ParseException e) {
 				logger.printStackTrace(e);
 				return Response.status(HttpURLConnection.HTTP_BAD_REQUEST).entity("Parse error.").build();
-			} catch (ReqBazException e) {
-				logger.printStackTrace(e);
-				return Response.serverError()
-						.entity("Internal server error: Could not create Requirements Bazaar category for component.").build();
 			} finally {
 				try {
 					if(connection != null) connection.close();
@@ -886,6 +1180,27 @@ public class RESTResources {
 			// load project by id
 			Project project = new Project(projectId, connection);
 			
+			// the connection is not needed anymore, so give it back before waiting for the version lookups
+			connection.close();
+			connection = null;
+			
+			// start looking up the versions of all components, dependencies and external dependencies in parallel
+			// each versioned model and GitHub repository only gets looked up once
+			Context context = Context.getCurrent();
+			HashMap<Integer, CompletableFuture<ArrayList<String>>> modelVersions = new HashMap<>();
+			for(Component component : project.getComponents()) {
+				modelVersions.computeIfAbsent(component.getVersionedModelId(), id -> lookupVersionsOfVersionedModel(context, id));
+			}
+			for(Dependency dependency : project.getDependencies()) {
+				modelVersions.computeIfAbsent(dependency.getComponent().getVersionedModelId(), id -> lookupVersionsOfVersionedModel(context, id));
+			}
+			HashMap<String, CompletableFuture<ArrayList<String>>> repoVersions = new HashMap<>();
+			for(ExternalDependency externalDependency : project.getExternalDependencies()) {
+				String repoOwner = externalDependency.getGitHubRepoOwner();
+				String repoName = externalDependency.getGitHubRepoName();
+				repoVersions.computeIfAbsent(repoOwner + "/" + repoName, key -> lookupRepoVersionTags(repoOwner, repoName));
+			}
+			
 			JSONObject result = new JSONObject();
 			
 			// get components of the project
@@ -894,10 +1209,8 @@ public class RESTResources {
 			for(Component component : components) {
 				JSONObject jsonComponent = component.toJSONObject();
 				
-				// also get version tags that are available for this component
-				Serializable[] params = {component.getVersionedModelId()};
-				ArrayList<String> versions = (ArrayList<String>) Context.getCurrent().invoke(MODEL_PERSISTENCE_SERVICE, "getVersionsOfVersionedModel", params);
-			    jsonComponent.put("versions", versions);
+				// also add version tags that are available for this component
+			    jsonComponent.put("versions", modelVersions.get(component.getVersionedModelId()).join());
 				
 				jsonComponents.add(jsonComponent);
 			}
@@ -910,10 +1223,8 @@ public class RESTResources {
 				JSONObject jsonDependency = dependency.toJSONObject();
 				JSONObject jsonComponent = (JSONObject) jsonDependency.get("component");
 				
-				// also get version tags that are available for the component of this dependency
-				Serializable[] params = {dependency.getComponent().getVersionedModelId()};
-				ArrayList<String> versions = (ArrayList<String>) Context.getCurrent().invoke(MODEL_PERSISTENCE_SERVICE, "getVersionsOfVersionedModel", params);
-				jsonComponent.put("versions", versions);
+				// also add version tags that are available for the component of this dependency
+				jsonComponent.put("versions", modelVersions.get(dependency.getComponent().getVersionedModelId()).join());
 				jsonDependency.put("component", jsonComponent);
 				
 				jsonDependencies.add(jsonDependency);
@@ -926,11 +1237,9 @@ public class RESTResources {
 			for(ExternalDependency externalDependency : externalDependencies) {
 				JSONObject jsonExtDependency = externalDependency.toJSONObject();
 				
-				// get version tags from GitHub API
-				ArrayList<String> versions = GitHubHelper.getInstance()
-						.getRepoVersionTags(externalDependency.getGitHubRepoOwner(), externalDependency.getGitHubRepoName());
-				
-				jsonExtDependency.put("versions", versions);
+				// add version tags from GitHub API
+				String repo = externalDependency.getGitHubRepoOwner() + "/" + externalDependency.getGitHubRepoName();
+				jsonExtDependency.put("versions", repoVersions.get(repo).join());
 				
 				jsonExternalDependencies.add(jsonExtDependency);
 			}
@@ -950,7 +1259,7 @@ public class RESTResources {
 			return Response.serverError().entity("Internal server error.").build();
 		}  finally {
 			try {
-			    connection.close();
+			    if(connection != null) connection.close();
 			} catch (SQLException e) {
 				logger.printStackTrace(e);
 			}
@@ -993,7 +1302,7 @@ public class RESTResources {
 			try {
 			    connection = dbm.getConnection();
 			    
-			    User user = authManager.getUser();
+			    User user = authManager.getUser(connection);
 			    
 			    // get project by id (load it from database)
 			    Project project = new Project(projectId, connection);
@@ -1028,9 +1337,6 @@ public class RESTResources {
             	return Response.serverError().entity("Internal server error.").build();
             } catch (ParseException e) {
             	logger.printStackTrace(e);
-            	return Response.serverError().entity("Internal server error.").build();
-			} catch (ReqBazException e) {
-				logger.printStackTrace(e);
             	return Response.serverError().entity("Internal server error.").build();
 			} finally {
 				try {
@@ -1072,7 +1378,7 @@ public class RESTResources {
 			try {
 			    connection = dbm.getConnection();
 									    
-				User user = authManager.getUser();
+				User user = authManager.getUser(connection);
 									    
 				// get project by id (load it from database)
 			    Project project = new Project(projectId, connection);
@@ -1149,7 +1455,7 @@ public class RESTResources {
 			try {
 			    connection = dbm.getConnection();
 			    
-			    User user = authManager.getUser();
+			    User user = authManager.getUser(connection);
 			    
 			    // get project by id (load it from database)
 			    Project project = new Project(projectId, connection);
@@ -1216,7 +1522,7 @@ public class RESTResources {
 			try {
 			    connection = dbm.getConnection();
 									    
-				User user = authManager.getUser();
+				User user = authManager.getUser(connection);
 									    
 				// get project by id (load it from database)
 			    Project project = new Project(projectId, connection);
@@ -1294,7 +1600,7 @@ public class RESTResources {
 			try {
 			    connection = dbm.getConnection();
 			    
-			    User user = authManager.getUser();
+			    User user = authManager.getUser(connection);
 			    
 			    // get project by id (load it from database)
 			    Project project = new Project(projectId, connection);
@@ -1363,7 +1669,7 @@ public class RESTResources {
 			    connection = dbm.getConnection();
 			
 			    // get user sending the request
-				User user = authManager.getUser();
+				User user = authManager.getUser(connection);
 				
 				// get project, where a user should be invited to
 				Project project = new Project(projectId, connection);
@@ -1456,7 +1762,7 @@ public class RESTResources {
 			    connection = dbm.getConnection();
 			    
 			    // get user
-			    User user = authManager.getUser();
+			    User user = authManager.getUser(connection);
 			    
 			    // load invitations by userId
 			    JSONArray invitations = ProjectInvitation.loadInvitationsByUser(user.getId(), connection);
@@ -1504,7 +1810,7 @@ public class RESTResources {
 			    connection = dbm.getConnection();
 			    
 			    // get user
-			    User user = authManager.getUser();
+			    User user = authManager.getUser(connection);
 			    
 			    // check if the invitation belong to the user
 			    // try to load the invitation
@@ -1544,33 +1850,41 @@ public class RESTResources {
 	
 	/**
 	 * Searches for all components that exist in the database.
+	 * The components are returned page by page, ordered by their id. If there exists a next page,
+	 * then its cursor is contained in the X-Next-Cursor header of the response. If neither a cursor
+	 * nor a limit is given, then all components are returned (as before the pagination got added).
+	 * @param cursor Cursor returned with the previous page (0 or none for the first page).
+	 * @param limit Maximum number of components to return (at most the configured maximum page size).
 	 * @return Response with status code and possibly error message. If no error occurs, then a list of components is returned.
 	 */
 	@GET
 	@Path("/components")
 	@Produces(MediaType.APPLICATION_JSON)
-	@ApiOperation(value = "Returns a list of all components that exist in the database.")
+	@ApiOperation(value = "Returns a list of all components that exist in the database. "
+			+ "The result is paginated if a cursor or limit is given, the cursor of the next page is returned in the X-Next-Cursor header.")
 	@ApiResponses(value = {
 			@ApiResponse(code = HttpURLConnection.HTTP_OK, message = "OK, returning list of all components."),
 			@ApiResponse(code = HttpURLConnection.HTTP_INTERNAL_ERROR, message = "Internal server error.")
 	})
-	public Response getAllComponents() {
+	public Response getAllComponents(@QueryParam("cursor") Integer cursor,
+			@QueryParam("limit") Integer limit) {
         Context.get().monitorEvent(MonitoringEvent.SERVICE_MESSAGE, "getAllComponents called");
      
         Connection connection = null;
 	    try {
 		    connection = dbm.getConnection();
 		    
-		    // load list of all components from the database
-		    ArrayList<Component> allComponents = Component.getAllComponents(connection);
+		    // load page of all components from the database
+		    Page<Component> allComponents = Component.getAllComponents(cursor == null ? 0 : cursor,
+		    		service.getPageSize(cursor, limit), connection);
 		    
 		    // convert to JSONArray
 		    JSONArray a = new JSONArray();
-		    for(Component c : allComponents) {
+		    for(Component c : allComponents.getItems()) {
 		    	a.add(c.toJSONObject());
 		    }
 		    // return as JSON string
-		    return Response.ok(a.toJSONString()).build();
+		    return pageResponse(a, allComponents);
 	    } catch (SQLException e) {
         	logger.printStackTrace(e);
         	return Response.serverError().entity("Internal server error.").build();
@@ -1621,7 +1935,7 @@ public class RESTResources {
 				    	connection = dbm.getConnection();
 				    	
 						// get user
-					    User user = authManager.getUser();
+					    User user = authManager.getUser(connection);
 				        user.putGitHubAccessToken(accessToken, connection);
 				        
 				        String jsonUserStr = GitHubHelper.getInstance().getGitHubUsername(accessToken);
@@ -1696,31 +2010,39 @@ public class RESTResources {
 	
 	/**
 	 * Searches for users where the username is like the given username.
+	 * The users are returned page by page, ordered by their id. If there exists a next page,
+	 * then its cursor is contained in the X-Next-Cursor header of the response. If neither a cursor
+	 * nor a limit is given, then all users that were found are returned (as before the pagination got added).
 	 * @param username Username to search for.
+	 * @param cursor Cursor returned with the previous page (0 or none for the first page).
+	 * @param limit Maximum number of users to return (at most the configured maximum page size).
 	 * @return Response with status code (and possibly error message).
 	 */
 	@GET
 	@Path("/users/{username}")
-	@ApiOperation(value = "Searches for users where the username is like the given username.")
+	@ApiOperation(value = "Searches for users where the username is like the given username. "
+			+ "The result is paginated if a cursor or limit is given, the cursor of the next page is returned in the X-Next-Cursor header.")
 	@ApiResponses(value = {
 			@ApiResponse(code = HttpURLConnection.HTTP_OK, message = "OK, returning list of users that were found."),
 			@ApiResponse(code = HttpURLConnection.HTTP_INTERNAL_ERROR, message = "Internal server error.")
 	})
-	public Response searchUsers(@PathParam("username") String username) {
+	public Response searchUsers(@PathParam("username") String username, @QueryParam("cursor") Integer cursor,
+			@QueryParam("limit") Integer limit) {
 		Context.get().monitorEvent(MonitoringEvent.SERVICE_MESSAGE, "searchUsers: searching for users with a username like " + username);
 		
 		Connection connection = null;
 	    try {
 		    connection = dbm.getConnection();
 		    
-		    ArrayList<User> users = User.searchUsers(username, connection);
+		    Page<User> users = User.searchUsers(username, cursor == null ? 0 : cursor,
+		    		service.getPageSize(cursor, limit), connection);
 		    
 		    JSONArray jsonUsers = new JSONArray();
 		    // only add the usernames
-		    for(User user : users) {
+		    for(User user : users.getItems()) {
 		    	jsonUsers.add(user.getLoginName());
 		    }
-		    return Response.ok(jsonUsers.toJSONString()).build();
+		    return pageResponse(jsonUsers, users);
 	    } catch (SQLException e) {
         	logger.printStackTrace(e);
         	return Response.serverError().entity("Internal server error.").build();
@@ -1734,4 +2056,188 @@ public class RESTResources {
 		}
 		
 	}
+	
+	/**
+	 * Starts looking up the version tags of the versioned model with the given id by calling the
+	 * Model Persistence Service. Version tags that are cached already are returned directly, successfully
+	 * looked up ones get cached.
+	 * If the lookup fails or does not finish in time, then the future completes with an empty list.
+	 * @param context Context of the request, needed to invoke the Model Persistence Service from another thread.
+	 * @param versionedModelId Id of the versioned model.
+	 * @return Future that completes with the version tags of the versioned model.
+	 */
+	@SuppressWarnings("unchecked")
+	private CompletableFuture<ArrayList<String>> lookupVersionsOfVersionedModel(Context context, int versionedModelId) {
+		ArrayList<String> cachedVersions = VersionTagCache.getInstance().get(versionedModelId);
+		if(cachedVersions != null) return CompletableFuture.completedFuture(cachedVersions);
+		
+		// fail fast while the Model Persistence Service is unavailable
+		CircuitBreaker circuitBreaker = service.getModelPersistenceCircuitBreaker();
+		if(!circuitBreaker.allowRequest()) return CompletableFuture.completedFuture(new ArrayList<>());
+		
+		long generation = VersionTagCache.getInstance().getGeneration();
+		return withFallback(service.getVersionLookupExecutor().submit(() -> {
+			try {
+				Serializable[] params = {versionedModelId};
+				ArrayList<String> versions = (ArrayList<String>) context.invoke(MODEL_PERSISTENCE_SERVICE, "getVersionsOfVersionedModel", params);
+				if(versions != null) VersionTagCache.getInstance().put(versionedModelId, versions, generation);
+				return versions;
+			} catch (Exception e) {
+				throw new CompletionException(e);
+			}
+		}), "versioned model " + versionedModelId, circuitBreaker);
+	}
+	
+	/**
+	 * Starts looking up the version tags of the given GitHub repository (by using the GitHubTagCache).
+	 * If the lookup fails or does not finish in time, then the future completes with an empty list.
+	 * @param repoOwner Owner/account on GitHub where the repository is hosted.
+	 * @param repoName Name of the GitHub repository.
+	 * @return Future that completes with the version tags of the repository.
+	 */
+	private CompletableFuture<ArrayList<String>> lookupRepoVersionTags(String repoOwner, String repoName) {
+		return withFallback(service.getGitHubExecutor().submit(() -> {
+			try {
+				return GitHubTagCache.getInstance().getRepoVersionTags(repoOwner, repoName);
+			} catch (GitHubException e) {
+				throw new CompletionException(e);
+			}
+		}), "GitHub repository " + repoOwner + "/" + repoName);
+	}
+	
+	/**
+	 * Applies the version lookup timeout to the given future and replaces failures with an empty
+	 * list of versions, so that one failing lookup does not fail the whole request.
+	 * @param lookup Future of the version lookup.
+	 * @param description Description of what gets looked up, used for logging.
+	 * @return Future that always completes with a list of versions.
+	 */
+	private CompletableFuture<ArrayList<String>> withFallback(CompletableFuture<ArrayList<String>> lookup, String description) {
+		return withFallback(lookup, description, null);
+	}
+	
+	/**
+	 * Applies the version lookup timeout to the given future, reports the outcome (including timeouts)
+	 * to the given circuit breaker and replaces failures with an empty list of versions.
+	 * @param lookup Future of the version lookup.
+	 * @param description Description of what gets looked up, used for logging.
+	 * @param circuitBreaker Circuit breaker of the looked up dependency, or null.
+	 * @return Future that always completes with a list of versions.
+	 */
+	private CompletableFuture<ArrayList<String>> withFallback(CompletableFuture<ArrayList<String>> lookup, String description,
+			CircuitBreaker circuitBreaker) {
+		return lookup.orTimeout(service.getVersionLookupTimeout(), TimeUnit.MILLISECONDS)
+				.whenComplete((versions, e) -> {
+					if(circuitBreaker == null) return;
+					// a saturated executor is no failure of the dependency
+					if(e == null) {
+						circuitBreaker.recordSuccess();
+					} else if(!(e instanceof RejectedExecutionException) && !(e.getCause() instanceof RejectedExecutionException)) {
+						circuitBreaker.recordFailure();
+					}
+				})
+				.exceptionally(e -> {
+					logger.warning("Could not look up versions of " + description + ": " + e);
+					return new ArrayList<>();
+				});
+	}
+	
+	/**
+	 * Returns statistics of the caches used by the service, e.g. hits and misses,
+	 * so that their sizes can be adjusted. Only available for authenticated users, since the
+	 * statistics reveal internals of the service (e.g. which dependencies are down).
+	 * @return Response containing the statistics as JSON object.
+	 */
+	@GET
+	@Path("/statistics")
+	@Produces(MediaType.APPLICATION_JSON)
+	@ApiOperation(value = "Returns statistics of the caches used by the service.")
+	@ApiResponses(value = {
+			@ApiResponse(code = HttpURLConnection.HTTP_OK, message = "OK, returning statistics."),
+			@ApiResponse(code = HttpURLConnection.HTTP_UNAUTHORIZED, message = "User not authorized.")
+	})
+	@SuppressWarnings("unchecked")
+	public Response getStatistics() {
+		Context.get().monitorEvent(MonitoringEvent.SERVICE_MESSAGE, "getStatistics called");
+		
+		if(authManager.isAnonymous()) {
+			return Response.status(HttpURLConnection.HTTP_UNAUTHORIZED).entity("User not authorized.").build();
+		}
+		
+		JSONObject statistics = new JSONObject();
+		statistics.put("membershipCache", MembershipCache.getInstance().getStatistics());
+		statistics.put("userCache", UserCache.getInstance().getStatistics());
+		statistics.put("versionTagCache", VersionTagCache.getInstance().getStatistics());
+		statistics.put("gitHubTagCache", GitHubTagCache.getInstance().getStatistics());
+		statistics.put("widgetConfigCache", WidgetConfigCache.getInstance().getStatistics());
+		statistics.put("versionLookupExecutor", service.getVersionLookupExecutor().getStatistics());
+		statistics.put("remoteCallExecutor", service.getRemoteCallExecutor().getStatistics());
+		statistics.put("gitHubExecutor", service.getGitHubExecutor().getStatistics());
+		statistics.put("gitHubResilience", GitHubHelper.getInstance().getResilienceStatistics());
+		statistics.put("reqBazResilience", ReqBazHelper.getInstance().getResilienceStatistics());
+		statistics.put("modelPersistenceCircuitBreaker", service.getModelPersistenceCircuitBreaker().getStatistics());
+		statistics.put("gitHubRateLimit", GitHubHelper.getInstance().getRateLimitStatistics());
+		statistics.put("outbox", OutboxDispatcher.getInstance().getStatistics());
+		statistics.put("gitHubProjectPool", GitHubProjectPool.getInstance().getStatistics());
+		statistics.put("versionedModelPool", VersionedModelPool.getInstance().getStatistics());
+		return Response.ok(statistics.toJSONString()).build();
+	}
+	
+	/**
+	 * Creates an OK response containing the given JSONArray (as string) which contains the items of the given page.
+	 * If there exists a next page, then its cursor is added as X-Next-Cursor header.
+	 * The X-Next-Cursor and ETag headers are exposed to cross-origin requests.
+	 * @param jsonItems JSONArray containing the items of the page.
+	 * @param page Page that was loaded from the database.
+	 * @return Response with status code 200.
+	 */
+	private Response pageResponse(JSONArray jsonItems, Page<?> page) {
+		return pageResponse(jsonItems, page, null);
+	}
+	
+	/**
+	 * Creates an OK response containing the given page, see {@link #pageResponse(JSONArray, Page)}.
+	 * @param jsonItems JSONArray containing the items of the page.
+	 * @param page Page that was loaded from the database.
+	 * @param etag ETag of the page, which is added as ETag header (if not null).
+	 * @return Response with status code 200.
+	 */
+	private Response pageResponse(JSONArray jsonItems, Page<?> page, String etag) {
+		Response.ResponseBuilder response = Response.ok(jsonItems.toJSONString())
+				.header(EXPOSE_HEADERS_HEADER, EXPOSED_HEADERS);
+		if(page.hasNext()) {
+			response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+		}
+		if(etag != null) {
+			response.header(ETAG_HEADER, etag);
+		}
+		return response.build();
+	}
+	
+	/**
+	 * Checks whether the given If-None-Match header matches the given ETag.
+	 * @param ifNoneMatch Value of the If-None-Match header (may contain multiple ETags), or null.
+	 * @param etag Current ETag of the resource.
+	 * @return Whether the client already has the current version of the resource.
+	 */
+	private static boolean matchesETag(String ifNoneMatch, String etag) {
+		if(ifNoneMatch == null) return false;
+		for(String tag : ifNoneMatch.split(",")) {
+			tag = tag.trim();
+			// If-None-Match uses the weak comparison
+			if(tag.startsWith("W/")) tag = tag.substring(2);
+			if(tag.equals("*") || tag.equals(etag)) return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Creates the response to a conditional request for a resource that did not change.
+	 * @param etag Current ETag of the resource.
+	 * @return Response with status code 304.
+	 */
+	private static Response notModified(String etag) {
+		return Response.status(HttpURLConnection.HTTP_NOT_MODIFIED).header(ETAG_HEADER, etag)
+				.header(EXPOSE_HEADERS_HEADER, EXPOSED_HEADERS).build();
+	}
 }
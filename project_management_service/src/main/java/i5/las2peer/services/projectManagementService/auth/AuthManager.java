@@ -6,8 +6,10 @@ import java.sql.SQLException;
 import i5.las2peer.api.Context;
 import i5.las2peer.api.security.Agent;
 import i5.las2peer.api.security.AnonymousAgent;
+import i5.las2peer.api.security.ServiceAgent;
 import i5.las2peer.api.security.UserAgent;
 import i5.las2peer.logging.L2pLogger;
+import i5.las2peer.services.projectManagementService.cache.UserCache;
 import i5.las2peer.services.projectManagementService.database.DatabaseManager;
 import i5.las2peer.services.projectManagementService.exception.UserNotFoundException;
 import i5.las2peer.services.projectManagementService.project.User;
@@ -32,47 +34,90 @@ public class AuthManager {
 		return agent instanceof AnonymousAgent;
 	}
 	
+	/**
+	 * Checks whether the current request was sent by the agent of the service with the given name
+	 * (in any version), i.e. the service invoked this one on its own behalf instead of a user's.
+	 * @param serviceName Name of the service, i.e. its fully qualified class name.
+	 * @return Whether the main agent is the agent of the given service.
+	 */
+	public boolean isServiceAgent(String serviceName) {
+		Agent agent = Context.getCurrent().getMainAgent();
+		return agent instanceof ServiceAgent
+				&& serviceName.equals(((ServiceAgent) agent).getServiceNameVersion().getName());
+	}
+	
+	/**
+	 * Returns the User object to the current active user.
+	 * Should only be used if no connection was taken from the pool yet, otherwise
+	 * {@link #getUser(Connection)} should be used, so that the request does not need
+	 * a second connection. A connection is only taken from the pool, if the user is not cached.
+	 * @return User object.
+	 * @throws SQLException If something went wrong with the database.
+	 */
+	public User getUser() throws SQLException {
+		User user = UserCache.getInstance().get(getEmail());
+	    if(user != null) return user;
+	    
+		Connection connection = null;
+		try {
+			connection = dbm.getConnection();
+			return getUser(connection);
+		} finally {
+			try {
+				if(connection != null) connection.close();
+			} catch (SQLException e) {
+				logger.printStackTrace(e);
+			}
+		}
+	}
+	
 	/**
 	 * Returns the User object to the current active user.
 	 * When the user is already registered, i.e. can be found in the database,
 	 * then the already registered user is returned.
 	 * Otherwise, when the user is not registered yet, the user gets stored
 	 * into the database.
+	 * Users that were resolved before are taken from the UserCache, so that no
+	 * database access is needed for them.
+	 * @param connection Connection of the current request, only used if the user is not cached.
 	 * @return User object.
 	 * @throws SQLException If something went wrong with the database.
 	 */
-	public User getUser() throws SQLException {
-        Agent agent = Context.getCurrent().getMainAgent();
-		
-		UserAgent userAgent = (UserAgent) agent;
-	    String email = userAgent.getEmail();
-	    String loginName = userAgent.getLoginName();
+	public User getUser(Connection connection) throws SQLException {
+	    String email = getEmail();
+	    
+	    User user = UserCache.getInstance().get(email);
+	    if(user != null) return user;
 		
-		User user = null;
-		Connection connection = null;
+		long generation = UserCache.getInstance().getGeneration();
 		try {
-			connection = dbm.getConnection();
 			// check if user is registered, i.e. exists in the database
 			// when there does not exist a user with the given email, a 
 			// UserNotFoundException gets thrown
 			user = new User(email, connection);
 			// no UserNotFoundException was thrown
-			return user;
 		} catch (UserNotFoundException e) {
 			// user does not exist in the database
 			// register user
-			user = new User(email, loginName);
+			UserAgent userAgent = (UserAgent) Context.getCurrent().getMainAgent();
+			user = new User(email, userAgent.getLoginName());
 			
 			// store user object to database
 			user.persist(connection);
-			return user;
-		} finally {
-			try {
-			    connection.close();
-			} catch (SQLException e) {
-				logger.printStackTrace(e);
-			}
 		}
+		
+		UserCache.getInstance().put(user, generation);
+		return user;
+	}
+	
+	/**
+	 * Returns the email of the current active user.
+	 * @return Email of the user agent.
+	 */
+	private String getEmail() {
+        Agent agent = Context.getCurrent().getMainAgent();
+		UserAgent userAgent = (UserAgent) agent;
+	    return userAgent.getEmail();
 	}
 	
 }
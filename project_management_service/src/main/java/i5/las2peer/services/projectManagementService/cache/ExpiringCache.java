@@ -0,0 +1,193 @@
+package i5.las2peer.services.projectManagementService.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.json.simple.JSONObject;
+
+/**
+ * Thread-safe in-memory cache with a maximum number of entries and a time to live per entry.
+ * When the cache is full, the least recently used entry gets evicted.
+ * Hits and misses get counted, so that the size of the cache can be adjusted.
+ * A cache with a maximum size of 0 is disabled, i.e. it never stores anything.
+ *
+ * @param <K> Type of the keys.
+ * @param <V> Type of the values.
+ */
+public class ExpiringCache<K, V> {
+
+	private final int maxSize;
+	private final long ttlMillis;
+	private final LinkedHashMap<K, Entry<V>> entries;
+
+	private long hits = 0;
+	private long misses = 0;
+	private long evictions = 0;
+
+	/**
+	 * Gets increased on every invalidation. Used to prevent that values which got loaded
+	 * before an invalidation of their key are stored into the cache afterwards.
+	 */
+	private long generation = 0;
+
+	/**
+	 * Generation of the last invalidation per key, so that an invalidation only rejects values of its own key.
+	 * Contains at most as many keys as the cache. When the oldest key gets dropped, its generation
+	 * is used for all keys (see {@link #invalidatedAllAt}), which only rejects values loaded before it.
+	 */
+	private final LinkedHashMap<K, Long> invalidatedAt;
+
+	/**
+	 * Generation of the last invalidation of all keys.
+	 */
+	private long invalidatedAllAt = 0;
+
+	/**
+	 * Creates a new cache.
+	 * @param maxSize Maximum number of entries (0 disables the cache).
+	 * @param ttlMillis Time in milliseconds after which an entry expires.
+	 */
+	public ExpiringCache(int maxSize, long ttlMillis) {
+		this.maxSize = Math.max(maxSize, 0);
+		this.ttlMillis = ttlMillis;
+		// access order is used, so that the eldest entry is the least recently used one
+		this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+				if(size() > ExpiringCache.this.maxSize) {
+					evictions++;
+					return true;
+				}
+				return false;
+			}
+		};
+		this.invalidatedAt = new LinkedHashMap<K, Long>() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, Long> eldest) {
+				if(size() > ExpiringCache.this.maxSize) {
+					invalidatedAllAt = Math.max(invalidatedAllAt, eldest.getValue());
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	public boolean isEnabled() {
+		return this.maxSize > 0;
+	}
+
+	/**
+	 * Returns the cached value for the given key.
+	 * @param key Key to search for.
+	 * @return Cached value or null, if the cache does not contain a (non-expired) value for the key.
+	 */
+	public synchronized V get(K key) {
+		Entry<V> entry = this.entries.get(key);
+		if(entry == null) {
+			this.misses++;
+			return null;
+		}
+		if(entry.isExpired()) {
+			this.entries.remove(key);
+			this.misses++;
+			return null;
+		}
+		this.hits++;
+		return entry.value;
+	}
+
+	/**
+	 * Returns the current generation of the cache. Should be called before loading a value
+	 * that gets stored by using {@link #put(Object, Object, long)}.
+	 * @return Current generation of the cache.
+	 */
+	public synchronized long getGeneration() {
+		return this.generation;
+	}
+
+	/**
+	 * Stores the given value into the cache.
+	 * @param key Key of the value.
+	 * @param value Value to store.
+	 */
+	public synchronized void put(K key, V value) {
+		if(!isEnabled()) return;
+		this.entries.put(key, new Entry<>(value, System.currentTimeMillis() + this.ttlMillis));
+	}
+
+	/**
+	 * Stores the given value into the cache, if its key was not invalidated since the given generation.
+	 * Invalidations of other keys do not prevent storing the value.
+	 * @param key Key of the value.
+	 * @param value Value to store.
+	 * @param generation Generation of the cache before the value was loaded.
+	 * @return Whether the value got stored.
+	 */
+	public synchronized boolean put(K key, V value, long generation) {
+		if(generation < this.invalidatedAllAt) return false;
+		Long keyInvalidatedAt = this.invalidatedAt.get(key);
+		if(keyInvalidatedAt != null && generation < keyInvalidatedAt) return false;
+		put(key, value);
+		return true;
+	}
+
+	/**
+	 * Removes the value with the given key from the cache.
+	 * @param key Key of the value that should be removed.
+	 */
+	public synchronized void invalidate(K key) {
+		this.generation++;
+		// re-insert, so that the key becomes the newest one
+		this.invalidatedAt.remove(key);
+		this.invalidatedAt.put(key, this.generation);
+		this.entries.remove(key);
+	}
+
+	/**
+	 * Removes all values from the cache.
+	 */
+	public synchronized void invalidateAll() {
+		this.generation++;
+		this.invalidatedAllAt = this.generation;
+		this.invalidatedAt.clear();
+		this.entries.clear();
+	}
+
+	/**
+	 * Creates a JSON object containing the statistics of the cache.
+	 * @return JSONObject containing size, maximum size, hits, misses and evictions.
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized JSONObject getStatistics() {
+		JSONObject statistics = new JSONObject();
+		statistics.put("size", this.entries.size());
+		statistics.put("maxSize", this.maxSize);
+		statistics.put("hits", this.hits);
+		statistics.put("misses", this.misses);
+		statistics.put("evictions", this.evictions);
+		return statistics;
+	}
+
+	/**
+	 * Cached value together with the time when it expires.
+	 */
+	private static class Entry<V> {
+		private final V value;
+		private final long expiresAt;
+
+		private Entry(V value, long expiresAt) {
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+
+		private boolean isExpired() {
+			return System.currentTimeMillis() >= this.expiresAt;
+		}
+	}
+
+}
@@ -0,0 +1,113 @@
+package i5.las2peer.services.projectManagementService.cache;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Set;
+
+import org.json.simple.JSONObject;
+
+import i5.las2peer.services.projectManagementService.project.Project;
+
+/**
+ * Caches which project a versioned model belongs to and which users are members of a project.
+ * Gets used by the commit permission checks of the Model Persistence Service, which are
+ * called very often during collaborative modeling.
+ * Entries expire after the configured time to live and get invalidated whenever the members
+ * or components of a project change.
+ */
+public class MembershipCache {
+
+	private static MembershipCache instance;
+
+	/**
+	 * Gets cached for versioned models which do not belong to any project.
+	 */
+	private static final int NO_PROJECT = -1;
+
+	private volatile ExpiringCache<Integer, Integer> projectIdByVersionedModel = new ExpiringCache<>(0, 0);
+	private volatile ExpiringCache<Integer, Set<Integer>> userIdsByProject = new ExpiringCache<>(0, 0);
+
+	// make sure that constructor cannot be accessed from outside
+	private MembershipCache() {}
+
+	public static synchronized MembershipCache getInstance() {
+		if(MembershipCache.instance == null) {
+			MembershipCache.instance = new MembershipCache();
+		}
+		return MembershipCache.instance;
+	}
+
+	/**
+	 * Sets size and time to live of the cache. Previously cached entries get dropped.
+	 * @param maxSize Maximum number of cached versioned models and projects (each). 0 disables the cache.
+	 * @param ttlSeconds Time in seconds after which an entry expires.
+	 */
+	public void configure(int maxSize, int ttlSeconds) {
+		this.projectIdByVersionedModel = new ExpiringCache<>(maxSize, ttlSeconds * 1000L);
+		this.userIdsByProject = new ExpiringCache<>(maxSize, ttlSeconds * 1000L);
+	}
+
+	/**
+	 * Checks if the user with the given id is a member of the project that the versioned model
+	 * with the given id belongs to.
+	 * If the cache is disabled, then this is directly checked in the database.
+	 * @param versionedModelId Id of the versioned model.
+	 * @param userId Id of the user.
+	 * @param connection Connection object, only used if the cache does not contain the needed entries.
+	 * @return Whether the user is a member of the project where the versioned model belongs to.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	public boolean hasUserByVersionedModel(int versionedModelId, int userId, Connection connection) throws SQLException {
+		if(!this.projectIdByVersionedModel.isEnabled()) {
+			return Project.hasUserByVersionedModel(versionedModelId, userId, connection);
+		}
+
+		Integer projectId = this.projectIdByVersionedModel.get(versionedModelId);
+		if(projectId == null) {
+			long generation = this.projectIdByVersionedModel.getGeneration();
+			projectId = Project.getProjectIdByVersionedModel(versionedModelId, connection);
+			this.projectIdByVersionedModel.put(versionedModelId, projectId, generation);
+		}
+		if(projectId == NO_PROJECT) return false;
+
+		Set<Integer> userIds = this.userIdsByProject.get(projectId);
+		if(userIds == null) {
+			long generation = this.userIdsByProject.getGeneration();
+			userIds = Collections.unmodifiableSet(Project.getUserIds(projectId, connection));
+			this.userIdsByProject.put(projectId, userIds, generation);
+		}
+		return userIds.contains(userId);
+	}
+
+	/**
+	 * Needs to be called after the members of the project with the given id have changed
+	 * or the project got deleted.
+	 * @param projectId Id of the project.
+	 */
+	public void invalidateProject(int projectId) {
+		this.userIdsByProject.invalidate(projectId);
+	}
+
+	/**
+	 * Needs to be called after the component of the versioned model with the given id got
+	 * created, deleted or removed from its project.
+	 * @param versionedModelId Id of the versioned model.
+	 */
+	public void invalidateVersionedModel(int versionedModelId) {
+		this.projectIdByVersionedModel.invalidate(versionedModelId);
+	}
+
+	/**
+	 * Creates a JSON object containing the statistics (hits, misses etc.) of the cache.
+	 * @return JSONObject containing the statistics of both the versioned model and the project members cache.
+	 */
+	@SuppressWarnings("unchecked")
+	public JSONObject getStatistics() {
+		JSONObject statistics = new JSONObject();
+		statistics.put("versionedModels", this.projectIdByVersionedModel.getStatistics());
+		statistics.put("projectMembers", this.userIdsByProject.getStatistics());
+		return statistics;
+	}
+
+}
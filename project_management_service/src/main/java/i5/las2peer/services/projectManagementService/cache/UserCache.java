@@ -0,0 +1,82 @@
+package i5.las2peer.services.projectManagementService.cache;
+
+import org.json.simple.JSONObject;
+
+import i5.las2peer.services.projectManagementService.project.User;
+
+/**
+ * Caches the users that were resolved for las2peer agents, mapped by their email.
+ * Gets used by the AuthManager, so that identifying the user sending a request does
+ * not need a database query on every request.
+ * Entries expire after the configured time to live and get invalidated whenever
+ * the stored information of a user changes.
+ */
+public class UserCache {
+
+	private static UserCache instance;
+
+	private volatile ExpiringCache<String, User> usersByEmail = new ExpiringCache<>(0, 0);
+
+	// make sure that constructor cannot be accessed from outside
+	private UserCache() {}
+
+	public static synchronized UserCache getInstance() {
+		if(UserCache.instance == null) {
+			UserCache.instance = new UserCache();
+		}
+		return UserCache.instance;
+	}
+
+	/**
+	 * Sets size and time to live of the cache. Previously cached entries get dropped.
+	 * @param maxSize Maximum number of cached users. 0 disables the cache.
+	 * @param ttlSeconds Time in seconds after which an entry expires.
+	 */
+	public void configure(int maxSize, int ttlSeconds) {
+		this.usersByEmail = new ExpiringCache<>(maxSize, ttlSeconds * 1000L);
+	}
+
+	/**
+	 * Returns the cached user with the given email.
+	 * @param email Email of the user.
+	 * @return Cached User object or null, if the user is not cached.
+	 */
+	public User get(String email) {
+		return this.usersByEmail.get(email);
+	}
+
+	/**
+	 * Returns the current generation of the cache. Should be called before loading a user from
+	 * the database, that gets stored by using {@link #put(User, long)}.
+	 * @return Current generation of the cache.
+	 */
+	public long getGeneration() {
+		return this.usersByEmail.getGeneration();
+	}
+
+	/**
+	 * Stores the given user into the cache, if it was not invalidated since the given generation.
+	 * @param user User that was loaded from the database.
+	 * @param generation Generation of the cache before the user was loaded.
+	 */
+	public void put(User user, long generation) {
+		this.usersByEmail.put(user.getEmail(), user, generation);
+	}
+
+	/**
+	 * Needs to be called after the stored information of the user with the given email has changed.
+	 * @param email Email of the user.
+	 */
+	public void invalidate(String email) {
+		this.usersByEmail.invalidate(email);
+	}
+
+	/**
+	 * Creates a JSON object containing the statistics (hits, misses etc.) of the cache.
+	 * @return JSONObject containing the statistics of the cache.
+	 */
+	public JSONObject getStatistics() {
+		return this.usersByEmail.getStatistics();
+	}
+
+}
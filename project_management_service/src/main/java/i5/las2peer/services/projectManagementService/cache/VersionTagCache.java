@@ -0,0 +1,86 @@
+package i5.las2peer.services.projectManagementService.cache;
+
+import java.util.ArrayList;
+
+import org.json.simple.JSONObject;
+
+/**
+ * Caches the version tags of versioned models, which get requested from the Model Persistence Service
+ * whenever the components of a project are listed.
+ * The version tags of a versioned model only change when a commit gets tagged, thus the Model Persistence
+ * Service invalidates the entry of a versioned model after tagging a commit. Additionally, entries expire
+ * after the configured time to live.
+ */
+public class VersionTagCache {
+
+	private static VersionTagCache instance;
+
+	private volatile ExpiringCache<Integer, ArrayList<String>> versionsByVersionedModel = new ExpiringCache<>(0, 0);
+
+	// make sure that constructor cannot be accessed from outside
+	private VersionTagCache() {}
+
+	public static synchronized VersionTagCache getInstance() {
+		if(VersionTagCache.instance == null) {
+			VersionTagCache.instance = new VersionTagCache();
+		}
+		return VersionTagCache.instance;
+	}
+
+	/**
+	 * Sets size and time to live of the cache. Previously cached entries get dropped.
+	 * @param maxSize Maximum number of cached versioned models. 0 disables the cache.
+	 * @param ttlSeconds Time in seconds after which an entry expires.
+	 */
+	public void configure(int maxSize, int ttlSeconds) {
+		this.versionsByVersionedModel = new ExpiringCache<>(maxSize, ttlSeconds * 1000L);
+	}
+
+	/**
+	 * Returns the cached version tags of the versioned model with the given id.
+	 * @param versionedModelId Id of the versioned model.
+	 * @return Copy of the cached version tags or null, if they are not cached.
+	 */
+	public ArrayList<String> get(int versionedModelId) {
+		ArrayList<String> versions = this.versionsByVersionedModel.get(versionedModelId);
+		if(versions == null) return null;
+		return new ArrayList<>(versions);
+	}
+
+	/**
+	 * Returns the current generation of the cache. Should be called before requesting the version tags
+	 * that get stored by using {@link #put(int, ArrayList, long)}.
+	 * @return Current generation of the cache.
+	 */
+	public long getGeneration() {
+		return this.versionsByVersionedModel.getGeneration();
+	}
+
+	/**
+	 * Stores the version tags of the versioned model with the given id, if they were not invalidated
+	 * since the given generation.
+	 * @param versionedModelId Id of the versioned model.
+	 * @param versions Version tags of the versioned model.
+	 * @param generation Generation of the cache before the version tags were requested.
+	 */
+	public void put(int versionedModelId, ArrayList<String> versions, long generation) {
+		this.versionsByVersionedModel.put(versionedModelId, new ArrayList<>(versions), generation);
+	}
+
+	/**
+	 * Needs to be called after the version tags of the versioned model with the given id have changed.
+	 * @param versionedModelId Id of the versioned model.
+	 */
+	public void invalidate(int versionedModelId) {
+		this.versionsByVersionedModel.invalidate(versionedModelId);
+	}
+
+	/**
+	 * Creates a JSON object containing the statistics (hits, misses etc.) of the cache.
+	 * @return JSONObject containing the statistics of the cache.
+	 */
+	public JSONObject getStatistics() {
+		return this.versionsByVersionedModel.getStatistics();
+	}
+
+}
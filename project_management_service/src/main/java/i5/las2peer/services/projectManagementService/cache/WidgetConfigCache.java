@@ -0,0 +1,116 @@
+package i5.las2peer.services.projectManagementService.cache;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.json.simple.JSONObject;
+
+import i5.las2peer.services.projectManagementService.project.WidgetConfig;
+import i5.las2peer.services.projectManagementService.project.WidgetPermissions;
+
+/**
+ * Caches the widget configs of roles by their hash. Since a hash always belongs to the same config,
+ * entries never need to be invalidated.
+ * The cached config objects are shared by all roles using them, so that the few distinct configs
+ * (mostly the predefined ones) are kept in memory only once, independent of the number of loaded projects.
+ */
+public class WidgetConfigCache {
+
+	private static WidgetConfigCache instance;
+
+	private volatile ExpiringCache<String, String> widgetConfigsByHash = new ExpiringCache<>(0, 0);
+	private volatile ExpiringCache<String, Long> permissionsByWidgetConfig = new ExpiringCache<>(0, 0);
+
+	// make sure that constructor cannot be accessed from outside
+	private WidgetConfigCache() {}
+
+	public static synchronized WidgetConfigCache getInstance() {
+		if(WidgetConfigCache.instance == null) {
+			WidgetConfigCache.instance = new WidgetConfigCache();
+		}
+		return WidgetConfigCache.instance;
+	}
+
+	/**
+	 * Sets size and time to live of the cache. Previously cached entries get dropped.
+	 * @param maxSize Maximum number of cached widget configs and compiled permissions (each). 0 disables the cache.
+	 * @param ttlSeconds Time in seconds after which an entry expires.
+	 */
+	public void configure(int maxSize, int ttlSeconds) {
+		this.widgetConfigsByHash = new ExpiringCache<>(maxSize, ttlSeconds * 1000L);
+		this.permissionsByWidgetConfig = new ExpiringCache<>(maxSize, ttlSeconds * 1000L);
+	}
+
+	/**
+	 * Returns the widget configs with the given hashes. The ones that are not cached get loaded
+	 * from the database by using a single query.
+	 * @param hashes Hashes of the widget configs.
+	 * @param connection Connection object, only used if the cache does not contain all widget configs.
+	 * @return Map from hash to widget config.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	public Map<String, String> getAll(Set<String> hashes, Connection connection) throws SQLException {
+		ExpiringCache<String, String> cache = this.widgetConfigsByHash;
+		Map<String, String> widgetConfigs = new HashMap<>();
+		Set<String> missing = new HashSet<>();
+		for(String hash : hashes) {
+			String widgetConfig = cache.get(hash);
+			if(widgetConfig == null) {
+				missing.add(hash);
+			} else {
+				widgetConfigs.put(hash, widgetConfig);
+			}
+		}
+
+		if(!missing.isEmpty()) {
+			Map<String, String> loaded = WidgetConfig.load(missing, connection);
+			for(Map.Entry<String, String> entry : loaded.entrySet()) {
+				cache.put(entry.getKey(), entry.getValue());
+			}
+			widgetConfigs.putAll(loaded);
+		}
+		return widgetConfigs;
+	}
+
+	/**
+	 * Adds a widget config that was just stored, so that it does not need to be loaded again.
+	 * @param widgetConfig Widget config.
+	 */
+	public void put(String widgetConfig) {
+		this.widgetConfigsByHash.put(WidgetConfig.hash(widgetConfig), widgetConfig);
+	}
+
+	/**
+	 * Returns the permission bitset of the given widget config, which only gets compiled if it is not cached.
+	 * Since the loaded roles share the cached widget config objects, the lookup mostly compares references.
+	 * @param widgetConfig Widget config of a role.
+	 * @return Bitset of the enabled widgets, see {@link WidgetPermissions}.
+	 */
+	public long getPermissions(String widgetConfig) {
+		if(widgetConfig == null) return 0;
+		ExpiringCache<String, Long> cache = this.permissionsByWidgetConfig;
+		Long permissions = cache.get(widgetConfig);
+		if(permissions == null) {
+			permissions = WidgetPermissions.compile(widgetConfig);
+			cache.put(widgetConfig, permissions);
+		}
+		return permissions;
+	}
+
+	/**
+	 * Creates a JSON object containing the statistics of the cache.
+	 * @return JSONObject containing size, hits, misses and evictions for widget configs and permissions.
+	 */
+	@SuppressWarnings("unchecked")
+	public JSONObject getStatistics() {
+		JSONObject statistics = new JSONObject();
+		statistics.put("widgetConfigs", this.widgetConfigsByHash.getStatistics());
+		statistics.put("permissions", this.permissionsByWidgetConfig.getStatistics());
+		return statistics;
+	}
+
+}
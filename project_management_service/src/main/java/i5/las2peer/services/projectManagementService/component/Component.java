@@ -6,6 +6,8 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 
 import org.json.simple.JSONObject;
@@ -14,11 +16,16 @@ import org.json.simple.parser.ParseException;
 
 import i5.las2peer.api.Context;
 import i5.las2peer.services.projectManagementService.ProjectManagementService;
+import i5.las2peer.services.projectManagementService.cache.MembershipCache;
+import i5.las2peer.services.projectManagementService.database.Page;
 import i5.las2peer.services.projectManagementService.exception.GitHubException;
-import i5.las2peer.services.projectManagementService.exception.ReqBazException;
+import i5.las2peer.services.projectManagementService.outbox.OutboxDispatcher;
+import i5.las2peer.services.projectManagementService.outbox.OutboxEntry;
+import i5.las2peer.services.projectManagementService.outbox.OutboxTask;
+import i5.las2peer.services.projectManagementService.outbox.ProvisioningStatus;
 import i5.las2peer.services.projectManagementService.project.Project;
+import i5.las2peer.services.projectManagementService.project.ProjectChange;
 import i5.las2peer.services.projectManagementService.reqbaz.ReqBazCategory;
-import i5.las2peer.services.projectManagementService.reqbaz.ReqBazHelper;
 
 public class Component {
 	
@@ -48,6 +55,11 @@ public class Component {
 	 */
 	private int versionedModelId;
 	
+	/**
+	 * Whether the Requirements Bazaar category is created already.
+	 */
+	private ProvisioningStatus status = ProvisioningStatus.READY;
+	
 	/**
 	 * Constructor used when creating a totally new component, which is 
 	 * not yet stored in the database.
@@ -118,21 +130,13 @@ public class Component {
 	 * @throws ParseException If the stored component type does not match the format.
 	 */
 	public Component(int componentId, Connection connection) throws SQLException, ParseException {
-		this.id = componentId;
-		
 		PreparedStatement statement = connection.prepareStatement("SELECT * FROM Component WHERE id = ?;");
 		statement.setInt(1, componentId);
 		
 		// execute query
 		ResultSet queryResult = statement.executeQuery();
 		if(queryResult.next()) {
-			this.name = queryResult.getString("name");
-			setType(queryResult.getString("type"));
-			this.versionedModelId = queryResult.getInt("versionedModelId");
-			
-			int reqBazProjectId = queryResult.getInt("reqBazProjectId");
-			int reqBazCategoryId = queryResult.getInt("reqBazCategoryId");
-			this.reqBazCategory = new ReqBazCategory(reqBazCategoryId, reqBazProjectId);
+			setAttributesFromQueryResult(queryResult);
 		} else {
 			throw new SQLException("No component found.");
 		}
@@ -140,43 +144,73 @@ public class Component {
 	}
 	
 	/**
-	 * Persists a component. Also creates an empty versioned model.
+	 * Creates a component from the current row of the given query result.
+	 * This gets used when loading multiple components at once (e.g. all components of a project),
+	 * so that no additional query per component is needed.
+	 * @param queryResult Should contain all columns of the Component table and next() should have been called already.
+	 * @throws SQLException If something with the database went wrong.
+	 * @throws ParseException If the stored component type does not match the format.
+	 */
+	public Component(ResultSet queryResult) throws SQLException, ParseException {
+		setAttributesFromQueryResult(queryResult);
+	}
+	
+	/**
+	 * Gets used by the constructors that load a component from the database.
+	 * @param queryResult Should contain all columns of the Component table and next() should have been called already.
+	 * @throws SQLException If something with the database went wrong.
+	 * @throws ParseException If the stored component type does not match the format.
+	 */
+	private void setAttributesFromQueryResult(ResultSet queryResult) throws SQLException, ParseException {
+		this.id = queryResult.getInt("id");
+		this.name = queryResult.getString("name");
+		setType(queryResult.getString("type"));
+		this.versionedModelId = queryResult.getInt("versionedModelId");
+		
+		int reqBazProjectId = queryResult.getInt("reqBazProjectId");
+		int reqBazCategoryId = queryResult.getInt("reqBazCategoryId");
+		this.reqBazCategory = new ReqBazCategory(reqBazCategoryId, reqBazProjectId);
+		this.status = ProvisioningStatus.fromString(queryResult.getString("status"));
+	}
+	
+	/**
+	 * Persists a component. Also creates an empty versioned model (or takes one from the VersionedModelPool).
+	 * The Requirements Bazaar category is created after the transaction got committed, by using
+	 * the outbox. Until then, the component has the status "provisioning".
+	 * If this is part of a surrounding transaction, then the cached membership of the versioned model
+	 * needs to be invalidated after committing it.
 	 * @param project Project which is the owner of the component.
 	 * @param connection Connection object
 	 * @param accessToken OIDC access token which should be used to create the Requirements Bazaar category.
 	 * @throws SQLException If something with the database went wrong.
-	 * @throws ReqBazException If something with creating the Requirements Bazaar category went wrong.
 	 */
-	public void persist(Project project, Connection connection, String accessToken) throws SQLException, ReqBazException {
+	@SuppressWarnings("unchecked")
+	public void persist(Project project, Connection connection, String accessToken) throws SQLException {
 		boolean autoCommitBefore = connection.getAutoCommit();
 		try {
 			connection.setAutoCommit(false);
 			
-			// create empty versioned model
-			this.versionedModelId = ComponentInitHelper.createEmptyVersionedModel(connection);
+			// take empty versioned model from the pool, or create it if the pool is disabled or empty
+			this.versionedModelId = VersionedModelPool.getInstance().claim(connection);
+			if(this.versionedModelId == -1) {
+				this.versionedModelId = ComponentInitHelper.createEmptyVersionedModel(connection);
+			}
 			
-			// create category in requirements bazaar
 			ProjectManagementService service = (ProjectManagementService) Context.getCurrent().getService();
 			if(!service.isCategoryCreationDisabled()) {
-			    String categoryName = project.getId() + "-" + this.name;
-			    this.reqBazCategory = ReqBazHelper.getInstance().createCategory(categoryName, accessToken);
+				this.status = ProvisioningStatus.PROVISIONING;
 			}
 			
 			// create component
+			// -1 stands for no Requirements Bazaar category connected (yet)
 		    PreparedStatement statement = connection
-			    	.prepareStatement("INSERT INTO Component (name, type, versionedModelId, reqBazProjectId, reqBazCategoryId) VALUES (?,?,?,?,?);", Statement.RETURN_GENERATED_KEYS);
+			    	.prepareStatement("INSERT INTO Component (name, type, versionedModelId, reqBazProjectId, reqBazCategoryId, status) VALUES (?,?,?,?,?,?);", Statement.RETURN_GENERATED_KEYS);
 		    statement.setString(1, this.name);
 		    statement.setString(2, typeToString());
 		    statement.setInt(3, versionedModelId);
-		    
-		    if(!service.isCategoryCreationDisabled()) {
-		    	statement.setInt(4, this.reqBazCategory.getProjectId());
-			    statement.setInt(5, this.reqBazCategory.getId());	
-		    } else {
-		    	// -1 stands for no Requirements Bazaar category connected
-		        statement.setInt(4, -1);
-		        statement.setInt(5, -1);
-		    }
+	        statement.setInt(4, -1);
+	        statement.setInt(5, -1);
+	        statement.setString(6, this.status.toString());
 		    
 		    // execute update
 		    statement.executeUpdate();
@@ -193,7 +227,18 @@ public class Component {
 		    statement.executeUpdate();
 		    statement.close();
 		    
-		    connection.commit();
+		    ProjectChange.record(project.getId(), ProjectChange.COMPONENT_ADDED, this.id, toJSONObject(), connection);
+		    
+		    // create category in requirements bazaar after committing
+		    if(!service.isCategoryCreationDisabled()) {
+		    	JSONObject payload = new JSONObject();
+		    	payload.put("categoryName", project.getId() + "-" + this.name);
+		    	new OutboxEntry(OutboxTask.CREATE_REQBAZ_CATEGORY, this.id, payload).setAccessToken(accessToken).persist(connection);
+		    }
+		    
+		    // only commit if this is not part of a surrounding transaction (e.g. when persisting a project),
+		    // otherwise the surrounding transaction commits
+		    if(autoCommitBefore) connection.commit();
 		} catch (SQLException e) {
 			// roll back the whole stuff
 			connection.rollback();
@@ -201,16 +246,36 @@ public class Component {
 		} finally {
 			connection.setAutoCommit(autoCommitBefore);
 		}
+		// a surrounding transaction invalidates the cached membership after committing
+		if(autoCommitBefore) {
+			MembershipCache.getInstance().invalidateVersionedModel(this.versionedModelId);
+			OutboxDispatcher.getInstance().wakeUp();
+		}
 	}
 	
 	/**
 	 * Deletes the component from the database.
+	 * The Requirements Bazaar category gets deleted after the transaction got committed, by using the outbox.
+	 * If the category is not created yet, then the dispatcher deletes it right after creating it.
 	 * @param connection Connection object
 	 * @param accessToken Access token of the user, required to access the Requirements Bazaar API.
 	 * @throws SQLException If something with the database went wrong.
-	 * @throws ReqBazException If something with the Requirements Bazaar API went wrong.
 	 */
-	public void delete(Connection connection, String accessToken) throws SQLException, ReqBazException {
+	public void delete(Connection connection, String accessToken) throws SQLException {
+		delete(connection, accessToken, -1);
+	}
+	
+	/**
+	 * Deletes the component from the database, see {@link #delete(Connection, String)}.
+	 * If this is part of a surrounding transaction, then the cached membership of the versioned model
+	 * needs to be invalidated after committing it.
+	 * @param connection Connection object
+	 * @param accessToken Access token of the user, required to access the Requirements Bazaar API.
+	 * @param jobId Id of the job the deletion of the category belongs to, or -1 if it does not belong to a job.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	@SuppressWarnings("unchecked")
+	public void delete(Connection connection, String accessToken, int jobId) throws SQLException {
 		PreparedStatement statement;
 		// store current value of auto commit
 		boolean autoCommitBefore = connection.getAutoCommit();
@@ -223,20 +288,119 @@ public class Component {
 			statement.executeUpdate();
 			statement.close();
 			
-			// TODO: delete corresponding category in the Requirements Bazaar
+			// delete corresponding category in the Requirements Bazaar after committing
 			if(this.isConnectedToReqBaz()) {
-				ReqBazHelper.getInstance().deleteCategory(this.reqBazCategory, accessToken);
+				JSONObject payload = new JSONObject();
+				payload.put("categoryId", this.reqBazCategory.getId());
+				payload.put("reqBazProjectId", this.reqBazCategory.getProjectId());
+				new OutboxEntry(OutboxTask.DELETE_REQBAZ_CATEGORY, this.id, payload, jobId).setAccessToken(accessToken).persist(connection);
 			}
+			
+			// only commit if this is not part of a surrounding transaction (e.g. when deleting a project)
+			if(autoCommitBefore) connection.commit();
 		} catch (SQLException e) {
 			// roll back the whole stuff
 			connection.rollback();
 			throw e;
-		} catch (ReqBazException e) {
-			// roll back the whole stuff
+		} finally {
+			// reset auto commit to previous value
+			connection.setAutoCommit(autoCommitBefore);
+		}
+		// a surrounding transaction invalidates the cached membership after committing
+		if(autoCommitBefore) {
+			MembershipCache.getInstance().invalidateVersionedModel(this.versionedModelId);
+			OutboxDispatcher.getInstance().wakeUp();
+		}
+	}
+	
+	/**
+	 * Checks whether the component with the given id still exists and has no Requirements Bazaar category yet.
+	 * @param componentId Id of the component.
+	 * @param connection Connection object
+	 * @return Whether a Requirements Bazaar category should be created for the component.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	public static boolean isWaitingForReqBazCategory(int componentId, Connection connection) throws SQLException {
+		PreparedStatement statement = connection.prepareStatement(
+				"SELECT EXISTS(SELECT 1 FROM Component WHERE id = ? AND reqBazCategoryId = -1) AS waiting;");
+		statement.setInt(1, componentId);
+		ResultSet queryResult = statement.executeQuery();
+		queryResult.next();
+		boolean waiting = queryResult.getBoolean("waiting");
+		statement.close();
+		return waiting;
+	}
+	
+	/**
+	 * Stores the Requirements Bazaar category of the component with the given id and marks the
+	 * component as ready, if the component still exists and has no category yet.
+	 * @param componentId Id of the component.
+	 * @param category Requirements Bazaar category that got created for the component.
+	 * @param connection Connection object
+	 * @return Whether the category got stored. False, if the component got deleted in the meantime.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	@SuppressWarnings("unchecked")
+	public static boolean setReqBazCategory(int componentId, ReqBazCategory category, Connection connection) throws SQLException {
+		boolean updated;
+		boolean autoCommitBefore = connection.getAutoCommit();
+		try {
+			connection.setAutoCommit(false);
+			
+			PreparedStatement statement = connection.prepareStatement(
+					"UPDATE Component SET reqBazProjectId = ?, reqBazCategoryId = ?, status = ? WHERE id = ? AND reqBazCategoryId = -1;");
+			statement.setInt(1, category.getProjectId());
+			statement.setInt(2, category.getId());
+			statement.setString(3, ProvisioningStatus.READY.toString());
+			statement.setInt(4, componentId);
+			updated = statement.executeUpdate() == 1;
+			statement.close();
+			if(updated) {
+				JSONObject data = new JSONObject();
+				data.put("reqBazProjectId", category.getProjectId());
+				data.put("reqBazCategoryId", category.getId());
+				data.put("status", ProvisioningStatus.READY.toString());
+				ProjectChange.recordForComponent(componentId, ProjectChange.COMPONENT_UPDATED, data, connection);
+			}
+			
+			if(autoCommitBefore) connection.commit();
+		} catch (SQLException e) {
+			connection.rollback();
+			throw e;
+		} finally {
+			connection.setAutoCommit(autoCommitBefore);
+		}
+		return updated;
+	}
+	
+	/**
+	 * Updates the provisioning status of the component with the given id.
+	 * @param componentId Id of the component.
+	 * @param status New status of the component.
+	 * @param connection Connection object
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	@SuppressWarnings("unchecked")
+	public static void setStatus(int componentId, ProvisioningStatus status, Connection connection) throws SQLException {
+		boolean autoCommitBefore = connection.getAutoCommit();
+		try {
+			connection.setAutoCommit(false);
+			
+			PreparedStatement statement = connection.prepareStatement("UPDATE Component SET status = ? WHERE id = ?;");
+			statement.setString(1, status.toString());
+			statement.setInt(2, componentId);
+			statement.executeUpdate();
+			statement.close();
+			
+			JSONObject data = new JSONObject();
+			data.put("status", status.toString());
+			ProjectChange.recordForComponent(componentId, ProjectChange.COMPONENT_UPDATED, data, connection);
+			
+			if(autoCommitBefore) connection.commit();
+		} catch (SQLException e) {
 			connection.rollback();
 			throw e;
 		} finally {
-			// reset auto commit to previous value
 			connection.setAutoCommit(autoCommitBefore);
 		}
 	}
@@ -258,6 +422,7 @@ public class Component {
 		jsonComponent.put("name", this.name);
 		jsonComponent.put("type", typeToString());
 		jsonComponent.put("versionedModelId", this.versionedModelId);
+		jsonComponent.put("status", this.status.toString());
 		if(this.reqBazCategory != null) {
 			jsonComponent.put("reqBazProjectId", this.reqBazCategory.getProjectId());
 			jsonComponent.put("reqBazCategoryId", this.reqBazCategory.getId());
@@ -267,22 +432,33 @@ public class Component {
 	}
 	
 	/**
-	 * Returns a list of all the components that are stored in the database.
+	 * Returns a page of the components that are stored in the database.
+	 * Only the components with an id greater than the given cursor are returned.
+	 * @param afterId Cursor, i.e. id of the last component of the previous page (0 for the first page).
+	 * @param limit Maximum number of components to return.
 	 * @param connection Connection object
-	 * @return List of Component objects.
+	 * @return Page of Component objects.
 	 * @throws SQLException If something with the database went wrong.
 	 * @throws ParseException If something (with parsing) while loading a component from the database went wrong.
 	 */
-	public static ArrayList<Component> getAllComponents(Connection connection) throws SQLException, ParseException {
+	public static Page<Component> getAllComponents(int afterId, int limit, Connection connection) throws SQLException, ParseException {
 		ArrayList<Component> components = new ArrayList<>();
+		Integer nextCursor = null;
 		
-		PreparedStatement statement = connection.prepareStatement("SELECT id FROM Component");
+		PreparedStatement statement = connection.prepareStatement("SELECT * FROM Component WHERE id > ? ORDER BY id LIMIT ?;");
+		statement.setInt(1, afterId);
+		// fetch one more component to know whether there exists a next page
+		statement.setLong(2, (long) limit + 1);
 		ResultSet results = statement.executeQuery();
 		while(results.next()) {
-			components.add(new Component(results.getInt("id"), connection));
+			if(components.size() == limit) {
+				nextCursor = components.get(limit - 1).getId();
+				break;
+			}
+			components.add(new Component(results));
 		}
 		statement.close();
-		return components;
+		return new Page<>(components, nextCursor);
 	}
 	
 	/**
@@ -292,32 +468,78 @@ public class Component {
 	 * @throws SQLException If something with the database went wrong.
 	 */
 	public boolean isUsed(Connection connection) throws SQLException {
-		boolean used = false;
+		ArrayList<Component> components = new ArrayList<>();
+		components.add(this);
+		return getUnused(components, connection).isEmpty();
+	}
+	
+	/**
+	 * Searches for the components of the given list, which are neither used in a project directly nor as a dependency.
+	 * Uses a single query, independent of the number of components.
+	 * @param components Components to check.
+	 * @param connection Connection object
+	 * @return Components of the given list that are not used anymore.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	public static ArrayList<Component> getUnused(List<Component> components, Connection connection) throws SQLException {
+		ArrayList<Component> unused = new ArrayList<>();
+		if(components.isEmpty()) return unused;
 		
-		// check if it is used in a project (directly)
-		PreparedStatement statement = connection.prepareStatement("SELECT * FROM ProjectToComponent WHERE componentId = ?;");
-		statement.setInt(1, this.id);
-		ResultSet result = statement.executeQuery();
-		if(result.next()) {
-			used = true;
+		String placeholders = String.join(",", Collections.nCopies(components.size(), "?"));
+		PreparedStatement statement = connection.prepareStatement("SELECT id FROM Component WHERE id IN (" + placeholders + ") " +
+				"AND NOT EXISTS (SELECT 1 FROM ProjectToComponent WHERE ProjectToComponent.componentId = Component.id) " +
+				"AND NOT EXISTS (SELECT 1 FROM Dependency WHERE Dependency.componentId = Component.id);");
+		for(int i = 0; i < components.size(); i++) {
+			statement.setInt(i + 1, components.get(i).getId());
+		}
+		ResultSet queryResult = statement.executeQuery();
+		HashSet<Integer> unusedIds = new HashSet<>();
+		while(queryResult.next()) {
+			unusedIds.add(queryResult.getInt("id"));
 		}
 		statement.close();
-		result.close();
-		if(used) return true;
 		
-		// check if it is used in a project as a dependency
-	    statement = connection.prepareStatement("SELECT * FROM Dependency WHERE componentId = ?;");
-		statement.setInt(1, this.id);
-		result = statement.executeQuery();
-		if(result.next()) {
-			used = true;
+		for(Component component : components) {
+			if(unusedIds.contains(component.getId())) unused.add(component);
 		}
+		return unused;
+	}
+	
+	/**
+	 * Deletes the given components from the database, by using a single statement for the components and a
+	 * single batch for the outbox entries deleting their Requirements Bazaar categories.
+	 * The outbox entries are independent of each other, thus the OutboxDispatcher deletes the categories
+	 * concurrently (bounded by its executor).
+	 * Must be called as part of a surrounding transaction (e.g. when deleting a project), which also
+	 * needs to invalidate the cached memberships of the versioned models after committing.
+	 * @param components Components to delete.
+	 * @param connection Connection object, whose auto commit is disabled.
+	 * @param accessToken Access token of the user, required to access the Requirements Bazaar API.
+	 * @param jobId Id of the job the deletion of the categories belongs to, or -1 if it does not belong to a job.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	@SuppressWarnings("unchecked")
+	public static void deleteAll(List<Component> components, Connection connection, String accessToken, int jobId) throws SQLException {
+		if(components.isEmpty()) return;
+		
+		String placeholders = String.join(",", Collections.nCopies(components.size(), "?"));
+		PreparedStatement statement = connection.prepareStatement("DELETE FROM Component WHERE id IN (" + placeholders + ");");
+		for(int i = 0; i < components.size(); i++) {
+			statement.setInt(i + 1, components.get(i).getId());
+		}
+		statement.executeUpdate();
 		statement.close();
-		result.close();
-		if(used) return true;
 		
-		// component is not used in a project directly or as a dependency
-		return false;
+		ArrayList<OutboxEntry> entries = new ArrayList<>();
+		for(Component component : components) {
+			if(component.isConnectedToReqBaz()) {
+				JSONObject payload = new JSONObject();
+				payload.put("categoryId", component.reqBazCategory.getId());
+				payload.put("reqBazProjectId", component.reqBazCategory.getProjectId());
+				entries.add(new OutboxEntry(OutboxTask.DELETE_REQBAZ_CATEGORY, component.id, payload, jobId).setAccessToken(accessToken));
+			}
+		}
+		OutboxEntry.persistAll(entries, connection);
 	}
 	
 	
@@ -4,10 +4,13 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 
 import org.json.simple.JSONObject;
 import org.json.simple.parser.ParseException;
 
+import i5.las2peer.services.projectManagementService.project.ProjectChange;
+
 public class Dependency {
 
 	/**
@@ -41,6 +44,19 @@ public class Dependency {
 		this.componentId = componentId;
 	}
 	
+	/**
+	 * Constructor used when the dependency and its component got loaded from the database already.
+	 * @param id Id of the dependency item.
+	 * @param projectId Id of the project, where the component is a dependency of.
+	 * @param component Component, that is a dependency of the project.
+	 */
+	public Dependency(int id, int projectId, Component component) {
+		this.id = id;
+		this.projectId = projectId;
+		this.componentId = component.getId();
+		this.component = component;
+	}
+	
 	/**
 	 * Loads a Dependency object from the database.
 	 * @param id Id of the Dependency object to load.
@@ -71,12 +87,33 @@ public class Dependency {
 	 * @param connection Connection object
 	 * @throws SQLException If something with the database went wrong.
 	 */
+	@SuppressWarnings("unchecked")
 	public void persist(Connection connection) throws SQLException {
-	    PreparedStatement statement = connection.prepareStatement("INSERT INTO Dependency (projectId, componentId) VALUES (?,?);");
-	    statement.setInt(1, this.projectId);
-	    statement.setInt(2, this.componentId);
-	    statement.executeUpdate();
-	    statement.close();
+		boolean autoCommitBefore = connection.getAutoCommit();
+		try {
+			connection.setAutoCommit(false);
+			
+			PreparedStatement statement = connection.prepareStatement("INSERT INTO Dependency (projectId, componentId) VALUES (?,?);", Statement.RETURN_GENERATED_KEYS);
+			statement.setInt(1, this.projectId);
+			statement.setInt(2, this.componentId);
+			statement.executeUpdate();
+			ResultSet genKeys = statement.getGeneratedKeys();
+			genKeys.next();
+			this.id = genKeys.getInt(1);
+			statement.close();
+			
+			JSONObject data = new JSONObject();
+			data.put("dependencyId", this.id);
+			data.put("componentId", this.componentId);
+			ProjectChange.record(this.projectId, ProjectChange.DEPENDENCY_ADDED, this.componentId, data, connection);
+			
+			if(autoCommitBefore) connection.commit();
+		} catch (SQLException e) {
+			connection.rollback();
+			throw e;
+		} finally {
+			connection.setAutoCommit(autoCommitBefore);
+		}
 	}
 	
 	/**
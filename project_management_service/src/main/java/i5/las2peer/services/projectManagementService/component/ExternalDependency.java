@@ -4,9 +4,12 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 
 import org.json.simple.JSONObject;
 
+import i5.las2peer.services.projectManagementService.project.ProjectChange;
+
 public class ExternalDependency {
 	
 	/**
@@ -41,6 +44,18 @@ public class ExternalDependency {
 		this.type = type;
 	}
 	
+	/**
+	 * Constructor used when the external dependency got loaded from the database already.
+	 * @param id Id of the external dependency.
+	 * @param projectId Id of the project, where the external dependency belongs to.
+	 * @param gitHubURL URL to the corresponding GitHub repository.
+	 * @param type Type of the external dependency.
+	 */
+	public ExternalDependency(int id, int projectId, String gitHubURL, String type) {
+		this(projectId, gitHubURL, type);
+		this.id = id;
+	}
+	
 	/**
 	 * Loads an ExternalDependency object from the database.
 	 * @param id Id of the ExternalDependency object to load.
@@ -67,13 +82,30 @@ public class ExternalDependency {
 	 * @throws SQLException If something with the database went wrong.
 	 */
 	public void persist(Connection connection) throws SQLException {
-	    PreparedStatement statement = connection
-	    		.prepareStatement("INSERT INTO ExternalDependency (projectId, gitHubURL, type) VALUES (?,?,?);");
-	    statement.setInt(1, this.projectId);
-	    statement.setString(2, this.gitHubURL);
-	    statement.setString(3, this.type);
-	    statement.executeUpdate();
-	    statement.close();
+		boolean autoCommitBefore = connection.getAutoCommit();
+		try {
+			connection.setAutoCommit(false);
+			
+			PreparedStatement statement = connection
+					.prepareStatement("INSERT INTO ExternalDependency (projectId, gitHubURL, type) VALUES (?,?,?);", Statement.RETURN_GENERATED_KEYS);
+			statement.setInt(1, this.projectId);
+			statement.setString(2, this.gitHubURL);
+			statement.setString(3, this.type);
+			statement.executeUpdate();
+			ResultSet genKeys = statement.getGeneratedKeys();
+			genKeys.next();
+			this.id = genKeys.getInt(1);
+			statement.close();
+			
+			ProjectChange.record(this.projectId, ProjectChange.EXTERNAL_DEPENDENCY_ADDED, this.id, toJSONObject(), connection);
+			
+			if(autoCommitBefore) connection.commit();
+		} catch (SQLException e) {
+			connection.rollback();
+			throw e;
+		} finally {
+			connection.setAutoCommit(autoCommitBefore);
+		}
 	}
 	
 	/**
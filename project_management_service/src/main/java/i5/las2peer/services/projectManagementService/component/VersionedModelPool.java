@@ -0,0 +1,180 @@
+package i5.las2peer.services.projectManagementService.component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.json.simple.JSONObject;
+
+import i5.las2peer.services.projectManagementService.database.DatabaseManager;
+
+/**
+ * Pool of empty versioned models, which are created in advance by using the ComponentInitHelper.
+ * When a new component gets stored, it claims one of them with a single update, instead of creating
+ * the versioned model, commit and model with multiple inserts.
+ * The pool gets refilled in the background up to the configured target size. A target size of 0
+ * disables the pool, then the versioned models are created when storing the component (as before).
+ */
+public class VersionedModelPool {
+
+	private static VersionedModelPool instance;
+	private static final Logger logger = Logger.getLogger(VersionedModelPool.class.getName());
+
+	private DatabaseManager dbm;
+	private ScheduledExecutorService replenisher;
+	private volatile int targetSize = 0;
+
+	/**
+	 * Number of unclaimed versioned models in the pool. Gets set by every refill and is decreased
+	 * by every claim. -1 if unknown.
+	 */
+	private final AtomicInteger depth = new AtomicInteger(-1);
+
+	private final AtomicLong claimed = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong created = new AtomicLong();
+	private final AtomicLong failures = new AtomicLong();
+
+	// make sure that constructor cannot be accessed from outside
+	private VersionedModelPool() {}
+
+	public static synchronized VersionedModelPool getInstance() {
+		if(VersionedModelPool.instance == null) {
+			VersionedModelPool.instance = new VersionedModelPool();
+		}
+		return VersionedModelPool.instance;
+	}
+
+	/**
+	 * Starts refilling the pool regularly. Does nothing if the target size is 0 or the pool was started already.
+	 * @param dbm DatabaseManager used to access the pool.
+	 * @param targetSize Number of empty versioned models that should be available in the pool.
+	 * @param intervalSeconds Time in seconds between two checks whether the pool needs to be refilled.
+	 */
+	public synchronized void start(DatabaseManager dbm, int targetSize, int intervalSeconds) {
+		if(targetSize <= 0 || this.replenisher != null) return;
+		this.dbm = dbm;
+		this.targetSize = targetSize;
+		this.replenisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "versioned-model-pool");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.replenisher.scheduleWithFixedDelay(this::refill, 0, intervalSeconds, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Claims an empty versioned model from the pool. Should be called as part of the transaction that stores
+	 * the component, so that the versioned model is returned to the pool if the transaction gets rolled back.
+	 * The id of the claimed versioned model is passed back through LAST_INSERT_ID(), which the driver returns
+	 * as generated key of the update. Thus, only a single statement is needed.
+	 * @param connection Connection object
+	 * @return Id of the claimed versioned model, or -1 if the pool is disabled or empty.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	public int claim(Connection connection) throws SQLException {
+		if(this.targetSize <= 0) return -1;
+
+		PreparedStatement statement = connection.prepareStatement(
+				"UPDATE VersionedModelPool SET claimed = TRUE, versionedModelId = LAST_INSERT_ID(versionedModelId) "
+				+ "WHERE claimed = FALSE ORDER BY versionedModelId LIMIT 1;", Statement.RETURN_GENERATED_KEYS);
+		int versionedModelId = -1;
+		if(statement.executeUpdate() == 1) {
+			ResultSet genKeys = statement.getGeneratedKeys();
+			if(genKeys.next()) versionedModelId = genKeys.getInt(1);
+		}
+		statement.close();
+
+		if(versionedModelId == -1) {
+			this.misses.incrementAndGet();
+			wakeUp();
+		} else {
+			this.claimed.incrementAndGet();
+			this.depth.updateAndGet(depth -> depth > 0 ? depth - 1 : depth);
+		}
+		return versionedModelId;
+	}
+
+	/**
+	 * Refills the pool in the background.
+	 */
+	public synchronized void wakeUp() {
+		if(this.replenisher == null) return;
+		this.replenisher.execute(this::refill);
+	}
+
+	/**
+	 * Removes the claimed entries (their versioned models belong to components now) and creates new empty
+	 * versioned models until the pool reaches its target size.
+	 */
+	private void refill() {
+		try (Connection connection = this.dbm.getConnection()) {
+			PreparedStatement statement = connection.prepareStatement("DELETE FROM VersionedModelPool WHERE claimed = TRUE;");
+			statement.executeUpdate();
+			statement.close();
+
+			int count = countUnclaimed(connection);
+			this.depth.set(count);
+			while(count < this.targetSize) {
+				// versioned model and pool entry are stored in one transaction, so that no versioned model gets lost
+				connection.setAutoCommit(false);
+				try {
+					int versionedModelId = ComponentInitHelper.createEmptyVersionedModel(connection);
+					statement = connection.prepareStatement("INSERT INTO VersionedModelPool (versionedModelId) VALUES (?);");
+					statement.setInt(1, versionedModelId);
+					statement.executeUpdate();
+					statement.close();
+					connection.commit();
+				} catch (SQLException e) {
+					connection.rollback();
+					throw e;
+				} finally {
+					connection.setAutoCommit(true);
+				}
+				this.created.incrementAndGet();
+				this.depth.incrementAndGet();
+				count++;
+			}
+		} catch (Exception e) {
+			// try again on the next refill
+			this.failures.incrementAndGet();
+			logger.log(Level.WARNING, "Could not refill versioned model pool.", e);
+		}
+	}
+
+	private int countUnclaimed(Connection connection) throws SQLException {
+		PreparedStatement statement = connection.prepareStatement("SELECT COUNT(*) AS depth FROM VersionedModelPool WHERE claimed = FALSE;");
+		ResultSet queryResult = statement.executeQuery();
+		queryResult.next();
+		int count = queryResult.getInt("depth");
+		statement.close();
+		return count;
+	}
+
+	/**
+	 * Creates a JSON object containing the statistics of the pool.
+	 * @return JSONObject containing target size, current depth, number of claimed versioned models, claims that
+	 * found the pool empty, created versioned models and failed refills.
+	 */
+	@SuppressWarnings("unchecked")
+	public JSONObject getStatistics() {
+		JSONObject statistics = new JSONObject();
+		statistics.put("targetSize", this.targetSize);
+		statistics.put("depth", this.depth.get());
+		statistics.put("claimed", this.claimed.get());
+		statistics.put("misses", this.misses.get());
+		statistics.put("created", this.created.get());
+		statistics.put("failures", this.failures.get());
+		return statistics;
+	}
+
+}
@@ -0,0 +1,99 @@
+package i5.las2peer.services.projectManagementService.concurrency;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.json.simple.JSONObject;
+
+/**
+ * Executor with a fixed number of threads and a bounded queue, used to run
+ * remote calls (e.g. to other las2peer services or GitHub) in parallel.
+ * When both the threads and the queue are busy, new tasks are rejected instead
+ * of piling up, i.e. the returned future completes exceptionally.
+ */
+public class BoundedExecutor {
+
+	private final ThreadPoolExecutor executor;
+	private final AtomicLong rejected = new AtomicLong();
+
+	/**
+	 * Creates a new executor.
+	 * @param name Name of the executor, used as prefix for the thread names.
+	 * @param threads Number of threads.
+	 * @param queueSize Maximum number of tasks waiting for a free thread.
+	 */
+	public BoundedExecutor(String name, int threads, int queueSize) {
+		this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(Math.max(queueSize, 1)), new NamedThreadFactory(name));
+		// idle threads should not be kept forever
+		this.executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Runs the given task asynchronously.
+	 * @param task Task to run.
+	 * @param <T> Type of the result of the task.
+	 * @return Future that completes with the result of the task, or exceptionally if the task
+	 * failed or got rejected because the executor is saturated.
+	 */
+	public <T> CompletableFuture<T> submit(Supplier<T> task) {
+		try {
+			return CompletableFuture.supplyAsync(task, this.executor);
+		} catch (RejectedExecutionException e) {
+			this.rejected.incrementAndGet();
+			CompletableFuture<T> future = new CompletableFuture<>();
+			future.completeExceptionally(e);
+			return future;
+		}
+	}
+
+	/**
+	 * Stops accepting new tasks. Already submitted tasks are still executed.
+	 */
+	public void shutdown() {
+		this.executor.shutdown();
+	}
+
+	/**
+	 * Creates a JSON object containing the statistics of the executor.
+	 * @return JSONObject containing the number of active, queued, completed and rejected tasks.
+	 */
+	@SuppressWarnings("unchecked")
+	public JSONObject getStatistics() {
+		JSONObject statistics = new JSONObject();
+		statistics.put("threads", this.executor.getMaximumPoolSize());
+		statistics.put("active", this.executor.getActiveCount());
+		statistics.put("queued", this.executor.getQueue().size());
+		statistics.put("completed", this.executor.getCompletedTaskCount());
+		statistics.put("rejected", this.rejected.get());
+		return statistics;
+	}
+
+	/**
+	 * Creates daemon threads named after the executor, so that they can be identified in thread dumps
+	 * and do not prevent the node from shutting down.
+	 */
+	private static class NamedThreadFactory implements ThreadFactory {
+		private final String name;
+		private final AtomicInteger count = new AtomicInteger();
+
+		private NamedThreadFactory(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, this.name + "-" + this.count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
+}
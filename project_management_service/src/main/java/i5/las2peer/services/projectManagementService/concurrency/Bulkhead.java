@@ -0,0 +1,81 @@
+package i5.las2peer.services.projectManagementService.concurrency;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.json.simple.JSONObject;
+
+/**
+ * Limits the number of concurrent calls to an external dependency, independent of the thread making them
+ * (request threads, executors or the outbox dispatcher). If the limit is reached, further calls fail fast
+ * instead of waiting, so that a slow dependency can only block a bounded number of threads.
+ */
+public class Bulkhead {
+
+	private final String name;
+	private volatile int maxConcurrentCalls;
+	private volatile Semaphore permits;
+
+	private final AtomicLong rejected = new AtomicLong();
+
+	/**
+	 * Creates a new bulkhead.
+	 * @param name Name of the dependency, used in error messages.
+	 * @param maxConcurrentCalls Maximum number of concurrent calls.
+	 */
+	public Bulkhead(String name, int maxConcurrentCalls) {
+		this.name = name;
+		configure(maxConcurrentCalls);
+	}
+
+	/**
+	 * Sets the maximum number of concurrent calls. Calls that are in progress are not counted anymore.
+	 * @param maxConcurrentCalls Maximum number of concurrent calls.
+	 */
+	public void configure(int maxConcurrentCalls) {
+		this.maxConcurrentCalls = Math.max(maxConcurrentCalls, 1);
+		this.permits = new Semaphore(this.maxConcurrentCalls);
+	}
+
+	/**
+	 * Needs to be called before a call. If it returns a permit, then this needs to be passed to {@link #exit(Semaphore)}
+	 * after the call finished.
+	 * @return Permit for the call, or null if the maximum number of concurrent calls is reached.
+	 */
+	public Semaphore tryEnter() {
+		Semaphore permits = this.permits;
+		if(permits.tryAcquire()) return permits;
+		this.rejected.incrementAndGet();
+		return null;
+	}
+
+	/**
+	 * Needs to be called after a call that got a permit by {@link #tryEnter()}.
+	 * @param permit Permit returned by {@link #tryEnter()}.
+	 */
+	public void exit(Semaphore permit) {
+		permit.release();
+	}
+
+	/**
+	 * Returns a message that can be used for the exception thrown when a call gets rejected.
+	 * @return Message describing that there are too many concurrent calls.
+	 */
+	public String getRejectionMessage() {
+		return "Too many concurrent requests to " + this.name + ", the request was not sent.";
+	}
+
+	/**
+	 * Creates a JSON object containing the statistics of the bulkhead.
+	 * @return JSONObject containing the maximum and the current number of concurrent calls and the number of rejected calls.
+	 */
+	@SuppressWarnings("unchecked")
+	public JSONObject getStatistics() {
+		JSONObject statistics = new JSONObject();
+		statistics.put("maxConcurrentCalls", this.maxConcurrentCalls);
+		statistics.put("active", this.maxConcurrentCalls - this.permits.availablePermits());
+		statistics.put("rejected", this.rejected.get());
+		return statistics;
+	}
+
+}
@@ -0,0 +1,121 @@
+package i5.las2peer.services.projectManagementService.concurrency;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.json.simple.JSONObject;
+
+/**
+ * Circuit breaker for the calls to an external dependency (e.g. GitHub).
+ * After the configured number of consecutive failures, the circuit opens and calls fail fast without
+ * being sent, so that no request thread (and no database connection) is blocked by a dependency that
+ * is down. After the configured time, a single trial call is let through: if it succeeds, the circuit
+ * closes again, otherwise it stays open for another period.
+ */
+public class CircuitBreaker {
+
+	/**
+	 * States of the circuit breaker.
+	 */
+	public enum State {
+		CLOSED, OPEN, HALF_OPEN
+	}
+
+	private final String name;
+
+	private int failureThreshold = 5;
+	private long openMillis = 30000;
+
+	private State state = State.CLOSED;
+	private int consecutiveFailures = 0;
+	private long openedAt = 0;
+
+	private final AtomicLong rejected = new AtomicLong();
+	private final AtomicLong opened = new AtomicLong();
+
+	/**
+	 * Creates a new (closed) circuit breaker.
+	 * @param name Name of the dependency, used in error messages.
+	 */
+	public CircuitBreaker(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Sets the threshold and the open time. The circuit gets closed.
+	 * @param failureThreshold Number of consecutive failures after which the circuit opens. 0 disables the circuit breaker.
+	 * @param openMillis Time in milliseconds the circuit stays open before a trial call is let through.
+	 */
+	public synchronized void configure(int failureThreshold, long openMillis) {
+		this.failureThreshold = failureThreshold;
+		this.openMillis = openMillis;
+		this.state = State.CLOSED;
+		this.consecutiveFailures = 0;
+	}
+
+	/**
+	 * Needs to be called before a call. If the call is allowed, then its outcome needs to be reported by
+	 * using {@link #recordSuccess()} or {@link #recordFailure()}.
+	 * @return Whether the call may be sent. False, if the circuit is open.
+	 */
+	public synchronized boolean allowRequest() {
+		if(this.state == State.CLOSED) return true;
+		long now = System.currentTimeMillis();
+		if(now - this.openedAt >= this.openMillis) {
+			// let a single trial call through (again, if the outcome of the last one never got reported)
+			this.state = State.HALF_OPEN;
+			this.openedAt = now;
+			return true;
+		}
+		this.rejected.incrementAndGet();
+		return false;
+	}
+
+	/**
+	 * Reports a successful call, which closes the circuit.
+	 */
+	public synchronized void recordSuccess() {
+		this.consecutiveFailures = 0;
+		this.state = State.CLOSED;
+	}
+
+	/**
+	 * Reports a failed call (e.g. a timeout or server error), which may open the circuit.
+	 */
+	public synchronized void recordFailure() {
+		this.consecutiveFailures++;
+		if(this.state == State.HALF_OPEN
+				|| (this.failureThreshold > 0 && this.state == State.CLOSED && this.consecutiveFailures >= this.failureThreshold)) {
+			this.state = State.OPEN;
+			this.openedAt = System.currentTimeMillis();
+			this.opened.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Returns a message that can be used for the exception thrown when a call gets rejected.
+	 * @return Message describing that the dependency is unavailable.
+	 */
+	public String getRejectionMessage() {
+		return this.name + " is unavailable (circuit breaker open), the request was not sent.";
+	}
+
+	public synchronized State getState() {
+		return this.state;
+	}
+
+	/**
+	 * Creates a JSON object containing the statistics of the circuit breaker.
+	 * @return JSONObject containing the state, the number of consecutive failures, how often the circuit
+	 * got opened and the number of rejected calls.
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized JSONObject getStatistics() {
+		JSONObject statistics = new JSONObject();
+		statistics.put("state", this.state.name().toLowerCase());
+		statistics.put("consecutiveFailures", this.consecutiveFailures);
+		statistics.put("opened", this.opened.get());
+		statistics.put("rejected", this.rejected.get());
+		return statistics;
+	}
+
+}
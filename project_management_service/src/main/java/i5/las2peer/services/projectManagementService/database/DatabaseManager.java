@@ -29,6 +29,8 @@ public class DatabaseManager {
 		dataSource.setUsername(jdbcLogin);
 		dataSource.setPassword(jdbcPass);
 		dataSource.setUrl(jdbcUrl + jdbcSchema);
+		// let the driver send batches of inserts as multi-row inserts, i.e. in a single round trip
+		dataSource.addConnectionProperty("rewriteBatchedStatements", "true");
 		dataSource.setValidationQuery("SELECT 1");
 		dataSource.setDefaultQueryTimeout(1000);
 		dataSource.setMaxConnLifetimeMillis(100000);
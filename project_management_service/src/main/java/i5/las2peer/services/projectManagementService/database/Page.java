@@ -0,0 +1,39 @@
+package i5.las2peer.services.projectManagementService.database;
+
+import java.util.ArrayList;
+
+/**
+ * One page of a list that gets loaded from the database by using keyset pagination,
+ * i.e. the rows are ordered by their id and the next page starts after the id
+ * of the last row of the current page.
+ *
+ * @param <T> Type of the items of the page.
+ */
+public class Page<T> {
+
+	private ArrayList<T> items;
+
+	/**
+	 * Id of the last item of this page, if there exist more items after this page.
+	 * Null, if this is the last page.
+	 */
+	private Integer nextCursor;
+
+	public Page(ArrayList<T> items, Integer nextCursor) {
+		this.items = items;
+		this.nextCursor = nextCursor;
+	}
+
+	public ArrayList<T> getItems() {
+		return this.items;
+	}
+
+	public Integer getNextCursor() {
+		return this.nextCursor;
+	}
+
+	public boolean hasNext() {
+		return this.nextCursor != null;
+	}
+
+}
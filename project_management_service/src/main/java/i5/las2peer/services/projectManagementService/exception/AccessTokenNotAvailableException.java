@@ -0,0 +1,14 @@
+package i5.las2peer.services.projectManagementService.exception;
+
+/**
+ * Thrown if an outbox entry needs the access token of a user, which is not known to this node (anymore).
+ * Retrying does not help, since the token is never stored in the database.
+ */
+public class AccessTokenNotAvailableException extends Exception {
+
+	private static final long serialVersionUID = 4630542712863790385L;
+
+	public AccessTokenNotAvailableException(String message) {
+		super(message);
+	}
+}
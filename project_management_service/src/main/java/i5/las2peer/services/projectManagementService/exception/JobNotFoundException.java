@@ -0,0 +1,11 @@
+package i5.las2peer.services.projectManagementService.exception;
+
+import java.sql.SQLException;
+
+/**
+ * Exception class to differentiate "correct" not found cases from real database
+ * errors.
+ */
+public class JobNotFoundException extends SQLException {
+	private static final long serialVersionUID = 6381294770552817245L;
+}
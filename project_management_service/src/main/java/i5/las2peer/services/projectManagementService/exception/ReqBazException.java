@@ -4,7 +4,21 @@ public class ReqBazException extends Exception {
 
 	private static final long serialVersionUID = -7685823344785198258L;
 
+	/**
+	 * Status code of the response of the Requirements Bazaar, or -1 if no response was received.
+	 */
+	private int statusCode = -1;
+
 	public ReqBazException(String message) {
 		super(message);
 	}
+
+	public ReqBazException(String message, int statusCode) {
+		super(message);
+		this.statusCode = statusCode;
+	}
+
+	public int getStatusCode() {
+		return this.statusCode;
+	}
 }
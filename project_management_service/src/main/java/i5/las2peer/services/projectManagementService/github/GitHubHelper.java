@@ -1,42 +1,53 @@
 package i5.las2peer.services.projectManagementService.github;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.net.HttpURLConnection;
-import java.net.MalformedURLException;
 import java.net.URI;
-import java.net.URL;
-import java.util.ArrayList;
-import java.util.Base64;
-import java.net.http.*;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
 import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
 import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
 
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.JSONValue;
 import org.json.simple.parser.ParseException;
 
+import i5.las2peer.services.projectManagementService.concurrency.BoundedExecutor;
+import i5.las2peer.services.projectManagementService.concurrency.Bulkhead;
+import i5.las2peer.services.projectManagementService.concurrency.CircuitBreaker;
 import i5.las2peer.services.projectManagementService.exception.GitHubException;
+import i5.las2peer.services.projectManagementService.github.GitHubRateLimiter.Budget;
+import i5.las2peer.services.projectManagementService.github.GitHubRateLimiter.Priority;
 
 /**
  * Helper class for working with GitHub API.
  * Currently supports creating new GitHub projects and update their
  * visibility to public.
+ * All requests are sent by a single shared HttpClient, which reuses its connections
+ * (and uses HTTP/2 where possible), so that not every request needs a new TLS handshake.
  * @author Philipp
  *
  */
 public class GitHubHelper {
 	
 	private static GitHubHelper instance;
-	private static final String API_BASE_URL = "https://api.github.com";
+	private static final String DEFAULT_API_BASE_URL = "https://api.github.com";
+	private static final String DEFAULT_OAUTH_BASE_URL = "https://github.com";
+	private static final int DEFAULT_CONNECT_TIMEOUT = 5000;
+	private static final int DEFAULT_REQUEST_TIMEOUT = 10000;
+	private static final String[] PREDEFINED_COLUMNS = {"To do", "In progress", "Done"};
 	
 	// make sure that constructor cannot be accessed from outside
 	private GitHubHelper() {}
 	
-	public static GitHubHelper getInstance() {
+	public static synchronized GitHubHelper getInstance() {
 		if(GitHubHelper.instance == null) {
 			GitHubHelper.instance = new GitHubHelper();
 		}
@@ -58,6 +69,75 @@ public class GitHubHelper {
 	public void setOAuthClientSecret(String oAuthClientSecret) {
 		this.oAuthClientSecret = oAuthClientSecret;
 	}
+	
+	/**
+	 * Sets the base URLs of the GitHub API and of the GitHub OAuth endpoints.
+	 * Can be used to send the requests to a GitHub Enterprise instance or to a local stub server.
+	 * @param apiBaseUrl Base URL of the GitHub API, e.g. "https://api.github.com". Null for the default.
+	 * @param oAuthBaseUrl Base URL of the GitHub OAuth endpoints, e.g. "https://github.com". Null for the default.
+	 */
+	public void setBaseUrls(String apiBaseUrl, String oAuthBaseUrl) {
+		this.apiBaseUrl = isEmpty(apiBaseUrl) ? DEFAULT_API_BASE_URL : apiBaseUrl;
+		this.oAuthBaseUrl = isEmpty(oAuthBaseUrl) ? DEFAULT_OAUTH_BASE_URL : oAuthBaseUrl;
+	}
+	
+	/**
+	 * Replaces the shared HttpClient by one using the given timeouts.
+	 * @param connectTimeout Timeout in milliseconds for establishing a connection.
+	 * @param requestTimeout Timeout in milliseconds for receiving the response of a request.
+	 */
+	public void setTimeouts(int connectTimeout, int requestTimeout) {
+		this.client = createHttpClient(connectTimeout);
+		this.requestTimeout = Duration.ofMillis(requestTimeout);
+	}
+
+	/**
+	 * Sets the executor used by {@link #grantUserAccessToProjectAsync(String, GitHubProject)}.
+	 * @param executor Bounded executor, which runs the requests to GitHub.
+	 */
+	public void setExecutor(BoundedExecutor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Configures the rate limiter, which schedules the requests to GitHub.
+	 * @param reserve Number of requests that are reserved for high priority requests (e.g. creating projects).
+	 * @param maxWaitMillis Maximum time in milliseconds a request waits for the rate limit to be reset.
+	 */
+	public void configureRateLimit(int reserve, long maxWaitMillis) {
+		this.rateLimiter.configure(reserve, maxWaitMillis);
+	}
+	
+	/**
+	 * Creates a JSON object containing the current rate limit budgets.
+	 * @return JSONObject containing the statistics of the rate limiter.
+	 */
+	public JSONObject getRateLimitStatistics() {
+		return this.rateLimiter.getStatistics();
+	}
+
+	/**
+	 * Configures the circuit breaker and the bulkhead, which protect the service from GitHub being down or slow.
+	 * @param failureThreshold Number of consecutive failed requests after which requests fail fast. 0 disables the circuit breaker.
+	 * @param openMillis Time in milliseconds requests fail fast, before a trial request is sent.
+	 * @param maxConcurrentRequests Maximum number of concurrent requests to GitHub.
+	 */
+	public void configureResilience(int failureThreshold, long openMillis, int maxConcurrentRequests) {
+		this.circuitBreaker.configure(failureThreshold, openMillis);
+		this.bulkhead.configure(maxConcurrentRequests);
+	}
+
+	/**
+	 * Creates a JSON object containing the state of the circuit breaker and the bulkhead.
+	 * @return JSONObject containing the statistics of the circuit breaker and the bulkhead.
+	 */
+	@SuppressWarnings("unchecked")
+	public JSONObject getResilienceStatistics() {
+		JSONObject statistics = new JSONObject();
+		statistics.put("circuitBreaker", this.circuitBreaker.getStatistics());
+		statistics.put("bulkhead", this.bulkhead.getStatistics());
+		return statistics;
+	}
 
 	/**
 	 * GitHub configuration.
@@ -69,26 +149,83 @@ public class GitHubHelper {
 	private String oAuthClientId = null;
 	private String oAuthClientSecret = null;
 	
+	private volatile String apiBaseUrl = DEFAULT_API_BASE_URL;
+	private volatile String oAuthBaseUrl = DEFAULT_OAUTH_BASE_URL;
+	
 	/**
-	 * Creates a public GitHub project with the given name.
-	 * @param projectName Name of the GitHub project which should be created.
-	 * @return The newly created GitHubProject object.
+	 * Shared client used for all requests. HttpClient is thread-safe and keeps a pool of connections.
+	 */
+	private volatile HttpClient client = createHttpClient(DEFAULT_CONNECT_TIMEOUT);
+	private volatile Duration requestTimeout = Duration.ofMillis(DEFAULT_REQUEST_TIMEOUT);
+	
+	/**
+	 * Executor used by the asynchronous method. Gets replaced by the executor configured in the service.
+	 */
+	private volatile BoundedExecutor executor = new BoundedExecutor("github", 4, 64);
+	
+	/**
+	 * Schedules the requests according to the remaining rate limit of the GitHub API.
+	 */
+	private final GitHubRateLimiter rateLimiter = new GitHubRateLimiter();
+	
+	/**
+	 * Lets requests fail fast while GitHub is down. Connection errors, timeouts and server errors count as failures.
+	 */
+	private final CircuitBreaker circuitBreaker = new CircuitBreaker("GitHub");
+	
+	/**
+	 * Limits the number of concurrent requests to GitHub, independent of the thread sending them.
+	 */
+	private final Bulkhead bulkhead = new Bulkhead("GitHub", 16);
+	
+	/**
+	 * Makes the given GitHub project public and creates the predefined columns, which are
+	 * missing in the project. Thus, this can be retried if it failed before.
+	 * @param gitHubProject GitHub project that was created by using {@link #createGitHubProject(String)}.
 	 * @throws GitHubException If something with the requests to the GitHub API went wrong.
 	 */
-	public GitHubProject createPublicGitHubProject(String projectName) throws GitHubException {
-		if(gitHubPersonalAccessToken == null || gitHubOrganization == null) {
-			throw new GitHubException("One of the variables personal access token or organization are not set.");
-		}
-		
-		GitHubProject gitHubProject = createGitHubProject(projectName);
-		makeGitHubProjectPublic(gitHubProject.getId());
+	public void setUpGitHubProject(GitHubProject gitHubProject) throws GitHubException {
+		setUpGitHubProject(gitHubProject, Priority.HIGH);
+	}
+	
+	/**
+	 * Makes the given GitHub project public and creates the predefined columns, which are
+	 * missing in the project.
+	 * @param gitHubProject GitHub project that was created by using {@link #createGitHubProject(String, Priority)}.
+	 * @param priority Priority of the requests, low for background work like filling the GitHubProjectPool.
+	 * @throws GitHubException If something with the requests to the GitHub API went wrong.
+	 */
+	public void setUpGitHubProject(GitHubProject gitHubProject, Priority priority) throws GitHubException {
+		makeGitHubProjectPublic(gitHubProject.getId(), priority);
 		
 		// create some predefined columns
-		createProjectColumn(gitHubProject.getId(), "To do");
-		createProjectColumn(gitHubProject.getId(), "In progress");
-		createProjectColumn(gitHubProject.getId(), "Done");
+		ArrayList<String> existingColumns = getProjectColumns(gitHubProject.getId(), priority);
+		for(String columnName : PREDEFINED_COLUMNS) {
+			if(!existingColumns.contains(columnName)) {
+				createProjectColumn(gitHubProject.getId(), columnName, priority);
+			}
+		}
+	}
+	
+	/**
+	 * Renames the given GitHub project. Gets used for GitHub projects taken from the GitHubProjectPool.
+	 * @param gitHubProject GitHub project which should be renamed.
+	 * @param projectName New name of the GitHub project.
+	 * @throws GitHubException If something with the request to the GitHub API went wrong.
+	 */
+	public void renameGitHubProject(GitHubProject gitHubProject, String projectName) throws GitHubException {
+		String body = getGitHubProjectBody(projectName);
 		
-		return gitHubProject;
+		HttpRequest request = projectsRequest(this.apiBaseUrl + "/projects/" + gitHubProject.getId())
+				.method("PATCH", BodyPublishers.ofString(body))
+				.header("Content-Type", "application/json")
+				.build();
+		
+		// forward (in case of) error
+		HttpResponse<String> response = send(request, Budget.PERSONAL_ACCESS_TOKEN, Priority.HIGH);
+		if (response.statusCode() != 200) {
+			throw new GitHubException(getErrorMessage(response));
+		}
 	}
 	
 	/**
@@ -100,31 +237,14 @@ public class GitHubHelper {
 	public void grantUserAccessToProject(String ghUsername, GitHubProject ghProject) throws GitHubException {
 		if(ghUsername == null) return;
 		
-		String authStringEnc = getAuthStringEnc();
+		HttpRequest request = projectsRequest(this.apiBaseUrl + "/projects/" + ghProject.getId() + "/collaborators/" + ghUsername)
+				.PUT(BodyPublishers.noBody())
+				.build();
 		
-		URL url;
-		try {
-			url = new URL(API_BASE_URL + "/projects/" + ghProject.getId() + "/collaborators/" + ghUsername);
-
-			HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-			connection.setRequestMethod("PUT");
-			connection.setDoInput(true);
-			connection.setDoOutput(true);
-			connection.setUseCaches(false);
-			connection.setRequestProperty("Accept", "application/vnd.github.inertia-preview+json");
-			connection.setRequestProperty("Authorization", "Basic " + authStringEnc);
-			
-			// forward (in case of) error
-			if (connection.getResponseCode() != 204) {
-				String message = getErrorMessage(connection);
-				throw new GitHubException(message);
-			}
-		} catch (MalformedURLException e) {
-			e.printStackTrace();
-			throw new GitHubException(e.getMessage());
-		} catch (IOException e) {
-			e.printStackTrace();
-			throw new GitHubException(e.getMessage());
+		// forward (in case of) error
+		HttpResponse<String> response = send(request, Budget.PERSONAL_ACCESS_TOKEN, Priority.HIGH);
+		if (response.statusCode() != 204) {
+			throw new GitHubException(getErrorMessage(response));
 		}
 	}
 	
@@ -134,98 +254,111 @@ public class GitHubHelper {
 	 * @throws GitHubException If something with the request to the GitHub API went wrong.
 	 */
 	public void deleteGitHubProject(GitHubProject ghProject) throws GitHubException {
-        String authStringEnc = getAuthStringEnc();
+		HttpRequest request = projectsRequest(this.apiBaseUrl + "/projects/" + ghProject.getId())
+				.DELETE()
+				.build();
 		
-		URL url;
-		try {
-			url = new URL(API_BASE_URL + "/projects/" + ghProject.getId());
+		// forward (in case of) error
+		// 404 is ok, because then the project already got deleted before (e.g. when retrying)
+		HttpResponse<String> response = send(request, Budget.PERSONAL_ACCESS_TOKEN, Priority.HIGH);
+		if (response.statusCode() != 204 && response.statusCode() != 404) {
+			throw new GitHubException(getErrorMessage(response));
+		}
+	}
 
-			HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-			connection.setRequestMethod("DELETE");
-			connection.setDoInput(true);
-			connection.setDoOutput(true);
-			connection.setUseCaches(false);
-			connection.setRequestProperty("Accept", "application/vnd.github.inertia-preview+json");
-			connection.setRequestProperty("Authorization", "Basic " + authStringEnc);
-			
-			// forward (in case of) error
-			if (connection.getResponseCode() != 204) {
-				String message = getErrorMessage(connection);
-				throw new GitHubException(message);
+	/**
+	 * Asynchronous version of {@link #grantUserAccessToProject(String, GitHubProject)}.
+	 * @param ghUsername Username of the GitHub user which should get access to the project.
+	 * @param ghProject GitHubProject object
+	 * @return Future that completes when the user got access to the project.
+	 */
+	public CompletableFuture<Void> grantUserAccessToProjectAsync(String ghUsername, GitHubProject ghProject) {
+		return this.executor.submit(() -> {
+			try {
+				grantUserAccessToProject(ghUsername, ghProject);
+				return null;
+			} catch (GitHubException e) {
+				throw new CompletionException(e);
 			}
-		} catch (MalformedURLException e) {
-			e.printStackTrace();
-			throw new GitHubException(e.getMessage());
-		} catch (IOException e) {
-			e.printStackTrace();
-			throw new GitHubException(e.getMessage());
+		});
+	}
+	
+	/**
+	 * Waits for the given future returned by {@link #grantUserAccessToProjectAsync(String, GitHubProject)}.
+	 * @param future Future returned by the asynchronous method.
+	 * @param <T> Type of the result.
+	 * @return Result of the future.
+	 * @throws GitHubException If the request failed, or could not be started because the executor is saturated.
+	 */
+	public static <T> T await(CompletableFuture<T> future) throws GitHubException {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			if(e.getCause() instanceof GitHubException) throw (GitHubException) e.getCause();
+			throw new GitHubException(e.getCause() == null ? e.getMessage() : e.getCause().toString());
 		}
 	}
-
+	
 	/**
 	 * Checks if the repository with the given URL exists.
 	 * Note: To work correct, the GitHub URL which is given, needs to be correct.
 	 * @param gitHubURL GitHub URL to a repository.
-	 * @return
-	 * @throws GitHubException
+	 * @return Whether the repository exists.
+	 * @throws GitHubException If the URL is invalid or the request failed.
 	 */
 	public boolean repoExists(String gitHubURL) throws GitHubException {
-		URL url;
-		try {
-			url = new URL(gitHubURL);
-			HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-			connection.setRequestMethod("GET");
-			connection.connect();
-			
-			return connection.getResponseCode() == HttpURLConnection.HTTP_OK;
-		} catch (MalformedURLException e) {
-			e.printStackTrace();
-			throw new GitHubException(e.getMessage());
-		} catch (IOException e) {
-			e.printStackTrace();
-			throw new GitHubException(e.getMessage());
-		}
+		HttpRequest request = request(gitHubURL).GET().build();
+		return send(request, Budget.ANONYMOUS, Priority.HIGH).statusCode() == 200;
 	}
 	
 	/**
 	 * Returns an ArrayList containing the version tags of the given repository as strings.
+	 * Note: Use the GitHubTagCache instead, which uses conditional requests and thus saves rate limit.
 	 * @param repoOwner Owner/account on GitHub where the repository is hosted.
 	 * @param repoName Name of the GitHub repository.
 	 * @return ArrayList containing the version tags of the repository as strings.
 	 * @throws GitHubException If something with the API request went wrong.
 	 */
 	public ArrayList<String> getRepoVersionTags(String repoOwner, String repoName) throws GitHubException {
-		ArrayList<String> tags = new ArrayList<>();
-		URL url;
+		return getRepoVersionTags(repoOwner, repoName, null).getTags();
+	}
+	
+	/**
+	 * Requests the version tags of the given repository.
+	 * If an ETag is given, then a conditional request is sent. If the tags did not change since the
+	 * response with the given ETag, then GitHub answers with "304 Not Modified", which does not count
+	 * against the rate limit.
+	 * @param repoOwner Owner/account on GitHub where the repository is hosted.
+	 * @param repoName Name of the GitHub repository.
+	 * @param etag ETag of a previous response or null.
+	 * @return GitHubTags containing the version tags (if modified) and the ETag of the response.
+	 * @throws GitHubException If something with the API request went wrong.
+	 */
+	public GitHubTags getRepoVersionTags(String repoOwner, String repoName, String etag) throws GitHubException {
+		HttpRequest.Builder builder = request(this.apiBaseUrl + "/repos/" + repoOwner + "/" + repoName + "/tags").GET();
+		if(etag != null) {
+			builder.header("If-None-Match", etag);
+		}
+		HttpResponse<String> response = send(builder.build(), Budget.ANONYMOUS, Priority.LOW);
+		
+		if(response.statusCode() == 304) {
+			// tags did not change
+			return new GitHubTags(null, etag, true);
+		}
+		
+		// forward (in case of) error
+		if (response.statusCode() != 200) {
+			throw new GitHubException(getErrorMessage(response));
+		}
+		
 		try {
-			url = new URL(API_BASE_URL + "/repos/" + repoOwner + "/" + repoName + "/tags");
-			HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-			connection.setRequestMethod("GET");
-			connection.setDoInput(true);
-			connection.connect();
-			
-			// forward (in case of) error
-			if (connection.getResponseCode() != 200) {
-				String message = getErrorMessage(connection);
-				throw new GitHubException(message);
-			} else {
-				// get response
-				String response = getResponseBody(connection);
-							
-				// convert to JSONObject
-				JSONArray json = (JSONArray) JSONValue.parseWithException(response);
-				for(Object o : json) {
-					JSONObject tag = (JSONObject) o;
-					tags.add((String) tag.get("name"));
-				}
-				return tags;
+			ArrayList<String> tags = new ArrayList<>();
+			JSONArray json = (JSONArray) JSONValue.parseWithException(response.body());
+			for(Object o : json) {
+				JSONObject tag = (JSONObject) o;
+				tags.add((String) tag.get("name"));
 			}
-		} catch (MalformedURLException e) {
-			e.printStackTrace();
-			throw new GitHubException(e.getMessage());
-		} catch (IOException e) {
-			e.printStackTrace();
-			throw new GitHubException(e.getMessage());
+			return new GitHubTags(tags, response.headers().firstValue("ETag").orElse(null), false);
 		} catch (ParseException e) {
 			e.printStackTrace();
 			throw new GitHubException(e.getMessage());
@@ -239,39 +372,20 @@ public class GitHubHelper {
 	 * @throws GitHubException If something with the request to GitHub API went wrong.
 	 */
 	public String getUserAccessToken(String code) throws GitHubException {
-		URL url;
-		try {
-			url = new URL("https://github.com/login/oauth/access_token");
-			
-			String body = this.getOAuthBody(code);
-			
-			HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-			connection.setRequestMethod("POST");
-			connection.setDoInput(true);
-			connection.setDoOutput(true);
-			connection.setUseCaches(false);
-			connection.setRequestProperty("Accept", "application/json"); // otherwise we dont get json result
-			connection.setRequestProperty("Content-Type", "application/json");
-			connection.setRequestProperty("Content-Length", String.valueOf(body.length()));
-			
-			writeRequestBody(connection, body);
-			
-			// forward (in case of) error
-			if (connection.getResponseCode() != 200) {
-				String message = getErrorMessage(connection);
-				throw new GitHubException(message);
-			} else {
-				// get response
-				String response = getResponseBody(connection);
-			    return response;
-			}
-		} catch (MalformedURLException e) {
-			e.printStackTrace();
-			throw new GitHubException(e.getMessage());
-		} catch (IOException e) {
-			e.printStackTrace();
-			throw new GitHubException(e.getMessage());
+		String body = this.getOAuthBody(code);
+		
+		HttpRequest request = request(this.oAuthBaseUrl + "/login/oauth/access_token")
+				.POST(BodyPublishers.ofString(body))
+				.header("Accept", "application/json") // otherwise we dont get json result
+				.header("Content-Type", "application/json")
+				.build();
+		
+		// forward (in case of) error
+		HttpResponse<String> response = send(request);
+		if (response.statusCode() != 200) {
+			throw new GitHubException(getErrorMessage(response));
 		}
+		return response.body();
 	}
 	
 	/**
@@ -281,79 +395,61 @@ public class GitHubHelper {
 	 * @throws GitHubException If something with the request to GitHub API went wrong.
 	 */
 	public String getGitHubUsername(String accessToken) throws GitHubException {
-		URL url;
-		try {
-			url = new URL(API_BASE_URL + "/user");
-			
-			HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-			connection.setRequestMethod("GET");
-			connection.setDoInput(true);
-			connection.setRequestProperty("Authorization", "token " + accessToken);
-			
-			// forward (in case of) error
-			if (connection.getResponseCode() != 200) {
-				String message = getErrorMessage(connection);
-				throw new GitHubException(message);
-			} else {
-				// get response
-				String response = getResponseBody(connection);
-			    return response;
-			}
-		} catch (MalformedURLException e) {
-			e.printStackTrace();
-			throw new GitHubException(e.getMessage());
-		} catch (IOException e) {
-			e.printStackTrace();
-			throw new GitHubException(e.getMessage());
+		HttpRequest request = request(this.apiBaseUrl + "/user")
+				.GET()
+				.header("Authorization", "token " + accessToken)
+				.build();
+		
+		// forward (in case of) error
+		HttpResponse<String> response = send(request);
+		if (response.statusCode() != 200) {
+			throw new GitHubException(getErrorMessage(response));
 		}
+		return response.body();
+	}
+	
+	/**
+	 * Creates a GitHub project in the GitHub organization given by the properties file.
+	 * The project is private and has no columns, until {@link #setUpGitHubProject(GitHubProject)} gets called.
+	 * @param projectName Name of the GitHub project.
+	 * @return The newly created GitHubProject object.
+	 * @throws GitHubException If something with creating the new project went wrong.
+	 */
+	public GitHubProject createGitHubProject(String projectName) throws GitHubException {
+		return createGitHubProject(projectName, Priority.HIGH);
 	}
 	
 	/**
 	 * Creates a GitHub project in the GitHub organization given by the properties file.
 	 * @param projectName Name of the GitHub project.
+	 * @param priority Priority of the request, low for background work like filling the GitHubProjectPool.
 	 * @return The newly created GitHubProject object.
 	 * @throws GitHubException If something with creating the new project went wrong.
 	 */
-	private GitHubProject createGitHubProject(String projectName) throws GitHubException {
+	public GitHubProject createGitHubProject(String projectName, Priority priority) throws GitHubException {
+		if(gitHubPersonalAccessToken == null || gitHubOrganization == null) {
+			throw new GitHubException("One of the variables personal access token or organization are not set.");
+		}
+		
 		String body = getGitHubProjectBody(projectName);
-		String authStringEnc = getAuthStringEnc();
-
-		URL url;
+		
+		HttpRequest request = projectsRequest(this.apiBaseUrl + "/orgs/" + this.gitHubOrganization + "/projects")
+				.POST(BodyPublishers.ofString(body))
+				.header("Content-Type", "application/json")
+				.build();
+		
+		// forward (in case of) error
+		HttpResponse<String> response = send(request, Budget.PERSONAL_ACCESS_TOKEN, priority);
+		if (response.statusCode() != 201) {
+			throw new GitHubException(getErrorMessage(response));
+		}
+		
 		try {
-			url = new URL(API_BASE_URL + "/orgs/" + this.gitHubOrganization + "/projects");
-
-			HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-			connection.setRequestMethod("POST");
-			connection.setDoInput(true);
-			connection.setDoOutput(true);
-			connection.setUseCaches(false);
-			connection.setRequestProperty("Accept", "application/vnd.github.inertia-preview+json");
-			connection.setRequestProperty("Content-Type", "application/json");
-			connection.setRequestProperty("Content-Length", String.valueOf(body.length()));
-			connection.setRequestProperty("Authorization", "Basic " + authStringEnc);
-
-			writeRequestBody(connection, body);
-			
-			// forward (in case of) error
-			if (connection.getResponseCode() != 201) {
-				String message = getErrorMessage(connection);
-				throw new GitHubException(message);
-			} else {
-				// get response
-				String response = getResponseBody(connection);
-				
-				// convert to JSONObject
-				JSONObject json = (JSONObject) JSONValue.parseWithException(response);
-				int gitHubProjectId = ((Long) json.get("id")).intValue();
-				String gitHubProjectHtmlUrl = (String) json.get("html_url");
-				return new GitHubProject(gitHubProjectId, gitHubProjectHtmlUrl);
-			}
-		} catch (MalformedURLException e) {
-			e.printStackTrace();
-			throw new GitHubException(e.getMessage());
-		} catch (IOException e) {
-			e.printStackTrace();
-			throw new GitHubException(e.getMessage());
+			// convert to JSONObject
+			JSONObject json = (JSONObject) JSONValue.parseWithException(response.body());
+			int gitHubProjectId = ((Long) json.get("id")).intValue();
+			String gitHubProjectHtmlUrl = (String) json.get("html_url");
+			return new GitHubProject(gitHubProjectId, gitHubProjectHtmlUrl);
 		} catch (ParseException e) {
 			e.printStackTrace();
 			throw new GitHubException(e.getMessage());
@@ -367,29 +463,45 @@ public class GitHubHelper {
 	 * @param gitHubProjectId Id of the GitHub project id, whose visibility should be updated.
 	 * @throws GitHubException If something with the request to the GitHub API went wrong.
 	 */
-	private void makeGitHubProjectPublic(int gitHubProjectId) throws GitHubException {
+	private void makeGitHubProjectPublic(int gitHubProjectId, Priority priority) throws GitHubException {
 		String body = getVisibilityPublicBody();
-		String authStringEnc = getAuthStringEnc();
-		
-		String url = API_BASE_URL + "/projects/" + gitHubProjectId;
 		
-		HttpClient client = HttpClient.newHttpClient();
-		HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(url))
+		HttpRequest request = projectsRequest(this.apiBaseUrl + "/projects/" + gitHubProjectId)
                 .method("PATCH", BodyPublishers.ofString(body))
                 .header("Content-Type", "application/json")
-                .header("Accept", "application/vnd.github.inertia-preview+json")
-                .header("Authorization", "Basic " + authStringEnc)
                 .build();
 		
-		HttpResponse<String> response;
+		HttpResponse<String> response = send(request, Budget.PERSONAL_ACCESS_TOKEN, priority);
+		if(response.statusCode() != 200) {
+			throw new GitHubException(response.body());
+		}
+	}
+	
+	/**
+	 * Requests the names of the columns of the GitHub project with the given id.
+	 * @param gitHubProjectId Id of the GitHub project.
+	 * @return Names of the columns of the project.
+	 * @throws GitHubException If something with the request to the GitHub API went wrong.
+	 */
+	private ArrayList<String> getProjectColumns(int gitHubProjectId, Priority priority) throws GitHubException {
+		HttpRequest request = projectsRequest(this.apiBaseUrl + "/projects/" + gitHubProjectId + "/columns")
+				.GET()
+				.build();
+		
+		// forward (in case of) error
+		HttpResponse<String> response = send(request, Budget.PERSONAL_ACCESS_TOKEN, priority);
+		if (response.statusCode() != 200) {
+			throw new GitHubException(getErrorMessage(response));
+		}
+		
 		try {
-			response = client.send(request, BodyHandlers.ofString());
-			if(response.statusCode() != 200) {
-				String message = response.body();
-				throw new GitHubException(message);
+			ArrayList<String> columns = new ArrayList<>();
+			JSONArray json = (JSONArray) JSONValue.parseWithException(response.body());
+			for(Object o : json) {
+				columns.add((String) ((JSONObject) o).get("name"));
 			}
-		} catch (IOException | InterruptedException e) {
+			return columns;
+		} catch (ParseException e) {
 			e.printStackTrace();
 			throw new GitHubException(e.getMessage());
 		}
@@ -401,37 +513,108 @@ public class GitHubHelper {
 	 * @param columnName Name of the column, which should be created.
 	 * @throws GitHubException If something with the request to the GitHub API went wrong.
 	 */
-	private void createProjectColumn(int gitHubProjectId, String columnName) throws GitHubException {
+	private void createProjectColumn(int gitHubProjectId, String columnName, Priority priority) throws GitHubException {
 		String body = getCreateColumnBody(columnName);
-		String authStringEnc = getAuthStringEnc();
-
-		URL url;
+		
+		HttpRequest request = projectsRequest(this.apiBaseUrl + "/projects/" + gitHubProjectId + "/columns")
+				.POST(BodyPublishers.ofString(body))
+				.header("Content-Type", "application/json")
+				.build();
+		
+		// forward (in case of) error
+		HttpResponse<String> response = send(request, Budget.PERSONAL_ACCESS_TOKEN, priority);
+		if (response.statusCode() != 201) {
+			throw new GitHubException(getErrorMessage(response));
+		}
+	}
+	
+	/**
+	 * Creates the shared HttpClient.
+	 * @param connectTimeout Timeout in milliseconds for establishing a connection.
+	 * @return HttpClient preferring HTTP/2 and following redirects (needed e.g. for renamed repositories).
+	 */
+	private static HttpClient createHttpClient(int connectTimeout) {
+		return HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_2)
+				.connectTimeout(Duration.ofMillis(connectTimeout))
+				.followRedirects(HttpClient.Redirect.NORMAL)
+				.build();
+	}
+	
+	/**
+	 * Creates a request builder for the given URL, using the configured request timeout.
+	 * @param url URL of the request.
+	 * @return HttpRequest.Builder
+	 * @throws GitHubException If the URL is invalid.
+	 */
+	private HttpRequest.Builder request(String url) throws GitHubException {
 		try {
-			url = new URL(API_BASE_URL + "/projects/" + gitHubProjectId + "/columns");
-
-			HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-			connection.setRequestMethod("POST");
-			connection.setDoInput(true);
-			connection.setDoOutput(true);
-			connection.setUseCaches(false);
-			connection.setRequestProperty("Accept", "application/vnd.github.inertia-preview+json");
-			connection.setRequestProperty("Content-Type", "application/json");
-			connection.setRequestProperty("Content-Length", String.valueOf(body.length()));
-			connection.setRequestProperty("Authorization", "Basic " + authStringEnc);
-
-			writeRequestBody(connection, body);
-			
-			// forward (in case of) error
-			if (connection.getResponseCode() != 201) {
-				String message = getErrorMessage(connection);
-				throw new GitHubException(message);
-			}
-		} catch (MalformedURLException e) {
+			return HttpRequest.newBuilder()
+					.uri(URI.create(url))
+					.timeout(this.requestTimeout);
+		} catch (IllegalArgumentException e) {
 			e.printStackTrace();
 			throw new GitHubException(e.getMessage());
+		}
+	}
+	
+	/**
+	 * Creates a request builder for the GitHub projects API, which is authorized by using the
+	 * personal access token.
+	 * @param url URL of the request.
+	 * @return HttpRequest.Builder
+	 * @throws GitHubException If the URL is invalid.
+	 */
+	private HttpRequest.Builder projectsRequest(String url) throws GitHubException {
+		return request(url)
+				.header("Accept", "application/vnd.github.inertia-preview+json")
+				.header("Authorization", "Basic " + getAuthStringEnc());
+	}
+	
+	/**
+	 * Sends the given request by using the shared HttpClient, once the rate limiter allows it.
+	 * @param request Request to send.
+	 * @param budget Rate limit used by the request.
+	 * @param priority Priority of the request.
+	 * @return Response with the body as string.
+	 * @throws GitHubException If the request got shed by the rate limiter, could not be sent or timed out.
+	 */
+	private HttpResponse<String> send(HttpRequest request, Budget budget, Priority priority) throws GitHubException {
+		this.rateLimiter.acquire(budget, priority);
+		HttpResponse<String> response = send(request);
+		this.rateLimiter.update(budget, response);
+		return response;
+	}
+	
+	/**
+	 * Sends the given request by using the shared HttpClient.
+	 * Only used for requests with user access tokens, which are not covered by the rate limiter.
+	 * @param request Request to send.
+	 * @return Response with the body as string.
+	 * @throws GitHubException If the request could not be sent or timed out, or got rejected by the circuit breaker or the bulkhead.
+	 */
+	private HttpResponse<String> send(HttpRequest request) throws GitHubException {
+		Semaphore permit = this.bulkhead.tryEnter();
+		if(permit == null) throw new GitHubException(this.bulkhead.getRejectionMessage());
+		try {
+			if(!this.circuitBreaker.allowRequest()) throw new GitHubException(this.circuitBreaker.getRejectionMessage());
+			HttpResponse<String> response = this.client.send(request, BodyHandlers.ofString());
+			if(response.statusCode() >= 500) {
+				this.circuitBreaker.recordFailure();
+			} else {
+				this.circuitBreaker.recordSuccess();
+			}
+			return response;
 		} catch (IOException e) {
+			this.circuitBreaker.recordFailure();
 			e.printStackTrace();
 			throw new GitHubException(e.getMessage());
+		} catch (InterruptedException e) {
+			this.circuitBreaker.recordFailure();
+			Thread.currentThread().interrupt();
+			throw new GitHubException(e.getMessage());
+		} finally {
+			this.bulkhead.exit(permit);
 		}
 	}
 	
@@ -492,47 +675,15 @@ public class GitHubHelper {
 	
 	/**
 	 * Extracts the error message from the response.
-	 * @param connection HttpURLConnection object
+	 * @param response Response of the GitHub API.
 	 * @return Error message as String.
-	 * @throws IOException
 	 */
-	private String getErrorMessage(HttpURLConnection connection) throws IOException {
-		String message = "Error creating GitHub project at: ";
-		BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getErrorStream()));
-		for (String line; (line = reader.readLine()) != null;) {
-			message += line;
-		}
-		reader.close();
-		return message;
+	private String getErrorMessage(HttpResponse<String> response) {
+		return "Error creating GitHub project at: " + response.body();
 	}
 	
-	/**
-	 * Getter for the body of the response.
-	 * @param connection HttpURLConnection object
-	 * @return Body of the response as string.
-	 * @throws IOException
-	 */
-	private String getResponseBody(HttpURLConnection connection) throws IOException {
-		String response = "";
-		BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-		for (String line; (line = reader.readLine()) != null;) {
-			response += line;
-		}
-		reader.close();
-		return response;
-	}
-	
-	/**
-	 * Writes the request body.
-	 * @param connection HttpURLConnection object
-	 * @param body Body that should be written to the request.
-	 * @throws IOException
-	 */
-	private void writeRequestBody(HttpURLConnection connection, String body) throws IOException {
-		OutputStreamWriter writer = new OutputStreamWriter(connection.getOutputStream());
-		writer.write(body);
-		writer.flush();
-		writer.close();
+	private static boolean isEmpty(String value) {
+		return value == null || value.isEmpty();
 	}
 	
 }
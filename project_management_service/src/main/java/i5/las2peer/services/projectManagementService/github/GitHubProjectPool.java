@@ -0,0 +1,208 @@
+package i5.las2peer.services.projectManagementService.github;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.json.simple.JSONObject;
+
+import i5.las2peer.services.projectManagementService.database.DatabaseManager;
+import i5.las2peer.services.projectManagementService.exception.GitHubException;
+import i5.las2peer.services.projectManagementService.github.GitHubRateLimiter.Priority;
+
+/**
+ * Pool of GitHub projects, which are created in advance (public and with the predefined columns).
+ * When a new project gets stored, it takes a GitHub project from the pool, which then only needs to be
+ * renamed, instead of being created and set up by multiple requests to GitHub.
+ * The pool is stored in the database (so that it is shared by all nodes) and gets refilled in the
+ * background up to the configured target size. A target size of 0 disables the pool.
+ */
+public class GitHubProjectPool {
+
+	private static GitHubProjectPool instance;
+	private static final Logger logger = Logger.getLogger(GitHubProjectPool.class.getName());
+
+	private DatabaseManager dbm;
+	private ScheduledExecutorService replenisher;
+	private volatile int targetSize = 0;
+
+	/**
+	 * Number of ready GitHub projects in the pool, as seen by the last refill. -1 if unknown.
+	 */
+	private volatile int size = -1;
+
+	private final AtomicLong claimed = new AtomicLong();
+	private final AtomicLong created = new AtomicLong();
+	private final AtomicLong failures = new AtomicLong();
+
+	// make sure that constructor cannot be accessed from outside
+	private GitHubProjectPool() {}
+
+	public static synchronized GitHubProjectPool getInstance() {
+		if(GitHubProjectPool.instance == null) {
+			GitHubProjectPool.instance = new GitHubProjectPool();
+		}
+		return GitHubProjectPool.instance;
+	}
+
+	/**
+	 * Starts refilling the pool regularly. Does nothing if the target size is 0 or the pool was started already.
+	 * @param dbm DatabaseManager used to access the pool.
+	 * @param targetSize Number of GitHub projects that should be available in the pool.
+	 * @param intervalSeconds Time in seconds between two checks whether the pool needs to be refilled.
+	 */
+	public synchronized void start(DatabaseManager dbm, int targetSize, int intervalSeconds) {
+		if(targetSize <= 0 || this.replenisher != null) return;
+		this.dbm = dbm;
+		this.targetSize = targetSize;
+		this.replenisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "github-project-pool");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.replenisher.scheduleWithFixedDelay(this::refill, 0, intervalSeconds, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Whether the pool is enabled, i.e. its target size is greater than 0.
+	 * @return Whether GitHub projects should be taken from the pool.
+	 */
+	public boolean isEnabled() {
+		return this.targetSize > 0;
+	}
+
+	/**
+	 * Takes a GitHub project from the pool. Should be called as part of the transaction that stores
+	 * the project, so that the GitHub project is returned to the pool if the transaction gets rolled back.
+	 * @param connection Connection object, whose auto commit is disabled.
+	 * @return GitHub project from the pool, or null if the pool is disabled or empty.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	public GitHubProject claim(Connection connection) throws SQLException {
+		if(!isEnabled()) return null;
+
+		PreparedStatement statement = connection.prepareStatement(
+				"SELECT * FROM GitHubProjectPool WHERE ready = TRUE ORDER BY id LIMIT 1 FOR UPDATE;");
+		ResultSet queryResult = statement.executeQuery();
+		if(!queryResult.next()) {
+			statement.close();
+			return null;
+		}
+		int id = queryResult.getInt("id");
+		GitHubProject gitHubProject = new GitHubProject(queryResult.getInt("gitHubProjectId"),
+				queryResult.getString("gitHubProjectHtmlUrl"));
+		statement.close();
+
+		statement = connection.prepareStatement("DELETE FROM GitHubProjectPool WHERE id = ?;");
+		statement.setInt(1, id);
+		statement.executeUpdate();
+		statement.close();
+
+		this.claimed.incrementAndGet();
+		return gitHubProject;
+	}
+
+	/**
+	 * Refills the pool in the background. Should be called after a GitHub project was taken from the pool.
+	 */
+	public synchronized void wakeUp() {
+		if(this.replenisher == null) return;
+		this.replenisher.execute(this::refill);
+	}
+
+	/**
+	 * Finishes setting up GitHub projects which were created but not set up before (e.g. because a request
+	 * failed), and creates new GitHub projects until the pool reaches its target size.
+	 * The requests to GitHub use the low priority, so that they do not use up the rate limit needed for
+	 * user-facing requests.
+	 */
+	private void refill() {
+		GitHubHelper gitHubHelper = GitHubHelper.getInstance();
+		try (Connection connection = this.dbm.getConnection()) {
+			// finish GitHub projects that are not ready yet
+			PreparedStatement statement = connection.prepareStatement("SELECT * FROM GitHubProjectPool WHERE ready = FALSE;");
+			ResultSet queryResult = statement.executeQuery();
+			while(queryResult.next()) {
+				GitHubProject gitHubProject = new GitHubProject(queryResult.getInt("gitHubProjectId"),
+						queryResult.getString("gitHubProjectHtmlUrl"));
+				gitHubHelper.setUpGitHubProject(gitHubProject, Priority.LOW);
+				markReady(queryResult.getInt("id"), connection);
+			}
+			statement.close();
+
+			int count = countReady(connection);
+			this.size = count;
+			while(count < this.targetSize) {
+				GitHubProject gitHubProject = gitHubHelper.createGitHubProject("cae-pool-" + UUID.randomUUID(), Priority.LOW);
+				// store it before setting it up, so that it does not get lost if setting it up fails
+				int id = insert(gitHubProject, connection);
+				gitHubHelper.setUpGitHubProject(gitHubProject, Priority.LOW);
+				markReady(id, connection);
+				this.created.incrementAndGet();
+				this.size = ++count;
+			}
+		} catch (GitHubException e) {
+			// try again on the next refill
+			this.failures.incrementAndGet();
+			logger.warning("Could not refill GitHub project pool: " + e.getMessage());
+		} catch (Exception e) {
+			this.failures.incrementAndGet();
+			logger.log(Level.WARNING, "Could not refill GitHub project pool.", e);
+		}
+	}
+
+	private int countReady(Connection connection) throws SQLException {
+		PreparedStatement statement = connection.prepareStatement("SELECT COUNT(*) AS size FROM GitHubProjectPool WHERE ready = TRUE;");
+		ResultSet queryResult = statement.executeQuery();
+		queryResult.next();
+		int count = queryResult.getInt("size");
+		statement.close();
+		return count;
+	}
+
+	private int insert(GitHubProject gitHubProject, Connection connection) throws SQLException {
+		PreparedStatement statement = connection.prepareStatement(
+				"INSERT INTO GitHubProjectPool (gitHubProjectId, gitHubProjectHtmlUrl) VALUES (?,?);", Statement.RETURN_GENERATED_KEYS);
+		statement.setInt(1, gitHubProject.getId());
+		statement.setString(2, gitHubProject.getHtmlUrl());
+		statement.executeUpdate();
+		ResultSet genKeys = statement.getGeneratedKeys();
+		genKeys.next();
+		int id = genKeys.getInt(1);
+		statement.close();
+		return id;
+	}
+
+	private void markReady(int id, Connection connection) throws SQLException {
+		PreparedStatement statement = connection.prepareStatement("UPDATE GitHubProjectPool SET ready = TRUE WHERE id = ?;");
+		statement.setInt(1, id);
+		statement.executeUpdate();
+		statement.close();
+	}
+
+	/**
+	 * Creates a JSON object containing the statistics of the pool.
+	 * @return JSONObject containing target size, current size, number of claimed and created GitHub projects
+	 * and failed refills.
+	 */
+	@SuppressWarnings("unchecked")
+	public JSONObject getStatistics() {
+		JSONObject statistics = new JSONObject();
+		statistics.put("targetSize", this.targetSize);
+		statistics.put("size", this.size);
+		statistics.put("claimed", this.claimed.get());
+		statistics.put("created", this.created.get());
+		statistics.put("failures", this.failures.get());
+		return statistics;
+	}
+
+}
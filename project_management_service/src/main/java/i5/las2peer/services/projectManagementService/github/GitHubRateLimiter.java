@@ -0,0 +1,204 @@
+package i5.las2peer.services.projectManagementService.github;
+
+import java.net.http.HttpResponse;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.json.simple.JSONObject;
+
+import i5.las2peer.services.projectManagementService.exception.GitHubException;
+
+/**
+ * Keeps track of the remaining GitHub API rate limit and schedules the requests to GitHub accordingly.
+ * The budget is tracked separately for every kind of authentication, since GitHub uses a separate
+ * rate limit for requests using the personal access token and for anonymous requests.
+ * <ul>
+ * <li>The remaining budget is read from the X-RateLimit-* headers of every response.</li>
+ * <li>Low priority requests (e.g. tag lookups) may only use the budget above the configured reserve,
+ * so that user-facing writes (e.g. creating a project) still succeed during bursts. The reserve is capped
+ * at a tenth of the rate limit of the budget, since e.g. the anonymous rate limit of 60 requests per
+ * hour is smaller than a reserve meant for the personal access token.</li>
+ * <li>If there is no budget left for a request, then it waits until the rate limit gets reset, if this
+ * happens within the configured maximum waiting time. Otherwise, the request is shed without sending it.</li>
+ * </ul>
+ */
+public class GitHubRateLimiter {
+
+	/**
+	 * Rate limits that are tracked separately.
+	 */
+	public enum Budget {
+		PERSONAL_ACCESS_TOKEN, ANONYMOUS
+	}
+
+	/**
+	 * Priority of a request. Low priority requests are the first to be shed.
+	 */
+	public enum Priority {
+		HIGH, LOW
+	}
+
+	private final Map<Budget, State> states = new EnumMap<>(Budget.class);
+
+	private volatile int reserve = 100;
+	private volatile long maxWaitMillis = 10000;
+
+	public GitHubRateLimiter() {
+		for(Budget budget : Budget.values()) {
+			this.states.put(budget, new State());
+		}
+	}
+
+	/**
+	 * Sets the reserve and the maximum waiting time. The tracked budgets get reset.
+	 * @param reserve Number of requests that are reserved for high priority requests. At most a tenth of
+	 * the rate limit of a budget is reserved.
+	 * @param maxWaitMillis Maximum time in milliseconds a request waits for the rate limit to be reset.
+	 */
+	public void configure(int reserve, long maxWaitMillis) {
+		this.reserve = reserve;
+		this.maxWaitMillis = maxWaitMillis;
+		for(State state : this.states.values()) {
+			state.clear();
+		}
+	}
+
+	/**
+	 * Needs to be called before sending a request to GitHub. Blocks until there is budget left for the
+	 * request, or throws an exception if the request should not be sent.
+	 * @param budget Rate limit used by the request.
+	 * @param priority Priority of the request.
+	 * @throws GitHubException If the request got shed, because the rate limit is (nearly) exceeded.
+	 */
+	public void acquire(Budget budget, Priority priority) throws GitHubException {
+		State state = this.states.get(budget);
+		long deadline = System.currentTimeMillis() + this.maxWaitMillis;
+
+		synchronized(state) {
+			boolean waited = false;
+			while(true) {
+				long now = System.currentTimeMillis();
+				state.resetIfDue(now);
+				long required = priority == Priority.HIGH ? 1 : getReserve(state) + 1;
+				if(state.remaining < 0 || state.remaining >= required) {
+					// unknown budget (no response yet) or enough budget left
+					if(state.remaining > 0) state.remaining--;
+					return;
+				}
+				if(state.resetAt > deadline) {
+					state.shed.incrementAndGet();
+					throw new GitHubException("GitHub rate limit exceeded, " + priority.name().toLowerCase()
+							+ " priority request was not sent. Rate limit gets reset at " + state.resetAt + ".");
+				}
+				if(!waited) {
+					state.waited.incrementAndGet();
+					waited = true;
+				}
+				try {
+					state.wait(Math.max(1, state.resetAt - now));
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new GitHubException("Interrupted while waiting for the GitHub rate limit to be reset.");
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of requests of the given budget that are reserved for high priority requests.
+	 * @param state Tracked budget.
+	 * @return Configured reserve, capped at a tenth of the rate limit once it is known.
+	 */
+	private long getReserve(State state) {
+		return state.limit < 0 ? this.reserve : Math.min(this.reserve, state.limit / 10);
+	}
+
+	/**
+	 * Updates the tracked budget by using the rate limit headers of the given response.
+	 * @param budget Rate limit used by the request.
+	 * @param response Response of the GitHub API.
+	 */
+	public void update(Budget budget, HttpResponse<?> response) {
+		State state = this.states.get(budget);
+		long remaining = response.headers().firstValueAsLong("X-RateLimit-Remaining").orElse(-1);
+		long limit = response.headers().firstValueAsLong("X-RateLimit-Limit").orElse(-1);
+		long reset = response.headers().firstValueAsLong("X-RateLimit-Reset").orElse(-1);
+		long retryAfter = response.headers().firstValueAsLong("Retry-After").orElse(-1);
+		boolean limited = response.statusCode() == 403 || response.statusCode() == 429;
+
+		synchronized(state) {
+			if(remaining >= 0 && reset >= 0) {
+				long resetAt = reset * 1000;
+				if(resetAt > state.resetAt) {
+					// new rate limit window
+					state.remaining = remaining;
+					state.resetAt = resetAt;
+				} else if(resetAt == state.resetAt) {
+					// responses may arrive out of order, the lowest value is the most recent one
+					state.remaining = state.remaining < 0 ? remaining : Math.min(state.remaining, remaining);
+				}
+				if(limit >= 0) state.limit = limit;
+			}
+			if(limited && retryAfter >= 0) {
+				// secondary rate limit, GitHub tells how long to wait
+				state.remaining = 0;
+				state.resetAt = Math.max(state.resetAt, System.currentTimeMillis() + retryAfter * 1000);
+			}
+			state.notifyAll();
+		}
+	}
+
+	/**
+	 * Creates a JSON object containing the current budgets.
+	 * @return JSONObject containing limit, reserve, remaining requests, reset time and number of shed and
+	 * delayed requests for every budget. Remaining and limit are -1 as long as they are unknown.
+	 */
+	@SuppressWarnings("unchecked")
+	public JSONObject getStatistics() {
+		JSONObject statistics = new JSONObject();
+		statistics.put("reserve", this.reserve);
+		for(Map.Entry<Budget, State> entry : this.states.entrySet()) {
+			State state = entry.getValue();
+			JSONObject budget = new JSONObject();
+			synchronized(state) {
+				state.resetIfDue(System.currentTimeMillis());
+				budget.put("limit", state.limit);
+				budget.put("reserve", getReserve(state));
+				budget.put("remaining", state.remaining);
+				budget.put("resetAt", state.resetAt);
+			}
+			budget.put("shed", state.shed.get());
+			budget.put("waited", state.waited.get());
+			statistics.put(entry.getKey().name().toLowerCase(), budget);
+		}
+		return statistics;
+	}
+
+	/**
+	 * Tracked rate limit. Remaining and limit are -1 as long as no response was received.
+	 */
+	private static class State {
+		private long limit = -1;
+		private long remaining = -1;
+		private long resetAt = 0;
+		private final AtomicLong shed = new AtomicLong();
+		private final AtomicLong waited = new AtomicLong();
+
+		private void resetIfDue(long now) {
+			if(this.resetAt > 0 && now >= this.resetAt) {
+				// the rate limit got reset, the next response tells the new budget
+				this.remaining = -1;
+				this.resetAt = 0;
+			}
+		}
+
+		private synchronized void clear() {
+			this.limit = -1;
+			this.remaining = -1;
+			this.resetAt = 0;
+			notifyAll();
+		}
+	}
+
+}
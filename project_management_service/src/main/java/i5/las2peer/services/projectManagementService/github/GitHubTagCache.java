@@ -0,0 +1,223 @@
+package i5.las2peer.services.projectManagementService.github;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import org.json.simple.JSONObject;
+
+import i5.las2peer.services.projectManagementService.concurrency.BoundedExecutor;
+import i5.las2peer.services.projectManagementService.exception.GitHubException;
+
+/**
+ * Caches the version tags of GitHub repositories (used by external dependencies), so that
+ * listing the components of projects does not use up the rate limit of the GitHub API.
+ * <ul>
+ * <li>Expired entries are revalidated by using conditional requests with the stored ETag.
+ * "304 Not Modified" responses do not count against the rate limit.</li>
+ * <li>Concurrent requests for the same repository are collapsed into a single request.</li>
+ * <li>Expired entries are served while being revalidated in the background, and are kept if
+ * revalidating them fails (e.g. because GitHub is slow or the rate limit is exceeded).</li>
+ * </ul>
+ */
+public class GitHubTagCache {
+
+	private static GitHubTagCache instance;
+	private static final Logger logger = Logger.getLogger(GitHubTagCache.class.getName());
+
+	private int maxSize = 1000;
+	private long ttlMillis = 300 * 1000L;
+
+	/**
+	 * Cached tags mapped by "owner/repo". Access order is used, so that the least recently
+	 * used repository gets evicted when the cache is full.
+	 */
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+			return size() > GitHubTagCache.this.maxSize;
+		}
+	};
+
+	/**
+	 * Requests to GitHub that are currently running, mapped by "owner/repo".
+	 */
+	private final ConcurrentHashMap<String, CompletableFuture<Entry>> inFlight = new ConcurrentHashMap<>();
+
+	private BoundedExecutor executor = new BoundedExecutor("github-tags", 4, 64);
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong staleHits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong notModified = new AtomicLong();
+	private final AtomicLong failures = new AtomicLong();
+
+	// make sure that constructor cannot be accessed from outside
+	private GitHubTagCache() {}
+
+	public static synchronized GitHubTagCache getInstance() {
+		if(GitHubTagCache.instance == null) {
+			GitHubTagCache.instance = new GitHubTagCache();
+		}
+		return GitHubTagCache.instance;
+	}
+
+	/**
+	 * Sets size and time to live of the cache.
+	 * @param maxSize Maximum number of cached repositories.
+	 * @param ttlSeconds Time in seconds after which the tags of a repository get revalidated.
+	 */
+	public synchronized void configure(int maxSize, int ttlSeconds) {
+		this.maxSize = maxSize;
+		this.ttlMillis = ttlSeconds * 1000L;
+		this.entries.clear();
+	}
+
+	/**
+	 * Returns the version tags of the given repository.
+	 * If the cached tags are expired, then they are returned anyway and get revalidated in the background.
+	 * Only if the repository is not cached, then this waits for the response of GitHub.
+	 * @param repoOwner Owner/account on GitHub where the repository is hosted.
+	 * @param repoName Name of the GitHub repository.
+	 * @return ArrayList containing the version tags of the repository as strings.
+	 * @throws GitHubException If the repository is not cached and requesting its tags failed.
+	 */
+	public ArrayList<String> getRepoVersionTags(String repoOwner, String repoName) throws GitHubException {
+		String key = repoOwner + "/" + repoName;
+		Entry entry = getEntry(key);
+
+		if(entry != null) {
+			if(entry.isExpired(this.ttlMillis)) {
+				// serve stale tags while revalidating them
+				this.staleHits.incrementAndGet();
+				request(repoOwner, repoName, entry);
+			} else {
+				this.hits.incrementAndGet();
+			}
+			return new ArrayList<>(entry.tags);
+		}
+
+		this.misses.incrementAndGet();
+		try {
+			return new ArrayList<>(request(repoOwner, repoName, null).join().tags);
+		} catch (CompletionException e) {
+			if(e.getCause() instanceof GitHubException) throw (GitHubException) e.getCause();
+			throw new GitHubException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Requests the tags of the given repository from GitHub, unless there is a request for it
+	 * running already.
+	 * @param repoOwner Owner/account on GitHub where the repository is hosted.
+	 * @param repoName Name of the GitHub repository.
+	 * @param current Currently cached entry, whose ETag gets used for a conditional request. Null if not cached.
+	 * @return Future that completes with the new entry of the repository.
+	 */
+	private CompletableFuture<Entry> request(String repoOwner, String repoName, Entry current) {
+		String key = repoOwner + "/" + repoName;
+		CompletableFuture<Entry> future = new CompletableFuture<>();
+		CompletableFuture<Entry> running = this.inFlight.putIfAbsent(key, future);
+		if(running != null) return running;
+
+		this.executor.submit(() -> fetch(repoOwner, repoName, current)).whenComplete((entry, e) -> {
+			this.inFlight.remove(key, future);
+			if(e != null) {
+				future.completeExceptionally(e);
+			} else {
+				future.complete(entry);
+			}
+		});
+		return future;
+	}
+
+	/**
+	 * Requests the tags of the given repository from GitHub and stores them in the cache.
+	 * If the request fails and there is a cached entry, then the cached entry is kept and used
+	 * until it expires again, so that GitHub is not requested again immediately.
+	 * @param repoOwner Owner/account on GitHub where the repository is hosted.
+	 * @param repoName Name of the GitHub repository.
+	 * @param current Currently cached entry or null.
+	 * @return New entry of the repository.
+	 */
+	private Entry fetch(String repoOwner, String repoName, Entry current) {
+		String key = repoOwner + "/" + repoName;
+		Entry entry;
+		try {
+			GitHubTags response = GitHubHelper.getInstance().getRepoVersionTags(repoOwner, repoName,
+					current == null ? null : current.etag);
+			if(response.isNotModified() && current != null) {
+				this.notModified.incrementAndGet();
+				entry = current.revalidated();
+			} else {
+				entry = new Entry(response.getTags(), response.getEtag());
+			}
+		} catch (GitHubException e) {
+			this.failures.incrementAndGet();
+			if(current == null) throw new CompletionException(e);
+			logger.warning("Could not revalidate tags of " + key + ", keeping cached tags: " + e.getMessage());
+			entry = current.revalidated();
+		}
+		synchronized(this) {
+			this.entries.put(key, entry);
+		}
+		return entry;
+	}
+
+	private synchronized Entry getEntry(String key) {
+		return this.entries.get(key);
+	}
+
+	/**
+	 * Creates a JSON object containing the statistics of the cache.
+	 * @return JSONObject containing size, hits, stale hits, misses, not modified responses and failed requests.
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized JSONObject getStatistics() {
+		JSONObject statistics = new JSONObject();
+		statistics.put("size", this.entries.size());
+		statistics.put("maxSize", this.maxSize);
+		statistics.put("hits", this.hits.get());
+		statistics.put("staleHits", this.staleHits.get());
+		statistics.put("misses", this.misses.get());
+		statistics.put("notModified", this.notModified.get());
+		statistics.put("failures", this.failures.get());
+		statistics.put("inFlight", this.inFlight.size());
+		return statistics;
+	}
+
+	/**
+	 * Cached tags of a repository together with their ETag and the time when they were checked.
+	 */
+	private static class Entry {
+		private final ArrayList<String> tags;
+		private final String etag;
+		private final long checkedAt;
+
+		private Entry(ArrayList<String> tags, String etag) {
+			this(tags, etag, System.currentTimeMillis());
+		}
+
+		private Entry(ArrayList<String> tags, String etag, long checkedAt) {
+			this.tags = tags;
+			this.etag = etag;
+			this.checkedAt = checkedAt;
+		}
+
+		private Entry revalidated() {
+			return new Entry(this.tags, this.etag);
+		}
+
+		private boolean isExpired(long ttlMillis) {
+			return System.currentTimeMillis() - this.checkedAt >= ttlMillis;
+		}
+	}
+
+}
@@ -0,0 +1,43 @@
+package i5.las2peer.services.projectManagementService.github;
+
+import java.util.ArrayList;
+
+/**
+ * Result of a (conditional) request for the version tags of a GitHub repository.
+ */
+public class GitHubTags {
+
+	/**
+	 * Version tags of the repository. Null, if the tags were not modified.
+	 */
+	private ArrayList<String> tags;
+
+	/**
+	 * ETag of the response, which can be used for conditional requests.
+	 */
+	private String etag;
+
+	/**
+	 * Whether GitHub responded with "304 Not Modified", i.e. the tags did not change
+	 * since the request that returned the ETag.
+	 */
+	private boolean notModified;
+
+	public GitHubTags(ArrayList<String> tags, String etag, boolean notModified) {
+		this.tags = tags;
+		this.etag = etag;
+		this.notModified = notModified;
+	}
+
+	public ArrayList<String> getTags() {
+		return this.tags;
+	}
+
+	public String getEtag() {
+		return this.etag;
+	}
+
+	public boolean isNotModified() {
+		return this.notModified;
+	}
+}
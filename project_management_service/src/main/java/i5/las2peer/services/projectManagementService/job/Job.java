@@ -0,0 +1,200 @@
+package i5.las2peer.services.projectManagementService.job;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+
+import org.json.simple.JSONObject;
+
+import i5.las2peer.services.projectManagementService.exception.JobNotFoundException;
+
+/**
+ * A long running operation (e.g. deleting a project), which gets performed in the background by the
+ * OutboxDispatcher. The request starting the job only stores it and returns its id, which can then be
+ * used to request the status of the job.
+ * The outbox entries belonging to a job reference it. The job is finished as soon as none of them is left.
+ */
+public class Job {
+
+	/**
+	 * Type of the job that deletes a project. The target id is the id of the project.
+	 */
+	public static final String DELETE_PROJECT = "delete_project";
+
+	/**
+	 * Id of the job, which is set to -1 before the job gets persisted.
+	 */
+	private int id = -1;
+
+	/**
+	 * Type of the job, e.g. {@link #DELETE_PROJECT}.
+	 */
+	private String type;
+
+	/**
+	 * Id of the project (or other entity) the job belongs to.
+	 */
+	private int targetId;
+
+	/**
+	 * Id of the user who started the job.
+	 */
+	private int userId;
+
+	private JobStatus status = JobStatus.PENDING;
+
+	/**
+	 * Error message, if the job failed.
+	 */
+	private String error;
+
+	private Timestamp createdAt;
+	private Timestamp updatedAt;
+
+	/**
+	 * Creates a new job, which is not yet stored in the database.
+	 * @param type Type of the job.
+	 * @param targetId Id of the project (or other entity) the job belongs to.
+	 * @param userId Id of the user who started the job.
+	 */
+	public Job(String type, int targetId, int userId) {
+		this.type = type;
+		this.targetId = targetId;
+		this.userId = userId;
+	}
+
+	/**
+	 * Loads the job with the given id from the database.
+	 * @param id Id of the job.
+	 * @param connection Connection object
+	 * @throws SQLException If something with the database went wrong (JobNotFoundException if there is no job with the given id).
+	 */
+	public Job(int id, Connection connection) throws SQLException {
+		PreparedStatement statement = connection.prepareStatement("SELECT * FROM Job WHERE id = ?;");
+		statement.setInt(1, id);
+		ResultSet queryResult = statement.executeQuery();
+		if(!queryResult.next()) {
+			statement.close();
+			throw new JobNotFoundException();
+		}
+		this.id = id;
+		this.type = queryResult.getString("type");
+		this.targetId = queryResult.getInt("targetId");
+		this.userId = queryResult.getInt("userId");
+		this.status = JobStatus.fromString(queryResult.getString("status"));
+		this.error = queryResult.getString("error");
+		this.createdAt = queryResult.getTimestamp("createdAt");
+		this.updatedAt = queryResult.getTimestamp("updatedAt");
+		statement.close();
+	}
+
+	/**
+	 * Stores the job. Should be called as part of the transaction that stores the outbox entry starting the job.
+	 * @param connection Connection object
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	public void persist(Connection connection) throws SQLException {
+		PreparedStatement statement = connection.prepareStatement(
+				"INSERT INTO Job (type, targetId, userId, status) VALUES (?,?,?,?);", Statement.RETURN_GENERATED_KEYS);
+		statement.setString(1, this.type);
+		statement.setInt(2, this.targetId);
+		statement.setInt(3, this.userId);
+		statement.setString(4, this.status.toString());
+		statement.executeUpdate();
+		ResultSet genKeys = statement.getGeneratedKeys();
+		genKeys.next();
+		this.id = genKeys.getInt(1);
+		statement.close();
+	}
+
+	/**
+	 * Marks the job with the given id as running.
+	 * @param jobId Id of the job.
+	 * @param connection Connection object
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	public static void start(int jobId, Connection connection) throws SQLException {
+		PreparedStatement statement = connection.prepareStatement(
+				"UPDATE Job SET status = ? WHERE id = ? AND status = ?;");
+		statement.setString(1, JobStatus.RUNNING.toString());
+		statement.setInt(2, jobId);
+		statement.setString(3, JobStatus.PENDING.toString());
+		statement.executeUpdate();
+		statement.close();
+	}
+
+	/**
+	 * Marks the job with the given id as succeeded, if none of its outbox entries is left.
+	 * Should be called after an outbox entry of the job got completed.
+	 * @param jobId Id of the job.
+	 * @param connection Connection object
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	public static void finishIfDone(int jobId, Connection connection) throws SQLException {
+		PreparedStatement statement = connection.prepareStatement(
+				"UPDATE Job SET status = ? WHERE id = ? AND status = ? AND NOT EXISTS (SELECT 1 FROM Outbox WHERE jobId = ?);");
+		statement.setString(1, JobStatus.SUCCEEDED.toString());
+		statement.setInt(2, jobId);
+		statement.setString(3, JobStatus.RUNNING.toString());
+		statement.setInt(4, jobId);
+		statement.executeUpdate();
+		statement.close();
+	}
+
+	/**
+	 * Marks the job with the given id as failed.
+	 * @param jobId Id of the job.
+	 * @param error Error message of the operation that failed.
+	 * @param connection Connection object
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	public static void fail(int jobId, String error, Connection connection) throws SQLException {
+		PreparedStatement statement = connection.prepareStatement("UPDATE Job SET status = ?, error = ? WHERE id = ?;");
+		statement.setString(1, JobStatus.FAILED.toString());
+		statement.setString(2, error);
+		statement.setInt(3, jobId);
+		statement.executeUpdate();
+		statement.close();
+	}
+
+	/**
+	 * Returns the JSON representation of this job.
+	 * @return a JSON object representing a job
+	 */
+	@SuppressWarnings("unchecked")
+	public JSONObject toJSONObject() {
+		JSONObject jsonJob = new JSONObject();
+		jsonJob.put("id", this.id);
+		jsonJob.put("type", this.type);
+		jsonJob.put("targetId", this.targetId);
+		jsonJob.put("status", this.status.toString());
+		if(this.error != null) jsonJob.put("error", this.error);
+		if(this.createdAt != null) jsonJob.put("createdAt", this.createdAt.getTime());
+		if(this.updatedAt != null) jsonJob.put("updatedAt", this.updatedAt.getTime());
+		return jsonJob;
+	}
+
+	public int getId() {
+		return this.id;
+	}
+
+	public String getType() {
+		return this.type;
+	}
+
+	public int getTargetId() {
+		return this.targetId;
+	}
+
+	public int getUserId() {
+		return this.userId;
+	}
+
+	public JobStatus getStatus() {
+		return this.status;
+	}
+
+}
@@ -0,0 +1,41 @@
+package i5.las2peer.services.projectManagementService.job;
+
+/**
+ * Status of a job, which is performed in the background after the request that started it got answered.
+ */
+public enum JobStatus {
+	/**
+	 * The job is stored, but not started yet.
+	 */
+	PENDING,
+	/**
+	 * The job got started, but not all of its operations are finished yet.
+	 */
+	RUNNING,
+	/**
+	 * All operations of the job are finished.
+	 */
+	SUCCEEDED,
+	/**
+	 * An operation of the job failed, even after retrying it.
+	 */
+	FAILED;
+
+	/**
+	 * Returns the status as it is stored in the database and returned by the API.
+	 * @return Status as lower case string.
+	 */
+	@Override
+	public String toString() {
+		return name().toLowerCase();
+	}
+
+	/**
+	 * Converts the given string (as stored in the database) to the status.
+	 * @param status Status as lower case string.
+	 * @return JobStatus
+	 */
+	public static JobStatus fromString(String status) {
+		return valueOf(status.toUpperCase());
+	}
+}
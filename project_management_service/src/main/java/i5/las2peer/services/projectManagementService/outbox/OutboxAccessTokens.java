@@ -0,0 +1,90 @@
+package i5.las2peer.services.projectManagementService.outbox;
+
+import java.util.UUID;
+
+import i5.las2peer.services.projectManagementService.cache.ExpiringCache;
+
+/**
+ * Keeps the OIDC access tokens needed to perform outbox entries (e.g. creating a Requirements Bazaar
+ * category on behalf of the user) in memory, keyed by the id of the entry. Bearer tokens are never
+ * written to the Outbox table, so they do not end up in the database, its backups or its logs.
+ * As a consequence, an entry can only be performed by the node that stored it and only as long as
+ * the node is running. Therefore, such entries are owned by the node (see {@link #getNodeId()}) and
+ * other nodes do not claim them until the token expired. The token is removed as soon as the entry
+ * got completed or failed.
+ */
+public class OutboxAccessTokens {
+
+	private static OutboxAccessTokens instance;
+
+	/**
+	 * Maximum number of tokens kept. Only entries which are pending at the same time need a token.
+	 */
+	private static final int MAX_TOKENS = 10000;
+
+	/**
+	 * Time after which a token is dropped, even if its entry was not finished. Covers the whole retry window.
+	 */
+	private static final int TTL_SECONDS = 24 * 60 * 60;
+
+	private final ExpiringCache<Integer, String> tokensByEntry = new ExpiringCache<>(MAX_TOKENS, TTL_SECONDS * 1000L);
+
+	/**
+	 * Identifies the tokens kept by this node. A new id is used after a restart, since the tokens are lost then.
+	 */
+	private final String nodeId = UUID.randomUUID().toString();
+
+	// make sure that constructor cannot be accessed from outside
+	private OutboxAccessTokens() {}
+
+	public static synchronized OutboxAccessTokens getInstance() {
+		if(OutboxAccessTokens.instance == null) {
+			OutboxAccessTokens.instance = new OutboxAccessTokens();
+		}
+		return OutboxAccessTokens.instance;
+	}
+
+	/**
+	 * Returns the id of this node, which owns the outbox entries whose access tokens it keeps.
+	 * @return Id of this node.
+	 */
+	public String getNodeId() {
+		return this.nodeId;
+	}
+
+	/**
+	 * Returns the time after which a token is dropped. Other nodes may claim an entry after that time.
+	 * @return Time to live of the tokens in seconds.
+	 */
+	public int getTtlSeconds() {
+		return TTL_SECONDS;
+	}
+
+	/**
+	 * Stores the access token for the outbox entry with the given id.
+	 * @param entryId Id of the outbox entry.
+	 * @param accessToken Access token of the user, needed to perform the entry.
+	 */
+	public void put(int entryId, String accessToken) {
+		this.tokensByEntry.put(entryId, accessToken);
+	}
+
+	/**
+	 * Returns the access token for the outbox entry with the given id.
+	 * @param entryId Id of the outbox entry.
+	 * @return Access token, or null if it is not known to this node (anymore).
+	 */
+	public String get(int entryId) {
+		return this.tokensByEntry.get(entryId);
+	}
+
+	/**
+	 * Removes the access token of the outbox entry with the given id. Needs to be called when the entry
+	 * got completed or failed.
+	 * @param entryId Id of the outbox entry.
+	 */
+	public void remove(int entryId) {
+		this.tokensByEntry.invalidate(entryId);
+	}
+
+}
@@ -0,0 +1,492 @@
+package i5.las2peer.services.projectManagementService.outbox;
+
+import java.net.HttpURLConnection;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.json.simple.JSONObject;
+
+import i5.las2peer.services.projectManagementService.component.Component;
+import i5.las2peer.services.projectManagementService.concurrency.BoundedExecutor;
+import i5.las2peer.services.projectManagementService.database.DatabaseManager;
+import i5.las2peer.services.projectManagementService.exception.AccessTokenNotAvailableException;
+import i5.las2peer.services.projectManagementService.exception.GitHubException;
+import i5.las2peer.services.projectManagementService.exception.ProjectNotFoundException;
+import i5.las2peer.services.projectManagementService.exception.ReqBazException;
+import i5.las2peer.services.projectManagementService.github.GitHubHelper;
+import i5.las2peer.services.projectManagementService.github.GitHubProject;
+import i5.las2peer.services.projectManagementService.job.Job;
+import i5.las2peer.services.projectManagementService.project.Project;
+import i5.las2peer.services.projectManagementService.project.User;
+import i5.las2peer.services.projectManagementService.reqbaz.ReqBazCategory;
+import i5.las2peer.services.projectManagementService.reqbaz.ReqBazHelper;
+
+/**
+ * Performs the outbox entries, i.e. the requests to GitHub and the Requirements Bazaar, in the
+ * background after the transactions storing them got committed. Thus, no transaction (and no
+ * database connection) is held open while waiting for these external APIs.
+ * <ul>
+ * <li>The outbox gets polled regularly, and additionally right after an entry got stored.</li>
+ * <li>Failed entries get retried with exponential backoff. After the maximum number of attempts,
+ * the entry and its project or component get marked as failed. Entries rejected by the Requirements
+ * Bazaar because the access token of the user is not valid (anymore) get marked as failed right away.</li>
+ * <li>Entries needing the access token of a user are only claimed by the node keeping the token (see
+ * {@link OutboxAccessTokens}). If the token got lost, e.g. because the node got restarted, then the entry
+ * gets marked as failed right away.</li>
+ * <li>Every operation can be repeated safely, e.g. a GitHub project is only created if the project
+ * has none yet, and external resources that got created for a project or component which got
+ * deleted in the meantime are deleted again. Created external resources are stored in the payload
+ * of the entry right away, so that a retry reuses them instead of creating them again.</li>
+ * </ul>
+ */
+public class OutboxDispatcher {
+
+	private static OutboxDispatcher instance;
+	private static final Logger logger = Logger.getLogger(OutboxDispatcher.class.getName());
+
+	/**
+	 * Maximum number of entries that get claimed per poll.
+	 */
+	private static final int BATCH_SIZE = 20;
+
+	/**
+	 * Time in seconds an entry stays claimed. If it was not finished until then, it gets due again.
+	 */
+	private static final int LEASE_SECONDS = 120;
+
+	/**
+	 * Delay in seconds before the first retry, which gets doubled for every further retry.
+	 */
+	private static final int RETRY_BASE_DELAY_SECONDS = 2;
+	private static final int RETRY_MAX_DELAY_SECONDS = 600;
+
+	private DatabaseManager dbm;
+	private BoundedExecutor executor;
+	private ScheduledExecutorService poller;
+	private int maxAttempts = 10;
+
+	private final AtomicInteger inProgress = new AtomicInteger();
+	private final AtomicLong completed = new AtomicLong();
+	private final AtomicLong retried = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+
+	// make sure that constructor cannot be accessed from outside
+	private OutboxDispatcher() {}
+
+	public static synchronized OutboxDispatcher getInstance() {
+		if(OutboxDispatcher.instance == null) {
+			OutboxDispatcher.instance = new OutboxDispatcher();
+		}
+		return OutboxDispatcher.instance;
+	}
+
+	/**
+	 * Starts polling the outbox. Does nothing if the dispatcher is running already.
+	 * @param dbm DatabaseManager used to access the outbox.
+	 * @param executor Executor which performs the entries.
+	 * @param pollIntervalMillis Time in milliseconds between two polls.
+	 * @param maxAttempts Number of attempts after which an entry is marked as failed.
+	 */
+	public synchronized void start(DatabaseManager dbm, BoundedExecutor executor, int pollIntervalMillis, int maxAttempts) {
+		if(this.poller != null) return;
+		this.dbm = dbm;
+		this.executor = executor;
+		this.maxAttempts = maxAttempts;
+		this.poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "outbox-dispatcher");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.poller.scheduleWithFixedDelay(this::poll, 0, pollIntervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Polls the outbox immediately. Should be called after committing a transaction which stored outbox entries.
+	 */
+	public synchronized void wakeUp() {
+		if(this.poller == null) return;
+		this.poller.execute(this::poll);
+	}
+
+	/**
+	 * Claims the due entries and hands them to the executor.
+	 */
+	private void poll() {
+		try (Connection connection = this.dbm.getConnection()) {
+			ArrayList<OutboxEntry> entries = OutboxEntry.getDueEntries(BATCH_SIZE, connection);
+			for(OutboxEntry entry : entries) {
+				if(!entry.claim(LEASE_SECONDS, connection)) continue; // claimed by another dispatcher
+				this.inProgress.incrementAndGet();
+				this.executor.submit(() -> {
+					dispatch(entry);
+					return null;
+				}).whenComplete((result, e) -> {
+					this.inProgress.decrementAndGet();
+					if(e != null) {
+						// executor is saturated, the entry gets due again after its lease
+						logger.warning("Could not dispatch outbox entry " + entry.getId() + ": " + e.getMessage());
+					}
+				});
+			}
+		} catch (Exception e) {
+			// the poller must not die, otherwise no entries get dispatched anymore
+			logger.log(Level.WARNING, "Polling the outbox failed.", e);
+		}
+	}
+
+	/**
+	 * Performs the given (claimed) entry and schedules a retry if it fails.
+	 * @param entry Outbox entry to perform.
+	 */
+	private void dispatch(OutboxEntry entry) {
+		try {
+			switch(entry.getTask()) {
+				case CREATE_GITHUB_PROJECT:
+					createGitHubProject(entry);
+					break;
+				case DELETE_GITHUB_PROJECT:
+					deleteGitHubProject(entry);
+					break;
+				case CREATE_REQBAZ_CATEGORY:
+					createReqBazCategory(entry);
+					break;
+				case DELETE_REQBAZ_CATEGORY:
+					deleteReqBazCategory(entry);
+					break;
+				case DELETE_PROJECT:
+					deleteProject(entry);
+					break;
+			}
+			this.completed.incrementAndGet();
+			entry.forgetAccessToken();
+		} catch (Exception e) {
+			handleFailure(entry, e);
+			return;
+		}
+		if(entry.getJobId() != -1) {
+			// the job is finished, if this was its last entry
+			try (Connection connection = this.dbm.getConnection()) {
+				Job.finishIfDone(entry.getJobId(), connection);
+			} catch (SQLException e) {
+				logger.log(Level.WARNING, "Could not update status of job " + entry.getJobId() + ".", e);
+			}
+		}
+	}
+
+	/**
+	 * Creates and sets up the GitHub project of a project (or renames the one taken from the pool)
+	 * and grants its members access to it.
+	 * @param entry Outbox entry whose aggregate id is the id of the project.
+	 * @throws SQLException If something with the database went wrong.
+	 * @throws GitHubException If something with the requests to GitHub went wrong.
+	 */
+	@SuppressWarnings("unchecked")
+	private void createGitHubProject(OutboxEntry entry) throws SQLException, GitHubException {
+		GitHubHelper gitHubHelper = GitHubHelper.getInstance();
+		JSONObject payload = entry.getPayload();
+		Project project;
+		try (Connection connection = this.dbm.getConnection()) {
+			try {
+				project = new Project(entry.getAggregateId(), connection);
+			} catch (ProjectNotFoundException e) {
+				// project got deleted in the meantime, also delete the GitHub project created by a previous attempt
+				if(payload.containsKey("gitHubProjectId")) {
+					gitHubHelper.deleteGitHubProject(new GitHubProject(((Number) payload.get("gitHubProjectId")).intValue(), null));
+				}
+				entry.complete(connection);
+				return;
+			}
+		}
+
+		GitHubProject gitHubProject = project.getGitHubProject();
+		if(gitHubProject == null) {
+			if(payload.containsKey("gitHubProjectId")) {
+				// created by a previous attempt, which failed before storing it to the project
+				gitHubProject = new GitHubProject(((Number) payload.get("gitHubProjectId")).intValue(),
+						(String) payload.get("gitHubProjectHtmlUrl"));
+			} else {
+				gitHubProject = gitHubHelper.createGitHubProject(project.getName());
+				// remember the GitHub project before anything else can fail
+				payload.put("gitHubProjectId", gitHubProject.getId());
+				payload.put("gitHubProjectHtmlUrl", gitHubProject.getHtmlUrl());
+				try (Connection connection = this.dbm.getConnection()) {
+					entry.updatePayload(connection);
+				}
+			}
+			boolean stored;
+			try (Connection connection = this.dbm.getConnection()) {
+				stored = Project.setGitHubProject(project.getId(), gitHubProject, connection);
+			}
+			if(!stored) {
+				// project got deleted in the meantime
+				gitHubHelper.deleteGitHubProject(gitHubProject);
+				try (Connection connection = this.dbm.getConnection()) {
+					entry.complete(connection);
+				}
+				return;
+			}
+			
+			// load the members again, since members who joined (or set their GitHub username) before the
+			// GitHub project got stored did not get access to it, while later ones get access by themselves
+			try (Connection connection = this.dbm.getConnection()) {
+				try {
+					project = new Project(project.getId(), connection);
+				} catch (ProjectNotFoundException e) {
+					// project got deleted after the GitHub project got stored, so its deletion deletes the GitHub project
+					entry.complete(connection);
+					return;
+				}
+			}
+		}
+
+		if(Boolean.TRUE.equals(entry.getPayload().get("rename"))) {
+			// GitHub project was taken from the pool and is set up already
+			gitHubHelper.renameGitHubProject(gitHubProject, project.getName());
+		} else {
+			gitHubHelper.setUpGitHubProject(gitHubProject);
+		}
+		// grant access to the members in parallel and wait until all of them are done
+		ArrayList<CompletableFuture<Void>> grants = new ArrayList<>();
+		for(User user : project.getUsers()) {
+			if(user.getGitHubUsername() != null) {
+				grants.add(gitHubHelper.grantUserAccessToProjectAsync(user.getGitHubUsername(), gitHubProject));
+			}
+		}
+		for(CompletableFuture<Void> grant : grants) {
+			GitHubHelper.await(grant);
+		}
+
+		try (Connection connection = this.dbm.getConnection()) {
+			connection.setAutoCommit(false);
+			try {
+				Project.setStatus(project.getId(), ProvisioningStatus.READY, connection);
+				entry.complete(connection);
+				connection.commit();
+			} catch (SQLException e) {
+				connection.rollback();
+				throw e;
+			} finally {
+				connection.setAutoCommit(true);
+			}
+		}
+	}
+
+	/**
+	 * Deletes the GitHub project of a deleted project.
+	 * @param entry Outbox entry whose payload contains the id of the GitHub project.
+	 * @throws SQLException If something with the database went wrong.
+	 * @throws GitHubException If something with the request to GitHub went wrong.
+	 */
+	private void deleteGitHubProject(OutboxEntry entry) throws SQLException, GitHubException {
+		int gitHubProjectId = ((Number) entry.getPayload().get("gitHubProjectId")).intValue();
+		GitHubHelper.getInstance().deleteGitHubProject(new GitHubProject(gitHubProjectId, null));
+		try (Connection connection = this.dbm.getConnection()) {
+			entry.complete(connection);
+		}
+	}
+
+	/**
+	 * Creates the Requirements Bazaar category of a component.
+	 * @param entry Outbox entry whose aggregate id is the id of the component.
+	 * @throws SQLException If something with the database went wrong.
+	 * @throws ReqBazException If something with the requests to the Requirements Bazaar went wrong.
+	 * @throws AccessTokenNotAvailableException If the access token of the user is not known to this node (anymore).
+	 */
+	@SuppressWarnings("unchecked")
+	private void createReqBazCategory(OutboxEntry entry) throws SQLException, ReqBazException, AccessTokenNotAvailableException {
+		ReqBazHelper reqBazHelper = ReqBazHelper.getInstance();
+		String accessToken = requireAccessToken(entry);
+		JSONObject payload = entry.getPayload();
+		
+		// category created by a previous attempt, which failed before storing it to the component
+		ReqBazCategory category = null;
+		if(payload.containsKey("categoryId")) {
+			category = new ReqBazCategory(((Number) payload.get("categoryId")).intValue(),
+					((Number) payload.get("reqBazProjectId")).intValue());
+		}
+		
+		try (Connection connection = this.dbm.getConnection()) {
+			if(!Component.isWaitingForReqBazCategory(entry.getAggregateId(), connection)) {
+				// component got deleted in the meantime
+				if(category != null) reqBazHelper.deleteCategory(category, accessToken);
+				entry.complete(connection);
+				return;
+			}
+		}
+
+		if(category == null) {
+			category = reqBazHelper.createCategory((String) payload.get("categoryName"), accessToken);
+			// remember the category before anything else can fail
+			payload.put("categoryId", category.getId());
+			payload.put("reqBazProjectId", category.getProjectId());
+			try (Connection connection = this.dbm.getConnection()) {
+				entry.updatePayload(connection);
+			}
+		}
+
+		boolean stored;
+		try (Connection connection = this.dbm.getConnection()) {
+			connection.setAutoCommit(false);
+			try {
+				stored = Component.setReqBazCategory(entry.getAggregateId(), category, connection);
+				if(stored) entry.complete(connection);
+				connection.commit();
+			} catch (SQLException e) {
+				connection.rollback();
+				throw e;
+			} finally {
+				connection.setAutoCommit(true);
+			}
+		}
+		if(!stored) {
+			// component got deleted in the meantime
+			reqBazHelper.deleteCategory(category, accessToken);
+			try (Connection connection = this.dbm.getConnection()) {
+				entry.complete(connection);
+			}
+		}
+	}
+
+	/**
+	 * Deletes the Requirements Bazaar category of a deleted component.
+	 * @param entry Outbox entry whose payload contains the ids of the category and its project.
+	 * @throws SQLException If something with the database went wrong.
+	 * @throws ReqBazException If something with the request to the Requirements Bazaar went wrong.
+	 * @throws AccessTokenNotAvailableException If the access token of the user is not known to this node (anymore).
+	 */
+	private void deleteReqBazCategory(OutboxEntry entry) throws SQLException, ReqBazException, AccessTokenNotAvailableException {
+		JSONObject payload = entry.getPayload();
+		ReqBazCategory category = new ReqBazCategory(((Number) payload.get("categoryId")).intValue(),
+				((Number) payload.get("reqBazProjectId")).intValue());
+		ReqBazHelper.getInstance().deleteCategory(category, requireAccessToken(entry));
+		try (Connection connection = this.dbm.getConnection()) {
+			entry.complete(connection);
+		}
+	}
+
+	/**
+	 * Deletes a project from the database. The deletion of its GitHub project and Requirements Bazaar categories
+	 * is enqueued as further entries of the same job, so that these get performed in parallel and retried separately.
+	 * The access token of the user is passed on to the enqueued entries, which are owned by this node as well.
+	 * @param entry Outbox entry whose aggregate id is the id of the project.
+	 * @throws SQLException If something with the database went wrong.
+	 * @throws AccessTokenNotAvailableException If the access token of the user is not known to this node (anymore).
+	 */
+	private void deleteProject(OutboxEntry entry) throws SQLException, AccessTokenNotAvailableException {
+		String accessToken = entry.needsAccessToken() ? requireAccessToken(entry) : null;
+		try (Connection connection = this.dbm.getConnection()) {
+			Job.start(entry.getJobId(), connection);
+			
+			Project project;
+			try {
+				project = new Project(entry.getAggregateId(), connection);
+			} catch (ProjectNotFoundException e) {
+				// project got deleted in the meantime
+				entry.complete(connection);
+				return;
+			}
+			
+			connection.setAutoCommit(false);
+			try {
+				project.delete(connection, accessToken, entry.getJobId());
+				entry.complete(connection);
+				connection.commit();
+			} catch (SQLException e) {
+				connection.rollback();
+				throw e;
+			} finally {
+				connection.setAutoCommit(true);
+			}
+			project.invalidateCachedMemberships();
+		}
+		// perform the enqueued deletions right away
+		wakeUp();
+	}
+
+	/**
+	 * Returns the access token of the user which is needed to perform the given entry.
+	 * @param entry Outbox entry that gets performed on behalf of the user.
+	 * @return Access token of the user.
+	 * @throws AccessTokenNotAvailableException If the token is not known to this node, e.g. because the node
+	 * got restarted since the entry was stored, or because the owning node dropped the token.
+	 */
+	private String requireAccessToken(OutboxEntry entry) throws AccessTokenNotAvailableException {
+		String accessToken = entry.getAccessToken();
+		if(accessToken == null) {
+			throw new AccessTokenNotAvailableException("The access token of the user is not available on this node "
+					+ "(anymore), e.g. because the node got restarted. The entry cannot be performed without it.");
+		}
+		return accessToken;
+	}
+
+	/**
+	 * Checks whether the given error cannot be resolved by retrying, i.e. the access token of the user
+	 * is not available or the Requirements Bazaar rejected it.
+	 * @param error Error that occurred.
+	 * @return Whether the entry should not be retried.
+	 */
+	private boolean isTerminal(Exception error) {
+		if(error instanceof AccessTokenNotAvailableException) return true;
+		return error instanceof ReqBazException
+				&& ((ReqBazException) error).getStatusCode() == HttpURLConnection.HTTP_UNAUTHORIZED;
+	}
+
+	/**
+	 * Schedules a retry of the given entry, or marks it (and its project or component) as failed if
+	 * the maximum number of attempts is reached or the error cannot be resolved by retrying.
+	 * The job of the entry (if any) is marked as failed as well.
+	 * @param entry Outbox entry that failed.
+	 * @param error Error that occurred.
+	 */
+	private void handleFailure(OutboxEntry entry, Exception error) {
+		String message = error.getClass().getSimpleName() + ": " + error.getMessage();
+		try (Connection connection = this.dbm.getConnection()) {
+			if(entry.getAttempts() >= this.maxAttempts || isTerminal(error)) {
+				this.failed.incrementAndGet();
+				logger.warning("Outbox entry " + entry.getId() + " (" + entry.getTask() + ") failed after "
+						+ entry.getAttempts() + " attempts: " + message);
+				entry.markFailed(message, connection);
+				entry.forgetAccessToken();
+				if(entry.getTask() == OutboxTask.CREATE_GITHUB_PROJECT) {
+					Project.setStatus(entry.getAggregateId(), ProvisioningStatus.FAILED, connection);
+				} else if(entry.getTask() == OutboxTask.CREATE_REQBAZ_CATEGORY) {
+					Component.setStatus(entry.getAggregateId(), ProvisioningStatus.FAILED, connection);
+				}
+				if(entry.getJobId() != -1) {
+					Job.fail(entry.getJobId(), message, connection);
+				}
+			} else {
+				this.retried.incrementAndGet();
+				int delay = RETRY_BASE_DELAY_SECONDS << Math.min(entry.getAttempts() - 1, 16);
+				entry.retryLater(Math.min(delay, RETRY_MAX_DELAY_SECONDS), message, connection);
+			}
+		} catch (SQLException e) {
+			// the entry gets due again after its lease
+			logger.log(Level.WARNING, "Could not reschedule outbox entry " + entry.getId() + ".", e);
+		}
+	}
+
+	/**
+	 * Creates a JSON object containing the statistics of the dispatcher.
+	 * @return JSONObject containing the number of entries in progress, completed, retried and failed entries.
+	 */
+	@SuppressWarnings("unchecked")
+	public JSONObject getStatistics() {
+		JSONObject statistics = new JSONObject();
+		statistics.put("inProgress", this.inProgress.get());
+		statistics.put("completed", this.completed.get());
+		statistics.put("retried", this.retried.get());
+		statistics.put("failed", this.failed.get());
+		return statistics;
+	}
+
+}
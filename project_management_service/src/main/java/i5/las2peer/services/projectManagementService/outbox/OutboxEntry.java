@@ -0,0 +1,345 @@
+package i5.las2peer.services.projectManagementService.outbox;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.json.simple.JSONObject;
+import org.json.simple.JSONValue;
+import org.json.simple.parser.ParseException;
+
+/**
+ * An external operation (e.g. creating a GitHub project) that needs to be performed after
+ * the surrounding transaction got committed. Outbox entries get stored in the same transaction
+ * as the project or component they belong to, and get performed by the OutboxDispatcher.
+ */
+public class OutboxEntry {
+
+	private static final String INSERT = "INSERT INTO Outbox (task, aggregateId, payload, jobId, ownerNode, ownerExpiresAt) "
+			+ "VALUES (?,?,?,?,?,IF(? IS NULL, NULL, DATE_ADD(NOW(), INTERVAL ? SECOND)));";
+
+	/**
+	 * Condition for entries which may be performed by this node, i.e. entries without access token, entries
+	 * whose access token is kept by this node and entries whose owner dropped the access token already.
+	 * The latter get claimed, so that they fail instead of staying pending forever.
+	 */
+	private static final String CLAIMABLE = "(ownerNode IS NULL OR ownerNode = ? OR ownerExpiresAt <= NOW())";
+
+	/**
+	 * Id of the entry, which is set to -1 before the entry gets persisted.
+	 */
+	private int id = -1;
+
+	/**
+	 * Operation that should be performed.
+	 */
+	private OutboxTask task;
+
+	/**
+	 * Id of the project or component the operation belongs to.
+	 */
+	private int aggregateId;
+
+	/**
+	 * Additional information needed to perform the operation.
+	 */
+	private JSONObject payload;
+
+	/**
+	 * Number of times the operation was started.
+	 */
+	private int attempts;
+
+	/**
+	 * Id of the job the entry belongs to, or -1 if it does not belong to a job.
+	 */
+	private int jobId = -1;
+
+	/**
+	 * Id of the node keeping the access token of the entry, or null if the entry needs no access token.
+	 */
+	private String ownerNode;
+
+	/**
+	 * Access token of the user needed to perform the operation, or null. It is not part of the payload,
+	 * since it must not be stored in the database (see {@link OutboxAccessTokens}).
+	 */
+	private String accessToken;
+
+	/**
+	 * Creates a new outbox entry, which is not yet stored in the database.
+	 * @param task Operation that should be performed.
+	 * @param aggregateId Id of the project or component the operation belongs to.
+	 * @param payload Additional information needed to perform the operation.
+	 */
+	public OutboxEntry(OutboxTask task, int aggregateId, JSONObject payload) {
+		this(task, aggregateId, payload, -1);
+	}
+
+	/**
+	 * Creates a new outbox entry belonging to a job, which is not yet stored in the database.
+	 * @param task Operation that should be performed.
+	 * @param aggregateId Id of the project or component the operation belongs to.
+	 * @param payload Additional information needed to perform the operation.
+	 * @param jobId Id of the job the entry belongs to, or -1 if it does not belong to a job.
+	 */
+	public OutboxEntry(OutboxTask task, int aggregateId, JSONObject payload, int jobId) {
+		this.task = task;
+		this.aggregateId = aggregateId;
+		this.payload = payload;
+		this.jobId = jobId;
+	}
+
+	/**
+	 * Creates an outbox entry from the current row of the given query result.
+	 * @param queryResult Should contain all columns of the Outbox table and next() should have been called already.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	private OutboxEntry(ResultSet queryResult) throws SQLException {
+		this.id = queryResult.getInt("id");
+		this.task = OutboxTask.valueOf(queryResult.getString("task"));
+		this.aggregateId = queryResult.getInt("aggregateId");
+		this.attempts = queryResult.getInt("attempts");
+		this.jobId = queryResult.getInt("jobId");
+		if(queryResult.wasNull()) this.jobId = -1;
+		this.ownerNode = queryResult.getString("ownerNode");
+		try {
+			this.payload = (JSONObject) JSONValue.parseWithException(queryResult.getString("payload"));
+		} catch (ParseException e) {
+			throw new SQLException("Payload of outbox entry " + this.id + " is not valid JSON.");
+		}
+	}
+
+	/**
+	 * Sets the access token of the user, which is needed to perform the operation on behalf of the user.
+	 * Needs to be called before the entry gets persisted. The token is only kept in memory, thus
+	 * the entry is owned by this node.
+	 * @param accessToken OIDC access token of the user.
+	 * @return This entry.
+	 */
+	public OutboxEntry setAccessToken(String accessToken) {
+		this.accessToken = accessToken;
+		this.ownerNode = accessToken == null ? null : OutboxAccessTokens.getInstance().getNodeId();
+		return this;
+	}
+
+	/**
+	 * Stores the entry. Should be called as part of the transaction, that stores the project
+	 * or component the entry belongs to, so that the entry only exists if the transaction got committed.
+	 * @param connection Connection object
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	public void persist(Connection connection) throws SQLException {
+		PreparedStatement statement = connection.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS);
+		setInsertParameters(statement);
+		statement.executeUpdate();
+		ResultSet genKeys = statement.getGeneratedKeys();
+		genKeys.next();
+		this.id = genKeys.getInt(1);
+		statement.close();
+		if(this.accessToken != null) OutboxAccessTokens.getInstance().put(this.id, this.accessToken);
+	}
+
+	/**
+	 * Stores the given entries by using a single batch. Should be called as part of the transaction, that stores
+	 * or deletes the projects or components the entries belong to.
+	 * The generated ids are set to the entries in the same order.
+	 * @param entries Entries to store.
+	 * @param connection Connection object
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	public static void persistAll(List<OutboxEntry> entries, Connection connection) throws SQLException {
+		if(entries.isEmpty()) return;
+		PreparedStatement statement = connection.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS);
+		for(OutboxEntry entry : entries) {
+			entry.setInsertParameters(statement);
+			statement.addBatch();
+		}
+		statement.executeBatch();
+		ResultSet genKeys = statement.getGeneratedKeys();
+		for(OutboxEntry entry : entries) {
+			genKeys.next();
+			entry.id = genKeys.getInt(1);
+			if(entry.accessToken != null) OutboxAccessTokens.getInstance().put(entry.id, entry.accessToken);
+		}
+		statement.close();
+	}
+
+	/**
+	 * Sets the parameters of the given insert statement to the values of this entry.
+	 * @param statement Statement prepared with {@link #INSERT}.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	private void setInsertParameters(PreparedStatement statement) throws SQLException {
+		statement.setString(1, this.task.name());
+		statement.setInt(2, this.aggregateId);
+		statement.setString(3, this.payload.toJSONString());
+		if(this.jobId == -1) {
+			statement.setNull(4, Types.INTEGER);
+		} else {
+			statement.setInt(4, this.jobId);
+		}
+		statement.setString(5, this.ownerNode);
+		statement.setString(6, this.ownerNode);
+		statement.setInt(7, OutboxAccessTokens.getInstance().getTtlSeconds());
+	}
+
+	/**
+	 * Searches for entries, that are due to be performed (or retried) by this node.
+	 * @param limit Maximum number of entries to return.
+	 * @param connection Connection object
+	 * @return Entries which are due, oldest first.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	public static ArrayList<OutboxEntry> getDueEntries(int limit, Connection connection) throws SQLException {
+		PreparedStatement statement = connection.prepareStatement(
+				"SELECT * FROM Outbox WHERE failed = FALSE AND nextAttemptAt <= NOW() AND " + CLAIMABLE + " ORDER BY id LIMIT ?;");
+		statement.setString(1, OutboxAccessTokens.getInstance().getNodeId());
+		statement.setInt(2, limit);
+		ResultSet queryResult = statement.executeQuery();
+		ArrayList<OutboxEntry> entries = new ArrayList<>();
+		while(queryResult.next()) {
+			entries.add(new OutboxEntry(queryResult));
+		}
+		statement.close();
+		return entries;
+	}
+
+	/**
+	 * Claims the entry for the given time, so that no other dispatcher (e.g. of another node) performs
+	 * it at the same time. If the dispatcher does not finish the entry within that time (e.g. because
+	 * the node crashed), then the entry gets due again. Entries whose access token is kept by another node
+	 * are not claimed.
+	 * @param leaseSeconds Time in seconds for which the entry gets claimed.
+	 * @param connection Connection object
+	 * @return Whether the entry could be claimed. False, if another dispatcher claimed it already.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	public boolean claim(int leaseSeconds, Connection connection) throws SQLException {
+		PreparedStatement statement = connection.prepareStatement(
+				"UPDATE Outbox SET attempts = attempts + 1, nextAttemptAt = DATE_ADD(NOW(), INTERVAL ? SECOND) "
+				+ "WHERE id = ? AND failed = FALSE AND nextAttemptAt <= NOW() AND " + CLAIMABLE + ";");
+		statement.setInt(1, leaseSeconds);
+		statement.setInt(2, this.id);
+		statement.setString(3, OutboxAccessTokens.getInstance().getNodeId());
+		boolean claimed = statement.executeUpdate() == 1;
+		statement.close();
+		if(claimed) this.attempts++;
+		return claimed;
+	}
+
+	/**
+	 * Removes the entry after the operation was performed successfully.
+	 * @param connection Connection object
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	public void complete(Connection connection) throws SQLException {
+		PreparedStatement statement = connection.prepareStatement("DELETE FROM Outbox WHERE id = ?;");
+		statement.setInt(1, this.id);
+		statement.executeUpdate();
+		statement.close();
+	}
+
+	/**
+	 * Stores the current payload of the entry. Used to remember external resources right after they got
+	 * created, so that a retry of the entry does not create them again.
+	 * @param connection Connection object
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	public void updatePayload(Connection connection) throws SQLException {
+		PreparedStatement statement = connection.prepareStatement("UPDATE Outbox SET payload = ? WHERE id = ?;");
+		statement.setString(1, this.payload.toJSONString());
+		statement.setInt(2, this.id);
+		statement.executeUpdate();
+		statement.close();
+	}
+
+	/**
+	 * Schedules the entry to be retried after the given delay.
+	 * @param delaySeconds Delay in seconds.
+	 * @param error Error message of the failed attempt.
+	 * @param connection Connection object
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	public void retryLater(int delaySeconds, String error, Connection connection) throws SQLException {
+		PreparedStatement statement = connection.prepareStatement(
+				"UPDATE Outbox SET nextAttemptAt = DATE_ADD(NOW(), INTERVAL ? SECOND), lastError = ? WHERE id = ?;");
+		statement.setInt(1, delaySeconds);
+		statement.setString(2, error);
+		statement.setInt(3, this.id);
+		statement.executeUpdate();
+		statement.close();
+	}
+
+	/**
+	 * Marks the entry as failed, so that it does not get retried anymore. The entry is kept for investigation.
+	 * @param error Error message of the last attempt.
+	 * @param connection Connection object
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	public void markFailed(String error, Connection connection) throws SQLException {
+		PreparedStatement statement = connection.prepareStatement(
+				"UPDATE Outbox SET failed = TRUE, lastError = ? WHERE id = ?;");
+		statement.setString(1, error);
+		statement.setInt(2, this.id);
+		statement.executeUpdate();
+		statement.close();
+	}
+
+	public int getId() {
+		return this.id;
+	}
+
+	public OutboxTask getTask() {
+		return this.task;
+	}
+
+	public int getAggregateId() {
+		return this.aggregateId;
+	}
+
+	public JSONObject getPayload() {
+		return this.payload;
+	}
+
+	public int getAttempts() {
+		return this.attempts;
+	}
+
+	public int getJobId() {
+		return this.jobId;
+	}
+
+	/**
+	 * Returns whether the entry got stored with an access token, which is needed to perform it.
+	 * @return Whether the entry needs an access token.
+	 */
+	public boolean needsAccessToken() {
+		return this.ownerNode != null;
+	}
+
+	/**
+	 * Returns the access token of the user, which was set when the entry got stored by this node.
+	 * @return Access token, or null if the entry needs none or the token is not known to this node (anymore).
+	 */
+	public String getAccessToken() {
+		if(this.accessToken == null && this.id != -1) {
+			this.accessToken = OutboxAccessTokens.getInstance().get(this.id);
+		}
+		return this.accessToken;
+	}
+
+	/**
+	 * Removes the access token from the memory of this node. Needs to be called when the entry got completed or failed.
+	 */
+	public void forgetAccessToken() {
+		this.accessToken = null;
+		if(this.id != -1) OutboxAccessTokens.getInstance().remove(this.id);
+	}
+
+}
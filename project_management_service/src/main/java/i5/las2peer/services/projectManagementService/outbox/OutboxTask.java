@@ -0,0 +1,29 @@
+package i5.las2peer.services.projectManagementService.outbox;
+
+/**
+ * External operations that get performed by the OutboxDispatcher after the
+ * transaction storing the corresponding outbox entry got committed.
+ */
+public enum OutboxTask {
+	/**
+	 * Creates the GitHub project of a project. The aggregate id is the id of the project.
+	 */
+	CREATE_GITHUB_PROJECT,
+	/**
+	 * Deletes a GitHub project. The payload contains the id of the GitHub project.
+	 */
+	DELETE_GITHUB_PROJECT,
+	/**
+	 * Creates the Requirements Bazaar category of a component. The aggregate id is the id of the component.
+	 */
+	CREATE_REQBAZ_CATEGORY,
+	/**
+	 * Deletes a Requirements Bazaar category. The payload contains the ids of the category and its project.
+	 */
+	DELETE_REQBAZ_CATEGORY,
+	/**
+	 * Deletes a project from the database and enqueues the deletion of its GitHub project and Requirements
+	 * Bazaar categories. The aggregate id is the id of the project, the payload contains the access token.
+	 */
+	DELETE_PROJECT
+}
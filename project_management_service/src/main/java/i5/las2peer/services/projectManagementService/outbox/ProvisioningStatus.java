@@ -0,0 +1,40 @@
+package i5.las2peer.services.projectManagementService.outbox;
+
+/**
+ * Status of the external resources (GitHub project, Requirements Bazaar category) of
+ * a project or component. These resources get created by the OutboxDispatcher after
+ * the project or component got stored.
+ */
+public enum ProvisioningStatus {
+	/**
+	 * The external resources are not created yet.
+	 */
+	PROVISIONING,
+	/**
+	 * The external resources are created.
+	 */
+	READY,
+	/**
+	 * Creating the external resources failed, even after retrying it.
+	 */
+	FAILED;
+
+	/**
+	 * Returns the status as it is stored in the database and returned by the API.
+	 * @return Status as lower case string.
+	 */
+	@Override
+	public String toString() {
+		return name().toLowerCase();
+	}
+
+	/**
+	 * Converts the given string (as stored in the database) to the status.
+	 * @param status Status as lower case string.
+	 * @return ProvisioningStatus
+	 */
+	public static ProvisioningStatus fromString(String status) {
+		if(status == null) return READY;
+		return valueOf(status.toUpperCase());
+	}
+}
@@ -5,25 +5,35 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.JSONValue;
 import org.json.simple.parser.ParseException;
 
+import i5.las2peer.services.projectManagementService.cache.MembershipCache;
+import i5.las2peer.services.projectManagementService.cache.WidgetConfigCache;
 import i5.las2peer.services.projectManagementService.component.Component;
 import i5.las2peer.services.projectManagementService.component.ComponentType;
 import i5.las2peer.services.projectManagementService.component.Dependency;
 import i5.las2peer.services.projectManagementService.component.ExternalDependency;
-import i5.las2peer.services.projectManagementService.exception.GitHubException;
+import i5.las2peer.services.projectManagementService.database.Page;
 import i5.las2peer.services.projectManagementService.exception.NoDefaultRoleFoundException;
 import i5.las2peer.services.projectManagementService.exception.ProjectNotFoundException;
-import i5.las2peer.services.projectManagementService.exception.ReqBazException;
 import i5.las2peer.services.projectManagementService.exception.RoleNotFoundException;
-import i5.las2peer.services.projectManagementService.github.GitHubHelper;
 import i5.las2peer.services.projectManagementService.github.GitHubProject;
+import i5.las2peer.services.projectManagementService.github.GitHubProjectPool;
+import i5.las2peer.services.projectManagementService.job.Job;
+import i5.las2peer.services.projectManagementService.outbox.OutboxDispatcher;
+import i5.las2peer.services.projectManagementService.outbox.OutboxEntry;
+import i5.las2peer.services.projectManagementService.outbox.OutboxTask;
+import i5.las2peer.services.projectManagementService.outbox.ProvisioningStatus;
+import i5.las2peer.services.projectManagementService.util.Digests;
 
 /**
  * (Data-)Class for Projects. Provides means to convert JSON to Object and Object
@@ -60,9 +70,21 @@ public class Project {
     
     /**
      * Information on the connected GitHub project.
+     * Null, as long as the GitHub project is not created yet.
      */
     private GitHubProject gitHubProject;
     
+    /**
+     * Whether the GitHub project is created already.
+     */
+    private ProvisioningStatus status = ProvisioningStatus.READY;
+    
+    /**
+     * Revision of the project, which gets incremented by every change of the project or its aggregate
+     * (roles, users, components etc.). Used to create the ETag of the project.
+     */
+    private int revision = 0;
+    
     /**
      * Components that were created "by the project".
      */
@@ -152,178 +174,64 @@ public class Project {
 	
 	/**
 	 * Gets used by the constructors that load a project from the database.
+	 * The aggregate of the project (roles, users, components etc.) gets loaded by the ProjectLoader.
 	 * @param queryResult Should contain all columns and next() should have been called already.
 	 * @param connection Connection object
 	 * @throws SQLException If something with the database went wrong.
 	 */
 	private void setAttributesFromQueryResult(ResultSet queryResult, Connection connection) throws SQLException {
-		this.id = queryResult.getInt("id");
-		this.name = queryResult.getString("name");
-        this.gitHubProject = new GitHubProject(queryResult.getInt("gitHubProjectId"), queryResult.getString("gitHubProjectHtmlUrl"));
+		setAttributesFromQueryResult(queryResult);
 		
-		// load roles
-		loadRoles(connection);
-		
-		// load users
-	    loadUsers(connection);
-	    
-	    // load components
-	    loadComponents(connection);
-	    
-	    // load dependencies
-	    loadDependencies(connection);
-	    
-	    // load external dependencies
-	    loadExternalDependencies(connection);
+		// load roles, users, components, dependencies and external dependencies
+		new ProjectLoader(connection).load(this);
 	}
 	
 	/**
-	 * Loads the roles of the project from the database.
-	 * Therefore, the id of the project already needs to be set.
-	 * @param connection Connection object
+	 * Creates a project object from the current row of the given query result.
+	 * Only the attributes stored in the Project table are set, the aggregate of the
+	 * project needs to be loaded afterwards by using the ProjectLoader.
+	 * @param queryResult Should contain all columns of the Project table and next() should have been called already.
 	 * @throws SQLException If something with the database went wrong.
 	 */
-	private void loadRoles(Connection connection) throws SQLException {
-		this.roles = new ArrayList<>();
-		
-		PreparedStatement statement = connection.prepareStatement("SELECT * FROM Role WHERE projectId = ?;");
-		statement.setInt(1, this.id);
-		// execute query
-		ResultSet queryResult = statement.executeQuery();
-		
-		while(queryResult.next()) {
-			int roleId = queryResult.getInt("id");
-			String name = queryResult.getString("name");
-			String widgetConfig = queryResult.getString("widgetConfig");
-			boolean isDefault = queryResult.getBoolean("is_default");
-			this.roles.add(new Role(roleId, this.id, name, widgetConfig, isDefault));
-		}
-		
-		statement.close();
-	}
-	
-	/**
-	 * Loads the users of the project from the database.
-	 * Therefore, the id of the project already needs to be set.
-	 * @param connection Connection object
-	 * @throws SQLException If something with the database went wrong.
-	 */
-	private void loadUsers(Connection connection) throws SQLException {
-		this.users = new ArrayList<>();
-		
-		// also prepare map for role assignment
-		this.roleAssignment = new HashMap<>();
-		
-		PreparedStatement statement = connection.prepareStatement("SELECT User.email FROM ProjectToUser, User WHERE ProjectToUser.userId = User.id AND ProjectToUser.projectId = ?;");
-		statement.setInt(1, this.id);
-		// execute query
-		ResultSet queryResult = statement.executeQuery();
-		
-		while(queryResult.next()) {
-			String email = queryResult.getString("email");
-			User user = new User(email, connection);
-			
-			// assign users role
-			this.loadUsersRole(user, connection);
-			
-			// add user to users list
-			this.users.add(user);
-		}
-		
-		statement.close();
+	private Project(ResultSet queryResult) throws SQLException {
+		setAttributesFromQueryResult(queryResult);
 	}
 	
 	/**
-	 * Loads the components that were created "by the project".
-	 * @param connection Connection object
+	 * Sets the attributes that are stored in the Project table.
+	 * @param queryResult Should contain all columns of the Project table and next() should have been called already.
 	 * @throws SQLException If something with the database went wrong.
 	 */
-	private void loadComponents(Connection connection) throws SQLException {
-		this.components = new ArrayList<>();
-		
-		PreparedStatement statement = connection
-				.prepareStatement("SELECT ProjectToComponent.componentId FROM ProjectToComponent WHERE projectId = ?;");
-		statement.setInt(1, this.id);
-		
-		// execute query
-		ResultSet queryResult = statement.executeQuery();
-		
-		while(queryResult.next()) {
-			try {
-				this.components.add(new Component(queryResult.getInt(1), connection));
-			} catch (ParseException e) {
-				e.printStackTrace();
-			}
-		}
-		
-		statement.close();
-	}
-	
-	private void loadDependencies(Connection connection) throws SQLException {
-		this.dependencies = new ArrayList<>();
-		
-		PreparedStatement statement = connection
-				.prepareStatement("SELECT Dependency.id FROM Dependency WHERE projectId = ?;");
-		statement.setInt(1, this.id);
-		
-		// execute query
-		ResultSet queryResult = statement.executeQuery();
-		
-		while(queryResult.next()) {
-			this.dependencies.add(new Dependency(queryResult.getInt(1), connection));
-		}
-		
-		statement.close();
-	}
-	
-	private void loadExternalDependencies(Connection connection) throws SQLException {
-		this.externalDependencies = new ArrayList<>();
-		
-		PreparedStatement statement = connection
-				.prepareStatement("SELECT ExternalDependency.id FROM ExternalDependency WHERE projectId = ?;");
-		statement.setInt(1, this.id);
-		
-		// execute query
-		ResultSet queryResult = statement.executeQuery();
-		
-		while(queryResult.next()) {
-			this.externalDependencies.add(new ExternalDependency(queryResult.getInt(1), connection));
+	private void setAttributesFromQueryResult(ResultSet queryResult) throws SQLException {
+		this.id = queryResult.getInt("id");
+		this.name = queryResult.getString("name");
+		int gitHubProjectId = queryResult.getInt("gitHubProjectId");
+		if(!queryResult.wasNull()) {
+            this.gitHubProject = new GitHubProject(gitHubProjectId, queryResult.getString("gitHubProjectHtmlUrl"));
 		}
-		
-		statement.close();
+		this.status = ProvisioningStatus.fromString(queryResult.getString("status"));
+		this.revision = queryResult.getInt("revision");
 	}
 	
 	/**
-	 * Finds out the role of the given user in the current project.
-	 * Therefore, the id of the current project object needs to be set.
-	 * When the role could be found, then it gets assigned to the user by
-	 * adding it to the roleAssignment map.
-	 * @param user User to load the role for.
-	 * @param connection Connection object
-	 * @throws SQLException If something with the database went wrong (RoleNotFoundException when role does not exist).
+	 * Sets the aggregate of the project. Gets used by the ProjectLoader after loading
+	 * the aggregate from the database.
+	 * @param roles Roles that belong to the project.
+	 * @param users Users that are part of the project.
+	 * @param roleAssignment Role of every user of the project.
+	 * @param components Components that were created "by the project".
+	 * @param dependencies Dependencies of the project.
+	 * @param externalDependencies External dependencies of the project.
 	 */
-	private void loadUsersRole(User user, Connection connection) throws SQLException {
-		PreparedStatement statement = connection
-				.prepareStatement("SELECT UserToRole.roleId FROM UserToRole, ProjectToUser " +
-		                          "WHERE UserToRole.projectToUserId = ProjectToUser.id AND " +
-						          "ProjectToUser.projectId = ? AND ProjectToUser.userId = ?;");
-		
-		statement.setInt(1, this.id);
-		statement.setInt(2, user.getId());
-		// execute query
-		ResultSet queryResult = statement.executeQuery();
-		
-		if(queryResult.next()) {
-			int roleId = queryResult.getInt("roleId");	
-			// find role with the given id in roles list
-			for(Role role : this.roles) {
-				if(role.getId() == roleId) {
-					this.roleAssignment.put(user, role);
-					return;
-				}
-			}
-		}
-		throw new RoleNotFoundException();
+	void setAggregate(ArrayList<Role> roles, ArrayList<User> users, HashMap<User, Role> roleAssignment,
+			ArrayList<Component> components, ArrayList<Dependency> dependencies,
+			ArrayList<ExternalDependency> externalDependencies) {
+		this.roles = roles;
+		this.users = users;
+		this.roleAssignment = roleAssignment;
+		this.components = components;
+		this.dependencies = dependencies;
+		this.externalDependencies = externalDependencies;
 	}
 	
 	/**
@@ -339,30 +247,37 @@ public class Project {
 	
 	/**
 	 * Persists a project.
+	 * The GitHub project is created after the transaction got committed, by using the outbox.
+	 * If the GitHubProjectPool is enabled, then a prepared GitHub project is taken from it instead, which
+	 * only needs to be renamed. Until then, the project has the status "provisioning".
 	 * @param connection a Connection Object
 	 * @param accessToken OIDC access token which gets used to create the Requirements Bazaar category for the application component of the project.
 	 * @throws SQLException if something with the database has gone wrong
-	 * @throws GitHubException If something went wrong while creating GitHub project.
-	 * @throws ReqBazException If something went wrong while creating the Requirements Bazaar category for the application component.
 	 */
-	public void persist(Connection connection, String accessToken) throws SQLException, GitHubException, ReqBazException {
+	@SuppressWarnings("unchecked")
+	public void persist(Connection connection, String accessToken) throws SQLException {
 		PreparedStatement statement;
 		// store current value of auto commit
 		boolean autoCommitBefore = connection.getAutoCommit();
 		try {
 			connection.setAutoCommit(false);
 			
-			// try to create GitHub project
-			GitHubProject gitHubProject = GitHubHelper.getInstance().createPublicGitHubProject(this.name);
-			this.gitHubProject = gitHubProject;
+			// take a prepared GitHub project from the pool, if available
+			this.gitHubProject = GitHubProjectPool.getInstance().claim(connection);
 			
 			// formulate empty statement for storing the project
+			this.status = ProvisioningStatus.PROVISIONING;
 			statement = connection
-					.prepareStatement("INSERT INTO Project (name, gitHubProjectId, gitHubProjectHtmlUrl) VALUES (?,?,?);", Statement.RETURN_GENERATED_KEYS);
-			// set name and GitHub project information of project
+					.prepareStatement("INSERT INTO Project (name, status, gitHubProjectId, gitHubProjectHtmlUrl) VALUES (?,?,?,?);", Statement.RETURN_GENERATED_KEYS);
 			statement.setString(1, this.name);
-			statement.setInt(2, gitHubProject.getId());
-			statement.setString(3, gitHubProject.getHtmlUrl());
+			statement.setString(2, this.status.toString());
+			if(this.gitHubProject != null) {
+				statement.setInt(3, this.gitHubProject.getId());
+				statement.setString(4, this.gitHubProject.getHtmlUrl());
+			} else {
+				statement.setNull(3, Types.INTEGER);
+				statement.setNull(4, Types.VARCHAR);
+			}
 			// execute update
 			statement.executeUpdate();
 		    // get the generated project id and close statement
@@ -380,12 +295,13 @@ public class Project {
 			// store empty application model (which gets used by the project)
 			createApplicationComponent(connection, accessToken);
 			
+			// create (or rename the GitHub project taken from the pool) after committing
+			JSONObject payload = new JSONObject();
+			payload.put("rename", this.gitHubProject != null);
+			new OutboxEntry(OutboxTask.CREATE_GITHUB_PROJECT, this.id, payload).persist(connection);
+			
 			// no errors occurred, so commit
 			connection.commit();
-		} catch (ReqBazException e) {
-			// roll back the whole stuff
-			connection.rollback();
-			throw e;
 		} catch (SQLException e) {
 			// roll back the whole stuff
 			connection.rollback();
@@ -394,6 +310,10 @@ public class Project {
 			// reset auto commit to previous value
 			connection.setAutoCommit(autoCommitBefore);
 		}
+		// the members and the application component are only visible after committing
+		invalidateCachedMemberships();
+		OutboxDispatcher.getInstance().wakeUp();
+		if(this.gitHubProject != null) GitHubProjectPool.getInstance().wakeUp();
 	}
 	
 	/**
@@ -403,9 +323,8 @@ public class Project {
 	 * @param connection Connection object
 	 * @param accessToken OIDC access token used to create the Requirements Bazaar category for the component.
 	 * @throws SQLException If something with the database went wrong.
-	 * @throws ReqBazException If something with creating the Requirements Bazaar category went wrong.
 	 */
-	private void createApplicationComponent(Connection connection, String accessToken) throws SQLException, ReqBazException {
+	private void createApplicationComponent(Connection connection, String accessToken) throws SQLException {
 		String applicationComponentName = this.name + "-application";
 		Component applicationComponent = new Component(applicationComponentName, ComponentType.APPLICATION);
 		applicationComponent.persist(this, connection, accessToken);
@@ -415,9 +334,48 @@ public class Project {
 		this.components.add(applicationComponent);
 	}
 	
+	/**
+	 * Stores the memberships of the users of the (new) project and assigns the default role to them.
+	 * Independent of the number of users, this only needs two statements: a batch for the ProjectToUser
+	 * entries and a set-based insert for the UserToRole entries.
+	 * Must be called within the transaction that stores the project, which invalidates the cached
+	 * memberships after committing.
+	 * @param connection Connection object
+	 * @throws SQLException If something with the database went wrong.
+	 */
 	private void persistUsers(Connection connection) throws SQLException {
+		Role defaultRole = this.getDefaultRole();
+		
+		// the project is new, so only duplicates within the users list need to be skipped
+		HashSet<Integer> userIds = new HashSet<>();
+		PreparedStatement statement = connection.prepareStatement("INSERT INTO ProjectToUser (projectId, userId) VALUES (?,?);");
 		for(User user : this.users) {
-			addUser(user, connection, false); // false, because user should not be added to this.users again
+			if(!userIds.add(user.getId())) continue;
+			statement.setInt(1, this.id);
+			statement.setInt(2, user.getId());
+			statement.addBatch();
+		}
+		if(userIds.isEmpty()) {
+			statement.close();
+			return;
+		}
+		statement.executeBatch();
+		statement.close();
+		
+		// assign the default role to every member of the project
+		statement = connection.prepareStatement("INSERT INTO UserToRole (userId, roleId, projectToUserId) "
+				+ "SELECT userId, ?, id FROM ProjectToUser WHERE projectId = ?;");
+		statement.setInt(1, defaultRole.getId());
+		statement.setInt(2, this.id);
+		statement.executeUpdate();
+		statement.close();
+		
+		userIds.clear();
+		for(User user : this.users) {
+			this.roleAssignment.put(user, defaultRole);
+			if(userIds.add(user.getId())) {
+				ProjectChange.record(this.id, ProjectChange.USER_ADDED, user.getId(), memberToJSONObject(user, defaultRole), connection);
+			}
 		}
 	}
 	
@@ -430,9 +388,7 @@ public class Project {
 		this.roles = PredefinedRoles.get(this.id);
 		
 		// persist roles
-		for(Role role : this.roles) {
-			role.persist(connection);
-		}
+		Role.persistAll(this.roles, connection);
 		
 		// there is no need to connect the project with the roles, since
 		// the roles already contain the projectId as a foreign key
@@ -447,13 +403,29 @@ public class Project {
 	 * 
 	 * The connections to the components are also deleted automatically from 
 	 * the database and the components are deleted if they are not used somewhere anymore.
+	 * The GitHub project and the Requirements Bazaar categories get deleted after the transaction
+	 * got committed, by using the outbox.
 	 * @param connection Connection object
 	 * @param accessToken Access Token of the user needed to access the Requirements Bazaar API.
 	 * @throws SQLException If something with the database went wrong.
-	 * @throws GitHubException If something with the request to GitHub API went wrong.
-	 * @throws ReqBazException If something with the request to the Requirements Bazaar API went wrong.
 	 */
-	public void delete(Connection connection, String accessToken) throws SQLException, GitHubException, ReqBazException {
+	public void delete(Connection connection, String accessToken) throws SQLException {
+		delete(connection, accessToken, -1);
+	}
+	
+	/**
+	 * Deletes the project from the database, see {@link #delete(Connection, String)}.
+	 * The outbox entries deleting the GitHub project and the Requirements Bazaar categories belong to the
+	 * given job, so that the job is only finished after they got performed.
+	 * If this is part of a surrounding transaction, then {@link #invalidateCachedMemberships()} needs to be
+	 * called after committing it.
+	 * @param connection Connection object
+	 * @param accessToken Access Token of the user needed to access the Requirements Bazaar API.
+	 * @param jobId Id of the job deleting the project, or -1 if the project is not deleted by a job.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	@SuppressWarnings("unchecked")
+	public void delete(Connection connection, String accessToken, int jobId) throws SQLException {
 		PreparedStatement statement;
 		// store current value of auto commit
 		boolean autoCommitBefore = connection.getAutoCommit();
@@ -466,33 +438,71 @@ public class Project {
 			statement.close();
 			
 			// also delete the corresponding GitHub project
-			GitHubHelper.getInstance().deleteGitHubProject(this.getGitHubProject());
+			// if it is not created yet, then the dispatcher deletes it right after creating it
+			if(this.gitHubProject != null) {
+				JSONObject payload = new JSONObject();
+				payload.put("gitHubProjectId", this.gitHubProject.getId());
+				new OutboxEntry(OutboxTask.DELETE_GITHUB_PROJECT, this.id, payload, jobId).persist(connection);
+			}
 			
 			// delete components of the project, if they are not used as a dependency
-			for(Component component : this.components) {
-				if(!component.isUsed(connection)) {
-					// component is not used anymore in the CAE
-				    component.delete(connection, accessToken);
-				}
-			}
+			// (checked with a single query for all components, since the project is deleted already)
+			Component.deleteAll(Component.getUnused(this.components, connection), connection, accessToken, jobId);
 			
 			// dependencies and external dependencies of the project should automatically get deleted
-		} catch (GitHubException e) {
-			// roll back the whole stuff
-			connection.rollback();
-			throw e;
 		} catch (SQLException e) {
 			// roll back the whole stuff
 			connection.rollback();
 			throw e;
-		} catch (ReqBazException e) {
-			// roll back the whole stuff
+		} finally {
+			// reset auto commit to previous value
+			connection.setAutoCommit(autoCommitBefore);
+		}
+		OutboxDispatcher.getInstance().wakeUp();
+		
+		// the project and its components are gone, so no cached membership may be used anymore
+		// (only once the deletion got committed, otherwise the old memberships might get cached again)
+		if(autoCommitBefore) invalidateCachedMemberships();
+	}
+	
+	/**
+	 * Invalidates the cached members of the project and the cached projects of the versioned models of its
+	 * components. Needs to be called after committing a transaction, that changed them.
+	 */
+	public void invalidateCachedMemberships() {
+		MembershipCache.getInstance().invalidateProject(this.id);
+		for(Component component : this.components) {
+			MembershipCache.getInstance().invalidateVersionedModel(component.getVersionedModelId());
+		}
+	}
+	
+	/**
+	 * Schedules the deletion of the project, which then gets performed in the background by the OutboxDispatcher.
+	 * Thus, no remote calls and no long running transaction are needed for answering the request.
+	 * @param userId Id of the user who deletes the project.
+	 * @param accessToken Access Token of the user needed to access the Requirements Bazaar API.
+	 * @param connection Connection object
+	 * @return Job deleting the project, which can be used to request the status of the deletion.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	public Job scheduleDelete(int userId, String accessToken, Connection connection) throws SQLException {
+		Job job = new Job(Job.DELETE_PROJECT, this.id, userId);
+		boolean autoCommitBefore = connection.getAutoCommit();
+		try {
+			connection.setAutoCommit(false);
+			job.persist(connection);
+			
+			new OutboxEntry(OutboxTask.DELETE_PROJECT, this.id, new JSONObject(), job.getId()).setAccessToken(accessToken).persist(connection);
+			
+			connection.commit();
+		} catch (SQLException e) {
 			connection.rollback();
 			throw e;
 		} finally {
-			// reset auto commit to previous value
 			connection.setAutoCommit(autoCommitBefore);
 		}
+		OutboxDispatcher.getInstance().wakeUp();
+		return job;
 	}
 	
 	/**
@@ -510,6 +520,9 @@ public class Project {
 		    jsonProject.put("gitHubProjectId", this.gitHubProject.getId());
 		    jsonProject.put("gitHubProjectHtmlUrl", this.gitHubProject.getHtmlUrl());
 		}
+		jsonProject.put("status", this.status.toString());
+		// clients can load the changes after this revision, instead of the whole project again
+		jsonProject.put("revision", this.revision);
 		
 		// put roles
 		JSONArray jsonRoles = new JSONArray();
@@ -524,13 +537,7 @@ public class Project {
 		// the project too) the role needs to be added manually
 		JSONArray jsonUsers = new JSONArray();
 		for(User user : users) {
-			JSONObject jsonUser = user.toJSONObject(false);
-			
-			// find out id of the role which is assigned to the user
-			int roleId = roleAssignment.get(user).getId();
-			jsonUser.put("roleId", roleId);
-			
-			jsonUsers.add(jsonUser);
+			jsonUsers.add(memberToJSONObject(user, roleAssignment.get(user)));
 		}
 		jsonProject.put("users", jsonUsers);
 		
@@ -558,6 +565,19 @@ public class Project {
 		return jsonProject;
 	}
 	
+	/**
+	 * Returns the JSON representation of a member of the project, i.e. the user including the id of its role.
+	 * @param user Member of the project.
+	 * @param role Role which is assigned to the user.
+	 * @return a JSON object representing a member of the project
+	 */
+	@SuppressWarnings("unchecked")
+	private static JSONObject memberToJSONObject(User user, Role role) {
+		JSONObject jsonUser = user.toJSONObject(false);
+		jsonUser.put("roleId", role.getId());
+		return jsonUser;
+	}
+	
 	/**
 	 * Adds the given role to the current project.
 	 * @param role Role to add.
@@ -611,14 +631,27 @@ public class Project {
 		if(queryResult.next()) return false; // at least one user has assigned this role, dont remove it
 		statement.close();
 		
-		// no user has assigned the role, delete it now
-		// remove role
-		statement = connection.prepareStatement("DELETE FROM Role WHERE id = ?;");
-		statement.setInt(1, roleId);
-		// execute update
-		statement.executeUpdate();
-		statement.close();
-		
+		boolean autoCommitBefore = connection.getAutoCommit();
+		try {
+			connection.setAutoCommit(false);
+			
+			// no user has assigned the role, delete it now
+			// remove role
+			statement = connection.prepareStatement("DELETE FROM Role WHERE id = ?;");
+			statement.setInt(1, roleId);
+			// execute update
+			statement.executeUpdate();
+			statement.close();
+			
+			ProjectChange.record(this.id, ProjectChange.ROLE_REMOVED, roleId, null, connection);
+			
+			if(autoCommitBefore) connection.commit();
+		} catch (SQLException e) {
+			connection.rollback();
+			throw e;
+		} finally {
+			connection.setAutoCommit(autoCommitBefore);
+		}
 		return true;
 	}
 	
@@ -633,12 +666,34 @@ public class Project {
 		// first check if role is part of the project
 		if(!hasRole(roleId)) throw new RoleNotFoundException();
 		
-		// update role in database
-		PreparedStatement statement = connection.prepareStatement("UPDATE Role SET widgetConfig = ? WHERE id = ?;");
-		statement.setString(1, widgetConfig);
-		statement.setInt(2, roleId);
-		statement.executeUpdate();
-		statement.close();
+		Role role = null;
+		for(Role r : this.roles) {
+			if(r.getId() == roleId) role = r;
+		}
+		
+		// store the widget config (if it is not stored already) and let the role reference it
+		boolean autoCommitBefore = connection.getAutoCommit();
+		try {
+			connection.setAutoCommit(false);
+			WidgetConfig.store(Collections.singleton(widgetConfig), connection);
+			
+			PreparedStatement statement = connection.prepareStatement("UPDATE Role SET widgetConfigHash = ? WHERE id = ?;");
+			statement.setString(1, WidgetConfig.hash(widgetConfig));
+			statement.setInt(2, roleId);
+			statement.executeUpdate();
+			statement.close();
+			
+			role.setWidgetConfig(widgetConfig);
+			ProjectChange.record(this.id, ProjectChange.ROLE_UPDATED, roleId, role.toJSONObject(), connection);
+			
+			if(autoCommitBefore) connection.commit();
+		} catch (SQLException e) {
+			connection.rollback();
+			throw e;
+		} finally {
+			connection.setAutoCommit(autoCommitBefore);
+		}
+		WidgetConfigCache.getInstance().put(widgetConfig);
 	}
 	
 	/**
@@ -687,8 +742,11 @@ public class Project {
 		    statement.executeUpdate();
 		    statement.close();
 		    
+		    ProjectChange.record(this.id, ProjectChange.USER_ADDED, userId, memberToJSONObject(user, defaultRole), connection);
+		    
 		    // no errors occurred, so commit
-		 	connection.commit();
+		    // (only if this is not part of a surrounding transaction, e.g. when persisting a project)
+		 	if(autoCommitPrevious) connection.commit();
 		 	
 		 	// also add user to users list of project
 		 	if(addToUsersList) {
@@ -696,13 +754,14 @@ public class Project {
 		 	}
 		 	// also put role into roleAssignment map
 		 	this.roleAssignment.put(user, defaultRole);
-		} catch (NoDefaultRoleFoundException e) {
+		} catch (SQLException e) {
 			// roll back the whole stuff
 			connection.rollback();
 		    throw e;
 		} finally {
 			connection.setAutoCommit(autoCommitPrevious);
 		}
+		if(autoCommitPrevious) MembershipCache.getInstance().invalidateProject(this.id);
 		return true;
 	}
 	
@@ -717,14 +776,29 @@ public class Project {
 		// first check if user is part of the project
 		if(!hasUser(userId, connection)) return false;
 		
-		// user is member of the project, so remove user
-		PreparedStatement statement = connection.prepareStatement("DELETE FROM ProjectToUser WHERE projectId = ? and userId = ?;");
-		statement.setInt(1, this.id);
-		statement.setInt(2, userId);
-		// execute update
-		statement.executeUpdate();
-		statement.close();
+		boolean autoCommitBefore = connection.getAutoCommit();
+		try {
+			connection.setAutoCommit(false);
+			
+			// user is member of the project, so remove user
+			PreparedStatement statement = connection.prepareStatement("DELETE FROM ProjectToUser WHERE projectId = ? and userId = ?;");
+			statement.setInt(1, this.id);
+			statement.setInt(2, userId);
+			// execute update
+			statement.executeUpdate();
+			statement.close();
+			
+			ProjectChange.record(this.id, ProjectChange.USER_REMOVED, userId, null, connection);
+			
+			if(autoCommitBefore) connection.commit();
+		} catch (SQLException e) {
+			connection.rollback();
+			throw e;
+		} finally {
+			connection.setAutoCommit(autoCommitBefore);
+		}
 		
+		if(autoCommitBefore) MembershipCache.getInstance().invalidateProject(this.id);
 		return true;
 	}
 	
@@ -747,6 +821,175 @@ public class Project {
 	    return exists;
 	}
 	
+	/**
+	 * Checks if the user with the given id is a member of the project that the versioned model
+	 * with the given id belongs to (via its component).
+	 * This only uses a single query and does not load any project from the database.
+	 * @param versionedModelId Id of the versioned model.
+	 * @param userId Id of the user to search for.
+	 * @param connection Connection object
+	 * @return Whether the user is a member of the project where the versioned model belongs to. False, if no
+	 * project could be found for the versioned model.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	public static boolean hasUserByVersionedModel(int versionedModelId, int userId, Connection connection) throws SQLException {
+		PreparedStatement statement = connection.prepareStatement("SELECT EXISTS (SELECT 1 FROM Component, ProjectToComponent, ProjectToUser " +
+		                          "WHERE Component.versionedModelId = ? AND ProjectToComponent.componentId = Component.id " +
+				                  "AND ProjectToUser.projectId = ProjectToComponent.projectId AND ProjectToUser.userId = ?) AS isMember;");
+		statement.setInt(1, versionedModelId);
+		statement.setInt(2, userId);
+		// execute query
+		ResultSet queryResult = statement.executeQuery();
+		boolean isMember = queryResult.next() && queryResult.getBoolean("isMember");
+		statement.close();
+		return isMember;
+	}
+	
+	/**
+	 * Searches for the project that the versioned model with the given id belongs to (via its component).
+	 * @param versionedModelId Id of the versioned model.
+	 * @param connection Connection object
+	 * @return Id of the project or -1, if no project could be found for the versioned model.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	public static int getProjectIdByVersionedModel(int versionedModelId, Connection connection) throws SQLException {
+		PreparedStatement statement = connection.prepareStatement("SELECT ProjectToComponent.projectId FROM Component, ProjectToComponent " +
+		                          "WHERE Component.versionedModelId = ? AND ProjectToComponent.componentId = Component.id LIMIT 1;");
+		statement.setInt(1, versionedModelId);
+		// execute query
+		ResultSet queryResult = statement.executeQuery();
+		int projectId = -1;
+		if(queryResult.next()) {
+			projectId = queryResult.getInt("projectId");
+		}
+		statement.close();
+		return projectId;
+	}
+	
+	/**
+	 * Checks whether a project with the given id exists, without loading it.
+	 * @param projectId Id of the project.
+	 * @param connection Connection object
+	 * @return Whether the project exists.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	public static boolean exists(int projectId, Connection connection) throws SQLException {
+		PreparedStatement statement = connection.prepareStatement("SELECT EXISTS (SELECT 1 FROM Project WHERE id = ?) AS projectExists;");
+		statement.setInt(1, projectId);
+		// execute query
+		ResultSet queryResult = statement.executeQuery();
+		boolean exists = queryResult.next() && queryResult.getBoolean("projectExists");
+		statement.close();
+		return exists;
+	}
+	
+	/**
+	 * Returns the ETag of the project with the given id, without loading the project.
+	 * @param projectId Id of the project.
+	 * @param connection Connection object
+	 * @return Strong ETag (including the quotes), which changes with every change of the project.
+	 * @throws SQLException If something with the database went wrong (ProjectNotFoundException if the project does not exist).
+	 */
+	public static String getETag(int projectId, Connection connection) throws SQLException {
+		PreparedStatement statement = connection.prepareStatement("SELECT revision FROM Project WHERE id = ?;");
+		statement.setInt(1, projectId);
+		ResultSet queryResult = statement.executeQuery();
+		if(!queryResult.next()) {
+			statement.close();
+			throw new ProjectNotFoundException();
+		}
+		int revision = queryResult.getInt("revision");
+		statement.close();
+		return toETag(projectId + "-" + revision);
+	}
+	
+	/**
+	 * Returns the ETag of the page of projects returned by {@link #getProjectsByUser(int, int, int, Connection)},
+	 * without loading the projects.
+	 * @param userId Id of the user to search the projects for.
+	 * @param afterId Cursor, i.e. id of the last project of the previous page (0 for the first page).
+	 * @param limit Maximum number of projects contained in the page.
+	 * @param connection Connection object
+	 * @return Strong ETag (including the quotes), which changes with every change of the page or one of its projects.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	public static String getProjectsByUserETag(int userId, int afterId, int limit, Connection connection) throws SQLException {
+		PreparedStatement statement = connection.prepareStatement("SELECT Project.id, Project.revision FROM Project, ProjectToUser " +
+		                          "WHERE Project.id = ProjectToUser.projectId AND ProjectToUser.userId = ? AND Project.id > ? " +
+				                  "ORDER BY Project.id LIMIT ?;");
+		statement.setInt(1, userId);
+		statement.setInt(2, afterId);
+		statement.setLong(3, (long) limit + 1);
+		return queryPageETag(statement, limit);
+	}
+	
+	/**
+	 * Returns the ETag of the page of projects returned by {@link #searchProjects(String, int, int, Connection)},
+	 * without loading the projects.
+	 * @param searchInput Search input / name of the project to search for.
+	 * @param afterId Cursor, i.e. id of the last project of the previous page (0 for the first page).
+	 * @param limit Maximum number of projects contained in the page.
+	 * @param connection Connection object
+	 * @return Strong ETag (including the quotes), which changes with every change of the page or one of its projects.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	public static String searchProjectsETag(String searchInput, int afterId, int limit, Connection connection) throws SQLException {
+		PreparedStatement statement = connection.prepareStatement("SELECT id, revision FROM Project WHERE name LIKE ? AND id > ? ORDER BY id LIMIT ?;");
+		statement.setString(1, "%" + searchInput + "%");
+		statement.setInt(2, afterId);
+		statement.setLong(3, (long) limit + 1);
+		return queryPageETag(statement, limit);
+	}
+	
+	/**
+	 * Creates the ETag of a page of projects from the ids and revisions of its projects.
+	 * @param statement Statement selecting the id and revision of the projects of the page (and of the first
+	 * project of the next page, if there is one), ordered by the project id.
+	 * @param limit Maximum number of projects contained in the page.
+	 * @return Strong ETag (including the quotes).
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	private static String queryPageETag(PreparedStatement statement, int limit) throws SQLException {
+		StringBuilder revisions = new StringBuilder();
+		ResultSet queryResult = statement.executeQuery();
+		int count = 0;
+		while(queryResult.next()) {
+			if(count == limit) {
+				// there exists a next page, which changes the cursor returned with the page
+				revisions.append("next");
+				break;
+			}
+			revisions.append(queryResult.getInt("id")).append('-').append(queryResult.getInt("revision")).append(';');
+			count++;
+		}
+		statement.close();
+		return toETag(Digests.sha256Hex(revisions.toString()));
+	}
+	
+	private static String toETag(String value) {
+		return "\"" + value + "\"";
+	}
+	
+	/**
+	 * Searches for the ids of the users that are members of the project with the given id.
+	 * @param projectId Id of the project.
+	 * @param connection Connection object
+	 * @return Set containing the ids of all members of the project.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	public static HashSet<Integer> getUserIds(int projectId, Connection connection) throws SQLException {
+		PreparedStatement statement = connection.prepareStatement("SELECT userId FROM ProjectToUser WHERE projectId = ?;");
+		statement.setInt(1, projectId);
+		// execute query
+		ResultSet queryResult = statement.executeQuery();
+		HashSet<Integer> userIds = new HashSet<>();
+		while(queryResult.next()) {
+			userIds.add(queryResult.getInt("userId"));
+		}
+		statement.close();
+		return userIds;
+	}
+	
 	/**
 	 * Updates the role of the given user.
 	 * @param userId Id of the user whose role should be updated.
@@ -755,6 +998,7 @@ public class Project {
 	 * @return Whether the role could be edited.
 	 * @throws SQLException If something with the database went wrong.
 	 */
+	@SuppressWarnings("unchecked")
 	public boolean editUserRole(int userId, int roleId, Connection connection) throws SQLException {
 		// check if user is member of project
 		if(!this.hasUser(userId, connection)) return false;
@@ -773,35 +1017,65 @@ public class Project {
 		result.close();
 		statement.close();
 		
-		statement = connection
-				.prepareStatement("UPDATE UserToRole SET roleId = ? WHERE projectToUserId = ?;");
-		statement.setInt(1, roleId);
-		statement.setInt(2, projectToUserId);
-		statement.executeUpdate();
-		statement.close();
+		boolean autoCommitBefore = connection.getAutoCommit();
+		try {
+			connection.setAutoCommit(false);
+			
+			statement = connection
+					.prepareStatement("UPDATE UserToRole SET roleId = ? WHERE projectToUserId = ?;");
+			statement.setInt(1, roleId);
+			statement.setInt(2, projectToUserId);
+			statement.executeUpdate();
+			statement.close();
+			
+			JSONObject data = new JSONObject();
+			data.put("roleId", roleId);
+			ProjectChange.record(this.id, ProjectChange.USER_ROLE_CHANGED, userId, data, connection);
+			
+			if(autoCommitBefore) connection.commit();
+		} catch (SQLException e) {
+			connection.rollback();
+			throw e;
+		} finally {
+			connection.setAutoCommit(autoCommitBefore);
+		}
 		return true;
 	}
 	
 	/**
 	 * Queries the database by using the given statement (which needs to fulfill some requirements, see below).
-	 * @param statement IMPORTANT: this must already have all parameters set and the query needs to select the project id.
+	 * The aggregates of all resulting projects get loaded together by the ProjectLoader, so that the number
+	 * of queries does not depend on the number of projects.
+	 * @param statement IMPORTANT: this must already have all parameters set and the query needs to select all columns of the Project table
+	 * ordered by the project id.
+	 * @param limit Maximum number of projects that should be contained in the page. If the query results in more
+	 * projects, then the id of the last project of the page is used as cursor for the next page.
 	 * @param connection Connection object
-	 * @return ArrayList of projects resulted by the query.
+	 * @return Page of projects resulted by the query.
 	 * @throws SQLException If something with the database went wrong.
 	 */
-	private static ArrayList<Project> queryProjects(PreparedStatement statement, Connection connection) throws SQLException {
+	private static Page<Project> queryProjects(PreparedStatement statement, int limit, Connection connection) throws SQLException {
 		ArrayList<Project> projects = new ArrayList<>();
+		Integer nextCursor = null;
 		
 		// execute query
 		ResultSet queryResult = statement.executeQuery();
 				
 		// add every project of the results to the list
 		while(queryResult.next()) {
-			projects.add(new Project(queryResult.getInt("id"), connection));
+			if(projects.size() == limit) {
+				// there exist more projects than fit into the page
+				nextCursor = projects.get(limit - 1).getId();
+				break;
+			}
+			projects.add(new Project(queryResult));
 		}
 				
 	    statement.close();
-	    return projects;
+	    
+	    // load roles, users, components, dependencies and external dependencies of all projects at once
+	    new ProjectLoader(connection).load(projects);
+	    return new Page<>(projects, nextCursor);
 	}
 	
 	/**
@@ -812,26 +1086,51 @@ public class Project {
 	 * @throws SQLException If something with the database went wrong.
 	 */
 	public static ArrayList<Project> getProjectsByUser(int userId, Connection connection) throws SQLException {
+		return getProjectsByUser(userId, 0, Integer.MAX_VALUE, connection).getItems();
+	}
+	
+	/**
+	 * Searches for projects where the user with the given id is part of.
+	 * Only the projects with an id greater than the given cursor are returned.
+	 * @param userId Id of the user to search the projects for.
+	 * @param afterId Cursor, i.e. id of the last project of the previous page (0 for the first page).
+	 * @param limit Maximum number of projects to return.
+	 * @param connection Connection object
+	 * @return Page containing the projects that the user is part of.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	public static Page<Project> getProjectsByUser(int userId, int afterId, int limit, Connection connection) throws SQLException {
 		// search for projects where user is part of
-		PreparedStatement statement = connection.prepareStatement("SELECT Project.id FROM Project, ProjectToUser WHERE Project.id = ProjectToUser.projectId AND ProjectToUser.userId = (?);");
+		PreparedStatement statement = connection.prepareStatement("SELECT Project.* FROM Project, ProjectToUser " +
+		                          "WHERE Project.id = ProjectToUser.projectId AND ProjectToUser.userId = ? AND Project.id > ? " +
+				                  "ORDER BY Project.id LIMIT ?;");
 		statement.setInt(1, userId);
+		statement.setInt(2, afterId);
+		// fetch one more project to know whether there exists a next page
+		statement.setLong(3, (long) limit + 1);
 		
-		return queryProjects(statement, connection);
+		return queryProjects(statement, limit, connection);
 	}
 	
 	/**
 	 * Searches for projects where the name is like the search input given.
+	 * Only the projects with an id greater than the given cursor are returned.
 	 * @param searchInput Search input / name of the project to search for.
+	 * @param afterId Cursor, i.e. id of the last project of the previous page (0 for the first page).
+	 * @param limit Maximum number of projects to return.
 	 * @param connection Connection object
-	 * @return ArrayList of projects containing the search results.
+	 * @return Page of projects containing the search results.
 	 * @throws SQLException If something with the database went wrong.
 	 */
-	public static ArrayList<Project> searchProjects(String searchInput, Connection connection) throws SQLException {
+	public static Page<Project> searchProjects(String searchInput, int afterId, int limit, Connection connection) throws SQLException {
 		// search for projects where the name is like the searchInput given
-		PreparedStatement statement = connection.prepareStatement("SELECT Project.id FROM Project WHERE name LIKE ?;");
+		PreparedStatement statement = connection.prepareStatement("SELECT Project.* FROM Project WHERE name LIKE ? AND id > ? ORDER BY id LIMIT ?;");
 		statement.setString(1, "%" + searchInput + "%");
+		statement.setInt(2, afterId);
+		// fetch one more project to know whether there exists a next page
+		statement.setLong(3, (long) limit + 1);
 		
-		return queryProjects(statement, connection);
+		return queryProjects(statement, limit, connection);
 	}
 	
 	/**
@@ -901,6 +1200,121 @@ public class Project {
 		return this.gitHubProject;
 	}
 	
+	/**
+	 * Getter for the users of the project.
+	 * @return ArrayList of users that are part of the project.
+	 */
+	public ArrayList<User> getUsers() {
+		return users;
+	}
+	
+	/**
+	 * Returns the ETag of the project, which changes with every change of the project or its aggregate.
+	 * @return Strong ETag (including the quotes).
+	 */
+	public String getETag() {
+		return toETag(this.id + "-" + this.revision);
+	}
+	
+	public ProvisioningStatus getStatus() {
+		return this.status;
+	}
+	
+	/**
+	 * Loads the GitHub project of the project with the given id.
+	 * @param projectId Id of the project.
+	 * @param connection Connection object
+	 * @return GitHub project, or null if the project has none (yet) or does not exist.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	public static GitHubProject getGitHubProject(int projectId, Connection connection) throws SQLException {
+		PreparedStatement statement = connection.prepareStatement("SELECT gitHubProjectId, gitHubProjectHtmlUrl FROM Project WHERE id = ?;");
+		statement.setInt(1, projectId);
+		ResultSet queryResult = statement.executeQuery();
+		GitHubProject gitHubProject = null;
+		if(queryResult.next()) {
+			int gitHubProjectId = queryResult.getInt("gitHubProjectId");
+			if(!queryResult.wasNull()) {
+				gitHubProject = new GitHubProject(gitHubProjectId, queryResult.getString("gitHubProjectHtmlUrl"));
+			}
+		}
+		statement.close();
+		return gitHubProject;
+	}
+	
+	/**
+	 * Stores the GitHub project of the project with the given id, if the project still exists
+	 * and has no GitHub project yet.
+	 * @param projectId Id of the project.
+	 * @param gitHubProject GitHub project that got created for the project.
+	 * @param connection Connection object
+	 * @return Whether the GitHub project got stored. False, if the project got deleted in the meantime.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	@SuppressWarnings("unchecked")
+	public static boolean setGitHubProject(int projectId, GitHubProject gitHubProject, Connection connection) throws SQLException {
+		boolean updated;
+		boolean autoCommitBefore = connection.getAutoCommit();
+		try {
+			connection.setAutoCommit(false);
+			
+			PreparedStatement statement = connection.prepareStatement(
+					"UPDATE Project SET gitHubProjectId = ?, gitHubProjectHtmlUrl = ? WHERE id = ? AND gitHubProjectId IS NULL;");
+			statement.setInt(1, gitHubProject.getId());
+			statement.setString(2, gitHubProject.getHtmlUrl());
+			statement.setInt(3, projectId);
+			updated = statement.executeUpdate() == 1;
+			statement.close();
+			
+			if(updated) {
+				JSONObject data = new JSONObject();
+				data.put("gitHubProjectId", gitHubProject.getId());
+				data.put("gitHubProjectHtmlUrl", gitHubProject.getHtmlUrl());
+				ProjectChange.record(projectId, ProjectChange.PROJECT_UPDATED, projectId, data, connection);
+			}
+			
+			if(autoCommitBefore) connection.commit();
+		} catch (SQLException e) {
+			connection.rollback();
+			throw e;
+		} finally {
+			connection.setAutoCommit(autoCommitBefore);
+		}
+		return updated;
+	}
+	
+	/**
+	 * Updates the provisioning status of the project with the given id.
+	 * @param projectId Id of the project.
+	 * @param status New status of the project.
+	 * @param connection Connection object
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	@SuppressWarnings("unchecked")
+	public static void setStatus(int projectId, ProvisioningStatus status, Connection connection) throws SQLException {
+		boolean autoCommitBefore = connection.getAutoCommit();
+		try {
+			connection.setAutoCommit(false);
+			
+			PreparedStatement statement = connection.prepareStatement("UPDATE Project SET status = ? WHERE id = ?;");
+			statement.setString(1, status.toString());
+			statement.setInt(2, projectId);
+			statement.executeUpdate();
+			statement.close();
+			
+			JSONObject data = new JSONObject();
+			data.put("status", status.toString());
+			ProjectChange.record(projectId, ProjectChange.PROJECT_UPDATED, projectId, data, connection);
+			
+			if(autoCommitBefore) connection.commit();
+		} catch (SQLException e) {
+			connection.rollback();
+			throw e;
+		} finally {
+			connection.setAutoCommit(autoCommitBefore);
+		}
+	}
+	
 	/**
 	 * Checks if the list of components of the project contains 
 	 * a component with the given id.
@@ -947,25 +1361,41 @@ public class Project {
 	 * @return True, if component could be removed. False, if component is not included in project and thus could not be removed.
 	 * @throws SQLException If something with the database went wrong.
 	 * @throws ParseException If something parsing the component type from database went wrong.
-	 * @throws ReqBazException If something with the Requirements Bazaar API went wrong.
 	 */
-	public boolean removeComponent(int componentId, Connection connection, String accessToken) throws SQLException, ParseException, ReqBazException {
+	public boolean removeComponent(int componentId, Connection connection, String accessToken) throws SQLException, ParseException {
 		if(!hasComponent(componentId)) return false;
 		
-		PreparedStatement statement = connection
-				.prepareStatement("DELETE FROM ProjectToComponent WHERE projectId = ? AND componentId = ?;");
-		statement.setInt(1, this.id);
-		statement.setInt(2, componentId);
-		
 		Component component = new Component(componentId, connection);
-		// only delete the component, if it is not used as a dependency somewhere
-		if(!component.isUsed(connection)) {
-		    component.delete(connection, accessToken);
+		
+		boolean autoCommitBefore = connection.getAutoCommit();
+		try {
+			connection.setAutoCommit(false);
+			
+			PreparedStatement statement = connection
+					.prepareStatement("DELETE FROM ProjectToComponent WHERE projectId = ? AND componentId = ?;");
+			statement.setInt(1, this.id);
+			statement.setInt(2, componentId);
+			statement.executeUpdate();
+			statement.close();
+			
+			// only delete the component, if it is not used somewhere else anymore
+			// (needs to be checked after removing it from this project, otherwise it is always used)
+			if(!component.isUsed(connection)) {
+			    component.delete(connection, accessToken);
+			}
+			
+			ProjectChange.record(this.id, ProjectChange.COMPONENT_REMOVED, componentId, null, connection);
+			
+			if(autoCommitBefore) connection.commit();
+		} catch (SQLException e) {
+			connection.rollback();
+			throw e;
+		} finally {
+			connection.setAutoCommit(autoCommitBefore);
 		}
+		OutboxDispatcher.getInstance().wakeUp();
 		
-		// execute update and close statement
-		statement.executeUpdate();
-		statement.close();
+		if(autoCommitBefore) MembershipCache.getInstance().invalidateVersionedModel(component.getVersionedModelId());
 		return true;
 	}	
 	
@@ -979,14 +1409,28 @@ public class Project {
 	public boolean removeDependency(int componentId, Connection connection) throws SQLException {
 		if(!hasDependency(componentId)) return false;
 		
-		PreparedStatement statement = connection
-				.prepareStatement("DELETE FROM Dependency WHERE componentId = ? AND projectId = ?;");
-		statement.setInt(1, componentId);
-		statement.setInt(2, this.id);
-		
-		// execute update and close statement
-		statement.executeUpdate();
-		statement.close();
+		boolean autoCommitBefore = connection.getAutoCommit();
+		try {
+			connection.setAutoCommit(false);
+			
+			PreparedStatement statement = connection
+					.prepareStatement("DELETE FROM Dependency WHERE componentId = ? AND projectId = ?;");
+			statement.setInt(1, componentId);
+			statement.setInt(2, this.id);
+			
+			// execute update and close statement
+			statement.executeUpdate();
+			statement.close();
+			
+			ProjectChange.record(this.id, ProjectChange.DEPENDENCY_REMOVED, componentId, null, connection);
+			
+			if(autoCommitBefore) connection.commit();
+		} catch (SQLException e) {
+			connection.rollback();
+			throw e;
+		} finally {
+			connection.setAutoCommit(autoCommitBefore);
+		}
 		return true;
 	}
 	
@@ -1000,14 +1444,28 @@ public class Project {
 	public boolean removeExternalDependency(int externalDependencyId, Connection connection) throws SQLException {
 		if(!hasExternalDependency(externalDependencyId)) return false;
 		
-		PreparedStatement statement = connection
-				.prepareStatement("DELETE FROM ExternalDependency WHERE id = ? AND projectId = ?;");
-		statement.setInt(1, externalDependencyId);
-		statement.setInt(2, this.id);
-		
-		// execute update and close statement
-		statement.executeUpdate();
-		statement.close();
+		boolean autoCommitBefore = connection.getAutoCommit();
+		try {
+			connection.setAutoCommit(false);
+			
+			PreparedStatement statement = connection
+					.prepareStatement("DELETE FROM ExternalDependency WHERE id = ? AND projectId = ?;");
+			statement.setInt(1, externalDependencyId);
+			statement.setInt(2, this.id);
+			
+			// execute update and close statement
+			statement.executeUpdate();
+			statement.close();
+			
+			ProjectChange.record(this.id, ProjectChange.EXTERNAL_DEPENDENCY_REMOVED, externalDependencyId, null, connection);
+			
+			if(autoCommitBefore) connection.commit();
+		} catch (SQLException e) {
+			connection.rollback();
+			throw e;
+		} finally {
+			connection.setAutoCommit(autoCommitBefore);
+		}
 		return true;
 	}
 	
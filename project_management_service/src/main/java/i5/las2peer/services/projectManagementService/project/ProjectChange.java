@@ -0,0 +1,228 @@
+package i5.las2peer.services.projectManagementService.project;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+
+import org.json.simple.JSONObject;
+import org.json.simple.JSONValue;
+
+import i5.las2peer.services.projectManagementService.database.Page;
+
+/**
+ * Entry of the append-only change log of a project. Every change of a project or its aggregate increments
+ * the revision of the project and stores one entry with the new revision, in the same transaction as the
+ * change itself. Thus, clients knowing the revision of their copy of a project only need to load the
+ * changes after it, instead of the whole project.
+ */
+public class ProjectChange {
+
+	/*
+	 * Types of the changes. The entity id is the id of the role, user, component etc. that got changed.
+	 * For dependencies it is the id of the component, for invitations the id of the invited user.
+	 */
+	public static final String PROJECT_UPDATED = "project_updated";
+	public static final String ROLE_ADDED = "role_added";
+	public static final String ROLE_UPDATED = "role_updated";
+	public static final String ROLE_REMOVED = "role_removed";
+	public static final String USER_ADDED = "user_added";
+	public static final String USER_UPDATED = "user_updated";
+	public static final String USER_ROLE_CHANGED = "user_role_changed";
+	public static final String USER_REMOVED = "user_removed";
+	public static final String COMPONENT_ADDED = "component_added";
+	public static final String COMPONENT_UPDATED = "component_updated";
+	public static final String COMPONENT_REMOVED = "component_removed";
+	public static final String DEPENDENCY_ADDED = "dependency_added";
+	public static final String DEPENDENCY_REMOVED = "dependency_removed";
+	public static final String EXTERNAL_DEPENDENCY_ADDED = "external_dependency_added";
+	public static final String EXTERNAL_DEPENDENCY_REMOVED = "external_dependency_removed";
+	public static final String INVITATION_ADDED = "invitation_added";
+	public static final String INVITATION_REMOVED = "invitation_removed";
+
+	private int revision;
+	private String type;
+	private int entityId;
+
+	/**
+	 * Attributes of the entity that got added or changed, null for removals.
+	 */
+	private JSONObject data;
+
+	private Timestamp createdAt;
+
+	/**
+	 * Creates a change from the current row of the given query result.
+	 * @param queryResult Should contain all columns of the ProjectChange table and next() should have been called already.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	private ProjectChange(ResultSet queryResult) throws SQLException {
+		this.revision = queryResult.getInt("revision");
+		this.type = queryResult.getString("type");
+		this.entityId = queryResult.getInt("entityId");
+		String data = queryResult.getString("data");
+		if(data != null) this.data = (JSONObject) JSONValue.parse(data);
+		this.createdAt = queryResult.getTimestamp("createdAt");
+	}
+
+	/**
+	 * Increments the revision of the project with the given id and stores the change with the new revision.
+	 * Needs to be called by every method that changes the project or its aggregate, within the transaction
+	 * of the change (i.e. auto commit needs to be disabled), so that both get committed or rolled back together.
+	 * @param projectId Id of the project that got changed.
+	 * @param type Type of the change, e.g. {@link #ROLE_ADDED}.
+	 * @param entityId Id of the entity that got changed.
+	 * @param data Attributes of the entity that got added or changed, or null.
+	 * @param connection Connection object
+	 * @return New revision of the project, or -1 if the project does not exist (anymore).
+	 * @throws SQLException If something with the database went wrong.
+	 * @throws IllegalStateException If the connection is in auto commit mode.
+	 */
+	public static int record(int projectId, String type, int entityId, JSONObject data, Connection connection) throws SQLException {
+		if(connection.getAutoCommit()) {
+			throw new IllegalStateException("Changes of projects need to be recorded within the transaction of the change.");
+		}
+
+		// the update locks the row of the project until the transaction ends, so that revisions are never reused
+		PreparedStatement statement = connection.prepareStatement("UPDATE Project SET revision = revision + 1 WHERE id = ?;");
+		statement.setInt(1, projectId);
+		boolean updated = statement.executeUpdate() == 1;
+		statement.close();
+		if(!updated) return -1;
+
+		statement = connection.prepareStatement("SELECT revision FROM Project WHERE id = ?;");
+		statement.setInt(1, projectId);
+		ResultSet queryResult = statement.executeQuery();
+		queryResult.next();
+		int revision = queryResult.getInt("revision");
+		statement.close();
+
+		statement = connection.prepareStatement("INSERT INTO ProjectChange (projectId, revision, type, entityId, data) VALUES (?,?,?,?,?);");
+		statement.setInt(1, projectId);
+		statement.setInt(2, revision);
+		statement.setString(3, type);
+		statement.setInt(4, entityId);
+		if(data != null) {
+			statement.setString(5, data.toJSONString());
+		} else {
+			statement.setNull(5, Types.VARCHAR);
+		}
+		statement.executeUpdate();
+		statement.close();
+		return revision;
+	}
+
+	/**
+	 * Records the given change of a component for every project containing the component,
+	 * either as one of its components or as a dependency. Needs to be called within the transaction of the change.
+	 * @param componentId Id of the component that got changed.
+	 * @param type Type of the change, e.g. {@link #COMPONENT_UPDATED}.
+	 * @param data Attributes of the component that got changed.
+	 * @param connection Connection object
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	public static void recordForComponent(int componentId, String type, JSONObject data, Connection connection) throws SQLException {
+		PreparedStatement statement = connection.prepareStatement("SELECT projectId FROM ProjectToComponent WHERE componentId = ? " +
+		                          "UNION SELECT projectId FROM Dependency WHERE componentId = ?;");
+		statement.setInt(1, componentId);
+		statement.setInt(2, componentId);
+		for(int projectId : queryProjectIds(statement)) {
+			record(projectId, type, componentId, data, connection);
+		}
+	}
+
+	/**
+	 * Records the given change of a user for every project where the user is a member of.
+	 * Needs to be called within the transaction of the change.
+	 * @param userId Id of the user that got changed.
+	 * @param type Type of the change, e.g. {@link #USER_UPDATED}.
+	 * @param data Attributes of the user that got changed.
+	 * @param connection Connection object
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	public static void recordForUser(int userId, String type, JSONObject data, Connection connection) throws SQLException {
+		PreparedStatement statement = connection.prepareStatement("SELECT projectId FROM ProjectToUser WHERE userId = ?;");
+		statement.setInt(1, userId);
+		for(int projectId : queryProjectIds(statement)) {
+			record(projectId, type, userId, data, connection);
+		}
+	}
+
+	/**
+	 * Loads the changes of the project with the given id after the given revision, ordered by their revision.
+	 * @param projectId Id of the project.
+	 * @param sinceRevision Revision of the project that the client already has, which is used as cursor.
+	 * @param limit Maximum number of changes to return.
+	 * @param connection Connection object
+	 * @return Page of changes. If there exist more changes, then the revision of the last change is the next cursor.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	public static Page<ProjectChange> getChanges(int projectId, int sinceRevision, int limit, Connection connection) throws SQLException {
+		PreparedStatement statement = connection.prepareStatement(
+				"SELECT * FROM ProjectChange WHERE projectId = ? AND revision > ? ORDER BY revision LIMIT ?;");
+		statement.setInt(1, projectId);
+		statement.setInt(2, sinceRevision);
+		// fetch one more change to know whether there exists a next page
+		statement.setLong(3, (long) limit + 1);
+
+		ArrayList<ProjectChange> changes = new ArrayList<>();
+		Integer nextCursor = null;
+		ResultSet queryResult = statement.executeQuery();
+		while(queryResult.next()) {
+			if(changes.size() == limit) {
+				nextCursor = changes.get(limit - 1).getRevision();
+				break;
+			}
+			changes.add(new ProjectChange(queryResult));
+		}
+		statement.close();
+		return new Page<>(changes, nextCursor);
+	}
+
+	/**
+	 * Executes the given query and returns the project ids of the result.
+	 * @param statement Statement selecting the column projectId, with all parameters set.
+	 * @return Ids of the projects.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	private static ArrayList<Integer> queryProjectIds(PreparedStatement statement) throws SQLException {
+		ArrayList<Integer> projectIds = new ArrayList<>();
+		ResultSet queryResult = statement.executeQuery();
+		while(queryResult.next()) {
+			projectIds.add(queryResult.getInt("projectId"));
+		}
+		statement.close();
+		return projectIds;
+	}
+
+	/**
+	 * Returns the JSON representation of this change.
+	 * @return a JSON object representing a change
+	 */
+	@SuppressWarnings("unchecked")
+	public JSONObject toJSONObject() {
+		JSONObject jsonChange = new JSONObject();
+		jsonChange.put("revision", this.revision);
+		jsonChange.put("type", this.type);
+		jsonChange.put("entityId", this.entityId);
+		if(this.data != null) jsonChange.put("data", this.data);
+		if(this.createdAt != null) jsonChange.put("createdAt", this.createdAt.getTime());
+		return jsonChange;
+	}
+
+	public int getRevision() {
+		return this.revision;
+	}
+
+	public String getType() {
+		return this.type;
+	}
+
+	public int getEntityId() {
+		return this.entityId;
+	}
+
+}
@@ -74,18 +74,32 @@ public class ProjectInvitation {
 	 * @throws SQLException If something with the database went wrong.
 	 */
 	public void persist(Connection connection) throws SQLException {
-		PreparedStatement statement = connection.prepareStatement("INSERT INTO ProjectInvitation (projectId, userId) VALUES (?,?);", Statement.RETURN_GENERATED_KEYS);
-	    statement.setInt(1, this.projectId);
-	    statement.setInt(2, this.userId);
-	    
-	    // execute update
-	    statement.executeUpdate();
-	    
-	    // get id of the new entry
-	    ResultSet genKeys = statement.getGeneratedKeys();
-		genKeys.next();
-		this.id = genKeys.getInt(1);
-	    statement.close();
+		boolean autoCommitBefore = connection.getAutoCommit();
+		try {
+			connection.setAutoCommit(false);
+			
+			PreparedStatement statement = connection.prepareStatement("INSERT INTO ProjectInvitation (projectId, userId) VALUES (?,?);", Statement.RETURN_GENERATED_KEYS);
+			statement.setInt(1, this.projectId);
+			statement.setInt(2, this.userId);
+			
+			// execute update
+			statement.executeUpdate();
+			
+			// get id of the new entry
+			ResultSet genKeys = statement.getGeneratedKeys();
+			genKeys.next();
+			this.id = genKeys.getInt(1);
+			statement.close();
+			
+			ProjectChange.record(this.projectId, ProjectChange.INVITATION_ADDED, this.userId, toJSONObject(), connection);
+			
+			if(autoCommitBefore) connection.commit();
+		} catch (SQLException e) {
+			connection.rollback();
+			throw e;
+		} finally {
+			connection.setAutoCommit(autoCommitBefore);
+		}
 	}
 	
 	/**
@@ -114,12 +128,26 @@ public class ProjectInvitation {
 	 * @throws SQLException If something with the database went wrong.
 	 */
 	public void delete(Connection connection) throws SQLException {
-		PreparedStatement statement = connection.prepareStatement("DELETE FROM ProjectInvitation WHERE id = ?;");
-		statement.setInt(1, this.id);
-		
-		// execute update
-		statement.executeUpdate();
-		statement.close();
+		boolean autoCommitBefore = connection.getAutoCommit();
+		try {
+			connection.setAutoCommit(false);
+			
+			PreparedStatement statement = connection.prepareStatement("DELETE FROM ProjectInvitation WHERE id = ?;");
+			statement.setInt(1, this.id);
+			
+			// execute update
+			boolean deleted = statement.executeUpdate() > 0;
+			statement.close();
+			
+			if(deleted) ProjectChange.record(this.projectId, ProjectChange.INVITATION_REMOVED, this.userId, null, connection);
+			
+			if(autoCommitBefore) connection.commit();
+		} catch (SQLException e) {
+			connection.rollback();
+			throw e;
+		} finally {
+			connection.setAutoCommit(autoCommitBefore);
+		}
 	}
 	
 	/**
@@ -130,13 +158,27 @@ public class ProjectInvitation {
 	 * @throws SQLException If something with the database went wrong.
 	 */
 	public static void delete(int projectId, int userId, Connection connection) throws SQLException {
-		PreparedStatement statement = connection.prepareStatement("DELETE FROM ProjectInvitation WHERE projectId = ? AND userId = ?;");
-		statement.setInt(1, projectId);
-		statement.setInt(2, userId);
-		
-		// execute update
-		statement.executeUpdate();
-		statement.close();
+		boolean autoCommitBefore = connection.getAutoCommit();
+		try {
+			connection.setAutoCommit(false);
+			
+			PreparedStatement statement = connection.prepareStatement("DELETE FROM ProjectInvitation WHERE projectId = ? AND userId = ?;");
+			statement.setInt(1, projectId);
+			statement.setInt(2, userId);
+			
+			// execute update
+			boolean deleted = statement.executeUpdate() > 0;
+			statement.close();
+			
+			if(deleted) ProjectChange.record(projectId, ProjectChange.INVITATION_REMOVED, userId, null, connection);
+			
+			if(autoCommitBefore) connection.commit();
+		} catch (SQLException e) {
+			connection.rollback();
+			throw e;
+		} finally {
+			connection.setAutoCommit(autoCommitBefore);
+		}
 	}
 	
 	/**
@@ -0,0 +1,265 @@
+package i5.las2peer.services.projectManagementService.project;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.json.simple.parser.ParseException;
+
+import i5.las2peer.services.projectManagementService.cache.WidgetConfigCache;
+import i5.las2peer.services.projectManagementService.component.Component;
+import i5.las2peer.services.projectManagementService.component.Dependency;
+import i5.las2peer.services.projectManagementService.component.ExternalDependency;
+import i5.las2peer.services.projectManagementService.exception.RoleNotFoundException;
+
+/**
+ * Loads the aggregate of projects, i.e. their roles, users (including their role assignment),
+ * components, dependencies and external dependencies from the database.
+ * Every part of the aggregate is loaded with a single set-based query for all the given projects,
+ * so that the number of queries neither depends on the number of projects nor on the number of
+ * users or components of the projects.
+ */
+public class ProjectLoader {
+
+	private Connection connection;
+
+	/**
+	 * The projects whose aggregate gets loaded, mapped by their id.
+	 */
+	private HashMap<Integer, Project> projects;
+
+	/*
+	 * Parts of the aggregate, mapped by the id of the project they belong to.
+	 */
+	private HashMap<Integer, ArrayList<Role>> roles;
+	private HashMap<Integer, ArrayList<User>> users;
+	private HashMap<Integer, HashMap<User, Role>> roleAssignments;
+	private HashMap<Integer, ArrayList<Component>> components;
+	private HashMap<Integer, ArrayList<Dependency>> dependencies;
+	private HashMap<Integer, ArrayList<ExternalDependency>> externalDependencies;
+
+	public ProjectLoader(Connection connection) {
+		this.connection = connection;
+	}
+
+	/**
+	 * Loads the aggregate of the given project and sets it.
+	 * Therefore, the id of the project already needs to be set.
+	 * @param project Project whose aggregate should be loaded.
+	 * @throws SQLException If something with the database went wrong (RoleNotFoundException if a user has no role in the project).
+	 */
+	public void load(Project project) throws SQLException {
+		ArrayList<Project> projects = new ArrayList<>();
+		projects.add(project);
+		load(projects);
+	}
+
+	/**
+	 * Loads the aggregates of all the given projects and sets them.
+	 * Therefore, the ids of the projects already need to be set.
+	 * @param projectList Projects whose aggregates should be loaded.
+	 * @throws SQLException If something with the database went wrong (RoleNotFoundException if a user has no role in the project).
+	 */
+	public void load(List<Project> projectList) throws SQLException {
+		if(projectList.isEmpty()) return;
+
+		this.projects = new HashMap<>();
+		this.roles = new HashMap<>();
+		this.users = new HashMap<>();
+		this.roleAssignments = new HashMap<>();
+		this.components = new HashMap<>();
+		this.dependencies = new HashMap<>();
+		this.externalDependencies = new HashMap<>();
+		for(Project project : projectList) {
+			int projectId = project.getId();
+			this.projects.put(projectId, project);
+			this.roles.put(projectId, new ArrayList<>());
+			this.users.put(projectId, new ArrayList<>());
+			this.roleAssignments.put(projectId, new HashMap<>());
+			this.components.put(projectId, new ArrayList<>());
+			this.dependencies.put(projectId, new ArrayList<>());
+			this.externalDependencies.put(projectId, new ArrayList<>());
+		}
+
+		// roles need to be loaded before the users, because users get assigned to them
+		loadRoles();
+		loadUsers();
+		loadComponents();
+		loadDependencies();
+		loadExternalDependencies();
+
+		for(Project project : projectList) {
+			int projectId = project.getId();
+			project.setAggregate(this.roles.get(projectId), this.users.get(projectId), this.roleAssignments.get(projectId),
+					this.components.get(projectId), this.dependencies.get(projectId), this.externalDependencies.get(projectId));
+		}
+	}
+
+	/**
+	 * Loads the roles of the projects.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	private void loadRoles() throws SQLException {
+		PreparedStatement statement = prepareStatementForProjects("SELECT * FROM Role WHERE projectId IN (%s) ORDER BY id;");
+		// execute query
+		ResultSet queryResult = statement.executeQuery();
+
+		// the roles only contain the hashes of their widget configs, which get resolved afterwards
+		HashMap<Role, String> widgetConfigHashes = new HashMap<>();
+		while(queryResult.next()) {
+			int roleId = queryResult.getInt("id");
+			int projectId = queryResult.getInt("projectId");
+			String name = queryResult.getString("name");
+			boolean isDefault = queryResult.getBoolean("is_default");
+			Role role = new Role(roleId, projectId, name, null, isDefault);
+			widgetConfigHashes.put(role, queryResult.getString("widgetConfigHash"));
+			this.roles.get(projectId).add(role);
+		}
+
+		statement.close();
+
+		// roles using the same widget config share the same (cached) object
+		Map<String, String> widgetConfigs = WidgetConfigCache.getInstance().getAll(new HashSet<>(widgetConfigHashes.values()), this.connection);
+		for(Map.Entry<Role, String> entry : widgetConfigHashes.entrySet()) {
+			entry.getKey().setWidgetConfig(widgetConfigs.get(entry.getValue()));
+		}
+	}
+
+	/**
+	 * Loads the users of the projects together with the id of the role
+	 * that is assigned to them.
+	 * @throws SQLException If something with the database went wrong (RoleNotFoundException if a user has no role in the project).
+	 */
+	private void loadUsers() throws SQLException {
+		PreparedStatement statement = prepareStatementForProjects("SELECT User.*, ProjectToUser.projectId, UserToRole.roleId FROM ProjectToUser " +
+                "JOIN User ON ProjectToUser.userId = User.id " +
+		        "LEFT JOIN UserToRole ON UserToRole.projectToUserId = ProjectToUser.id " +
+                "WHERE ProjectToUser.projectId IN (%s) ORDER BY ProjectToUser.id;");
+		// execute query
+		ResultSet queryResult = statement.executeQuery();
+
+		while(queryResult.next()) {
+			int projectId = queryResult.getInt("projectId");
+			User user = new User(queryResult);
+
+			// find role with the given id in roles list of the project
+			Role role = findRole(this.roles.get(projectId), queryResult.getInt("roleId"));
+			if(role == null) {
+				statement.close();
+				throw new RoleNotFoundException();
+			}
+
+			this.roleAssignments.get(projectId).put(user, role);
+			this.users.get(projectId).add(user);
+		}
+
+		statement.close();
+	}
+
+	/**
+	 * Loads the components that were created "by the projects".
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	private void loadComponents() throws SQLException {
+		PreparedStatement statement = prepareStatementForProjects("SELECT Component.*, ProjectToComponent.projectId FROM ProjectToComponent, Component " +
+                "WHERE ProjectToComponent.componentId = Component.id AND ProjectToComponent.projectId IN (%s) " +
+		        "ORDER BY ProjectToComponent.id;");
+		// execute query
+		ResultSet queryResult = statement.executeQuery();
+
+		while(queryResult.next()) {
+			try {
+				this.components.get(queryResult.getInt("projectId")).add(new Component(queryResult));
+			} catch (ParseException e) {
+				e.printStackTrace();
+			}
+		}
+
+		statement.close();
+	}
+
+	/**
+	 * Loads the dependencies (together with their components) of the projects.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	private void loadDependencies() throws SQLException {
+		PreparedStatement statement = prepareStatementForProjects("SELECT Dependency.id AS dependencyId, Dependency.projectId AS dependencyProjectId, Component.* " +
+                "FROM Dependency, Component " +
+		        "WHERE Dependency.componentId = Component.id AND Dependency.projectId IN (%s) " +
+                "ORDER BY Dependency.id;");
+		// execute query
+		ResultSet queryResult = statement.executeQuery();
+
+		while(queryResult.next()) {
+			try {
+				int projectId = queryResult.getInt("dependencyProjectId");
+				Component component = new Component(queryResult);
+				this.dependencies.get(projectId).add(new Dependency(queryResult.getInt("dependencyId"), projectId, component));
+			} catch (ParseException e) {
+				e.printStackTrace();
+			}
+		}
+
+		statement.close();
+	}
+
+	/**
+	 * Loads the external dependencies of the projects.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	private void loadExternalDependencies() throws SQLException {
+		PreparedStatement statement = prepareStatementForProjects("SELECT * FROM ExternalDependency WHERE projectId IN (%s) ORDER BY id;");
+		// execute query
+		ResultSet queryResult = statement.executeQuery();
+
+		while(queryResult.next()) {
+			int projectId = queryResult.getInt("projectId");
+			this.externalDependencies.get(projectId).add(new ExternalDependency(queryResult.getInt("id"), projectId,
+					queryResult.getString("gitHubURL"), queryResult.getString("type")));
+		}
+
+		statement.close();
+	}
+
+	/**
+	 * Prepares a statement, whose "%s" placeholder gets replaced by an IN-list containing
+	 * the ids of all projects that get loaded.
+	 * @param sql SQL query containing one "%s" placeholder for the IN-list.
+	 * @return PreparedStatement with all parameters set.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	private PreparedStatement prepareStatementForProjects(String sql) throws SQLException {
+		StringBuilder placeholders = new StringBuilder();
+		for(int i = 0; i < this.projects.size(); i++) {
+			if(i > 0) placeholders.append(",");
+			placeholders.append("?");
+		}
+
+		PreparedStatement statement = connection.prepareStatement(String.format(sql, placeholders));
+		int parameterIndex = 1;
+		for(int projectId : this.projects.keySet()) {
+			statement.setInt(parameterIndex++, projectId);
+		}
+		return statement;
+	}
+
+	/**
+	 * Searches the given list of roles for the role with the given id.
+	 * @param roles List of roles to search in.
+	 * @param roleId Id of the role to search for.
+	 * @return Role with the given id or null, if the list does not contain such a role.
+	 */
+	private Role findRole(ArrayList<Role> roles, int roleId) {
+		for(Role role : roles) {
+			if(role.getId() == roleId) return role;
+		}
+		return null;
+	}
+
+}
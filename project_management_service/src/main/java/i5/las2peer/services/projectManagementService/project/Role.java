@@ -5,9 +5,14 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
 
 import org.json.simple.JSONObject;
 
+import i5.las2peer.services.projectManagementService.cache.WidgetConfigCache;
+
 /**
  * (Data-)Class for Roles. Provides means to convert JSON to Object and Object
  * to JSON. Also provides means to persist the object to a database.
@@ -41,6 +46,12 @@ public class Role {
 	 */
 	private boolean isDefault;
 	
+	/**
+	 * Bitset of the widgets enabled by the widget config (see WidgetPermissions).
+	 * Gets compiled on first access and is -1 before.
+	 */
+	private long permissions = -1;
+	
 	public Role(int id, int projectId, String name, String widgetConfig, boolean isDefault) {
 		this.id = id;
 		this.projectId = projectId;
@@ -65,32 +76,141 @@ public class Role {
 	
 	/**
 	 * Method for storing the role object to the database.
+	 * The widget config gets stored in the WidgetConfig table (if it is not stored already).
 	 * Project id, name, widgetConfig and isDefault need to be set before calling this method.
 	 * @param connection a Connection object
 	 * @throws SQLException If something with database went wrong.
 	 */
 	public void persist(Connection connection) throws SQLException {
-		PreparedStatement statement = connection
-				.prepareStatement("INSERT INTO Role (projectId, name, widgetConfig, is_default) VALUES (?,?,?,?);", Statement.RETURN_GENERATED_KEYS);
-		// set projectId and name
-		statement.setInt(1, this.projectId);
-		statement.setString(2, this.name);
-		statement.setString(3, this.widgetConfig);
-		statement.setBoolean(4, this.isDefault);
+		boolean autoCommitBefore = connection.getAutoCommit();
+		try {
+			connection.setAutoCommit(false);
+			
+			// the role only references its widget config, which is stored separately
+			WidgetConfig.store(Collections.singleton(this.widgetConfig), connection);
+			
+			PreparedStatement statement = connection
+					.prepareStatement("INSERT INTO Role (projectId, name, widgetConfigHash, is_default) VALUES (?,?,?,?);", Statement.RETURN_GENERATED_KEYS);
+			// set projectId and name
+			statement.setInt(1, this.projectId);
+			statement.setString(2, this.name);
+			statement.setString(3, WidgetConfig.hash(this.widgetConfig));
+			statement.setBoolean(4, this.isDefault);
+			
+			// execute query
+			statement.executeUpdate();
+					
+			// get the generated role id and close statement
+			ResultSet genKeys = statement.getGeneratedKeys();
+			genKeys.next();
+			this.id = genKeys.getInt(1);
+			statement.close();
+			
+			ProjectChange.record(this.projectId, ProjectChange.ROLE_ADDED, this.id, toJSONObject(), connection);
+			
+			if(autoCommitBefore) connection.commit();
+		} catch (SQLException e) {
+			connection.rollback();
+			throw e;
+		} finally {
+			connection.setAutoCommit(autoCommitBefore);
+		}
+		WidgetConfigCache.getInstance().put(this.widgetConfig);
+	}
+	
+	/**
+	 * Stores the given roles to the database by using a single batch, which the driver rewrites
+	 * into a multi-row insert (see rewriteBatchedStatements in the DatabaseManager).
+	 * The generated ids are set to the roles in the same order.
+	 * Project id, name, widgetConfig and isDefault need to be set for every role before calling this method.
+	 * @param roles Roles that should be stored.
+	 * @param connection a Connection object
+	 * @throws SQLException If something with database went wrong.
+	 */
+	public static void persistAll(List<Role> roles, Connection connection) throws SQLException {
+		if(roles.isEmpty()) return;
 		
-		// execute query
-		statement.executeUpdate();
-				
-		// get the generated role id and close statement
-		ResultSet genKeys = statement.getGeneratedKeys();
-		genKeys.next();
-		this.id = genKeys.getInt(1);
+		// store the distinct widget configs first, which are referenced by the roles
+		LinkedHashSet<String> widgetConfigs = new LinkedHashSet<>();
+		for(Role role : roles) {
+			widgetConfigs.add(role.widgetConfig);
+		}
+		
+		boolean autoCommitBefore = connection.getAutoCommit();
+		try {
+			connection.setAutoCommit(false);
+			
+			WidgetConfig.store(widgetConfigs, connection);
+			
+			PreparedStatement statement = connection
+					.prepareStatement("INSERT INTO Role (projectId, name, widgetConfigHash, is_default) VALUES (?,?,?,?);", Statement.RETURN_GENERATED_KEYS);
+			for(Role role : roles) {
+				statement.setInt(1, role.projectId);
+				statement.setString(2, role.name);
+				statement.setString(3, WidgetConfig.hash(role.widgetConfig));
+				statement.setBoolean(4, role.isDefault);
+				statement.addBatch();
+			}
+			
+			// execute batch
+			statement.executeBatch();
+			
+			// get the generated role ids (in insertion order) and close statement
+			ResultSet genKeys = statement.getGeneratedKeys();
+			for(Role role : roles) {
+				genKeys.next();
+				role.id = genKeys.getInt(1);
+			}
+			statement.close();
+			
+			for(Role role : roles) {
+				ProjectChange.record(role.projectId, ProjectChange.ROLE_ADDED, role.id, role.toJSONObject(), connection);
+			}
+			
+			if(autoCommitBefore) connection.commit();
+		} catch (SQLException e) {
+			connection.rollback();
+			throw e;
+		} finally {
+			connection.setAutoCommit(autoCommitBefore);
+		}
+		for(String widgetConfig : widgetConfigs) {
+			WidgetConfigCache.getInstance().put(widgetConfig);
+		}
+	}
+	
+	/**
+	 * Searches for the role that is assigned to the user with the given id in the project with the given id.
+	 * Only loads this single role, not the whole project.
+	 * @param projectId Id of the project.
+	 * @param userId Id of the user.
+	 * @param connection a Connection object
+	 * @return Role of the user, or null if the user is not a member of the project.
+	 * @throws SQLException If something with database went wrong.
+	 */
+	public static Role getByUser(int projectId, int userId, Connection connection) throws SQLException {
+		PreparedStatement statement = connection.prepareStatement("SELECT Role.* FROM ProjectToUser, UserToRole, Role " +
+				"WHERE ProjectToUser.projectId = ? AND ProjectToUser.userId = ? AND UserToRole.projectToUserId = ProjectToUser.id " +
+				"AND Role.id = UserToRole.roleId LIMIT 1;");
+		statement.setInt(1, projectId);
+		statement.setInt(2, userId);
+		ResultSet queryResult = statement.executeQuery();
+		if(!queryResult.next()) {
+			statement.close();
+			return null;
+		}
+		Role role = new Role(queryResult.getInt("id"), projectId, queryResult.getString("name"), null, queryResult.getBoolean("is_default"));
+		String widgetConfigHash = queryResult.getString("widgetConfigHash");
 		statement.close();
+		
+		role.widgetConfig = WidgetConfigCache.getInstance().getAll(Collections.singleton(widgetConfigHash), connection).get(widgetConfigHash);
+		return role;
 	}
 	
 	/**
 	 * Returns the JSON representation of this role.
 	 * This currently does not contain the attributes projectId and isDefault.
+	 * Besides the widget config, it contains its compiled permission bitset.
 	 * @return a JSON object representing a role
 	 */
 	@SuppressWarnings("unchecked")
@@ -100,6 +220,7 @@ public class Role {
 		jsonRole.put("id", this.id);
 		jsonRole.put("name", this.name);
 		jsonRole.put("widgetConfig", this.widgetConfig);
+		jsonRole.put("permissions", getPermissions());
 		
 		return jsonRole;
 	}
@@ -120,6 +241,26 @@ public class Role {
 		return this.widgetConfig;
 	}
 	
+	/**
+	 * Sets the widget config after it got resolved by its hash (see ProjectLoader).
+	 * @param widgetConfig Widget config of the role.
+	 */
+	void setWidgetConfig(String widgetConfig) {
+		this.widgetConfig = widgetConfig;
+		this.permissions = -1;
+	}
+	
+	/**
+	 * Returns the bitset of the widgets that are enabled for this role.
+	 * @return Bitset of the enabled widgets, see WidgetPermissions.
+	 */
+	public long getPermissions() {
+		if(this.permissions == -1) {
+			this.permissions = WidgetConfigCache.getInstance().getPermissions(this.widgetConfig);
+		}
+		return this.permissions;
+	}
+	
 	public boolean isDefault() {
 		return this.isDefault;
 	}
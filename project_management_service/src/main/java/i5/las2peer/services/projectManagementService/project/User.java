@@ -9,6 +9,8 @@ import java.util.ArrayList;
 
 import org.json.simple.JSONObject;
 
+import i5.las2peer.services.projectManagementService.cache.UserCache;
+import i5.las2peer.services.projectManagementService.database.Page;
 import i5.las2peer.services.projectManagementService.exception.GitHubException;
 import i5.las2peer.services.projectManagementService.exception.UserNotFoundException;
 import i5.las2peer.services.projectManagementService.github.GitHubHelper;
@@ -84,47 +86,72 @@ public class User {
 	 * Updates the GitHub username of the user in the database.
 	 * Also grants the given username access to all the CAE projects where the user 
 	 * is a member of.
+	 * This object is not changed, since it may be shared by the UserCache. The cached user
+	 * gets invalidated instead, even if the update failed.
 	 * @param username GitHub username that should be set.
 	 * @param connection Connection object
 	 * @throws SQLException If something with the database went wrong.
 	 * @throws GitHubException If something with the communication to the GitHub API went wrong.
 	 */
+	@SuppressWarnings("unchecked")
 	public void putUsername(String username, Connection connection) throws SQLException, GitHubException {
-		this.gitHubUsername = username;
-		
-		// insert to database
-		PreparedStatement statement = connection.prepareStatement("UPDATE User SET gitHubUsername = ? WHERE id = ?;");
-		statement.setString(1, this.gitHubUsername);
-		statement.setInt(2, this.id);
-		
-		// execute update
-		statement.executeUpdate();
-		statement.close();
+		boolean autoCommitBefore = connection.getAutoCommit();
+		try {
+			connection.setAutoCommit(false);
+			
+			// insert to database
+			PreparedStatement statement = connection.prepareStatement("UPDATE User SET gitHubUsername = ? WHERE id = ?;");
+			statement.setString(1, username);
+			statement.setInt(2, this.id);
+			
+			// execute update
+			statement.executeUpdate();
+			statement.close();
+			
+			// the GitHub username is part of the projects where the user is a member of
+			JSONObject data = new JSONObject();
+			data.put("gitHubUsername", username);
+			ProjectChange.recordForUser(this.id, ProjectChange.USER_UPDATED, data, connection);
+			
+			if(autoCommitBefore) connection.commit();
+		} catch (SQLException e) {
+			connection.rollback();
+			throw e;
+		} finally {
+			connection.setAutoCommit(autoCommitBefore);
+			UserCache.getInstance().invalidate(this.email);
+		}
 		
 		// grant access to every GitHub project for every CAE project where the user is a member of
 		ArrayList<Project> projects = Project.getProjectsByUser(this.id, connection);
 		for(Project project : projects) {
+			// projects without GitHub project grant access to all members when it gets created
+			if(project.getGitHubProject() == null) continue;
 			GitHubHelper.getInstance().grantUserAccessToProject(username, project.getGitHubProject());
 		}
 	}
 	
 	/**
 	 * Updates the GitHub access token of the user in the database.
+	 * This object is not changed, since it may be shared by the UserCache. The cached user
+	 * gets invalidated instead, even if the update failed.
 	 * @param accessToken GitHub access token that should be stored into the database.
 	 * @param connection Connection object
 	 * @throws SQLException If something with the database went wrong.
 	 */
 	public void putGitHubAccessToken(String accessToken, Connection connection) throws SQLException {
-		this.gitHubAccessToken = accessToken;
-		
-		// insert to database
-		PreparedStatement statement = connection.prepareStatement("UPDATE User SET gitHubAccessToken = ? WHERE id = ?;");
-		statement.setString(1, this.gitHubAccessToken);
-		statement.setInt(2, this.id);
-		
-		// execute update
-		statement.executeUpdate();
-		statement.close();
+		try {
+			// insert to database
+			PreparedStatement statement = connection.prepareStatement("UPDATE User SET gitHubAccessToken = ? WHERE id = ?;");
+			statement.setString(1, accessToken);
+			statement.setInt(2, this.id);
+			
+			// execute update
+			statement.executeUpdate();
+			statement.close();
+		} finally {
+			UserCache.getInstance().invalidate(this.email);
+		}
 	}
 	
 	/**
@@ -155,6 +182,21 @@ public class User {
 		statement.close();
 	}
 	
+	/**
+	 * Creates a user from the current row of the given query result.
+	 * This gets used when loading multiple users at once (e.g. all users of a project),
+	 * so that no additional query per user is needed.
+	 * @param queryResult Should contain all columns of the User table and next() should have been called already.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	public User(ResultSet queryResult) throws SQLException {
+		this.id = queryResult.getInt("id");
+		this.email = queryResult.getString("email");
+		this.loginName = queryResult.getString("loginName");
+		this.gitHubUsername = queryResult.getString("gitHubUsername");
+		this.gitHubAccessToken = queryResult.getString("gitHubAccessToken");
+	}
+	
 	/**
 	 * Searches for a user with the given loginName.
 	 * @param loginName Login name of the user to search for.
@@ -181,25 +223,36 @@ public class User {
 	
 	/**
 	 * Searches for users in the database where the login name is like the given one.
+	 * Only the users with an id greater than the given cursor are returned.
 	 * @param loginName Login name to search for.
+	 * @param afterId Cursor, i.e. id of the last user of the previous page (0 for the first page).
+	 * @param limit Maximum number of users to return.
 	 * @param connection Connection object
-	 * @return ArrayList containing the User objects that were found.
+	 * @return Page containing the User objects that were found.
 	 * @throws SQLException If something with the database went wrong.
 	 */
-	public static ArrayList<User> searchUsers(String loginName, Connection connection) throws SQLException {
-		PreparedStatement statement = connection.prepareStatement("SELECT * FROM User WHERE loginName LIKE ?;");
+	public static Page<User> searchUsers(String loginName, int afterId, int limit, Connection connection) throws SQLException {
+		PreparedStatement statement = connection.prepareStatement("SELECT * FROM User WHERE loginName LIKE ? AND id > ? ORDER BY id LIMIT ?;");
 		statement.setString(1, "%" + loginName + "%");
+		statement.setInt(2, afterId);
+		// fetch one more user to know whether there exists a next page
+		statement.setLong(3, (long) limit + 1);
 		// execute query
 		ResultSet queryResult = statement.executeQuery();
 		
 		ArrayList<User> users = new ArrayList<>();
+		Integer nextCursor = null;
 		
 		while(queryResult.next()) {
-			String email = queryResult.getString("email");
-			users.add(new User(email, connection));
+			if(users.size() == limit) {
+				nextCursor = users.get(limit - 1).getId();
+				break;
+			}
+			users.add(new User(queryResult));
 		}
 		
-		return users;
+		statement.close();
+		return new Page<>(users, nextCursor);
 	}
 	
 	/**
@@ -235,4 +288,8 @@ public class User {
 		return this.id;
 	}
 	
+	public String getEmail() {
+		return this.email;
+	}
+	
 }
@@ -0,0 +1,80 @@
+package i5.las2peer.services.projectManagementService.project;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import i5.las2peer.services.projectManagementService.util.Digests;
+
+/**
+ * Content-addressed storage of the widget configs of roles.
+ * Every distinct widget config is stored only once in the WidgetConfig table, using the SHA-256 hash
+ * of the config as its key. Roles only reference the hash, thus the (large) predefined widget configs are
+ * shared by the roles of all projects.
+ * Entries are never updated, since changing a config changes its hash.
+ */
+public class WidgetConfig {
+
+	// only contains static methods
+	private WidgetConfig() {}
+
+	/**
+	 * Computes the key of the given widget config.
+	 * @param widgetConfig Widget config.
+	 * @return Hex encoded SHA-256 hash of the widget config (64 characters).
+	 */
+	public static String hash(String widgetConfig) {
+		return Digests.sha256Hex(widgetConfig);
+	}
+
+	/**
+	 * Stores the given widget configs, if they are not stored already. Uses a single batch, independent
+	 * of the number of configs. Should be called as part of the transaction that stores the roles
+	 * referencing the configs.
+	 * @param widgetConfigs Widget configs to store.
+	 * @param connection Connection object
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	public static void store(Collection<String> widgetConfigs, Connection connection) throws SQLException {
+		if(widgetConfigs.isEmpty()) return;
+		PreparedStatement statement = connection.prepareStatement("INSERT IGNORE INTO WidgetConfig (hash, config) VALUES (?,?);");
+		for(String widgetConfig : widgetConfigs) {
+			statement.setString(1, hash(widgetConfig));
+			statement.setString(2, widgetConfig);
+			statement.addBatch();
+		}
+		statement.executeBatch();
+		statement.close();
+	}
+
+	/**
+	 * Loads the widget configs with the given hashes.
+	 * @param hashes Hashes of the widget configs to load.
+	 * @param connection Connection object
+	 * @return Map from hash to widget config.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	public static Map<String, String> load(Collection<String> hashes, Connection connection) throws SQLException {
+		Map<String, String> widgetConfigs = new HashMap<>();
+		if(hashes.isEmpty()) return widgetConfigs;
+
+		String placeholders = String.join(",", Collections.nCopies(hashes.size(), "?"));
+		PreparedStatement statement = connection.prepareStatement("SELECT * FROM WidgetConfig WHERE hash IN (" + placeholders + ");");
+		int index = 1;
+		for(String hash : hashes) {
+			statement.setString(index++, hash);
+		}
+		ResultSet queryResult = statement.executeQuery();
+		while(queryResult.next()) {
+			widgetConfigs.put(queryResult.getString("hash"), queryResult.getString("config"));
+		}
+		statement.close();
+		return widgetConfigs;
+	}
+
+}
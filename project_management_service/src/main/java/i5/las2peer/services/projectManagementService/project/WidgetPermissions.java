@@ -0,0 +1,95 @@
+package i5.las2peer.services.projectManagementService.project;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.JSONValue;
+import org.json.simple.parser.ParseException;
+
+/**
+ * Compiles widget configs of roles into a bitset of the enabled widgets.
+ * Every widget has a fixed position in the bitset, given by its index in {@link #WIDGETS}. Thus, checking
+ * whether a widget is enabled is a bit test instead of parsing the widget config.
+ * New widgets must only be appended to the list, so that the positions of the existing widgets stay the same.
+ */
+public class WidgetPermissions {
+
+	/**
+	 * Ids of the widgets (view name and widget name, separated by a slash), ordered by their position in the bitset.
+	 */
+	public static final List<String> WIDGETS = Collections.unmodifiableList(Arrays.asList(
+			"Frontend Modeling/Wireframe",
+			"Frontend Modeling/Modeling",
+			"Frontend Modeling/Code Editor",
+			"Frontend Modeling/Versioning",
+			"Frontend Modeling/Live Preview",
+			"Microservice Modeling/Modeling",
+			"Microservice Modeling/Swagger Editor",
+			"Microservice Modeling/Code Editor",
+			"Microservice Modeling/Versioning",
+			"Application Mashup/Modeling incl. Select",
+			"Application Mashup/Deployment",
+			"Application Mashup/Versioning",
+			"Application Mashup/Matching"));
+
+	// only contains static methods
+	private WidgetPermissions() {}
+
+	/**
+	 * Parses the given widget config and creates the bitset of the enabled widgets.
+	 * Widgets that are not contained in {@link #WIDGETS} are ignored.
+	 * @param widgetConfig Widget config of a role.
+	 * @return Bitset where the bit of every enabled widget is set. 0 if the widget config is not valid.
+	 */
+	public static long compile(String widgetConfig) {
+		long permissions = 0;
+		if(widgetConfig == null) return permissions;
+		try {
+			JSONObject views = (JSONObject) JSONValue.parseWithException(widgetConfig);
+			for(Object viewName : views.keySet()) {
+				JSONObject widgets = (JSONObject) ((JSONObject) views.get(viewName)).get("widgets");
+				if(widgets == null) continue;
+				for(Object widgetName : widgets.keySet()) {
+					int position = WIDGETS.indexOf(viewName + "/" + widgetName);
+					JSONObject widget = (JSONObject) widgets.get(widgetName);
+					if(position >= 0 && Boolean.TRUE.equals(widget.get("enabled"))) {
+						permissions |= 1L << position;
+					}
+				}
+			}
+		} catch (ParseException | ClassCastException e) {
+			// not a valid widget config, so no widget is enabled
+			return 0;
+		}
+		return permissions;
+	}
+
+	/**
+	 * Checks whether the given widget is enabled in the given bitset.
+	 * @param permissions Bitset created by {@link #compile(String)}.
+	 * @param widget Id of the widget, e.g. "Microservice Modeling/Code Editor".
+	 * @return Whether the widget is enabled.
+	 */
+	public static boolean isEnabled(long permissions, String widget) {
+		int position = WIDGETS.indexOf(widget);
+		return position >= 0 && (permissions & (1L << position)) != 0;
+	}
+
+	/**
+	 * Returns the ids of the widgets that are enabled in the given bitset.
+	 * @param permissions Bitset created by {@link #compile(String)}.
+	 * @return JSONArray containing the ids of the enabled widgets.
+	 */
+	@SuppressWarnings("unchecked")
+	public static JSONArray toJSONArray(long permissions) {
+		JSONArray jsonWidgets = new JSONArray();
+		for(int position = 0; position < WIDGETS.size(); position++) {
+			if((permissions & (1L << position)) != 0) jsonWidgets.add(WIDGETS.get(position));
+		}
+		return jsonWidgets;
+	}
+
+}
@@ -7,11 +7,14 @@ import java.io.OutputStreamWriter;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.concurrent.Semaphore;
 
 import org.json.simple.JSONObject;
 import org.json.simple.JSONValue;
 import org.json.simple.parser.ParseException;
 
+import i5.las2peer.services.projectManagementService.concurrency.Bulkhead;
+import i5.las2peer.services.projectManagementService.concurrency.CircuitBreaker;
 import i5.las2peer.services.projectManagementService.exception.ReqBazException;
 
 public class ReqBazHelper {
@@ -35,6 +38,23 @@ public class ReqBazHelper {
 	private String reqBazBackendUrl = null;
 	private int reqBazProjectId = -1;
 	
+	/**
+	 * Timeouts in milliseconds for establishing a connection and for reading the response.
+	 */
+	private volatile int connectTimeout = 5000;
+	private volatile int readTimeout = 10000;
+	
+	/**
+	 * Lets requests fail fast while the Requirements Bazaar is down. Connection errors, timeouts and
+	 * server errors count as failures.
+	 */
+	private final CircuitBreaker circuitBreaker = new CircuitBreaker("Requirements Bazaar");
+	
+	/**
+	 * Limits the number of concurrent requests to the Requirements Bazaar, independent of the thread sending them.
+	 */
+	private final Bulkhead bulkhead = new Bulkhead("Requirements Bazaar", 8);
+	
 	public void setReqBazBackendUrl(String reqBazBackendUrl) {
 		this.reqBazBackendUrl = reqBazBackendUrl;
 	}
@@ -43,6 +63,39 @@ public class ReqBazHelper {
 		this.reqBazProjectId = reqBazProjectId;
 	}
 	
+	/**
+	 * Sets the timeouts of the requests to the Requirements Bazaar.
+	 * @param connectTimeout Timeout in milliseconds for establishing a connection.
+	 * @param readTimeout Timeout in milliseconds for reading the response.
+	 */
+	public void setTimeouts(int connectTimeout, int readTimeout) {
+		this.connectTimeout = connectTimeout;
+		this.readTimeout = readTimeout;
+	}
+	
+	/**
+	 * Configures the circuit breaker and the bulkhead, which protect the service from the Requirements Bazaar being down or slow.
+	 * @param failureThreshold Number of consecutive failed requests after which requests fail fast. 0 disables the circuit breaker.
+	 * @param openMillis Time in milliseconds requests fail fast, before a trial request is sent.
+	 * @param maxConcurrentRequests Maximum number of concurrent requests to the Requirements Bazaar.
+	 */
+	public void configureResilience(int failureThreshold, long openMillis, int maxConcurrentRequests) {
+		this.circuitBreaker.configure(failureThreshold, openMillis);
+		this.bulkhead.configure(maxConcurrentRequests);
+	}
+	
+	/**
+	 * Creates a JSON object containing the state of the circuit breaker and the bulkhead.
+	 * @return JSONObject containing the statistics of the circuit breaker and the bulkhead.
+	 */
+	@SuppressWarnings("unchecked")
+	public JSONObject getResilienceStatistics() {
+		JSONObject statistics = new JSONObject();
+		statistics.put("circuitBreaker", this.circuitBreaker.getStatistics());
+		statistics.put("bulkhead", this.bulkhead.getStatistics());
+		return statistics;
+	}
+	
 	/**
 	 * Creates a new category in the Requirements Bazaar.
 	 * @param categoryName Name of the category that should be created.
@@ -60,11 +113,13 @@ public class ReqBazHelper {
 		// this is the access token from the user that wants to create the project
 		String oidcToken = accessToken;
 		
+		Semaphore permit = enter();
+		boolean failed = false;
 		URL url;
 		try {
 			url = new URL(this.reqBazBackendUrl + "/categories");
 
-			HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+			HttpURLConnection connection = openConnection(url);
 			connection.setRequestMethod("POST");
 			connection.setDoInput(true);
 			connection.setDoOutput(true);
@@ -76,9 +131,10 @@ public class ReqBazHelper {
             writeRequestBody(connection, body);
 			
 			// forward (in case of) error
+			failed = connection.getResponseCode() >= 500;
 			if (connection.getResponseCode() != 201) {
 				String message = getErrorMessage(connection);
-				throw new ReqBazException(message);
+				throw new ReqBazException(message, connection.getResponseCode());
 			} else {
 				// get response
 				String response = getResponseBody(connection);
@@ -92,11 +148,14 @@ public class ReqBazHelper {
 			e.printStackTrace();
 			throw new ReqBazException(e.getMessage());
 		} catch (IOException e) {
+			failed = true;
 			e.printStackTrace();
 			throw new ReqBazException(e.getMessage());
 		} catch (ParseException e) {
 			e.printStackTrace();
 			throw new ReqBazException(e.getMessage());
+		} finally {
+			leave(permit, failed);
 		}
 	}
 	
@@ -110,11 +169,13 @@ public class ReqBazHelper {
 		// this is the access token from the user that wants to create the project
 		String oidcToken = accessToken;
 				
+		Semaphore permit = enter();
+		boolean failed = false;
 		URL url;
 		try {
 			url = new URL(this.reqBazBackendUrl + "/categories/" + category.getId());
 
-			HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+			HttpURLConnection connection = openConnection(url);
 			connection.setRequestMethod("DELETE");
 			connection.setDoInput(true);
 			connection.setDoOutput(true);
@@ -124,19 +185,66 @@ public class ReqBazHelper {
 		    // forward (in case of) error
             // 200 is ok, since then the category got deleted
 			// 404 is ok, because then the category already got deleted before we tried to delete it (maybe manually by a user)
+			failed = connection.getResponseCode() >= 500;
 		    if (connection.getResponseCode() != 200 && connection.getResponseCode() != 404) {
 				String message = getErrorMessage(connection);
-				throw new ReqBazException(message);
+				throw new ReqBazException(message, connection.getResponseCode());
 			}
 		} catch (MalformedURLException e) {
 			e.printStackTrace();
 			throw new ReqBazException(e.getMessage());
 		} catch (IOException e) {
+			failed = true;
 			e.printStackTrace();
 			throw new ReqBazException(e.getMessage());
+		} finally {
+			leave(permit, failed);
 		}
 	}
 	
+	/**
+	 * Needs to be called before sending a request. Fails fast if the circuit breaker is open or if there are
+	 * too many concurrent requests.
+	 * @return Permit of the bulkhead, which needs to be passed to {@link #leave(Semaphore, boolean)}.
+	 * @throws ReqBazException If the request must not be sent.
+	 */
+	private Semaphore enter() throws ReqBazException {
+		Semaphore permit = this.bulkhead.tryEnter();
+		if(permit == null) throw new ReqBazException(this.bulkhead.getRejectionMessage());
+		if(!this.circuitBreaker.allowRequest()) {
+			this.bulkhead.exit(permit);
+			throw new ReqBazException(this.circuitBreaker.getRejectionMessage());
+		}
+		return permit;
+	}
+	
+	/**
+	 * Needs to be called after a request sent after {@link #enter()}.
+	 * @param permit Permit returned by {@link #enter()}.
+	 * @param failed Whether the request failed because of the Requirements Bazaar (connection error, timeout or server error).
+	 */
+	private void leave(Semaphore permit, boolean failed) {
+		if(failed) {
+			this.circuitBreaker.recordFailure();
+		} else {
+			this.circuitBreaker.recordSuccess();
+		}
+		this.bulkhead.exit(permit);
+	}
+	
+	/**
+	 * Opens a connection to the given URL, which uses the configured timeouts.
+	 * @param url URL of the request.
+	 * @return HttpURLConnection object
+	 * @throws IOException If the connection could not be opened.
+	 */
+	private HttpURLConnection openConnection(URL url) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+		connection.setConnectTimeout(this.connectTimeout);
+		connection.setReadTimeout(this.readTimeout);
+		return connection;
+	}
+	
 	/**
 	 * Creates the body needed to create a new category in a Requirements Bazaar project.
 	 * @param categoryName Name of the category that should be created.
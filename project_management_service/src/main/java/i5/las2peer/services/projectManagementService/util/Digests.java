@@ -0,0 +1,34 @@
+package i5.las2peer.services.projectManagementService.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Computes digests of strings, e.g. for content-addressed keys or ETags.
+ */
+public class Digests {
+
+	// only contains static methods
+	private Digests() {}
+
+	/**
+	 * Computes the SHA-256 hash of the UTF-8 encoding of the given value.
+	 * @param value Value to hash.
+	 * @return Hex encoded SHA-256 hash of the value (64 lowercase characters).
+	 */
+	public static String sha256Hex(String value) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+			StringBuilder hash = new StringBuilder(64);
+			for(byte b : digest) {
+				hash.append(String.format("%02x", b));
+			}
+			return hash.toString();
+		} catch (NoSuchAlgorithmException e) {
+			// every Java platform needs to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
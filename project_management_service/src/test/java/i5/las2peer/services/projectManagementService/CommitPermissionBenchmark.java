@@ -0,0 +1,373 @@
+package i5.las2peer.services.projectManagementService;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.FileReader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Properties;
+
+import org.json.simple.parser.ParseException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import i5.las2peer.services.projectManagementService.component.Component;
+import i5.las2peer.services.projectManagementService.component.ComponentInitHelper;
+import i5.las2peer.services.projectManagementService.database.DatabaseManager;
+import i5.las2peer.services.projectManagementService.project.Project;
+import i5.las2peer.services.projectManagementService.project.Role;
+import i5.las2peer.services.projectManagementService.project.User;
+import i5.las2peer.services.projectManagementService.project.WidgetConfig;
+
+/**
+ * Compares the latency of the commit permission check that loads the whole project
+ * (with the per row queries used before the ProjectLoader) with the single query
+ * membership check (Project.hasUserByVersionedModel).
+ * Note, that a database needs to be available and accessable by using the config
+ * of the properties file.
+ * The benchmark only measures timings and is not run with the unit tests, remove the
+ * Ignore annotation to run it manually.
+ */
+public class CommitPermissionBenchmark {
+
+	private static final int USER_COUNT = 50;
+	private static final int COMPONENT_COUNT = 20;
+	private static final int ITERATIONS = 200;
+
+	private Connection connection;
+
+	private int projectId;
+	private ArrayList<Integer> userIds;
+	private ArrayList<Integer> componentIds;
+	private ArrayList<Integer> versionedModelIds;
+	private int versionedModelId;
+	private String widgetConfigHash;
+
+	/**
+	 * Initializes a database connection with the given properties from the properties file and
+	 * creates a project with some users and components.
+	 *
+	 * @throws Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		Properties properties = new Properties();
+		String propertiesFile = "./etc/i5.las2peer.services.projectManagementService.ProjectManagementService.properties";
+		try {
+			FileReader reader = new FileReader(propertiesFile);
+			properties.load(reader);
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail("File loading problems: " + e);
+		}
+
+		DatabaseManager databaseManager = new DatabaseManager(properties.getProperty("jdbcDriverClassName"),
+				properties.getProperty("jdbcLogin"), properties.getProperty("jdbcPass"),
+				properties.getProperty("jdbcUrl"), properties.getProperty("jdbcSchema"));
+		connection = databaseManager.getConnection();
+
+		// create project
+		PreparedStatement statement = connection.prepareStatement("INSERT INTO Project (name) VALUES (?);", Statement.RETURN_GENERATED_KEYS);
+		statement.setString(1, "Benchmark Project " + System.currentTimeMillis());
+		statement.executeUpdate();
+		ResultSet genKeys = statement.getGeneratedKeys();
+		genKeys.next();
+		projectId = genKeys.getInt(1);
+		statement.close();
+
+		Role role = new Role(projectId, "Member", true);
+		role.persist(connection);
+		widgetConfigHash = WidgetConfig.hash(role.getWidgetConfig());
+
+		// create users and add them to the project
+		userIds = new ArrayList<>();
+		for(int i = 0; i < USER_COUNT; i++) {
+			User user = new User("benchmark" + projectId + "_" + i + "@test.de", "benchmark" + projectId + "_" + i);
+			user.persist(connection);
+			userIds.add(user.getId());
+
+			statement = connection.prepareStatement("INSERT INTO ProjectToUser (projectId, userId) VALUES (?,?);", Statement.RETURN_GENERATED_KEYS);
+			statement.setInt(1, projectId);
+			statement.setInt(2, user.getId());
+			statement.executeUpdate();
+			genKeys = statement.getGeneratedKeys();
+			genKeys.next();
+			int projectToUserId = genKeys.getInt(1);
+			statement.close();
+
+			statement = connection.prepareStatement("INSERT INTO UserToRole (userId, roleId, projectToUserId) VALUES (?,?,?);");
+			statement.setInt(1, user.getId());
+			statement.setInt(2, role.getId());
+			statement.setInt(3, projectToUserId);
+			statement.executeUpdate();
+			statement.close();
+		}
+
+		// create components of the project
+		componentIds = new ArrayList<>();
+		versionedModelIds = new ArrayList<>();
+		for(int i = 0; i < COMPONENT_COUNT; i++) {
+			versionedModelId = ComponentInitHelper.createEmptyVersionedModel(connection);
+			versionedModelIds.add(versionedModelId);
+
+			statement = connection.prepareStatement("INSERT INTO Component (name, type, versionedModelId) VALUES (?,?,?);", Statement.RETURN_GENERATED_KEYS);
+			statement.setString(1, "Benchmark Component " + i);
+			statement.setString(2, "frontend");
+			statement.setInt(3, versionedModelId);
+			statement.executeUpdate();
+			genKeys = statement.getGeneratedKeys();
+			genKeys.next();
+			int componentId = genKeys.getInt(1);
+			componentIds.add(componentId);
+			statement.close();
+
+			statement = connection.prepareStatement("INSERT INTO ProjectToComponent (projectId, componentId) VALUES (?,?);");
+			statement.setInt(1, projectId);
+			statement.setInt(2, componentId);
+			statement.executeUpdate();
+			statement.close();
+		}
+	}
+
+	/**
+	 * Removes the project, users, components, versioned models and widget config created by setUp()
+	 * and closes the connection.
+	 *
+	 * @throws Exception
+	 */
+	@After
+	public void tearDown() throws Exception {
+		// roles, ProjectToUser, UserToRole and ProjectToComponent entries get removed by cascade
+		PreparedStatement statement = connection.prepareStatement("DELETE FROM Project WHERE id = ?;");
+		statement.setInt(1, projectId);
+		statement.executeUpdate();
+		statement.close();
+
+		for(int userId : userIds) {
+			statement = connection.prepareStatement("DELETE FROM User WHERE id = ?;");
+			statement.setInt(1, userId);
+			statement.executeUpdate();
+			statement.close();
+		}
+
+		for(int componentId : componentIds) {
+			statement = connection.prepareStatement("DELETE FROM Component WHERE id = ?;");
+			statement.setInt(1, componentId);
+			statement.executeUpdate();
+			statement.close();
+		}
+
+		for(int versionedModelId : versionedModelIds) {
+			deleteVersionedModel(versionedModelId);
+		}
+
+		// the widget config may be shared with other roles, thus only delete it if it is not used anymore
+		statement = connection.prepareStatement("DELETE FROM WidgetConfig WHERE hash = ? AND NOT EXISTS "
+				+ "(SELECT * FROM Role WHERE widgetConfigHash = ?);");
+		statement.setString(1, widgetConfigHash);
+		statement.setString(2, widgetConfigHash);
+		statement.executeUpdate();
+		statement.close();
+
+		connection.close();
+	}
+
+	/**
+	 * Deletes the versioned model with the given id together with the empty commit and model
+	 * created by ComponentInitHelper.createEmptyVersionedModel().
+	 * @param versionedModelId Id of the versioned model.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	private void deleteVersionedModel(int versionedModelId) throws SQLException {
+		ArrayList<Integer> commitIds = new ArrayList<>();
+		PreparedStatement statement = connection.prepareStatement("SELECT commitId FROM CommitToVersionedModel WHERE versionedModelId = ?;");
+		statement.setInt(1, versionedModelId);
+		ResultSet queryResult = statement.executeQuery();
+		while(queryResult.next()) {
+			commitIds.add(queryResult.getInt("commitId"));
+		}
+		statement.close();
+
+		for(int commitId : commitIds) {
+			ArrayList<Integer> modelIds = new ArrayList<>();
+			statement = connection.prepareStatement("SELECT modelId FROM CommitToModel WHERE commitId = ?;");
+			statement.setInt(1, commitId);
+			queryResult = statement.executeQuery();
+			while(queryResult.next()) {
+				modelIds.add(queryResult.getInt("modelId"));
+			}
+			statement.close();
+
+			statement = connection.prepareStatement("DELETE FROM CommitToModel WHERE commitId = ?;");
+			statement.setInt(1, commitId);
+			statement.executeUpdate();
+			statement.close();
+
+			for(int modelId : modelIds) {
+				statement = connection.prepareStatement("DELETE FROM Model WHERE id = ?;");
+				statement.setInt(1, modelId);
+				statement.executeUpdate();
+				statement.close();
+			}
+		}
+
+		statement = connection.prepareStatement("DELETE FROM CommitToVersionedModel WHERE versionedModelId = ?;");
+		statement.setInt(1, versionedModelId);
+		statement.executeUpdate();
+		statement.close();
+
+		for(int commitId : commitIds) {
+			statement = connection.prepareStatement("DELETE FROM Commit WHERE id = ?;");
+			statement.setInt(1, commitId);
+			statement.executeUpdate();
+			statement.close();
+		}
+
+		statement = connection.prepareStatement("DELETE FROM VersionedModel WHERE id = ?;");
+		statement.setInt(1, versionedModelId);
+		statement.executeUpdate();
+		statement.close();
+	}
+
+	/**
+	 * Runs both membership checks for a member and a non-member and prints their average latency.
+	 */
+	@Test
+	@Ignore("Benchmark, run manually")
+	public void benchmarkHasCommitPermission() {
+		System.out.println("------------- Starting benchmarkHasCommitPermission() -------------");
+
+		try {
+			int memberId = userIds.get(USER_COUNT - 1);
+			int nonMemberId = -1;
+
+			// both checks need to give the same answers
+			assertEquals(true, hasUserByLoadingProject(versionedModelId, memberId));
+			assertEquals(true, Project.hasUserByVersionedModel(versionedModelId, memberId, connection));
+			assertEquals(false, hasUserByLoadingProject(versionedModelId, nonMemberId));
+			assertEquals(false, Project.hasUserByVersionedModel(versionedModelId, nonMemberId, connection));
+
+			long start = System.nanoTime();
+			for(int i = 0; i < ITERATIONS; i++) {
+				hasUserByLoadingProject(versionedModelId, memberId);
+			}
+			long loadingProjectNanos = (System.nanoTime() - start) / ITERATIONS;
+
+			start = System.nanoTime();
+			for(int i = 0; i < ITERATIONS; i++) {
+				Project.hasUserByVersionedModel(versionedModelId, memberId, connection);
+			}
+			long singleQueryNanos = (System.nanoTime() - start) / ITERATIONS;
+
+			System.out.println("Project with " + USER_COUNT + " users and " + COMPONENT_COUNT + " components, " + ITERATIONS + " iterations:");
+			System.out.println("Loading project per row + hasUser: " + (loadingProjectNanos / 1000) + " us per check");
+			System.out.println("hasUserByVersionedModel:            " + (singleQueryNanos / 1000) + " us per check");
+		} catch (SQLException e) {
+			e.printStackTrace();
+			fail("Exception: " + e);
+		}
+	}
+
+	/**
+	 * The membership check as it was done before, i.e. searching the project of the versioned model,
+	 * loading the whole project and checking if the user is part of it.
+	 * Project(int, Connection) loads the project with the batched ProjectLoader by now, thus the loading
+	 * is repeated here with the queries the project used before, i.e. one query per user (and its role)
+	 * and per component. The project of the benchmark has no (external) dependencies, so for these only
+	 * the id queries get executed.
+	 * @param versionedModelId Id of the versioned model.
+	 * @param userId Id of the user.
+	 * @return Whether the user is a member of the project where the versioned model belongs to.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	private boolean hasUserByLoadingProject(int versionedModelId, int userId) throws SQLException {
+		PreparedStatement statement = connection
+				.prepareStatement("SELECT Project.* FROM Component, ProjectToComponent, Project " +
+		                          "WHERE Component.versionedModelId = ? AND " +
+						          "ProjectToComponent.componentId = Component.id AND ProjectToComponent.projectId = Project.id;");
+		statement.setInt(1, versionedModelId);
+		ResultSet queryResult = statement.executeQuery();
+		if(!queryResult.next()) {
+			statement.close();
+			return false;
+		}
+		int projectId = queryResult.getInt("id");
+		statement.close();
+
+		loadProjectPerRow(projectId);
+
+		statement = connection.prepareStatement("SELECT * FROM ProjectToUser WHERE projectId = ? AND userId = ?;");
+		statement.setInt(1, projectId);
+		statement.setInt(2, userId);
+		queryResult = statement.executeQuery();
+		boolean hasUser = queryResult.next();
+		statement.close();
+		return hasUser;
+	}
+
+	/**
+	 * Executes the queries that were used to load a project before the ProjectLoader existed.
+	 * @param projectId Id of the project.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	private void loadProjectPerRow(int projectId) throws SQLException {
+		PreparedStatement statement = connection.prepareStatement("SELECT * FROM Project WHERE id=?;");
+		statement.setInt(1, projectId);
+		statement.executeQuery().next();
+		statement.close();
+
+		statement = connection.prepareStatement("SELECT * FROM Role WHERE projectId = ?;");
+		statement.setInt(1, projectId);
+		statement.executeQuery().next();
+		statement.close();
+
+		// one query per user and one for its role
+		statement = connection.prepareStatement("SELECT User.email FROM ProjectToUser, User WHERE ProjectToUser.userId = User.id AND ProjectToUser.projectId = ?;");
+		statement.setInt(1, projectId);
+		ResultSet queryResult = statement.executeQuery();
+		while(queryResult.next()) {
+			User user = new User(queryResult.getString("email"), connection);
+
+			PreparedStatement roleStatement = connection
+					.prepareStatement("SELECT UserToRole.roleId FROM UserToRole, ProjectToUser " +
+			                          "WHERE UserToRole.projectToUserId = ProjectToUser.id AND " +
+							          "ProjectToUser.projectId = ? AND ProjectToUser.userId = ?;");
+			roleStatement.setInt(1, projectId);
+			roleStatement.setInt(2, user.getId());
+			roleStatement.executeQuery().next();
+			roleStatement.close();
+		}
+		statement.close();
+
+		// one query per component
+		statement = connection.prepareStatement("SELECT ProjectToComponent.componentId FROM ProjectToComponent WHERE projectId = ?;");
+		statement.setInt(1, projectId);
+		queryResult = statement.executeQuery();
+		while(queryResult.next()) {
+			try {
+				new Component(queryResult.getInt(1), connection);
+			} catch (ParseException e) {
+				e.printStackTrace();
+			}
+		}
+		statement.close();
+
+		statement = connection.prepareStatement("SELECT Dependency.id FROM Dependency WHERE projectId = ?;");
+		statement.setInt(1, projectId);
+		statement.executeQuery().next();
+		statement.close();
+
+		statement = connection.prepareStatement("SELECT ExternalDependency.id FROM ExternalDependency WHERE projectId = ?;");
+		statement.setInt(1, projectId);
+		statement.executeQuery().next();
+		statement.close();
+	}
+
+}
@@ -6,7 +6,12 @@ import java.sql.SQLException;
 
 public class DatabaseHelper {
 	
-	private static String[] TABLE_NAMES = {"Project", "ProjectToUser", "Role", "User", "UserToRole"};
+	/**
+	 * Tables to clear, in an order that respects their foreign keys (e.g. roles reference their widget config,
+	 * changes and jobs reference their project or user).
+	 */
+	private static String[] TABLE_NAMES = {"Outbox", "Job", "ProjectChange", "GitHubProjectPool", "VersionedModelPool",
+			"Project", "ProjectToUser", "Role", "WidgetConfig", "User", "UserToRole"};
 
 	/**
 	 * Tries to clear every table of the database.
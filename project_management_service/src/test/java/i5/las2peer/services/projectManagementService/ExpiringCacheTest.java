@@ -0,0 +1,111 @@
+package i5.las2peer.services.projectManagementService;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import i5.las2peer.services.projectManagementService.cache.ExpiringCache;
+
+/**
+ * Tests expiry, eviction and the per-key invalidation of the ExpiringCache.
+ * Does not need a database or a running node.
+ */
+public class ExpiringCacheTest {
+
+	@Test
+	public void testPutAndGet() {
+		ExpiringCache<String, Integer> cache = new ExpiringCache<>(10, 60000);
+		assertNull(cache.get("a"));
+		cache.put("a", 1);
+		assertEquals(Integer.valueOf(1), cache.get("a"));
+	}
+
+	@Test
+	public void testExpiry() throws InterruptedException {
+		ExpiringCache<String, Integer> cache = new ExpiringCache<>(10, 50);
+		cache.put("a", 1);
+		Thread.sleep(100);
+		assertNull("Expired value is returned.", cache.get("a"));
+	}
+
+	/**
+	 * When the cache is full, the least recently used entry should be evicted.
+	 */
+	@Test
+	public void testEviction() {
+		ExpiringCache<String, Integer> cache = new ExpiringCache<>(2, 60000);
+		cache.put("a", 1);
+		cache.put("b", 2);
+		cache.get("a");
+		cache.put("c", 3);
+		assertNull("Least recently used value is not evicted.", cache.get("b"));
+		assertEquals(Integer.valueOf(1), cache.get("a"));
+		assertEquals(Integer.valueOf(3), cache.get("c"));
+	}
+
+	@Test
+	public void testDisabled() {
+		ExpiringCache<String, Integer> cache = new ExpiringCache<>(0, 60000);
+		assertFalse(cache.isEnabled());
+		cache.put("a", 1);
+		assertNull(cache.get("a"));
+	}
+
+	/**
+	 * A value loaded before its key got invalidated must not be stored, while values of other keys
+	 * loaded at the same time still get stored.
+	 */
+	@Test
+	public void testInvalidationIsPerKey() {
+		ExpiringCache<String, Integer> cache = new ExpiringCache<>(10, 60000);
+		cache.put("b", 1);
+		long generation = cache.getGeneration();
+		cache.invalidate("b");
+		assertNull(cache.get("b"));
+
+		assertFalse("Value loaded before the invalidation got stored.", cache.put("b", 1, generation));
+		assertNull(cache.get("b"));
+		assertTrue("Invalidating another key rejected the value.", cache.put("a", 2, generation));
+		assertEquals(Integer.valueOf(2), cache.get("a"));
+
+		// values loaded after the invalidation get stored again
+		assertTrue(cache.put("b", 3, cache.getGeneration()));
+		assertEquals(Integer.valueOf(3), cache.get("b"));
+	}
+
+	@Test
+	public void testInvalidateAll() {
+		ExpiringCache<String, Integer> cache = new ExpiringCache<>(10, 60000);
+		cache.put("a", 1);
+		long generation = cache.getGeneration();
+		cache.invalidateAll();
+		assertNull(cache.get("a"));
+		assertFalse(cache.put("a", 1, generation));
+		assertFalse(cache.put("b", 2, generation));
+		assertTrue(cache.put("b", 2, cache.getGeneration()));
+	}
+
+	/**
+	 * Only as many invalidated keys as the cache can hold are remembered. When the oldest one gets
+	 * dropped, values loaded before its invalidation must still be rejected, for every key.
+	 */
+	@Test
+	public void testDroppedInvalidationsRejectOlderValues() {
+		ExpiringCache<String, Integer> cache = new ExpiringCache<>(1, 60000);
+		long beforeA = cache.getGeneration();
+		cache.invalidate("a");
+		long afterA = cache.getGeneration();
+		cache.invalidate("b");
+
+		// the invalidation of "a" got dropped, so its generation applies to all keys
+		assertFalse("Value loaded before a dropped invalidation got stored.", cache.put("a", 1, beforeA));
+		assertFalse(cache.put("c", 1, beforeA));
+		assertTrue(cache.put("a", 1, afterA));
+		// the invalidation of "b" is still known
+		assertFalse(cache.put("b", 1, afterA));
+	}
+
+}
@@ -0,0 +1,226 @@
+package i5.las2peer.services.projectManagementService;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import i5.las2peer.services.projectManagementService.exception.GitHubException;
+import i5.las2peer.services.projectManagementService.github.GitHubHelper;
+import i5.las2peer.services.projectManagementService.github.GitHubProject;
+import i5.las2peer.services.projectManagementService.github.GitHubTags;
+
+/**
+ * Tests the GitHubHelper against a local stub server, which imitates the parts of the
+ * GitHub API that are used by the service. Thus, no network access or GitHub account is needed.
+ */
+public class GitHubHelperTest {
+
+	private static final String TAGS_ETAG = "\"tags-etag\"";
+
+	private HttpServer server;
+	private AtomicInteger requestCount;
+	private GitHubHelper gitHubHelper;
+
+	/**
+	 * Starts the stub server on a free port and points the GitHubHelper to it.
+	 *
+	 * @throws Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		this.requestCount = new AtomicInteger();
+		this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+
+		this.server.createContext("/repos/owner/repo/tags", exchange -> {
+			this.requestCount.incrementAndGet();
+			if(TAGS_ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+				respond(exchange, 304, null);
+			} else {
+				exchange.getResponseHeaders().add("ETag", TAGS_ETAG);
+				respond(exchange, 200, "[{\"name\":\"v0.0.2\"},{\"name\":\"v0.0.1\"}]");
+			}
+		});
+		this.server.createContext("/repos/owner/missing/tags", exchange -> {
+			this.requestCount.incrementAndGet();
+			respond(exchange, 404, "{\"message\":\"Not Found\"}");
+		});
+		this.server.createContext("/repos/owner/limited/tags", exchange -> {
+			this.requestCount.incrementAndGet();
+			// only a few requests left, which are reserved for high priority requests
+			exchange.getResponseHeaders().add("X-RateLimit-Limit", "60");
+			exchange.getResponseHeaders().add("X-RateLimit-Remaining", "5");
+			exchange.getResponseHeaders().add("X-RateLimit-Reset", String.valueOf(System.currentTimeMillis() / 1000 + 3600));
+			respond(exchange, 200, "[]");
+		});
+		this.server.createContext("/repos/owner/anonymous/tags", exchange -> {
+			this.requestCount.incrementAndGet();
+			// the anonymous rate limit is smaller than the default reserve
+			exchange.getResponseHeaders().add("X-RateLimit-Limit", "60");
+			exchange.getResponseHeaders().add("X-RateLimit-Remaining", "50");
+			exchange.getResponseHeaders().add("X-RateLimit-Reset", String.valueOf(System.currentTimeMillis() / 1000 + 3600));
+			respond(exchange, 200, "[]");
+		});
+		this.server.createContext("/projects/42/collaborators/alice", exchange -> {
+			this.requestCount.incrementAndGet();
+			assertEquals("PUT", exchange.getRequestMethod());
+			respond(exchange, 204, null);
+		});
+		this.server.createContext("/user", exchange -> {
+			this.requestCount.incrementAndGet();
+			assertEquals("token abc", exchange.getRequestHeaders().getFirst("Authorization"));
+			respond(exchange, 200, "{\"login\":\"alice\"}");
+		});
+		this.server.createContext("/slow", exchange -> {
+			try {
+				Thread.sleep(2000);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			respond(exchange, 200, "");
+		});
+		this.server.start();
+
+		String baseUrl = "http://localhost:" + this.server.getAddress().getPort();
+		this.gitHubHelper = GitHubHelper.getInstance();
+		this.gitHubHelper.setBaseUrls(baseUrl, baseUrl);
+		this.gitHubHelper.setTimeouts(1000, 500);
+		this.gitHubHelper.configureRateLimit(10, 100);
+		this.gitHubHelper.setGitHubPersonalAccessToken("token");
+		this.gitHubHelper.setGitHubOrganization("org");
+	}
+
+	/**
+	 * Stops the stub server and restores the default configuration of the GitHubHelper.
+	 */
+	@After
+	public void tearDown() {
+		this.server.stop(0);
+		this.gitHubHelper.setBaseUrls(null, null);
+		this.gitHubHelper.setTimeouts(5000, 10000);
+		this.gitHubHelper.configureRateLimit(100, 10000);
+		this.gitHubHelper.setGitHubPersonalAccessToken(null);
+		this.gitHubHelper.setGitHubOrganization(null);
+	}
+
+	@Test
+	public void testRepoVersionTags() throws GitHubException {
+		GitHubTags tags = this.gitHubHelper.getRepoVersionTags("owner", "repo", null);
+		assertEquals(Arrays.asList("v0.0.2", "v0.0.1"), tags.getTags());
+		assertEquals(TAGS_ETAG, tags.getEtag());
+
+		// conditional request with the ETag should not return the tags again
+		GitHubTags notModified = this.gitHubHelper.getRepoVersionTags("owner", "repo", tags.getEtag());
+		assertTrue(notModified.isNotModified());
+		assertNull(notModified.getTags());
+		assertEquals(2, this.requestCount.get());
+	}
+
+	@Test(expected = GitHubException.class)
+	public void testRepoVersionTagsError() throws GitHubException {
+		this.gitHubHelper.getRepoVersionTags("owner", "missing");
+	}
+
+	/**
+	 * Once the remaining rate limit falls below the reserve, low priority requests (tag lookups) should
+	 * be shed without sending them, while high priority requests are still sent.
+	 */
+	@Test
+	public void testRateLimitReserve() throws GitHubException {
+		this.gitHubHelper.getRepoVersionTags("owner", "limited");
+		try {
+			this.gitHubHelper.getRepoVersionTags("owner", "limited");
+			fail("Low priority request should have been shed.");
+		} catch (GitHubException e) {
+			assertEquals(1, this.requestCount.get());
+		}
+		assertTrue(this.gitHubHelper.repoExists(
+				"http://localhost:" + this.server.getAddress().getPort() + "/repos/owner/limited/tags"));
+		assertEquals(2, this.requestCount.get());
+	}
+
+	/**
+	 * With the default reserve, which is larger than the anonymous rate limit, low priority requests
+	 * should still be sent as long as more than a tenth of the rate limit is left.
+	 */
+	@Test
+	public void testRateLimitDefaultReserve() throws GitHubException {
+		this.gitHubHelper.configureRateLimit(100, 10000);
+		for(int i = 0; i < 3; i++) {
+			this.gitHubHelper.getRepoVersionTags("owner", "anonymous");
+		}
+		assertEquals(3, this.requestCount.get());
+
+		// 5 of 60 requests left, which is below the capped reserve of 6
+		this.gitHubHelper.getRepoVersionTags("owner", "limited");
+		try {
+			this.gitHubHelper.getRepoVersionTags("owner", "limited");
+			fail("Low priority request should have been shed.");
+		} catch (GitHubException e) {
+			assertEquals(4, this.requestCount.get());
+		}
+	}
+
+	@Test
+	public void testGrantUserAccessToProject() throws GitHubException {
+		this.gitHubHelper.grantUserAccessToProject("alice", new GitHubProject(42, "http://localhost/projects/42"));
+		assertEquals(1, this.requestCount.get());
+	}
+
+	@Test
+	public void testGitHubUsername() throws GitHubException {
+		assertEquals("{\"login\":\"alice\"}", this.gitHubHelper.getGitHubUsername("abc"));
+	}
+
+	/**
+	 * Sends multiple requests one after another, which should all be answered by the shared client.
+	 */
+	@Test
+	public void testSequentialRequests() throws GitHubException {
+		for(int i = 0; i < 20; i++) {
+			assertTrue(this.gitHubHelper.repoExists(
+					"http://localhost:" + this.server.getAddress().getPort() + "/repos/owner/repo/tags"));
+		}
+		assertEquals(20, this.requestCount.get());
+	}
+
+	@Test
+	public void testRequestTimeout() {
+		long start = System.currentTimeMillis();
+		try {
+			this.gitHubHelper.repoExists("http://localhost:" + this.server.getAddress().getPort() + "/slow");
+			fail("Request should have timed out.");
+		} catch (GitHubException e) {
+			// the configured request timeout is 500ms, while the stub server answers after 2s
+			assertTrue(System.currentTimeMillis() - start < 2000);
+		}
+	}
+
+	private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+		if(body == null) {
+			exchange.sendResponseHeaders(status, -1);
+		} else {
+			byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+			exchange.sendResponseHeaders(status, bytes.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(bytes);
+			}
+		}
+		exchange.close();
+	}
+
+}
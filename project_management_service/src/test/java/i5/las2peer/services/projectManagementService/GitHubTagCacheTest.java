@@ -0,0 +1,212 @@
+package i5.las2peer.services.projectManagementService;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import i5.las2peer.services.projectManagementService.exception.GitHubException;
+import i5.las2peer.services.projectManagementService.github.GitHubHelper;
+import i5.las2peer.services.projectManagementService.github.GitHubTagCache;
+
+/**
+ * Tests the GitHubTagCache against a local stub server, which answers the tag requests of the GitHubHelper.
+ * Does not need a database or a running node.
+ */
+public class GitHubTagCacheTest {
+
+	private static final String TAGS_ETAG = "\"tags-etag\"";
+	private static final List<String> TAGS = Arrays.asList("v0.0.2", "v0.0.1");
+
+	private HttpServer server;
+	private AtomicInteger requestCount;
+	private GitHubTagCache cache;
+
+	/**
+	 * Status code the stub server answers with.
+	 */
+	private volatile int status;
+
+	/**
+	 * If set, the stub server waits for it before answering a request.
+	 */
+	private volatile CountDownLatch release;
+
+	/**
+	 * Starts the stub server on a free port and points the GitHubHelper to it.
+	 *
+	 * @throws Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		this.requestCount = new AtomicInteger();
+		this.status = 200;
+		this.release = null;
+		this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		this.server.createContext("/repos/", exchange -> {
+			this.requestCount.incrementAndGet();
+			CountDownLatch latch = this.release;
+			if(latch != null) {
+				try {
+					latch.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			if(this.status != 200) {
+				respond(exchange, this.status, "{\"message\":\"Server Error\"}");
+			} else if(TAGS_ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+				respond(exchange, 304, null);
+			} else {
+				exchange.getResponseHeaders().add("ETag", TAGS_ETAG);
+				respond(exchange, 200, "[{\"name\":\"v0.0.2\"},{\"name\":\"v0.0.1\"}]");
+			}
+		});
+		this.server.start();
+
+		String baseUrl = "http://localhost:" + this.server.getAddress().getPort();
+		GitHubHelper.getInstance().setBaseUrls(baseUrl, baseUrl);
+		GitHubHelper.getInstance().setTimeouts(1000, 10000);
+		this.cache = GitHubTagCache.getInstance();
+		this.cache.configure(100, 300);
+	}
+
+	/**
+	 * Stops the stub server and restores the default configuration of the GitHubHelper and the cache.
+	 */
+	@After
+	public void tearDown() {
+		CountDownLatch latch = this.release;
+		if(latch != null) latch.countDown();
+		this.server.stop(0);
+		GitHubHelper.getInstance().setBaseUrls(null, null);
+		GitHubHelper.getInstance().setTimeouts(5000, 10000);
+		this.cache.configure(1000, 300);
+	}
+
+	/**
+	 * Concurrent lookups of a repository which is not cached yet should only send a single request.
+	 */
+	@Test
+	public void testSingleFlight() throws Exception {
+		this.release = new CountDownLatch(1);
+		List<List<String>> results = new CopyOnWriteArrayList<>();
+		List<Thread> threads = new ArrayList<>();
+		for(int i = 0; i < 5; i++) {
+			Thread thread = new Thread(() -> {
+				try {
+					results.add(this.cache.getRepoVersionTags("owner", "single-flight"));
+				} catch (GitHubException e) {
+					e.printStackTrace();
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		waitFor(() -> this.requestCount.get() == 1);
+		// give the other lookups time to join the running request
+		Thread.sleep(200);
+		this.release.countDown();
+		for(Thread thread : threads) {
+			thread.join(5000);
+		}
+
+		assertEquals(5, results.size());
+		for(List<String> tags : results) {
+			assertEquals(TAGS, tags);
+		}
+		assertEquals("Concurrent lookups sent more than one request.", 1, this.requestCount.get());
+	}
+
+	/**
+	 * Expired tags should be returned right away, while they get revalidated in the background
+	 * by using a conditional request.
+	 */
+	@Test
+	public void testStaleWhileRevalidate() throws Exception {
+		this.cache.configure(100, 0);
+		assertEquals(TAGS, this.cache.getRepoVersionTags("owner", "stale"));
+		assertEquals(1, this.requestCount.get());
+
+		// GitHub is slow now, but the expired tags are served without waiting for it
+		this.release = new CountDownLatch(1);
+		long start = System.currentTimeMillis();
+		assertEquals(TAGS, this.cache.getRepoVersionTags("owner", "stale"));
+		assertTrue("Lookup waited for the revalidation.", System.currentTimeMillis() - start < 1000);
+
+		this.release.countDown();
+		waitFor(() -> this.requestCount.get() == 2 && getInFlight() == 0);
+		assertEquals(TAGS, this.cache.getRepoVersionTags("owner", "stale"));
+	}
+
+	/**
+	 * If revalidating fails, then the cached tags should be kept. Without cached tags, the error is thrown.
+	 */
+	@Test
+	public void testKeepOnFailure() throws Exception {
+		this.cache.configure(100, 0);
+		assertEquals(TAGS, this.cache.getRepoVersionTags("owner", "failing"));
+
+		this.status = 500;
+		assertEquals(TAGS, this.cache.getRepoVersionTags("owner", "failing"));
+		waitFor(() -> this.requestCount.get() == 2 && getInFlight() == 0);
+		assertEquals("Cached tags got dropped after a failed revalidation.", TAGS, this.cache.getRepoVersionTags("owner", "failing"));
+
+		try {
+			this.cache.getRepoVersionTags("owner", "not-cached");
+			fail("Lookup of a repository which is not cached should fail.");
+		} catch (GitHubException e) {
+			// expected
+		}
+	}
+
+	private int getInFlight() {
+		return ((Number) this.cache.getStatistics().get("inFlight")).intValue();
+	}
+
+	/**
+	 * Waits until the given condition is fulfilled, but at most 5 seconds.
+	 * @param condition Condition to wait for.
+	 * @throws InterruptedException If interrupted while waiting.
+	 */
+	private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while(!condition.getAsBoolean()) {
+			if(System.currentTimeMillis() > deadline) fail("Condition was not fulfilled within 5 seconds.");
+			Thread.sleep(10);
+		}
+	}
+
+	private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+		if(body == null) {
+			exchange.sendResponseHeaders(status, -1);
+		} else {
+			byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+			exchange.sendResponseHeaders(status, bytes.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(bytes);
+			}
+		}
+		exchange.close();
+	}
+
+}
@@ -0,0 +1,302 @@
+package i5.las2peer.services.projectManagementService;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.FileReader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Properties;
+
+import org.json.simple.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import i5.las2peer.services.projectManagementService.database.DatabaseManager;
+import i5.las2peer.services.projectManagementService.outbox.OutboxEntry;
+import i5.las2peer.services.projectManagementService.outbox.OutboxTask;
+
+/**
+ * Tests claiming, retrying and failing outbox entries on the database level.
+ * The entries are only stored within a transaction, which gets rolled back after every test. Thus, they
+ * are never due for the OutboxDispatcher of a service running in the same database.
+ * Note, that a database needs to be available and accessable by using the config
+ * of the properties file.
+ */
+public class OutboxTest {
+
+	private static final int LEASE_SECONDS = 120;
+
+	private Connection connection;
+	private Connection otherConnection;
+
+	/**
+	 * Initializes two database connections with the given properties from the properties file,
+	 * the second one is used to act as the dispatcher of another node.
+	 *
+	 * @throws Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		Properties properties = new Properties();
+		String propertiesFile = "./etc/i5.las2peer.services.projectManagementService.ProjectManagementService.properties";
+		try {
+			FileReader reader = new FileReader(propertiesFile);
+			properties.load(reader);
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail("File loading problems: " + e);
+		}
+
+		DatabaseManager databaseManager = new DatabaseManager(properties.getProperty("jdbcDriverClassName"),
+				properties.getProperty("jdbcLogin"), properties.getProperty("jdbcPass"),
+				properties.getProperty("jdbcUrl"), properties.getProperty("jdbcSchema"));
+		connection = databaseManager.getConnection();
+		otherConnection = databaseManager.getConnection();
+
+		connection.setAutoCommit(false);
+	}
+
+	/**
+	 * Rolls back the entries stored by the test and closes the connections.
+	 *
+	 * @throws Exception
+	 */
+	@After
+	public void tearDown() throws Exception {
+		connection.rollback();
+		connection.setAutoCommit(true);
+		connection.close();
+		otherConnection.close();
+	}
+
+	/**
+	 * Tests that a claimed entry can neither be seen nor claimed by another dispatcher until its lease expired.
+	 */
+	@Test
+	public void testClaimIsExclusive() {
+		try {
+			OutboxEntry entry = newEntry();
+			assertTrue("Could not claim a new entry.", entry.claim(LEASE_SECONDS, connection));
+			assertEquals(1, entry.getAttempts());
+			connection.commit();
+
+			// the entry is leased now, so another dispatcher neither finds nor claims it
+			assertNull("Leased entry is due for another dispatcher.", findDueEntry(entry.getId(), otherConnection));
+			assertFalse("Leased entry got claimed by another dispatcher.", entry.claim(LEASE_SECONDS, otherConnection));
+			assertEquals(1, entry.getAttempts());
+
+			// remove the committed entry again
+			entry.complete(connection);
+			connection.commit();
+			assertNull(findDueEntry(entry.getId(), connection));
+		} catch (SQLException e) {
+			e.printStackTrace();
+			fail("Exception: " + e);
+		}
+	}
+
+	/**
+	 * Tests that an entry gets due again after its lease expired, e.g. because the node performing it crashed.
+	 */
+	@Test
+	public void testExpiredLeaseGetsDueAgain() {
+		try {
+			OutboxEntry entry = newEntry();
+			assertTrue(entry.claim(LEASE_SECONDS, connection));
+			assertNull("Leased entry is due.", findDueEntry(entry.getId(), connection));
+
+			expireLease(entry);
+			OutboxEntry due = findDueEntry(entry.getId(), connection);
+			assertNotNull("Entry with expired lease is not due.", due);
+			assertEquals(1, due.getAttempts());
+			assertTrue("Could not claim entry with expired lease.", due.claim(LEASE_SECONDS, connection));
+			assertEquals(2, due.getAttempts());
+		} catch (SQLException e) {
+			e.printStackTrace();
+			fail("Exception: " + e);
+		}
+	}
+
+	/**
+	 * Tests that a failed attempt is retried after the given delay and that its error is stored.
+	 */
+	@Test
+	public void testRetryLater() {
+		try {
+			OutboxEntry entry = newEntry();
+			assertTrue(entry.claim(LEASE_SECONDS, connection));
+
+			entry.retryLater(60, "GitHubException: unavailable", connection);
+			assertNull("Entry is due before its retry delay passed.", findDueEntry(entry.getId(), connection));
+			assertFalse(entry.claim(LEASE_SECONDS, connection));
+			assertEquals("GitHubException: unavailable", getLastError(entry));
+
+			entry.retryLater(0, "GitHubException: unavailable", connection);
+			OutboxEntry due = findDueEntry(entry.getId(), connection);
+			assertNotNull("Entry is not due after its retry delay passed.", due);
+			assertTrue(due.claim(LEASE_SECONDS, connection));
+			assertEquals(2, due.getAttempts());
+		} catch (SQLException e) {
+			e.printStackTrace();
+			fail("Exception: " + e);
+		}
+	}
+
+	/**
+	 * Tests that a failed entry is kept, but never gets due again.
+	 */
+	@Test
+	public void testMarkFailed() {
+		try {
+			OutboxEntry entry = newEntry();
+			assertTrue(entry.claim(LEASE_SECONDS, connection));
+
+			entry.markFailed("ReqBazException: unauthorized", connection);
+			expireLease(entry);
+			assertNull("Failed entry is due.", findDueEntry(entry.getId(), connection));
+			assertFalse("Failed entry got claimed.", entry.claim(LEASE_SECONDS, connection));
+			assertEquals("ReqBazException: unauthorized", getLastError(entry));
+		} catch (SQLException e) {
+			e.printStackTrace();
+			fail("Exception: " + e);
+		}
+	}
+
+	/**
+	 * Tests that the access token of an entry is only kept in memory and not written to the Outbox table.
+	 */
+	@Test
+	public void testAccessTokenIsNotStored() {
+		try {
+			String accessToken = "test-access-token";
+			OutboxEntry entry = new OutboxEntry(OutboxTask.CREATE_REQBAZ_CATEGORY, 1, new JSONObject()).setAccessToken(accessToken);
+			entry.persist(connection);
+
+			PreparedStatement statement = connection.prepareStatement("SELECT payload FROM Outbox WHERE id = ?;");
+			statement.setInt(1, entry.getId());
+			ResultSet queryResult = statement.executeQuery();
+			assertTrue(queryResult.next());
+			assertFalse("Access token is stored in the payload.", queryResult.getString("payload").contains(accessToken));
+			statement.close();
+
+			OutboxEntry due = findDueEntry(entry.getId(), connection);
+			assertEquals(accessToken, due.getAccessToken());
+
+			due.forgetAccessToken();
+			assertNull("Access token is still known after it got removed.", findDueEntry(entry.getId(), connection).getAccessToken());
+		} catch (SQLException e) {
+			e.printStackTrace();
+			fail("Exception: " + e);
+		}
+	}
+
+	/**
+	 * Tests that an entry whose access token is kept by another node is only claimed once the token expired.
+	 */
+	@Test
+	public void testEntryOfOtherNodeIsNotClaimed() {
+		try {
+			OutboxEntry entry = new OutboxEntry(OutboxTask.CREATE_REQBAZ_CATEGORY, 1, new JSONObject()).setAccessToken("test-access-token");
+			entry.persist(connection);
+			assertTrue("Entry with access token is not due for its own node.", findDueEntry(entry.getId(), connection).needsAccessToken());
+
+			setOwner(entry, "other-node", "DATE_ADD(NOW(), INTERVAL 1 HOUR)");
+			assertNull("Entry of another node is due.", findDueEntry(entry.getId(), connection));
+			assertFalse("Entry of another node got claimed.", entry.claim(LEASE_SECONDS, connection));
+
+			// the other node dropped the token, so the entry gets claimed to let it fail
+			setOwner(entry, "other-node", "DATE_SUB(NOW(), INTERVAL 1 SECOND)");
+			OutboxEntry due = findDueEntry(entry.getId(), connection);
+			assertNotNull("Entry with expired owner is not due.", due);
+			assertTrue(due.claim(LEASE_SECONDS, connection));
+			// the token was stored by this test, drop it like the other node did
+			entry.forgetAccessToken();
+			assertNull(due.getAccessToken());
+		} catch (SQLException e) {
+			e.printStackTrace();
+			fail("Exception: " + e);
+		}
+	}
+
+	/**
+	 * Stores a new entry, which deletes a (non-existing) GitHub project.
+	 * @return Stored entry.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	@SuppressWarnings("unchecked")
+	private OutboxEntry newEntry() throws SQLException {
+		JSONObject payload = new JSONObject();
+		payload.put("gitHubProjectId", -1);
+		OutboxEntry entry = new OutboxEntry(OutboxTask.DELETE_GITHUB_PROJECT, 1, payload);
+		entry.persist(connection);
+		return entry;
+	}
+
+	/**
+	 * Searches for the due entry with the given id, as a dispatcher would do.
+	 * @param id Id of the entry.
+	 * @param connection Connection object
+	 * @return The entry, or null if it is not due.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	private OutboxEntry findDueEntry(int id, Connection connection) throws SQLException {
+		for(OutboxEntry entry : OutboxEntry.getDueEntries(100, connection)) {
+			if(entry.getId() == id) return entry;
+		}
+		return null;
+	}
+
+	/**
+	 * Lets the lease of the given entry expire, as if the dispatcher claiming it crashed.
+	 * @param entry Claimed entry.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	private void expireLease(OutboxEntry entry) throws SQLException {
+		PreparedStatement statement = connection.prepareStatement(
+				"UPDATE Outbox SET nextAttemptAt = DATE_SUB(NOW(), INTERVAL 1 SECOND) WHERE id = ?;");
+		statement.setInt(1, entry.getId());
+		statement.executeUpdate();
+		statement.close();
+	}
+
+	/**
+	 * Sets the node owning the given entry, as if it was stored by that node.
+	 * @param entry Stored entry.
+	 * @param ownerNode Id of the owning node.
+	 * @param ownerExpiresAt SQL expression for the time the owner drops the access token.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	private void setOwner(OutboxEntry entry, String ownerNode, String ownerExpiresAt) throws SQLException {
+		PreparedStatement statement = connection.prepareStatement(
+				"UPDATE Outbox SET ownerNode = ?, ownerExpiresAt = " + ownerExpiresAt + " WHERE id = ?;");
+		statement.setString(1, ownerNode);
+		statement.setInt(2, entry.getId());
+		statement.executeUpdate();
+		statement.close();
+	}
+
+	/**
+	 * Returns the error stored for the last failed attempt of the given entry.
+	 * @param entry Outbox entry.
+	 * @return Error message, or null.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	private String getLastError(OutboxEntry entry) throws SQLException {
+		PreparedStatement statement = connection.prepareStatement("SELECT lastError FROM Outbox WHERE id = ?;");
+		statement.setInt(1, entry.getId());
+		ResultSet queryResult = statement.executeQuery();
+		queryResult.next();
+		String lastError = queryResult.getString("lastError");
+		statement.close();
+		return lastError;
+	}
+
+}
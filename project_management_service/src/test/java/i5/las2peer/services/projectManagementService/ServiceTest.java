@@ -1,6 +1,7 @@
 package i5.las2peer.services.projectManagementService;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -8,6 +9,10 @@ import java.io.ByteArrayOutputStream;
 import java.io.FileReader;
 import java.io.PrintStream;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.HashMap;
 import java.util.Properties;
 
@@ -30,6 +35,8 @@ import i5.las2peer.security.UserAgentImpl;
 import i5.las2peer.services.projectManagementService.ProjectManagementService;
 import i5.las2peer.services.projectManagementService.database.DatabaseManager;
 import i5.las2peer.services.projectManagementService.exception.ProjectNotFoundException;
+import i5.las2peer.services.projectManagementService.exception.UserNotFoundException;
+import i5.las2peer.services.projectManagementService.job.Job;
 import i5.las2peer.services.projectManagementService.project.PredefinedRoles;
 import i5.las2peer.services.projectManagementService.project.Project;
 import i5.las2peer.services.projectManagementService.project.Role;
@@ -708,4 +715,340 @@ public class ServiceTest {
 			fail("Exception: " + e);
 		}
 	}
+	
+	/**
+	 * Tests the GET method of /projects/{projectId}/users/me/role.
+	 */
+	@Test
+	public void testGetUsersMeRole() {
+		System.out.println("------------- Starting testGetUsersMeRole() -------------");
+		try {
+			MiniClient client = new MiniClient();
+			client.setConnectorEndpoint(connector.getHttpEndpoint());
+			
+			// first test without auth
+			System.out.println("1. Test without auth");
+			ClientResponse result = client.sendRequest("GET", mainPath + "projects/1/users/me/role", "");
+			// without auth this should not be possible
+			assertEquals(401, result.getHttpCode());
+			System.out.println("Result of 'testGetUsersMeRole' without auth: " + result.getResponse().trim());
+			System.out.println();
+			
+			// try with auth now (project with id 1 should not exist)
+			client.setLogin(testAgent.getIdentifier(), testPass);
+			System.out.println("2. Test with auth but non-existing project");
+			result = client.sendRequest("GET", mainPath + "projects/1/users/me/role", "");
+			assertEquals(404, result.getHttpCode());
+			System.out.println("Result of 'testGetUsersMeRole' with auth but non-existing project: " + result.getResponse().trim());
+			System.out.println();
+			
+			// create a project where the testAgent/user is no member of
+			User user2 = new User("user2@test.de", "TestUser");
+			user2.persist(connection);
+			Project projectNoMember = createProject("ProjectB", user2);
+			
+			System.out.println("3. Test with auth, but user is no member of the project");
+			result = client.sendRequest("GET", mainPath + "projects/" + projectNoMember.getId() + "/users/me/role", "");
+			assertEquals(403, result.getHttpCode());
+			System.out.println("Result of 'testGetUsersMeRole' with auth, but user is no member of the project: " + result.getResponse().trim());
+			System.out.println();
+			
+			// create a project with the testAgent/user as member, who gets the default role
+			User user = getTestUser();
+			Project project = createProject("ProjectA", user);
+			Role role = Role.getByUser(project.getId(), user.getId(), connection);
+			
+			System.out.println("4. Test with auth and user is member of the project");
+			result = client.sendRequest("GET", mainPath + "projects/" + project.getId() + "/users/me/role", "");
+			assertEquals(200, result.getHttpCode());
+			JSONObject jsonRole = (JSONObject) JSONValue.parse(result.getResponse().trim());
+			assertEquals((long) role.getId(), jsonRole.get("id"));
+			assertEquals(role.getName(), jsonRole.get("name"));
+			assertEquals(role.getWidgetConfig(), jsonRole.get("widgetConfig"));
+			assertTrue("Request result does not contain attribute 'permissions'.", jsonRole.containsKey("permissions"));
+			System.out.println("Result of 'testGetUsersMeRole' with auth and user is member of the project: " + result.getResponse().trim());
+			System.out.println();
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail("Exception: " + e);
+		}
+	}
+	
+	/**
+	 * Tests the DELETE method of /projects/{projectId} in the asynchronous mode and the GET method of /jobs/{jobId}.
+	 */
+	@Test
+	public void testDeleteProjectAsync() {
+		System.out.println("------------- Starting testDeleteProjectAsync() -------------");
+		try {
+			MiniClient client = new MiniClient();
+			client.setConnectorEndpoint(connector.getHttpEndpoint());
+			
+			// first test without auth
+			System.out.println("1. Test without auth");
+			ClientResponse result = client.sendRequest("GET", mainPath + "jobs/1", "");
+			// without auth this should not be possible
+			assertEquals(401, result.getHttpCode());
+			System.out.println("Result of 'testDeleteProjectAsync' without auth: " + result.getResponse().trim());
+			System.out.println();
+			
+			// try with auth now (job with id 1 should not exist)
+			client.setLogin(testAgent.getIdentifier(), testPass);
+			System.out.println("2. Test with auth but non-existing job");
+			result = client.sendRequest("GET", mainPath + "jobs/1", "");
+			assertEquals(404, result.getHttpCode());
+			System.out.println("Result of 'testDeleteProjectAsync' with auth but non-existing job: " + result.getResponse().trim());
+			System.out.println();
+			
+			// create a job that was started by another user
+			User user2 = new User("user2@test.de", "TestUser");
+			user2.persist(connection);
+			Project projectNoMember = createProject("ProjectB", user2);
+			Job jobNoOwner = new Job(Job.DELETE_PROJECT, projectNoMember.getId(), user2.getId());
+			jobNoOwner.persist(connection);
+			
+			System.out.println("3. Test with auth, but job was started by another user");
+			result = client.sendRequest("GET", mainPath + "jobs/" + jobNoOwner.getId(), "");
+			assertEquals(403, result.getHttpCode());
+			System.out.println("Result of 'testDeleteProjectAsync' with auth, but job was started by another user: " + result.getResponse().trim());
+			System.out.println();
+			
+			// delete a project of the testAgent/user in the background
+			Project project = createProject("ProjectA", getTestUser());
+			System.out.println("4. Test with auth, deleting the project in the background");
+			result = client.sendRequest("DELETE", mainPath + "projects/" + project.getId() + "?async=true",
+					"{\"access_token\": \"test-access-token\"}", MediaType.APPLICATION_JSON, "", new HashMap<>());
+			assertEquals(202, result.getHttpCode());
+			JSONObject jsonJob = (JSONObject) JSONValue.parse(result.getResponse().trim());
+			int jobId = ((Long) jsonJob.get("id")).intValue();
+			assertEquals("jobs/" + jobId, result.getHeader("Location"));
+			assertEquals(Job.DELETE_PROJECT, jsonJob.get("type"));
+			assertEquals((long) project.getId(), jsonJob.get("targetId"));
+			assertEquals("pending", jsonJob.get("status"));
+			System.out.println("Result of 'testDeleteProjectAsync' with auth, deleting the project in the background: " + result.getResponse().trim());
+			System.out.println();
+			
+			// the project gets deleted by the outbox dispatcher, so wait for the job to finish
+			System.out.println("5. Test with auth, requesting the job until it is finished");
+			for(int i = 0; i < 20; i++) {
+				result = client.sendRequest("GET", mainPath + "jobs/" + jobId, "");
+				assertEquals(200, result.getHttpCode());
+				jsonJob = (JSONObject) JSONValue.parse(result.getResponse().trim());
+				if(!"pending".equals(jsonJob.get("status")) && !"running".equals(jsonJob.get("status"))) break;
+				Thread.sleep(500);
+			}
+			assertEquals("succeeded", jsonJob.get("status"));
+			assertTrue("Job succeeded, but project still exists.", !Project.exists(project.getId(), connection));
+			System.out.println("Result of 'testDeleteProjectAsync' with auth, requesting the job until it is finished: " + result.getResponse().trim());
+			System.out.println();
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail("Exception: " + e);
+		}
+	}
+	
+	/**
+	 * Tests the conditional GET method of /projects/{projectId} by using the ETag of the project.
+	 */
+	@Test
+	public void testGetProjectETag() {
+		System.out.println("------------- Starting testGetProjectETag() -------------");
+		try {
+			MiniClient client = new MiniClient();
+			client.setConnectorEndpoint(connector.getHttpEndpoint());
+			
+			Project project = createProject("ProjectA", getTestUser());
+			String path = mainPath + "projects/" + project.getId();
+			
+			// request the project without an ETag
+			System.out.println("1. Test without If-None-Match header");
+			ClientResponse result = client.sendRequest("GET", path, "", MediaType.APPLICATION_JSON, "", new HashMap<>());
+			assertEquals(200, result.getHttpCode());
+			String etag = result.getHeader("ETag");
+			assertTrue("Response does not contain an ETag.", etag != null);
+			System.out.println("Result of 'testGetProjectETag' without If-None-Match header: " + result.getResponse().trim());
+			System.out.println();
+			
+			// the project did not change, so it should not be sent again
+			System.out.println("2. Test with the ETag of the project");
+			HashMap<String, String> headers = new HashMap<>();
+			headers.put("If-None-Match", etag);
+			result = client.sendRequest("GET", path, "", MediaType.APPLICATION_JSON, "", headers);
+			assertEquals(304, result.getHttpCode());
+			assertEquals(etag, result.getHeader("ETag"));
+			System.out.println();
+			
+			// an unknown ETag does not match
+			System.out.println("3. Test with an unknown ETag");
+			headers.put("If-None-Match", "\"unknown\"");
+			result = client.sendRequest("GET", path, "", MediaType.APPLICATION_JSON, "", headers);
+			assertEquals(200, result.getHttpCode());
+			assertEquals(etag, result.getHeader("ETag"));
+			System.out.println();
+			
+			// after changing the project, the ETag does not match anymore
+			System.out.println("4. Test with the ETag of the project before it changed");
+			new Role(project.getId(), "TestRole", false).persist(connection);
+			headers.put("If-None-Match", etag);
+			result = client.sendRequest("GET", path, "", MediaType.APPLICATION_JSON, "", headers);
+			assertEquals(200, result.getHttpCode());
+			assertTrue("ETag did not change after the project changed.", !etag.equals(result.getHeader("ETag")));
+			System.out.println("Result of 'testGetProjectETag' with the ETag of the project before it changed: " + result.getResponse().trim());
+			System.out.println();
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail("Exception: " + e);
+		}
+	}
+	
+	/**
+	 * Tests the paginated GET method of /projects/{projectId}/changes.
+	 */
+	@Test
+	public void testGetProjectChanges() {
+		System.out.println("------------- Starting testGetProjectChanges() -------------");
+		try {
+			MiniClient client = new MiniClient();
+			client.setConnectorEndpoint(connector.getHttpEndpoint());
+			
+			// first test without auth
+			System.out.println("1. Test without auth");
+			ClientResponse result = client.sendRequest("GET", mainPath + "projects/1/changes", "");
+			// without auth this should not be possible
+			assertEquals(401, result.getHttpCode());
+			System.out.println("Result of 'testGetProjectChanges' without auth: " + result.getResponse().trim());
+			System.out.println();
+			
+			// try with auth now (project with id 1 should not exist)
+			client.setLogin(testAgent.getIdentifier(), testPass);
+			System.out.println("2. Test with auth but non-existing project");
+			result = client.sendRequest("GET", mainPath + "projects/1/changes", "");
+			assertEquals(404, result.getHttpCode());
+			System.out.println("Result of 'testGetProjectChanges' with auth but non-existing project: " + result.getResponse().trim());
+			System.out.println();
+			
+			// every predefined role and the membership of the user got recorded as a change
+			Project project = createProject("ProjectA", getTestUser());
+			int changeCount = PredefinedRoles.get(project.getId()).size() + 1;
+			
+			// load the changes page by page, by using the cursor of the previous page
+			System.out.println("3. Test with auth, loading the changes in pages of two changes");
+			int since = 0;
+			int pages = 0;
+			long lastRevision = 0;
+			while(true) {
+				result = client.sendRequest("GET", mainPath + "projects/" + project.getId() + "/changes?since=" + since + "&limit=2", "");
+				assertEquals(200, result.getHttpCode());
+				JSONArray changes = (JSONArray) JSONValue.parse(result.getResponse().trim());
+				assertTrue("Page contains more changes than requested.", changes.size() <= 2);
+				for(Object change : changes) {
+					long revision = (long) ((JSONObject) change).get("revision");
+					// the changes are ordered by their revision, without gaps
+					assertEquals(lastRevision + 1, revision);
+					lastRevision = revision;
+				}
+				pages++;
+				String nextCursor = result.getHeader("X-Next-Cursor");
+				if(nextCursor == null) break;
+				assertEquals(lastRevision, Long.parseLong(nextCursor));
+				since = Integer.parseInt(nextCursor);
+			}
+			assertEquals(changeCount, lastRevision);
+			assertEquals((changeCount + 1) / 2, pages);
+			System.out.println();
+			
+			// a client being up to date gets no changes
+			System.out.println("4. Test with auth and the current revision of the project");
+			result = client.sendRequest("GET", mainPath + "projects/" + project.getId() + "/changes?since=" + lastRevision, "");
+			assertEquals(200, result.getHttpCode());
+			assertEquals("[]", result.getResponse().trim());
+			assertTrue("Response contains a cursor, but there are no further changes.", result.getHeader("X-Next-Cursor") == null);
+			System.out.println();
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail("Exception: " + e);
+		}
+	}
+	
+	/**
+	 * Tests the GET method of /projects with and without pagination.
+	 */
+	@Test
+	public void testGetProjectsPagination() {
+		System.out.println("------------- Starting testGetProjectsPagination() -------------");
+		try {
+			MiniClient client = new MiniClient();
+			client.setConnectorEndpoint(connector.getHttpEndpoint());
+			client.setLogin(testAgent.getIdentifier(), testPass);
+			
+			User user = getTestUser();
+			createProject("ProjectA", user);
+			createProject("ProjectB", user);
+			
+			// without cursor and limit, all projects are returned at once (as before the pagination got added)
+			System.out.println("1. Test without cursor and limit");
+			ClientResponse result = client.sendRequest("GET", mainPath + "projects", "");
+			assertEquals(200, result.getHttpCode());
+			assertEquals(2, ((JSONArray) JSONValue.parse(result.getResponse().trim())).size());
+			assertTrue("Response contains a cursor, but there are no further projects.", result.getHeader("X-Next-Cursor") == null);
+			System.out.println();
+			
+			// with a limit, the cursor of the next page is returned and readable for cross-origin requests
+			System.out.println("2. Test with a limit of one project");
+			result = client.sendRequest("GET", mainPath + "projects?limit=1", "");
+			assertEquals(200, result.getHttpCode());
+			assertEquals(1, ((JSONArray) JSONValue.parse(result.getResponse().trim())).size());
+			String nextCursor = result.getHeader("X-Next-Cursor");
+			assertNotNull("Response contains no cursor for the second project.", nextCursor);
+			assertTrue(result.getHeader("Access-Control-Expose-Headers").contains("X-Next-Cursor"));
+			
+			result = client.sendRequest("GET", mainPath + "projects?limit=1&cursor=" + nextCursor, "");
+			assertEquals(200, result.getHttpCode());
+			assertEquals(1, ((JSONArray) JSONValue.parse(result.getResponse().trim())).size());
+			assertTrue("Response contains a cursor, but there are no further projects.", result.getHeader("X-Next-Cursor") == null);
+			System.out.println();
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail("Exception: " + e);
+		}
+	}
+	
+	/**
+	 * Creates a project with the predefined roles and the given user as its only member, who gets the default role.
+	 * The project is stored directly, since Project.persist() needs the context of the service and an OIDC
+	 * access token for creating the application component of the project.
+	 * @param projectName Name of the project.
+	 * @param member User that gets added to the project.
+	 * @return The stored project.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	private Project createProject(String projectName, User member) throws SQLException {
+		PreparedStatement statement = connection.prepareStatement("INSERT INTO Project (name) VALUES (?);", Statement.RETURN_GENERATED_KEYS);
+		statement.setString(1, projectName);
+		statement.executeUpdate();
+		ResultSet genKeys = statement.getGeneratedKeys();
+		genKeys.next();
+		int projectId = genKeys.getInt(1);
+		statement.close();
+		
+		Role.persistAll(PredefinedRoles.get(projectId), connection);
+		Project project = new Project(projectId, connection);
+		project.addUser(member, connection, true);
+		return project;
+	}
+	
+	/**
+	 * Returns the user of the testAgent. The user gets stored, if the service did not store it yet.
+	 * @return User of the testAgent.
+	 * @throws SQLException If something with the database went wrong.
+	 */
+	private User getTestUser() throws SQLException {
+		try {
+			return new User(testAgent.getEmail(), connection);
+		} catch (UserNotFoundException e) {
+			User user = new User(testAgent.getEmail(), testAgent.getLoginName());
+			user.persist(connection);
+			return user;
+		}
+	}
 }
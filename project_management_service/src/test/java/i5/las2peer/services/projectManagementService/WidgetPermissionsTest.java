@@ -0,0 +1,73 @@
+package i5.las2peer.services.projectManagementService;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.json.simple.JSONArray;
+import org.junit.Test;
+
+import i5.las2peer.services.projectManagementService.project.PredefinedRoles;
+import i5.las2peer.services.projectManagementService.project.WidgetPermissions;
+
+/**
+ * Tests compiling widget configs of roles into permission bitsets.
+ * Does not need a database or a running node.
+ */
+public class WidgetPermissionsTest {
+
+	/**
+	 * Every widget of the predefined "view all" config should be enabled.
+	 */
+	@Test
+	public void testCompileViewAll() {
+		long permissions = WidgetPermissions.compile(PredefinedRoles.VIEW_ALL);
+		for(String widget : WidgetPermissions.WIDGETS) {
+			assertTrue(widget + " is not enabled.", WidgetPermissions.isEnabled(permissions, widget));
+		}
+		assertEquals(WidgetPermissions.WIDGETS.size(), WidgetPermissions.toJSONArray(permissions).size());
+	}
+
+	/**
+	 * Only the widgets which are enabled in the config should be enabled in the bitset.
+	 */
+	@Test
+	public void testCompileView1() {
+		long permissions = WidgetPermissions.compile(PredefinedRoles.VIEW_1);
+		assertTrue(WidgetPermissions.isEnabled(permissions, "Frontend Modeling/Wireframe"));
+		assertTrue(WidgetPermissions.isEnabled(permissions, "Frontend Modeling/Live Preview"));
+		assertFalse(WidgetPermissions.isEnabled(permissions, "Frontend Modeling/Code Editor"));
+		assertFalse(WidgetPermissions.isEnabled(permissions, "Microservice Modeling/Modeling"));
+		assertFalse(WidgetPermissions.isEnabled(permissions, "Application Mashup/Deployment"));
+
+		JSONArray enabled = WidgetPermissions.toJSONArray(permissions);
+		assertEquals(4, enabled.size());
+		assertEquals("Frontend Modeling/Wireframe", enabled.get(0));
+	}
+
+	/**
+	 * Widgets that are unknown, either in the config or when checking, should never be enabled.
+	 */
+	@Test
+	public void testUnknownWidgets() {
+		long permissions = WidgetPermissions.compile(
+				"{\"Frontend Modeling\":{\"widgets\":{\"Wireframe\":{\"enabled\":true},\"Unknown\":{\"enabled\":true}}},"
+				+ "\"Unknown View\":{\"widgets\":{\"Modeling\":{\"enabled\":true}}}}");
+		assertEquals(1L, permissions);
+		assertFalse(WidgetPermissions.isEnabled(permissions, "Frontend Modeling/Unknown"));
+		assertFalse(WidgetPermissions.isEnabled(-1L, "Unknown View/Modeling"));
+	}
+
+	/**
+	 * Configs that are missing or not valid should not enable any widget.
+	 */
+	@Test
+	public void testInvalidConfigs() {
+		assertEquals(0L, WidgetPermissions.compile(null));
+		assertEquals(0L, WidgetPermissions.compile("not json"));
+		assertEquals(0L, WidgetPermissions.compile("[]"));
+		assertEquals(0L, WidgetPermissions.compile("{\"Frontend Modeling\":{\"widgets\":{\"Wireframe\":true}}}"));
+		assertEquals(0L, WidgetPermissions.compile("{\"Frontend Modeling\":{}}"));
+	}
+
+}